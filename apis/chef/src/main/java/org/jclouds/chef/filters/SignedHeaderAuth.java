@@ -44,9 +44,11 @@ import org.jclouds.http.internal.SignatureWire;
 import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
+import org.jclouds.io.payloads.HashingPayload;
 import org.jclouds.io.payloads.MultipartForm;
 import org.jclouds.io.payloads.Part;
 import org.jclouds.io.payloads.RSAEncryptingPayload;
+import org.jclouds.io.payloads.StringPayload;
 import org.jclouds.logging.Logger;
 import org.jclouds.util.Strings2;
 
@@ -94,7 +96,14 @@ public class SignedHeaderAuth implements HttpRequestFilter {
    }
 
    public HttpRequest filter(HttpRequest input) throws HttpException {
-      HttpRequest request = input.toBuilder().endpoint(input.getEndpoint().toString().replace("%3F", "?")).build();
+      HttpRequest.Builder<?> builder = input.toBuilder().endpoint(input.getEndpoint().toString().replace("%3F", "?"));
+      Payload payload = input.getPayload();
+      if (payload != null && payload.isRepeatable() && !(payload instanceof HashingPayload)
+            && !(payload instanceof StringPayload) && !(payload instanceof MultipartForm)) {
+         // the SHA-1 is computed once when signing, and the content is not hashed again while it is sent
+         builder.payload(Payloads.newHashingPayload(payload, sha1()));
+      }
+      HttpRequest request = builder.build();
       String contentHash = hashBody(request.getPayload());
       Multimap<String, String> headers = ArrayListMultimap.create();
       headers.put("X-Ops-Content-Hash", contentHash);
@@ -161,6 +170,9 @@ public class SignedHeaderAuth implements HttpRequestFilter {
       checkArgument(payload != null, "payload was null");
       checkArgument(payload.isRepeatable(), "payload must be repeatable: " + payload);
       try {
+         if (payload instanceof HashingPayload && ((HashingPayload) payload).getHashFunctions().contains(sha1())) {
+            return base64().encode(((HashingPayload) payload).hash(sha1()).asBytes());
+         }
          return base64().encode(ByteStreams2.hashAndClose(payload.getInput(), sha1()).asBytes());
       } catch (Exception e) {
          Throwables.propagateIfPossible(e);
@@ -19,7 +19,6 @@ package org.jclouds.cloudstack.compute.config;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.cloudstack.config.CloudStackProperties.AUTO_GENERATE_KEYPAIRS;
-import static org.jclouds.util.Predicates2.retry;
 
 import java.util.Map;
 import java.util.Set;
@@ -69,7 +68,7 @@ import org.jclouds.cloudstack.functions.GetFirewallRulesByVirtualMachine;
 import org.jclouds.cloudstack.functions.GetIPForwardingRulesByVirtualMachine;
 import org.jclouds.cloudstack.functions.StaticNATVirtualMachineInNetwork;
 import org.jclouds.cloudstack.functions.ZoneIdToZone;
-import org.jclouds.cloudstack.predicates.JobComplete;
+import org.jclouds.cloudstack.strategy.AsyncJobTracker;
 import org.jclouds.cloudstack.suppliers.GetCurrentUser;
 import org.jclouds.cloudstack.suppliers.NetworksForCurrentUser;
 import org.jclouds.cloudstack.suppliers.ProjectsForCurrentUser;
@@ -236,8 +235,8 @@ public class CloudStackComputeServiceContextModule extends
 
    @Provides
    @Singleton
-   protected final Predicate<String> jobComplete(JobComplete jobComplete) {
-      return retry(jobComplete, 1200, 1, 5, SECONDS);
+   protected final Predicate<String> jobComplete(AsyncJobTracker jobTracker) {
+      return jobTracker.jobComplete(1200, SECONDS);
    }
 
    @Provides
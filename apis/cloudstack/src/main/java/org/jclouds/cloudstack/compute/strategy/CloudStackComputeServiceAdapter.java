@@ -74,6 +74,7 @@ import org.jclouds.cloudstack.options.CreateTagsOptions;
 import org.jclouds.cloudstack.options.DeployVirtualMachineOptions;
 import org.jclouds.cloudstack.options.ListFirewallRulesOptions;
 import org.jclouds.cloudstack.options.ListTemplatesOptions;
+import org.jclouds.cloudstack.strategy.AsyncJobTracker;
 import org.jclouds.cloudstack.strategy.BlockUntilJobCompletesAndReturnResult;
 import org.jclouds.collect.Memoized;
 import org.jclouds.compute.ComputeServiceAdapter;
@@ -98,6 +99,7 @@ public class CloudStackComputeServiceAdapter implements
 
    private final CloudStackApi client;
    private final Predicate<String> jobComplete;
+   private final AsyncJobTracker jobTracker;
    private final Supplier<Map<String, Network>> networkSupplier;
    private final Supplier<Map<String, Project>> projectSupplier;
    private final BlockUntilJobCompletesAndReturnResult blockUntilJobCompletesAndReturnResult;
@@ -115,6 +117,7 @@ public class CloudStackComputeServiceAdapter implements
 
    @Inject
    public CloudStackComputeServiceAdapter(CloudStackApi client, Predicate<String> jobComplete,
+                                          AsyncJobTracker jobTracker,
                                           @Memoized Supplier<Map<String, Network>> networkSupplier,
                                           @Memoized Supplier<Map<String, Project>> projectSupplier,
                                           BlockUntilJobCompletesAndReturnResult blockUntilJobCompletesAndReturnResult,
@@ -131,6 +134,7 @@ public class CloudStackComputeServiceAdapter implements
                                           GetLoginForProviderFromPropertiesAndStoreCredentialsOrReturnNull credentialsProvider) {
       this.client = checkNotNull(client, "client");
       this.jobComplete = checkNotNull(jobComplete, "jobComplete");
+      this.jobTracker = checkNotNull(jobTracker, "jobTracker");
       this.networkSupplier = checkNotNull(networkSupplier, "networkSupplier");
       this.projectSupplier = checkNotNull(projectSupplier, "projectSupplier");
       this.blockUntilJobCompletesAndReturnResult = checkNotNull(blockUntilJobCompletesAndReturnResult,
@@ -469,8 +473,17 @@ public class CloudStackComputeServiceAdapter implements
 
    public void awaitCompletion(Iterable<String> jobs) {
       logger.debug(">> awaiting completion of jobs(%s)", jobs);
+      // track all jobs up front so that they are polled together rather than one after another
       for (String job : jobs)
-         awaitCompletion(job);
+         jobTracker.track(job);
+      try {
+         for (String job : jobs)
+            awaitCompletion(job);
+      } finally {
+         // the jobs after one which failed are not awaited, and would otherwise stay tracked
+         for (String job : jobs)
+            jobTracker.untrack(job);
+      }
       logger.trace("<< completed jobs(%s)", jobs);
    }
 
@@ -46,6 +46,12 @@ public final class CloudStackProperties {
     */
    public static final String AUTO_GENERATE_KEYPAIRS = "jclouds.cloudstack.auto-generate-keypairs";
 
+   /**
+    * Milliseconds between polls of the async jobs awaited by the compute service. All outstanding jobs are checked
+    * with a single {@code listAsyncJobs} call per poll.
+    */
+   public static final String ASYNC_JOB_POLL_PERIOD = "jclouds.cloudstack.async-job-poll-period";
+
    private CloudStackProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.loadbalancer.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.VirtualMachine;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.loadbalancer.strategy.impl.UpdateLoadBalancerNodesInBatches;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Updates the virtual machines assigned to a load balancer rule, whose id is the id of the load balancer. Nodes are
+ * members by the id of their virtual machine; the port is that of the rule.
+ */
+@Singleton
+public class CloudStackUpdateLoadBalancerNodesStrategy extends UpdateLoadBalancerNodesInBatches {
+
+   /**
+    * Keeps the list of virtual machine ids of a request to a reasonable URL length.
+    */
+   public static final int MAX_NODES_PER_REQUEST = 50;
+
+   protected final CloudStackApi client;
+   protected final Predicate<String> jobComplete;
+
+   @Inject
+   public CloudStackUpdateLoadBalancerNodesStrategy(CloudStackApi client, Predicate<String> jobComplete) {
+      super(MAX_NODES_PER_REQUEST);
+      this.client = checkNotNull(client, "client");
+      this.jobComplete = checkNotNull(jobComplete, "jobComplete");
+   }
+
+   @Override
+   protected Map<String, String> listMembers(String id) {
+      ImmutableMap.Builder<String, String> members = ImmutableMap.builder();
+      for (VirtualMachine vm : client.getLoadBalancerApi().listVirtualMachinesAssignedToLoadBalancerRule(id))
+         members.put(vm.getId(), vm.getId());
+      return members.build();
+   }
+
+   @Override
+   protected String memberKey(NodeMetadata node, int instancePort) {
+      return node.getId();
+   }
+
+   @Override
+   protected void addMembers(String id, int instancePort, List<NodeMetadata> nodes) {
+      List<String> vmIds = Lists.newArrayList();
+      for (NodeMetadata node : nodes)
+         vmIds.add(memberKey(node, instancePort));
+      awaitJob(id, client.getLoadBalancerApi().assignVirtualMachinesToLoadBalancerRule(id, vmIds));
+   }
+
+   @Override
+   protected void removeMembers(String id, List<String> memberIds) {
+      awaitJob(id, client.getLoadBalancerApi().removeVirtualMachinesFromLoadBalancerRule(id, memberIds));
+   }
+
+   private void awaitJob(String id, String jobId) {
+      checkState(jobId != null, "load balancer rule(%s) not found", id);
+      checkState(jobComplete.apply(jobId), "job(%s) updating load balancer rule(%s) failed to complete in time", jobId,
+            id);
+   }
+}
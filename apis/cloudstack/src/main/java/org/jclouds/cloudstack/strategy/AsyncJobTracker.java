@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.cloudstack.config.CloudStackProperties.ASYNC_JOB_POLL_PERIOD;
+import static org.jclouds.cloudstack.options.ListAsyncJobsOptions.Builder.accountInDomain;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.cloudstack.domain.User;
+import org.jclouds.collect.Memoized;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Tracks the completion of all outstanding async jobs of the current account with a single poller.
+ * <p/>
+ * Instead of querying each job separately, one of the threads waiting in
+ * {@link #awaitCompletion(String, long, TimeUnit)} issues a {@code listAsyncJobs} call for the account of the current
+ * user per poll period and
+ * completes the futures of every job it finds finished. Jobs that are not part of the listing are queried
+ * individually. Futures returned by {@link #track(String)} are only completed while some thread awaits completion,
+ * so no background threads are needed.
+ */
+@Singleton
+public class AsyncJobTracker {
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final CloudStackApi client;
+   private final Supplier<User> currentUser;
+   private final long pollPeriodMillis;
+   // finished jobs stay until awaited, so that jobs completed by another thread's poll are not queried again
+   private final ConcurrentMap<String, SettableFuture<AsyncJob<?>>> outstanding = Maps.newConcurrentMap();
+   private final Lock pollLock = new ReentrantLock();
+   private volatile long lastPoll;
+
+   @Inject
+   public AsyncJobTracker(CloudStackApi client, @Memoized Supplier<User> currentUser,
+         @Named(ASYNC_JOB_POLL_PERIOD) long pollPeriodMillis) {
+      this.client = checkNotNull(client, "client");
+      this.currentUser = checkNotNull(currentUser, "currentUser");
+      this.pollPeriodMillis = pollPeriodMillis;
+   }
+
+   /**
+    * Starts tracking a job, if not already tracked.
+    *
+    * @return a future holding the finished job, which may have failed
+    */
+   public ListenableFuture<AsyncJob<?>> track(String jobId) {
+      checkNotNull(jobId, "jobId");
+      SettableFuture<AsyncJob<?>> future = SettableFuture.create();
+      SettableFuture<AsyncJob<?>> existing = outstanding.putIfAbsent(jobId, future);
+      return existing != null ? existing : future;
+   }
+
+   /**
+    * Stops tracking a job which will not be awaited, such as when waiting for an earlier job failed.
+    */
+   public void untrack(String jobId) {
+      outstanding.remove(checkNotNull(jobId, "jobId"));
+   }
+
+   /**
+    * Waits for a job to finish, polling on behalf of all tracked jobs while waiting.
+    *
+    * @return true if the job succeeded, false if it did not finish in time
+    * @throws AsyncJobException
+    *            if the job failed
+    */
+   public boolean awaitCompletion(String jobId, long timeout, TimeUnit unit) {
+      ListenableFuture<AsyncJob<?>> future = track(jobId);
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      while (!future.isDone()) {
+         long remaining = deadline - System.nanoTime();
+         if (remaining <= 0) {
+            outstanding.remove(jobId, future);
+            return false;
+         }
+         pollIfDue();
+         try {
+            Uninterruptibles.getUninterruptibly(future,
+                  Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(pollPeriodMillis)), TimeUnit.NANOSECONDS);
+         } catch (TimeoutException te) {
+            // poll again
+         } catch (ExecutionException ee) {
+            throw new AsyncJobException(String.format("job %s could not be polled: %s", jobId, ee.getCause()));
+         }
+      }
+      outstanding.remove(jobId, future);
+      AsyncJob<?> job = Futures.getUnchecked(future);
+      if (job.hasFailed()) {
+         throw new AsyncJobException(String.format("job %s failed with exception %s", job.toString(),
+               job.getError()));
+      }
+      return job.hasSucceed();
+   }
+
+   /**
+    * @return a predicate with the semantics of {@link org.jclouds.cloudstack.predicates.JobComplete} retried until
+    *         the timeout, backed by this tracker
+    */
+   public Predicate<String> jobComplete(final long timeout, final TimeUnit unit) {
+      return new Predicate<String>() {
+         @Override
+         public boolean apply(String jobId) {
+            return awaitCompletion(jobId, timeout, unit);
+         }
+
+         @Override
+         public String toString() {
+            return "jobComplete(" + timeout + " " + unit + ")";
+         }
+      };
+   }
+
+   private void pollIfDue() {
+      if (!pollLock.tryLock()) {
+         return;
+      }
+      try {
+         if (System.currentTimeMillis() - lastPoll < pollPeriodMillis) {
+            return;
+         }
+         try {
+            poll();
+         } finally {
+            lastPoll = System.currentTimeMillis();
+         }
+      } catch (RuntimeException e) {
+         logger.warn(e, "error polling async jobs %s", outstanding.keySet());
+      } finally {
+         pollLock.unlock();
+      }
+   }
+
+   private void poll() {
+      ImmutableSet.Builder<String> pending = ImmutableSet.builder();
+      for (Map.Entry<String, SettableFuture<AsyncJob<?>>> entry : outstanding.entrySet()) {
+         if (!entry.getValue().isDone()) {
+            pending.add(entry.getKey());
+         }
+      }
+      Set<String> jobIds = pending.build();
+      if (jobIds.isEmpty()) {
+         return;
+      }
+      Map<String, AsyncJob<?>> listed = Maps.newHashMap();
+      if (jobIds.size() > 1) {
+         logger.trace(">> listing async jobs to poll %d jobs", jobIds.size());
+         User user = currentUser.get();
+         for (AsyncJob<?> job : client.getAsyncJobApi().listAsyncJobs(
+               accountInDomain(user.getAccount(), user.getDomainId()))) {
+            listed.put(job.getId(), job);
+         }
+      }
+      for (String jobId : jobIds) {
+         AsyncJob<?> job = listed.get(jobId);
+         if (job != null && job.getStatus() == AsyncJob.Status.IN_PROGRESS) {
+            continue;
+         }
+         if (job == null || !(job.hasSucceed() || job.hasFailed())) {
+            // not part of the listing, or listed without a conclusive result
+            job = client.getAsyncJobApi().getAsyncJob(jobId);
+         }
+         if (job != null && (job.hasSucceed() || job.hasFailed())) {
+            logger.trace("<< job(%s) finished with status %s", jobId, job.getStatus());
+            SettableFuture<AsyncJob<?>> future = outstanding.get(jobId);
+            if (future != null) {
+               future.set(job);
+            }
+         }
+      }
+   }
+}
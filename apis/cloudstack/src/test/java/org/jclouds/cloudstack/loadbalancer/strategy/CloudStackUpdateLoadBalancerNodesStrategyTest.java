@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.loadbalancer.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.VirtualMachine;
+import org.jclouds.cloudstack.features.LoadBalancerApi;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", testName = "CloudStackUpdateLoadBalancerNodesStrategyTest")
+public class CloudStackUpdateLoadBalancerNodesStrategyTest {
+
+   private static NodeMetadata node(String id) {
+      return new NodeMetadataBuilder().id(id).status(NodeMetadata.Status.RUNNING).build();
+   }
+
+   @SuppressWarnings("unchecked")
+   public void testAssignsAndRemovesOnlyChangedVirtualMachines() {
+      CloudStackApi client = createMock(CloudStackApi.class);
+      LoadBalancerApi lbApi = createMock(LoadBalancerApi.class);
+      Predicate<String> jobComplete = createMock(Predicate.class);
+
+      expect(client.getLoadBalancerApi()).andReturn(lbApi).anyTimes();
+      expect(lbApi.listVirtualMachinesAssignedToLoadBalancerRule("rule-1")).andReturn(
+            ImmutableSet.of(VirtualMachine.builder().id("vm-1").build(), VirtualMachine.builder().id("vm-2").build()));
+      expect(lbApi.assignVirtualMachinesToLoadBalancerRule("rule-1", ImmutableList.of("vm-3"))).andReturn("job-1");
+      expect(jobComplete.apply("job-1")).andReturn(true);
+      expect(lbApi.removeVirtualMachinesFromLoadBalancerRule("rule-1", ImmutableList.of("vm-1"))).andReturn("job-2");
+      expect(jobComplete.apply("job-2")).andReturn(true);
+      replay(client, lbApi, jobComplete);
+
+      new CloudStackUpdateLoadBalancerNodesStrategy(client, jobComplete).updateLoadBalancerNodes("rule-1", 80,
+            ImmutableList.of(node("vm-2"), node("vm-3")));
+
+      verify(client, lbApi, jobComplete);
+   }
+
+   @SuppressWarnings("unchecked")
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testJobThatDoesNotCompleteFails() {
+      CloudStackApi client = createMock(CloudStackApi.class);
+      LoadBalancerApi lbApi = createMock(LoadBalancerApi.class);
+      Predicate<String> jobComplete = createMock(Predicate.class);
+
+      expect(client.getLoadBalancerApi()).andReturn(lbApi).anyTimes();
+      expect(lbApi.listVirtualMachinesAssignedToLoadBalancerRule("rule-1")).andReturn(
+            ImmutableSet.<VirtualMachine> of());
+      expect(lbApi.assignVirtualMachinesToLoadBalancerRule("rule-1", ImmutableList.of("vm-1"))).andReturn("job-1");
+      expect(jobComplete.apply("job-1")).andReturn(false);
+      replay(client, lbApi, jobComplete);
+
+      new CloudStackUpdateLoadBalancerNodesStrategy(client, jobComplete).updateLoadBalancerNodes("rule-1", 80,
+            ImmutableList.of(node("vm-1")));
+   }
+}
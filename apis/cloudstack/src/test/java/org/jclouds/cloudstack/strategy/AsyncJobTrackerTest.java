@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.cloudstack.options.ListAsyncJobsOptions.Builder.accountInDomain;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.cloudstack.domain.AsyncJob.ResultCode;
+import org.jclouds.cloudstack.domain.AsyncJob.Status;
+import org.jclouds.cloudstack.domain.AsyncJobError;
+import org.jclouds.cloudstack.domain.AsyncJobError.ErrorCode;
+import org.jclouds.cloudstack.domain.User;
+import org.jclouds.cloudstack.features.AsyncJobApi;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", singleThreaded = true, testName = "AsyncJobTrackerTest")
+public class AsyncJobTrackerTest {
+
+   CloudStackApi client;
+   AsyncJobApi asyncJobClient;
+   Supplier<User> currentUser = Suppliers.ofInstance(User.builder().id("1").account("adrian").domainId("10").build());
+
+   @BeforeMethod
+   public void setUp() {
+      client = createMock(CloudStackApi.class);
+      asyncJobClient = createMock(AsyncJobApi.class);
+
+      expect(client.getAsyncJobApi()).andReturn(asyncJobClient).anyTimes();
+   }
+
+   public void testOutstandingJobsArePolledWithOneListing() {
+      AsyncJob<?> job1 = AsyncJob.builder().id("100").status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+      AsyncJob<?> job2 = AsyncJob.builder().id("101").status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+      AsyncJob<?> other = AsyncJob.builder().id("102").status(Status.IN_PROGRESS).build();
+      expect(asyncJobClient.listAsyncJobs(accountInDomain("adrian", "10"))).andReturn(ImmutableSet.<AsyncJob<?>> of(job1, job2, other));
+
+      replay(client, asyncJobClient);
+      AsyncJobTracker tracker = new AsyncJobTracker(client, currentUser, 10);
+      tracker.track(job1.getId());
+      tracker.track(job2.getId());
+      assertTrue(tracker.awaitCompletion(job1.getId(), 1, TimeUnit.SECONDS));
+      assertTrue(tracker.awaitCompletion(job2.getId(), 1, TimeUnit.SECONDS));
+      verify(client, asyncJobClient);
+   }
+
+   public void testSingleJobIsQueriedDirectly() {
+      AsyncJob<?> inProgress = AsyncJob.builder().id("100").status(Status.IN_PROGRESS).build();
+      AsyncJob<?> done = AsyncJob.builder().id("100").status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+      expect((Object) asyncJobClient.getAsyncJob("100")).andReturn(inProgress);
+      expect((Object) asyncJobClient.getAsyncJob("100")).andReturn(done);
+
+      replay(client, asyncJobClient);
+      assertTrue(new AsyncJobTracker(client, currentUser, 10).awaitCompletion("100", 1, TimeUnit.SECONDS));
+      verify(client, asyncJobClient);
+   }
+
+   public void testUntrackedJobIsNotPolled() {
+      AsyncJob<?> done = AsyncJob.builder().id("101").status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+      // the only outstanding job is queried directly, rather than listing the jobs of the account
+      expect((Object) asyncJobClient.getAsyncJob("101")).andReturn(done);
+
+      replay(client, asyncJobClient);
+      AsyncJobTracker tracker = new AsyncJobTracker(client, currentUser, 10);
+      tracker.track("100");
+      tracker.untrack("100");
+      assertTrue(tracker.awaitCompletion("101", 1, TimeUnit.SECONDS));
+      verify(client, asyncJobClient);
+   }
+
+   public void testTimeout() {
+      AsyncJob<?> inProgress = AsyncJob.builder().id("100").status(Status.IN_PROGRESS).build();
+      expect((Object) asyncJobClient.getAsyncJob("100")).andReturn(inProgress).atLeastOnce();
+
+      replay(client, asyncJobClient);
+      assertFalse(new AsyncJobTracker(client, currentUser, 10).awaitCompletion("100", 50, TimeUnit.MILLISECONDS));
+      verify(client, asyncJobClient);
+   }
+
+   public void testFailedJob() {
+      AsyncJob<?> job = AsyncJob.builder().id("100").status(Status.FAILED).resultCode(ResultCode.FAIL)
+            .error(AsyncJobError.builder().errorCode(ErrorCode.INTERNAL_ERROR).errorText("Dummy test error").build())
+            .build();
+      expect((Object) asyncJobClient.getAsyncJob(job.getId())).andReturn(job);
+
+      replay(client, asyncJobClient);
+      try {
+         new AsyncJobTracker(client, currentUser, 10).awaitCompletion(job.getId(), 1, TimeUnit.SECONDS);
+         fail("No exception thrown");
+      } catch (AsyncJobException e) {
+         assertTrue(e.toString().contains("Dummy test error"));
+      }
+      verify(client, asyncJobClient);
+   }
+}
@@ -19,6 +19,7 @@ package org.jclouds.ec2.compute.config;
 import static com.google.common.collect.Iterables.toArray;
 import static org.jclouds.ec2.reference.EC2Constants.PROPERTY_EC2_AMI_OWNERS;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
@@ -119,6 +120,21 @@ public class EC2ComputeServiceContextModule extends BaseComputeServiceContextMod
             return new SetAndThrowAuthorizationExceptionSupplier<Image>(rawSupplier, authException).get();
          }
 
+         @Override
+         public Map<RegionAndName, Image> loadAll(final Iterable<? extends RegionAndName> keys) throws Exception {
+            Supplier<Map<RegionAndName, Image>> rawSupplier = new Supplier<Map<RegionAndName, Image>>() {
+               @Override public Map<RegionAndName, Image> get() {
+                  try {
+                     return delegate.loadAll(keys);
+                  } catch (ExecutionException e) {
+                     throw Throwables.propagate(e);
+                  }
+               }
+            };
+            return new SetAndThrowAuthorizationExceptionSupplier<Map<RegionAndName, Image>>(rawSupplier,
+                  authException).get();
+         }
+
       });
    }
 
@@ -62,6 +62,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
@@ -78,6 +79,8 @@ public class RunningInstanceToNodeMetadata implements Function<RunningInstance,
    protected final Map<String, Credentials> credentialStore;
    protected final Map<InstanceState, Status> instanceToNodeStatus;
    protected final GroupNamingConvention.Factory namingConvention;
+   private final IdIndex<Hardware> hardwareById;
+   private final IdIndex<Location> locationsById;
 
    @Inject
    protected RunningInstanceToNodeMetadata(Map<InstanceState, Status> instanceToNodeStatus,
@@ -90,6 +93,18 @@ public class RunningInstanceToNodeMetadata implements Function<RunningInstance,
       this.instanceToNodeStatus = checkNotNull(instanceToNodeStatus, "instanceToNodeStatus");
       this.credentialStore = checkNotNull(credentialStore, "credentialStore");
       this.namingConvention = checkNotNull(namingConvention, "namingConvention");
+      this.hardwareById = new IdIndex<Hardware>(hardware) {
+         @Override
+         String idOf(Hardware value) {
+            return value.getId();
+         }
+      };
+      this.locationsById = new IdIndex<Location>(locations) {
+         @Override
+         String idOf(Location value) {
+            return value.getId();
+         }
+      };
    }
 
    @Override
@@ -209,19 +224,10 @@ public class RunningInstanceToNodeMetadata implements Function<RunningInstance,
 
    @VisibleForTesting
    Hardware getHardwareForInstance(final RunningInstance instance) {
-      try {
-         return Iterables.find(hardware.get(), new Predicate<Hardware>() {
-
-            @Override
-            public boolean apply(Hardware input) {
-               return input.getId().equals(instance.getInstanceType());
-            }
-
-         });
-      } catch (NoSuchElementException e) {
-         logger.debug("couldn't match instance type %s in: %s", instance.getInstanceType(), hardware.get());
-         return null;
-      }
+      Hardware hardware = hardwareById.get(instance.getInstanceType());
+      if (hardware == null)
+         logger.debug("couldn't match instance type %s in: %s", instance.getInstanceType(), this.hardware.get());
+      return hardware;
    }
 
    private Location getLocationForAvailabilityZoneOrRegion(final RunningInstance instance) {
@@ -234,20 +240,40 @@ public class RunningInstanceToNodeMetadata implements Function<RunningInstance,
    private Location findLocationWithId(final String locationId) {
       if (locationId == null)
          return null;
-      try {
-         Location location = Iterables.find(locations.get(), new Predicate<Location>() {
+      Location location = locationsById.get(locationId);
+      if (location == null)
+         logger.debug("couldn't match instance location %s in: %s", locationId, locations.get());
+      return location;
+   }
 
-            @Override
-            public boolean apply(Location input) {
-               return input.getId().equals(locationId);
-            }
+   /**
+    * Indexes the values of a memoized supplier by id. The index is built again only when the supplier returns another
+    * set, so that converting many instances does not scan the hardware and locations for each of them.
+    */
+   private abstract static class IdIndex<T> {
+      private final Supplier<Set<? extends T>> values;
+      private volatile Entry<Set<? extends T>, Map<String, T>> index;
 
-         });
-         return location;
+      IdIndex(Supplier<Set<? extends T>> values) {
+         this.values = values;
+      }
 
-      } catch (NoSuchElementException e) {
-         logger.debug("couldn't match instance location %s in: %s", locationId, locations.get());
-         return null;
+      abstract String idOf(T value);
+
+      T get(String id) {
+         Set<? extends T> current = values.get();
+         Entry<Set<? extends T>, Map<String, T>> index = this.index;
+         if (index == null || index.getKey() != current) {
+            Map<String, T> byId = Maps.newHashMapWithExpectedSize(current.size());
+            for (T value : current) {
+               // like a search in order, the first value with an id wins
+               if (!byId.containsKey(idOf(value)))
+                  byId.put(idOf(value), value);
+            }
+            index = Maps.immutableEntry(current, byId);
+            this.index = index;
+         }
+         return index.getValue().get(id);
       }
    }
 
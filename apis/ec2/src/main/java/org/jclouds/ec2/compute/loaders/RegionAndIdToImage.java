@@ -18,6 +18,9 @@ package org.jclouds.ec2.compute.loaders;
 
 import static org.jclouds.ec2.options.DescribeImagesOptions.Builder.imageIds;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 import javax.annotation.Resource;
@@ -32,9 +35,15 @@ import org.jclouds.logging.Logger;
 
 import com.google.common.cache.CacheLoader;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 
 @Singleton
 public class RegionAndIdToImage extends CacheLoader<RegionAndName, Image> {
+   /** Keeps the query string of a batched DescribeImages request reasonably short. */
+   private static final int MAX_IMAGES_PER_REQUEST = 100;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
@@ -58,6 +67,34 @@ public class RegionAndIdToImage extends CacheLoader<RegionAndName, Image> {
       }
    }
 
+   /**
+    * Looks up the images with one request for each region, rather than one for each image. Images which are not found
+    * are left out of the result.
+    */
+   @Override
+   public Map<RegionAndName, Image> loadAll(Iterable<? extends RegionAndName> keys) throws ExecutionException {
+      Multimap<String, String> idsByRegion = LinkedHashMultimap.create();
+      for (RegionAndName key : keys)
+         idsByRegion.put(key.getRegion(), key.getName());
+      Map<RegionAndName, Image> images = Maps.newLinkedHashMap();
+      for (Map.Entry<String, Collection<String>> region : idsByRegion.asMap().entrySet()) {
+         for (List<String> ids : Iterables.partition(region.getValue(), MAX_IMAGES_PER_REQUEST)) {
+            try {
+               for (org.jclouds.ec2.domain.Image image : sync.getAMIApi().get()
+                     .describeImagesInRegion(region.getKey(), imageIds(Iterables.toArray(ids, String.class)))) {
+                  Image parsed = parser.apply(image);
+                  if (parsed != null)
+                     images.put(new RegionAndName(region.getKey(), image.getId()), parsed);
+               }
+            } catch (Exception e) {
+               throw new ExecutionException(String.format("could not find images %s in %s: %s", ids, region.getKey(),
+                     e.getMessage()), e);
+            }
+         }
+      }
+      return images;
+   }
+
    public static String message(RegionAndName key, Exception e) {
       return String.format("could not find image %s/%s: %s", key.getRegion(), key.getName(), e.getMessage());
    }
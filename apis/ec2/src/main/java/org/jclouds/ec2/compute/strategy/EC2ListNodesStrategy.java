@@ -18,17 +18,17 @@ package org.jclouds.ec2.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Predicates.and;
-import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.collect.Multimaps.filterKeys;
-import static com.google.common.collect.Multimaps.index;
-import static com.google.common.collect.Multimaps.transformValues;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -37,22 +37,38 @@ import javax.inject.Singleton;
 import org.jclouds.Constants;
 import org.jclouds.aws.util.AWSUtils;
 import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.predicates.NodeFilter;
 import org.jclouds.compute.predicates.NodePredicates;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.compute.domain.RegionAndName;
 import org.jclouds.ec2.domain.Reservation;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 
 @Singleton
@@ -70,15 +86,21 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
    protected final Supplier<Set<String>> regions;
    protected final Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata;
    protected final ListeningExecutorService userExecutor;
+   protected final GroupNamingConvention.Factory namingConvention;
+   protected final Supplier<LoadingCache<RegionAndName, ? extends Image>> imageMap;
 
    @Inject
    protected EC2ListNodesStrategy(EC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
-            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            GroupNamingConvention.Factory namingConvention,
+            Supplier<LoadingCache<RegionAndName, ? extends Image>> imageMap) {
       this.client =  checkNotNull(client, "client");
       this.regions =  checkNotNull(regions, "regions");
       this.runningInstanceToNodeMetadata = checkNotNull(runningInstanceToNodeMetadata, "runningInstanceToNodeMetadata");
       this.userExecutor =  checkNotNull(userExecutor, "userExecutor");
+      this.namingConvention = checkNotNull(namingConvention, "namingConvention");
+      this.imageMap = checkNotNull(imageMap, "imageMap");
    }
 
    @Override
@@ -88,40 +110,218 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
 
    @Override
    public Set<? extends NodeMetadata> listNodesByIds(Iterable<String> ids) {
-      Multimap<String, String> idsByHandles = index(ids, splitHandle(1));
-      Multimap<String, String> idsByRegions = transformValues(idsByHandles, splitHandle(0));
-      Multimap<String, String> idsByConfiguredRegions = filterKeys(idsByRegions, in(regions.get()));
+      Multimap<String, String> idsByConfiguredRegions = idsByRegions(ids, regions.get());
 
       if (idsByConfiguredRegions.isEmpty()) {
          return ImmutableSet.of();
       }
       
-      Iterable<? extends RunningInstance> instances = pollRunningInstancesByRegionsAndIds(idsByConfiguredRegions);
-      Iterable<? extends NodeMetadata> nodes = transform(filter(instances, notNull()),
-                                                         runningInstanceToNodeMetadata);
+      Iterable<? extends RunningInstance> instances = prefetchImages(
+               pollRunningInstancesByRegionsAndIds(idsByConfiguredRegions));
+      Iterable<? extends NodeMetadata> nodes = transform(instances, runningInstanceToNodeMetadata);
       return ImmutableSet.copyOf(nodes);
    }
 
    @Override
    public Set<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<? super NodeMetadata> filter) {
-      Iterable<? extends RunningInstance> instances = pollRunningInstances();
-      Iterable<? extends NodeMetadata> nodes = filter(transform(filter(instances, notNull()),
-               runningInstanceToNodeMetadata), and(notNull(), filter));
+      Optional<NodeFilter> query = NodeFilter.from(filter);
+      // the query only narrows what is listed, the filter still decides which nodes match
+      Iterable<? extends RunningInstance> instances = prefetchImages(query.isPresent()
+               ? pollRunningInstances(query.get()) : pollRunningInstances());
+      Iterable<? extends NodeMetadata> nodes = filter(transform(instances, runningInstanceToNodeMetadata),
+               and(notNull(), filter));
       return ImmutableSet.copyOf(nodes);
    }
 
+   /**
+    * Loads the images of the instances which are not cached yet, with one request per region, so that the conversion
+    * of the instances does not look them up one at a time. Images which cannot be loaded this way are left to the
+    * conversion.
+    *
+    * @return the instances, without nulls
+    */
+   protected List<RunningInstance> prefetchImages(Iterable<? extends RunningInstance> instances) {
+      List<RunningInstance> polled = ImmutableList.copyOf(filter(instances, notNull()));
+      LoadingCache<RegionAndName, ? extends Image> cache = imageMap.get();
+      Set<RegionAndName> missing = Sets.newLinkedHashSet();
+      for (RunningInstance instance : polled) {
+         RegionAndName key = new RegionAndName(instance.getRegion(), instance.getImageId());
+         if (instance.getImageId() != null && cache.getIfPresent(key) == null)
+            missing.add(key);
+      }
+      // a single image is looked up just as well by the conversion
+      if (missing.size() > 1) {
+         try {
+            cache.getAll(missing);
+         } catch (InvalidCacheLoadException e) {
+            logger.debug("some images of the instances were not found: %s", e.getMessage());
+         } catch (ExecutionException e) {
+            logger.debug("error getting the images of the instances: %s", e.getMessage());
+         } catch (UncheckedExecutionException e) {
+            logger.debug("error getting the images of the instances: %s", e.getMessage());
+         }
+      }
+      return polled;
+   }
+
    protected Iterable<? extends RunningInstance> pollRunningInstances() {
-      Iterable<? extends Set<? extends Reservation<? extends RunningInstance>>> reservations
-         = transform(regions.get(), allInstancesInRegion());
+      Iterable<Reservation<? extends RunningInstance>> reservations =
+               this.<Reservation<? extends RunningInstance>> pollRegions(regions.get(), allInstancesInRegion());
       
-      return concat(concat(reservations));
+      return concat(reservations);
+   }
+
+   /**
+    * Calls the function for each region concurrently on the user executor, and waits for all of the results. The
+    * calling thread polls the regions the executor has not started yet, so that it only waits for polls which are
+    * running. Callers may themselves run on the user executor, and could otherwise wait for tasks queued behind them.
+    */
+   protected <T> List<T> pollRegions(Iterable<String> regions,
+            final Function<String, ? extends Iterable<? extends T>> poll) {
+      List<RegionPoll<T>> polls = Lists.newArrayList();
+      for (String region : regions) {
+         RegionPoll<T> regionPoll = new RegionPoll<T>(region, poll);
+         polls.add(regionPoll);
+         userExecutor.execute(regionPoll);
+      }
+      for (RegionPoll<T> regionPoll : polls) {
+         regionPoll.run();
+      }
+      ImmutableList.Builder<T> results = ImmutableList.builder();
+      try {
+         for (RegionPoll<T> regionPoll : polls) {
+            results.addAll(regionPoll.result.get());
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+      return results.build();
+   }
+
+   /**
+    * Polls a region once, on whichever thread runs it first.
+    */
+   private static final class RegionPoll<T> implements Runnable {
+      private final String region;
+      private final Function<String, ? extends Iterable<? extends T>> poll;
+      private final AtomicBoolean started = new AtomicBoolean();
+      private final SettableFuture<Iterable<? extends T>> result = SettableFuture.create();
+
+      private RegionPoll(String region, Function<String, ? extends Iterable<? extends T>> poll) {
+         this.region = region;
+         this.poll = poll;
+      }
+
+      @Override
+      public void run() {
+         if (!started.compareAndSet(false, true)) {
+            return;
+         }
+         try {
+            result.set(poll.apply(region));
+         } catch (Throwable t) {
+            result.setException(t);
+         }
+      }
+   }
+
+   /**
+    * Lists the instances which may match the filter: the instances with the given ids, or the instances of the region
+    * of its location which pass the DescribeInstances filters for its status and group. The instances are not filtered
+    * further, so the result may include instances which do not match.
+    */
+   protected Iterable<? extends RunningInstance> pollRunningInstances(NodeFilter filter) {
+      if (filter.getIds().isPresent()) {
+         return pollRunningInstancesByRegionsAndIds(idsByRegions(filter.getIds().get(), regionsOf(filter)));
+      }
+      Set<String> regionIds = regionsOf(filter);
+      ImmutableMultimap.Builder<String, String> describeFilter = ImmutableMultimap.builder();
+      if (filter.getLocationId().isPresent() && !regionIds.contains(filter.getLocationId().get())) {
+         describeFilter.put("availability-zone", filter.getLocationId().get());
+      }
+      if (filter.getStatus().isPresent() && filter.getStatus().get() == Status.RUNNING) {
+         describeFilter.put("instance-state-name", "running");
+      }
+      Optional<String> sharedName = sharedNameForGroup(filter);
+      if (!sharedName.isPresent()) {
+         return pollRunningInstancesByRegionsAndFilter(regionIds, describeFilter.build());
+      }
+      // the group is parsed from the security groups of the instance or, when none matches, from its key pair
+      String pattern = sharedName.get() + "*";
+      Iterable<? extends RunningInstance> bySecurityGroup = pollRunningInstancesByRegionsAndFilter(regionIds,
+               ImmutableMultimap.<String, String> builder().putAll(describeFilter.build())
+                        .put("instance.group-name", pattern).build());
+      Iterable<? extends RunningInstance> byKeyPair = pollRunningInstancesByRegionsAndFilter(regionIds,
+               ImmutableMultimap.<String, String> builder().putAll(describeFilter.build())
+                        .put("key-name", pattern).build());
+      return uniqueIndex(concat(bySecurityGroup, byKeyPair));
+   }
+
+   /**
+    * @return the region of the location of the filter, or all regions when the filter has no location or it is a zone
+    */
+   protected Set<String> regionsOf(NodeFilter filter) {
+      Set<String> regions = this.regions.get();
+      if (filter.getLocationId().isPresent() && regions.contains(filter.getLocationId().get())) {
+         return ImmutableSet.of(filter.getLocationId().get());
+      }
+      return regions;
+   }
+
+   /**
+    * @return the instance ids of the given node ids, by region, leaving out the regions which are not listed
+    */
+   protected Multimap<String, String> idsByRegions(Iterable<String> ids, Set<String> regions) {
+      ImmutableMultimap.Builder<String, String> idsByRegions = ImmutableMultimap.builder();
+      for (String handle : ids) {
+         String[] parts = AWSUtils.parseHandle(handle);
+         if (parts[0] != null && regions.contains(parts[0])) {
+            idsByRegions.put(parts[0], parts[1]);
+         }
+      }
+      return idsByRegions.build();
+   }
+
+   private Optional<String> sharedNameForGroup(NodeFilter filter) {
+      if (!filter.getGroup().isPresent()) {
+         return Optional.absent();
+      }
+      try {
+         return Optional.of(namingConvention.create().sharedNameForGroup(filter.getGroup().get()));
+      } catch (IllegalArgumentException e) {
+         // not a valid group name here, so no instance can be in it; let the filter say so
+         logger.debug("not filtering on invalid group %s: %s", filter.getGroup().get(), e.getMessage());
+         return Optional.absent();
+      }
+   }
+
+   private static Iterable<? extends RunningInstance> uniqueIndex(Iterable<? extends RunningInstance> instances) {
+      Map<String, RunningInstance> byId = Maps.newLinkedHashMap();
+      for (RunningInstance instance : instances) {
+         if (instance != null) {
+            byId.put(instance.getRegion() + "/" + instance.getId(), instance);
+         }
+      }
+      return byId.values();
+   }
+
+   protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndFilter(Set<String> regions,
+            final Multimap<String, String> filter) {
+      Iterable<Reservation<? extends RunningInstance>> reservations =
+               this.<Reservation<? extends RunningInstance>> pollRegions(regions, instancesInRegionWithFilter(filter));
+
+      return concat(reservations);
    }
 
    protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
-      Iterable<? extends Set<? extends Reservation<? extends RunningInstance>>> reservations
-         = transform(idsByRegions.keySet(), instancesByIdInRegion(idsByRegions));
+      Iterable<Reservation<? extends RunningInstance>> reservations =
+               this.<Reservation<? extends RunningInstance>> pollRegions(idsByRegions.keySet(),
+                        instancesByIdInRegion(idsByRegions));
       
-      return concat(concat(reservations));
+      return concat(reservations);
    }
 
    protected Function<String, String> splitHandle(final int pos) {
@@ -145,6 +345,19 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
       };
    }
 
+   protected Function<String, Set<? extends Reservation<? extends RunningInstance>>>
+                                                                  instancesInRegionWithFilter(final Multimap<String, String> filter) {
+      return new Function<String, Set<? extends Reservation<? extends RunningInstance>>>() {
+
+         @Override
+         public Set<? extends Reservation<? extends RunningInstance>> apply(String from) {
+            return filter.isEmpty() ? client.getInstanceApi().get().describeInstancesInRegion(from)
+                     : client.getInstanceApi().get().describeInstancesInRegionWithFilter(from, filter);
+         }
+
+      };
+   }
+
    protected Function<String, Set<? extends Reservation<? extends RunningInstance>>>
                                                                   instancesByIdInRegion(final Multimap<String, String> idsByRegions) {
       return new Function<String, Set<? extends Reservation<? extends RunningInstance>>>() {
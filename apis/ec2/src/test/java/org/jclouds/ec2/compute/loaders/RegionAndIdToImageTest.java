@@ -37,6 +37,7 @@ import org.jclouds.rest.ResourceNotFoundException;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 @Test(groups = "unit")
@@ -137,4 +138,39 @@ public class RegionAndIdToImageTest {
       verify(client);
 
    }
+
+   @SuppressWarnings("unchecked")
+   @Test
+   public void testLoadAllMakesOneRequestPerRegion() throws ExecutionException {
+
+      EC2ImageParser parser = createMock(EC2ImageParser.class);
+      EC2Api caller = createMock(EC2Api.class);
+      AMIApi client = createMock(AMIApi.class);
+
+      org.jclouds.ec2.domain.Image ec2Image1 = createMock(org.jclouds.ec2.domain.Image.class);
+      org.jclouds.ec2.domain.Image ec2Image2 = createMock(org.jclouds.ec2.domain.Image.class);
+      Image image1 = createNiceMock(Image.class);
+      Image image2 = createNiceMock(Image.class);
+      Set<? extends org.jclouds.ec2.domain.Image> images = ImmutableSet.<org.jclouds.ec2.domain.Image> of(ec2Image1,
+            ec2Image2);
+
+      expect(caller.getAMIApi()).andReturn((Optional) Optional.of(client)).atLeastOnce();
+      expect(client.describeImagesInRegion("region", imageIds("ami-1", "ami-2", "ami-3"))).andReturn(
+            Set.class.cast(images));
+      expect(ec2Image1.getId()).andReturn("ami-1");
+      expect(ec2Image2.getId()).andReturn("ami-2");
+      expect(parser.apply(ec2Image1)).andReturn(image1);
+      expect(parser.apply(ec2Image2)).andReturn(image2);
+
+      replay(caller, ec2Image1, ec2Image2, parser, client);
+
+      RegionAndIdToImage function = new RegionAndIdToImage(parser, caller);
+
+      // the missing image is left out
+      assertEquals(function.loadAll(ImmutableSet.of(new RegionAndName("region", "ami-1"), new RegionAndName("region",
+            "ami-2"), new RegionAndName("region", "ami-3"))), ImmutableMap.of(new RegionAndName("region", "ami-1"),
+            image1, new RegionAndName("region", "ami-2"), image2));
+
+      verify(caller, ec2Image1, ec2Image2, parser, client);
+   }
 }
@@ -27,6 +27,16 @@ public final class FilesystemConstants {
     /** Specify if the Content-Type of a file should be autodetected if it is not set */
     public static final String PROPERTY_AUTO_DETECT_CONTENT_TYPE = "jclouds.filesystem.auto-detect-content-type";
 
+    /**
+     * Specify where blob metadata is stored: {@value #METADATA_STORE_XATTR} (the default) uses user extended
+     * attributes, {@value #METADATA_STORE_SIDECAR} uses sidecar files under the base directory, for file systems
+     * which do not support extended attributes
+     */
+    public static final String PROPERTY_METADATA_STORE = "jclouds.filesystem.metadata-store";
+
+    public static final String METADATA_STORE_XATTR = "xattr";
+    public static final String METADATA_STORE_SIDECAR = "sidecar";
+
     private FilesystemConstants() {
         throw new AssertionError("intentionally unimplemented");
     }
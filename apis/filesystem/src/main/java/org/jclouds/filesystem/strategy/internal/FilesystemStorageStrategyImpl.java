@@ -17,6 +17,7 @@
 package org.jclouds.filesystem.strategy.internal;
 
 import static com.google.common.base.Charsets.US_ASCII;
+import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -80,9 +81,14 @@ import org.jclouds.domain.Location;
 import org.jclouds.filesystem.predicates.validators.FilesystemBlobKeyValidator;
 import org.jclouds.filesystem.predicates.validators.FilesystemContainerNameValidator;
 import org.jclouds.filesystem.reference.FilesystemConstants;
+import org.jclouds.filesystem.util.SidecarFileAttributeView;
 import org.jclouds.filesystem.util.Utils;
+import org.jclouds.io.ByteStreams2;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.io.payloads.HashingPayload;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.annotations.ParamValidators;
@@ -97,7 +103,6 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
-import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.primitives.Longs;
@@ -105,7 +110,9 @@ import com.google.common.primitives.Longs;
 /**
  * FilesystemStorageStrategyImpl implements a blob store that stores objects
  * on the file system. Content metadata and user attributes are stored in
- * extended attributes if the file system supports them. Directory blobs
+ * extended attributes if the file system supports them, or in sidecar files
+ * when {@link FilesystemConstants#PROPERTY_METADATA_STORE} is set to
+ * {@link FilesystemConstants#METADATA_STORE_SIDECAR}. Directory blobs
  * (blobs that end with a /) cannot have content, but otherwise appear in
  * LIST like normal blobs.
  */
@@ -123,6 +130,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    private static final byte[] DIRECTORY_MD5 =
            Hashing.md5().hashBytes(new byte[0]).asBytes();
    private static final Pattern MPU_ETAG_FORMAT = Pattern.compile("\"[a-f0-9]{32}-\\d+\"");
+   private static final String METADATA_DIRECTORY = ".jclouds-metadata";
 
    @Resource
    protected Logger logger = Logger.NULL;
@@ -130,6 +138,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    protected final Provider<BlobBuilder> blobBuilders;
    protected final String baseDirectory;
    protected final boolean autoDetectContentType;
+   protected final boolean useSidecarMetadata;
    protected final FilesystemContainerNameValidator filesystemContainerNameValidator;
    protected final FilesystemBlobKeyValidator filesystemBlobKeyValidator;
    private final Supplier<Location> defaultLocation;
@@ -138,12 +147,17 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    protected FilesystemStorageStrategyImpl(Provider<BlobBuilder> blobBuilders,
          @Named(FilesystemConstants.PROPERTY_BASEDIR) String baseDir,
          @Named(FilesystemConstants.PROPERTY_AUTO_DETECT_CONTENT_TYPE) boolean autoDetectContentType,
+         @Named(FilesystemConstants.PROPERTY_METADATA_STORE) String metadataStore,
          FilesystemContainerNameValidator filesystemContainerNameValidator,
          FilesystemBlobKeyValidator filesystemBlobKeyValidator,
          Supplier<Location> defaultLocation) {
       this.blobBuilders = checkNotNull(blobBuilders, "filesystem storage strategy blobBuilders");
       this.baseDirectory = checkNotNull(baseDir, "filesystem storage strategy base directory");
       this.autoDetectContentType = autoDetectContentType;
+      checkArgument(FilesystemConstants.METADATA_STORE_XATTR.equals(metadataStore) ||
+            FilesystemConstants.METADATA_STORE_SIDECAR.equals(metadataStore),
+            "unsupported metadata store: %s", metadataStore);
+      this.useSidecarMetadata = FilesystemConstants.METADATA_STORE_SIDECAR.equals(metadataStore);
       this.filesystemContainerNameValidator = checkNotNull(filesystemContainerNameValidator,
             "filesystem container name validator");
       this.filesystemBlobKeyValidator = checkNotNull(filesystemBlobKeyValidator, "filesystem blob key validator");
@@ -164,7 +178,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       }
       ImmutableList.Builder<String> containers = ImmutableList.builder();
       for (File file : files) {
-         if (file.isDirectory()) {
+         if (file.isDirectory() && !(useSidecarMetadata && file.getName().equals(METADATA_DIRECTORY))) {
             containers.add(file.getName());
          }
       }
@@ -246,6 +260,9 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          return;
       }
       deleteDirectory(container, null);
+      if (useSidecarMetadata) {
+         deleteDirectory(METADATA_DIRECTORY, container);
+      }
    }
 
    @Override
@@ -266,7 +283,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          if (object.isFile()) {
             // To mimic the S3 type blobstores, a prefix for an object blob
             // should also get deleted
-            delete(object);
+            deleteWithMetadata(object);
          }
          else if (object.isDirectory() && (optsPrefix.endsWith(File.separator) || isNullOrEmpty(optsPrefix))) {
             // S3 blobstores will only match prefixes that end with a trailing slash/file separator
@@ -277,10 +294,10 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
             if (null != children) {
                for (File child : children) {
                   if (options.isRecursive()) {
-                     Utils.deleteRecursively(child);
+                     deleteRecursivelyWithMetadata(child);
                   } else {
                      if (child.isFile()) {
-                        Utils.delete(child);
+                        deleteWithMetadata(child);
                      }
                   }
                }
@@ -291,7 +308,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
                if (options.isRecursive()) {
                   //first, remove the empty dir. It should be totally empty if it was a
                   // recursive delete
-                  deleteDirectory(container, optsPrefix);
+                  deleteRecursivelyWithMetadata(new File(buildPathStartingFromBaseDir(container, optsPrefix)));
                }
                removeDirectoriesTreeOfBlobKey(container, optsPrefix);
             }
@@ -382,6 +399,8 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       } else {
          byteSource = Files.asByteSource(file);
       }
+      // expose regular files as FilePayload so consumers can copy them with FileChannel.transferTo
+      Object payload = file.isFile() ? file : byteSource;
       try {
          String cacheControl = null;
          String contentDisposition = null;
@@ -437,11 +456,18 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
                   String value = readStringAttributeIfPresent(view, attributes, attribute);
                   userMetadata.put(attribute.substring(XATTR_USER_METADATA_PREFIX.length()), value);
                }
+               if (hashCode == null && eTag == null && view instanceof SidecarFileAttributeView
+                     && !file.isDirectory()) {
+                  // compute the MD5 once and cache it for subsequent calls
+                  hashCode = byteSource.hash(Hashing.md5());
+                  eTag = "\"" + hashCode + "\"";
+                  view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(hashCode.asBytes()));
+               }
             } catch (IOException e) {
                logger.debug("xattrs not supported on %s", file.toPath());
             }
 
-            builder.payload(byteSource)
+            payloadBuilder(builder, payload)
                .cacheControl(cacheControl)
                .contentDisposition(contentDisposition)
                .contentEncoding(contentEncoding)
@@ -454,7 +480,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
                .tier(tier)
                .userMetadata(userMetadata.build());
          } else {
-            builder.payload(byteSource)
+            payloadBuilder(builder, payload)
                .contentLength(byteSource.size())
                .contentMD5(byteSource.hash(Hashing.md5()).asBytes());
          }
@@ -472,6 +498,25 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       return blob;
    }
 
+   private static BlobBuilder.PayloadBlobBuilder payloadBuilder(BlobBuilder builder, Object payload) {
+      if (payload instanceof File) {
+         return builder.payload((File) payload);
+      }
+      return builder.payload((ByteSource) payload);
+   }
+
+   private void writeBlobAttributes(UserDefinedFileAttributeView view, byte[] md5, Blob blob) throws IOException {
+      // a sidecar is rewritten once for all the attributes of the blob, rather than once per attribute
+      if (view instanceof SidecarFileAttributeView) {
+         ((SidecarFileAttributeView) view).deferWrites();
+      }
+      view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(md5));
+      writeCommonMetadataAttr(view, blob);
+      if (view instanceof SidecarFileAttributeView) {
+         ((SidecarFileAttributeView) view).flush();
+      }
+   }
+
    private void writeCommonMetadataAttr(UserDefinedFileAttributeView view, Blob blob) throws IOException {
       ContentMetadata metadata = blob.getMetadata().getContentMetadata();
       writeStringAttributeIfPresent(view, XATTR_CACHE_CONTROL, metadata.getCacheControl());
@@ -508,8 +553,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(outputPath);
       if (view != null) {
          try {
-            view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(DIRECTORY_MD5));
-            writeCommonMetadataAttr(view, blob);
+            writeBlobAttributes(view, DIRECTORY_MD5, blob);
          } catch (IOException e) {
             logger.debug("xattrs not supported on %s", outputPath);
          }
@@ -542,12 +586,29 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       try {
          Files.createParentDirs(tmpFile);
          if (isMpu) {
-            inputStream = payload.openStream();
             eTag = blob.getMetadata().getETag().getBytes();
+         }
+         long actualSize;
+         HashCode actualHashCode = null;
+         if (payload instanceof FilePayload && !isWindows()) {
+            // avoid copying through heap buffers; Windows locks mapped files until they are garbage collected
+            File sourceFile = (File) payload.getRawContent();
+            if (isMpu) {
+               actualSize = ByteStreams2.transferFile(sourceFile, tmpFile);
+            } else {
+               // hashed while copying, so that the source is read once
+               actualHashCode = ByteStreams2.transferAndHashFile(sourceFile, tmpFile, "MD5");
+               actualSize = tmpFile.length();
+            }
+         } else if (isMpu) {
+            inputStream = payload.openStream();
+            actualSize = Files.asByteSink(tmpFile).writeFrom(inputStream);
          } else {
-            inputStream = new HashingInputStream(Hashing.md5(), payload.openStream());
+            HashingPayload hashingPayload = Payloads.newHashingPayload(payload, Hashing.md5());
+            inputStream = hashingPayload.openStream();
+            actualSize = Files.asByteSink(tmpFile).writeFrom(inputStream);
+            actualHashCode = hashingPayload.getHash(Hashing.md5());
          }
-         long actualSize = Files.asByteSink(tmpFile).writeFrom(inputStream);
          Long expectedSize = blob.getMetadata().getContentMetadata().getContentLength();
          if (expectedSize != null && actualSize != expectedSize) {
             throw new IOException("Content-Length mismatch, actual: " + actualSize +
@@ -555,7 +616,6 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          }
 
          if (!isMpu) {
-            HashCode actualHashCode = ((HashingInputStream) inputStream).hash();
             HashCode expectedHashCode = payload.getContentMetadata().getContentMD5AsHashCode();
             if (expectedHashCode != null && !actualHashCode.equals(expectedHashCode)) {
                throw new IOException("MD5 hash code mismatch, actual: " + actualHashCode +
@@ -572,8 +632,7 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(tmpPath);
          if (view != null) {
             try {
-               view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(eTag));
-               writeCommonMetadataAttr(view, blob);
+               writeBlobAttributes(view, eTag, blob);
             } catch (IOException e) {
                logger.debug("xattrs not supported on %s", tmpPath);
             }
@@ -584,13 +643,17 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
          if (!tmpFile.renameTo(outputFile)) {
             throw new IOException("Could not rename file " + tmpFile + " to " + outputFile);
          }
+         if (view instanceof SidecarFileAttributeView) {
+            ((SidecarFileAttributeView) view).moveTo(getSidecarFileAttributeView(outputFile.toPath()));
+         }
          tmpFile = null;
 
          return base16().lowerCase().encode(eTag);
       } finally {
          if (tmpFile != null) {
             try {
-               delete(tmpFile);
+               // the metadata may already be written to the sidecar of the temporary file
+               deleteWithMetadata(tmpFile);
             } catch (IOException e) {
                logger.debug("Could not delete %s: %s", tmpFile, e);
             }
@@ -624,6 +687,9 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       }
 
       try {
+         if (useSidecarMetadata) {
+            getSidecarFileAttributeView(fileToBeDeleted.toPath()).deleteAll();
+         }
          delete(fileToBeDeleted);
       } catch (IOException e) {
          logger.debug("Could not delete %s: %s", fileToBeDeleted, e);
@@ -798,9 +864,51 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
    }
 
    protected UserDefinedFileAttributeView getUserDefinedFileAttributeView(Path path) throws IOException {
+      if (useSidecarMetadata) {
+         return getSidecarFileAttributeView(path);
+      }
       return getFileAttributeView(path, UserDefinedFileAttributeView.class);
    }
 
+   /** Delete a file along with its sidecar, if metadata is stored in sidecars. */
+   private void deleteWithMetadata(File file) throws IOException {
+      if (useSidecarMetadata) {
+         getSidecarFileAttributeView(file.toPath()).deleteAll();
+      }
+      delete(file);
+   }
+
+   /** Delete a file or a directory recursively, along with the sidecars of everything deleted. */
+   private void deleteRecursivelyWithMetadata(File file) throws IOException {
+      if (!useSidecarMetadata) {
+         Utils.deleteRecursively(file);
+         return;
+      }
+      if (file.isDirectory()) {
+         File[] children = file.listFiles();
+         if (children != null) {
+            for (File child : children) {
+               deleteRecursivelyWithMetadata(child);
+            }
+         }
+      }
+      deleteWithMetadata(file);
+   }
+
+   /**
+    * Sidecar files live in a hidden directory below the base directory, one
+    * subdirectory per container, and are named after the hash of the relative
+    * path so that keys cannot collide with the layout of the metadata tree.
+    */
+   private SidecarFileAttributeView getSidecarFileAttributeView(Path path) {
+      Path base = new File(buildPathStartingFromBaseDir()).toPath().toAbsolutePath().normalize();
+      Path relative = base.relativize(path.toAbsolutePath().normalize());
+      String hash = Hashing.sha1().hashString(denormalize(relative.toString()), UTF_8).toString();
+      Path sidecar = base.resolve(METADATA_DIRECTORY).resolve(relative.getName(0))
+            .resolve(hash.substring(0, 2)).resolve(hash);
+      return new SidecarFileAttributeView(path, sidecar);
+   }
+
    /**
     * Check if the file system resource whose name is obtained applying buildPath on the input path
     * tokens is a directory, otherwise a RuntimeException is thrown
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.filesystem.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.io.BaseEncoding.base64;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.UserDefinedFileAttributeView;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+/**
+ * A {@link UserDefinedFileAttributeView} which keeps the attributes of a file
+ * in a separate sidecar file, for file systems without user extended
+ * attributes such as tmpfs and some overlayfs and NFS mounts.
+ * <p>
+ * The sidecar records the size and modification time of a regular file, or
+ * the file key of a directory, when it is written. If these no longer match
+ * the file, e.g. because it was modified outside of jclouds, the recorded
+ * attributes are ignored.
+ * <p>
+ * A view reads the sidecar once and keeps the attributes, so it is meant to
+ * be used for a single operation. Writes can be {@link #deferWrites()
+ * deferred} so that several attributes are stored with one rewrite of the
+ * sidecar.
+ */
+public final class SidecarFileAttributeView implements UserDefinedFileAttributeView {
+   private static final String INTERNAL_PREFIX = "jclouds.";
+   private static final String SIZE = INTERNAL_PREFIX + "size";
+   private static final String LAST_MODIFIED = INTERNAL_PREFIX + "last-modified";
+   private static final String FILE_KEY = INTERNAL_PREFIX + "file-key";
+
+   private final Path path;
+   private final Path sidecar;
+   private Map<String, String> attributes;
+   private boolean deferWrites;
+   private boolean dirty;
+
+   public SidecarFileAttributeView(Path path, Path sidecar) {
+      this.path = checkNotNull(path, "path");
+      this.sidecar = checkNotNull(sidecar, "sidecar");
+   }
+
+   @Override
+   public String name() {
+      return "user";
+   }
+
+   @Override
+   public List<String> list() throws IOException {
+      ImmutableList.Builder<String> names = ImmutableList.builder();
+      for (String name : attributes().keySet()) {
+         if (!name.startsWith(INTERNAL_PREFIX)) {
+            names.add(name);
+         }
+      }
+      return names.build();
+   }
+
+   @Override
+   public int size(String name) throws IOException {
+      return readValue(name).length;
+   }
+
+   @Override
+   public int read(String name, ByteBuffer dst) throws IOException {
+      byte[] value = readValue(name);
+      dst.put(value);
+      return value.length;
+   }
+
+   @Override
+   public int write(String name, ByteBuffer src) throws IOException {
+      checkNotNull(name, "name");
+      byte[] value = new byte[src.remaining()];
+      src.get(value);
+      attributes().put(name, base64().encode(value));
+      changed();
+      return value.length;
+   }
+
+   @Override
+   public void delete(String name) throws IOException {
+      if (attributes().remove(name) != null) {
+         changed();
+      }
+   }
+
+   /**
+    * Keep the writes and deletes in memory until {@link #flush()}, instead of
+    * rewriting the sidecar for each of them.
+    */
+   public void deferWrites() {
+      deferWrites = true;
+   }
+
+   /** Store the deferred writes and deletes, if any. */
+   public void flush() throws IOException {
+      if (dirty) {
+         store(attributes);
+         dirty = false;
+      }
+   }
+
+   /** Remove the sidecar and with it all attributes of the file. */
+   public void deleteAll() throws IOException {
+      Files.deleteIfExists(sidecar);
+      attributes = Maps.newHashMap();
+      dirty = false;
+   }
+
+   /**
+    * Move the attributes to another view, replacing its attributes. Used when
+    * the underlying file is renamed, which preserves its size and modification
+    * time.
+    */
+   public void moveTo(SidecarFileAttributeView target) throws IOException {
+      flush();
+      target.attributes = null;
+      target.dirty = false;
+      if (!Files.exists(sidecar)) {
+         target.deleteAll();
+         return;
+      }
+      Files.createDirectories(target.sidecar.getParent());
+      Files.move(sidecar, target.sidecar, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   private byte[] readValue(String name) throws IOException {
+      String value = attributes().get(name);
+      if (value == null) {
+         throw new NoSuchFileException(path.toString(), null, "attribute not present: " + name);
+      }
+      return base64().decode(value);
+   }
+
+   private Map<String, String> attributes() throws IOException {
+      if (attributes == null) {
+         attributes = load();
+      }
+      return attributes;
+   }
+
+   private void changed() throws IOException {
+      if (deferWrites) {
+         dirty = true;
+      } else {
+         store(attributes);
+      }
+   }
+
+   /** Read the attributes, or return an empty map if the sidecar is missing or stale. */
+   private Map<String, String> load() throws IOException {
+      Map<String, String> attributes = Maps.newHashMap();
+      Properties properties = new Properties();
+      try (InputStream is = Files.newInputStream(sidecar)) {
+         properties.load(is);
+      } catch (NoSuchFileException nsfe) {
+         return attributes;
+      }
+      for (String name : properties.stringPropertyNames()) {
+         attributes.put(name, properties.getProperty(name));
+      }
+      if (!isCurrent(attributes)) {
+         attributes.clear();
+      }
+      return attributes;
+   }
+
+   private boolean isCurrent(Map<String, String> attributes) throws IOException {
+      BasicFileAttributes attr = Files.readAttributes(path, BasicFileAttributes.class);
+      if (attr.isDirectory()) {
+         return attr.fileKey() == null || !attributes.containsKey(FILE_KEY)
+               || attributes.get(FILE_KEY).equals(String.valueOf(attr.fileKey()));
+      }
+      return Objects.equals(attributes.get(SIZE), String.valueOf(attr.size()))
+            && Objects.equals(attributes.get(LAST_MODIFIED), String.valueOf(attr.lastModifiedTime().toMillis()));
+   }
+
+   /** Write the sidecar atomically, recording the current size and modification time of the file. */
+   private void store(Map<String, String> attributes) throws IOException {
+      BasicFileAttributes attr = Files.readAttributes(path, BasicFileAttributes.class);
+      Properties properties = new Properties();
+      properties.putAll(attributes);
+      properties.setProperty(SIZE, String.valueOf(attr.size()));
+      properties.setProperty(LAST_MODIFIED, String.valueOf(attr.lastModifiedTime().toMillis()));
+      if (attr.fileKey() != null) {
+         properties.setProperty(FILE_KEY, String.valueOf(attr.fileKey()));
+      }
+
+      Files.createDirectories(sidecar.getParent());
+      Path tmp = sidecar.resolveSibling(sidecar.getFileName() + "-" + UUID.randomUUID());
+      try {
+         try (OutputStream os = Files.newOutputStream(tmp)) {
+            properties.store(os, null);
+         }
+         Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+         Files.deleteIfExists(tmp);
+      }
+   }
+}
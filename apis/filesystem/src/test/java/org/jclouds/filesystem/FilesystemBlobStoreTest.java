@@ -47,6 +47,7 @@ import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.filesystem.reference.FilesystemConstants;
@@ -787,6 +788,26 @@ public class FilesystemBlobStoreTest {
         }
     }
 
+    public void testCopyAndDownloadBlob() throws IOException {
+        blobStore.createContainerInLocation(null, CONTAINER_NAME);
+        File source = TestUtils.getImageForBlobPayload();
+        String blobKey = TestUtils.createRandomBlobKey();
+        blobStore.putBlob(CONTAINER_NAME, createBlob(blobKey, source));
+
+        String copyKey = blobKey + "-copy";
+        blobStore.copyBlob(CONTAINER_NAME, blobKey, CONTAINER_NAME, copyKey, CopyOptions.NONE);
+        assertEquals(blobStore.blobMetadata(CONTAINER_NAME, copyKey).getETag(),
+                blobStore.blobMetadata(CONTAINER_NAME, blobKey).getETag());
+
+        File destination = new File(TestUtils.TARGET_BASE_DIR, "download-" + copyKey);
+        try {
+            blobStore.downloadBlob(CONTAINER_NAME, copyKey, destination);
+            assertTrue(Files.equal(source, destination), "Downloaded file differs from source");
+        } finally {
+            destination.delete();
+        }
+    }
+
     /** Test that BlobRequestSigner creates expected URIs.  */
     public void testBlobRequestSigner() throws Exception {
         String containerName = "container";
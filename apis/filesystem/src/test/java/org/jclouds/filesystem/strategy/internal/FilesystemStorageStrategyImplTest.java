@@ -47,6 +47,7 @@ import org.jclouds.blobstore.options.ListContainerOptions;
 import org.jclouds.domain.Location;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemBlobKeyValidatorImpl;
 import org.jclouds.filesystem.predicates.validators.internal.FilesystemContainerNameValidatorImpl;
+import org.jclouds.filesystem.reference.FilesystemConstants;
 import org.jclouds.filesystem.utils.TestUtils;
 import org.jclouds.io.payloads.FilePayload;
 import org.jclouds.io.payloads.InputStreamPayload;
@@ -57,9 +58,11 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.Uninterruptibles;
@@ -97,7 +100,7 @@ public class FilesystemStorageStrategyImplTest {
             return new BlobBuilderImpl();
          }
 
-      }, TestUtils.TARGET_BASE_DIR, false, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
+      }, TestUtils.TARGET_BASE_DIR, false, FilesystemConstants.METADATA_STORE_XATTR, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
       TestUtils.cleanDirectoryContent(TestUtils.TARGET_BASE_DIR);
       TestUtils.createResources();
    }
@@ -396,7 +399,7 @@ public class FilesystemStorageStrategyImplTest {
              public BlobBuilder get() {
                 return new BlobBuilderImpl();
              }
-          }, TestUtils.TARGET_BASE_DIR, true, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
+          }, TestUtils.TARGET_BASE_DIR, true, FilesystemConstants.METADATA_STORE_XATTR, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
 
       String blobKey = TestUtils.createRandomBlobKey("file-", ".jpg");
       TestUtils.createBlobsInContainer(CONTAINER_NAME, blobKey);
@@ -531,7 +534,7 @@ public class FilesystemStorageStrategyImplTest {
                   public BlobBuilder get() {
                      return new BlobBuilderImpl();
                   }
-               }, absoluteBasePath, false, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
+               }, absoluteBasePath, false, FilesystemConstants.METADATA_STORE_XATTR, new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
       TestUtils.cleanDirectoryContent(absoluteContainerPath);
 
       String blobKey;
@@ -733,6 +736,69 @@ public class FilesystemStorageStrategyImplTest {
       assertThat(blob).isNotNull();
    }
 
+   @Test
+   public void testSidecarMetadata() throws Exception {
+      FilesystemStorageStrategyImpl storageStrategySidecar = new FilesystemStorageStrategyImpl(
+            new Provider<BlobBuilder>() {
+               @Override
+               public BlobBuilder get() {
+                  return new BlobBuilderImpl();
+               }
+            }, TestUtils.TARGET_BASE_DIR, false, FilesystemConstants.METADATA_STORE_SIDECAR,
+            new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
+      String blobKey = TestUtils.createRandomBlobKey("sidecar-", ".img");
+      ByteSource byteSource = randomByteSource().slice(0, 1024);
+      Blob blob = new BlobBuilderImpl()
+            .name(blobKey)
+            .payload(byteSource)
+            .contentType("application/x-test")
+            .userMetadata(ImmutableMap.of("key1", "value1"))
+            .build();
+      String eTag = storageStrategySidecar.putBlob(CONTAINER_NAME, blob);
+
+      blob = storageStrategySidecar.getBlob(CONTAINER_NAME, blobKey);
+      assertEquals(blob.getMetadata().getETag(), eTag);
+      assertEquals(blob.getMetadata().getContentMetadata().getContentType(), "application/x-test");
+      assertEquals(blob.getMetadata().getUserMetadata().get("key1"), "value1");
+      assertFalse(storageStrategySidecar.getAllContainerNames().contains(".jclouds-metadata"));
+
+      // modifying the file outside of the blobstore invalidates the sidecar
+      File file = storageStrategySidecar.getFileForBlobKey(CONTAINER_NAME, blobKey);
+      ByteSource modified = randomByteSource().slice(0, 512);
+      modified.copyTo(Files.asByteSink(file));
+      blob = storageStrategySidecar.getBlob(CONTAINER_NAME, blobKey);
+      assertEquals(blob.getMetadata().getETag(), modified.hash(Hashing.md5()).toString());
+      assertFalse(blob.getMetadata().getUserMetadata().containsKey("key1"));
+
+      storageStrategySidecar.removeBlob(CONTAINER_NAME, blobKey);
+      assertFalse(storageStrategySidecar.blobExists(CONTAINER_NAME, blobKey));
+   }
+
+   @Test
+   public void testClearContainerDeletesSidecars() throws Exception {
+      FilesystemStorageStrategyImpl storageStrategySidecar = new FilesystemStorageStrategyImpl(
+            new Provider<BlobBuilder>() {
+               @Override
+               public BlobBuilder get() {
+                  return new BlobBuilderImpl();
+               }
+            }, TestUtils.TARGET_BASE_DIR, false, FilesystemConstants.METADATA_STORE_SIDECAR,
+            new FilesystemContainerNameValidatorImpl(), new FilesystemBlobKeyValidatorImpl(), defaultLocation);
+      File sidecars = new File(TestUtils.TARGET_BASE_DIR, ".jclouds-metadata/" + CONTAINER_NAME);
+      for (String blobKey : ImmutableList.of("a", "dir/b", "dir/sub/c")) {
+         storageStrategySidecar.putBlob(CONTAINER_NAME, new BlobBuilderImpl().name(blobKey)
+               .payload(randomByteSource().slice(0, 16)).build());
+      }
+      assertEquals(Files.fileTreeTraverser().preOrderTraversal(sidecars).filter(Files.isFile()).size(), 3);
+
+      // only the blobs directly in the container
+      storageStrategySidecar.clearContainer(CONTAINER_NAME, ListContainerOptions.NONE);
+      assertEquals(Files.fileTreeTraverser().preOrderTraversal(sidecars).filter(Files.isFile()).size(), 2);
+
+      storageStrategySidecar.clearContainer(CONTAINER_NAME, ListContainerOptions.Builder.prefix("dir/").recursive());
+      assertEquals(Files.fileTreeTraverser().preOrderTraversal(sidecars).filter(Files.isFile()).size(), 0);
+   }
+
    // ---------------------------------------------------------- Private methods
 
    /**
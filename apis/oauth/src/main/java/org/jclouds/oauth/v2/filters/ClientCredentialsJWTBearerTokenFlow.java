@@ -34,10 +34,10 @@ import org.jclouds.oauth.v2.config.OAuthConfigFactory.OAuthConfig;
 import org.jclouds.oauth.v2.domain.ClientCredentialsAuthArgs;
 import org.jclouds.oauth.v2.domain.ClientCredentialsClaims;
 import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.rest.suppliers.TokenCacheFactory;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
@@ -49,6 +49,7 @@ import com.google.common.cache.LoadingCache;
  * (the maximum time a token is valid is 60 minutes).
  * This cache and expiry period is system-wide and does not attend to per-instance expiry time
  * (e.g. "expires_in" from Google Compute -- which is set to the standard 3600 seconds).
+ * Tokens are refreshed in the background shortly before they expire, see {@link TokenCacheFactory}.
  */
 public class ClientCredentialsJWTBearerTokenFlow implements OAuthFilter {
     private static final Joiner ON_SPACE = Joiner.on(" ");
@@ -60,13 +61,13 @@ public class ClientCredentialsJWTBearerTokenFlow implements OAuthFilter {
     @Inject
     ClientCredentialsJWTBearerTokenFlow(AuthorizeToken loader, @Named(PROPERTY_SESSION_INTERVAL) long tokenDuration,
                                         @Provider Supplier<Credentials> credentialsSupplier,
-                                        OAuthConfigFactory oauthConfigFactory) {
+                                        OAuthConfigFactory oauthConfigFactory, TokenCacheFactory tokenCaches) {
         this.credentialsSupplier = credentialsSupplier;
         this.oauthConfigFactory = oauthConfigFactory;
         // since the session interval is also the token expiration time requested to the server make the token expire a
         // bit before the deadline to make sure there aren't session expiration exceptions
         long cacheExpirationSeconds = tokenDuration > 30 ? tokenDuration - 30 : tokenDuration;
-        this.tokenCache = CacheBuilder.newBuilder().expireAfterWrite(cacheExpirationSeconds, SECONDS).build(loader);
+        this.tokenCache = tokenCaches.create(loader, cacheExpirationSeconds, SECONDS);
     }
 
     static final class AuthorizeToken extends CacheLoader<ClientCredentialsAuthArgs, Token> {
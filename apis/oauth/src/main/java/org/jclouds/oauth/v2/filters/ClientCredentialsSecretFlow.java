@@ -30,10 +30,10 @@ import org.jclouds.oauth.v2.config.OAuthConfigFactory;
 import org.jclouds.oauth.v2.config.OAuthConfigFactory.OAuthConfig;
 import org.jclouds.oauth.v2.domain.ClientSecret;
 import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.rest.suppliers.TokenCacheFactory;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.inject.Inject;
@@ -47,6 +47,7 @@ import com.google.inject.Inject;
  * <h3>Cache</h3>
  * This maintains a time-based Bearer Token cache. By default expires after 59 minutes
  * (the maximum time a token is valid is 60 minutes).
+ * Tokens are refreshed in the background shortly before they expire, see {@link TokenCacheFactory}.
  */
 public class ClientCredentialsSecretFlow implements OAuthFilter {
     private static final Joiner ON_SPACE = Joiner.on(" ");
@@ -58,13 +59,13 @@ public class ClientCredentialsSecretFlow implements OAuthFilter {
     @Inject
     ClientCredentialsSecretFlow(AuthorizeToken loader, @Named(PROPERTY_SESSION_INTERVAL) long tokenDuration,
                                 @Provider Supplier<Credentials> credentialsSupplier,
-                                OAuthConfigFactory oauthConfigFactory) {
+                                OAuthConfigFactory oauthConfigFactory, TokenCacheFactory tokenCaches) {
         this.credentialsSupplier = credentialsSupplier;
         this.oauthConfigFactory = oauthConfigFactory;
         // since the session interval is also the token expiration time requested to the server make the token expire a
         // bit before the deadline to make sure there aren't session expiration exceptions
         long cacheExpirationSeconds = tokenDuration > 30 ? tokenDuration - 30 : tokenDuration;
-        this.tokenCache = CacheBuilder.newBuilder().expireAfterWrite(cacheExpirationSeconds, SECONDS).build(loader);
+        this.tokenCache = tokenCaches.create(loader, cacheExpirationSeconds, SECONDS);
     }
 
     static final class AuthorizeToken extends CacheLoader<ClientSecret, Token> {
@@ -31,13 +31,15 @@ import org.jclouds.oauth.v2.config.OAuthConfigFactory;
 import org.jclouds.oauth.v2.config.OAuthConfigFactory.OAuthConfig;
 import org.jclouds.oauth.v2.domain.Claims;
 import org.jclouds.oauth.v2.domain.Token;
+import org.jclouds.rest.suppliers.TokenCacheFactory;
 
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Joiner;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 /**
  * Authorizes new Bearer Tokens at runtime by authorizing claims needed for the http request.
@@ -47,6 +49,7 @@ import com.google.common.cache.LoadingCache;
  * (the maximum time a token is valid is 60 minutes).
  * This cache and expiry period is system-wide and does not attend to per-instance expiry time
  * (e.g. "expires_in" from Google Compute -- which is set to the standard 3600 seconds).
+ * Tokens are refreshed in the background shortly before they expire, see {@link TokenCacheFactory}.
  */
 public class JWTBearerTokenFlow implements OAuthFilter {
    private static final Joiner ON_COMMA = Joiner.on(",");
@@ -56,13 +59,14 @@ public class JWTBearerTokenFlow implements OAuthFilter {
    private final LoadingCache<TokenCacheKey, Token> tokenCache;
 
    @Inject JWTBearerTokenFlow(AuthorizeToken loader, @Named(PROPERTY_SESSION_INTERVAL) long tokenDuration,
-         @Provider Supplier<Credentials> credentialsSupplier, OAuthConfigFactory oauthConfigFactory) {
+         @Provider Supplier<Credentials> credentialsSupplier, OAuthConfigFactory oauthConfigFactory,
+         TokenCacheFactory tokenCaches) {
       this.credentialsSupplier = credentialsSupplier;
       this.oauthConfigFactory = oauthConfigFactory;
       // since the session interval is also the token expiration time requested to the server make the token expire a
       // bit before the deadline to make sure there aren't session expiration exceptions
       long cacheExpirationSeconds = tokenDuration > 30 ? tokenDuration - 30 : tokenDuration;
-      this.tokenCache = CacheBuilder.newBuilder().expireAfterWrite(cacheExpirationSeconds, SECONDS).build(loader);
+      this.tokenCache = tokenCaches.create(loader, cacheExpirationSeconds, SECONDS);
    }
 
    static final class AuthorizeToken extends CacheLoader<TokenCacheKey, Token> {
@@ -83,6 +87,12 @@ public class JWTBearerTokenFlow implements OAuthFilter {
                tokenCacheKey.startTime);
          return api.authorize(claims);
       }
+
+      @Override public ListenableFuture<Token> reload(TokenCacheKey tokenCacheKey, Token oldToken) throws Exception {
+         // the start time of the key is the time of the first request, claim a new validity period
+         return Futures.immediateFuture(load(TokenCacheKey.create(tokenCacheKey.claims(),
+               System.currentTimeMillis() / 1000)));
+      }
    }
 
    @Override public HttpRequest filter(HttpRequest request) throws HttpException {
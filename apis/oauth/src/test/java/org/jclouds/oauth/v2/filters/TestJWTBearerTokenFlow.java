@@ -24,14 +24,16 @@ import javax.inject.Named;
 import org.jclouds.domain.Credentials;
 import org.jclouds.location.Provider;
 import org.jclouds.oauth.v2.config.OAuthConfigFactory;
+import org.jclouds.rest.suppliers.TokenCacheFactory;
 
 import com.google.common.base.Supplier;
 
 public class TestJWTBearerTokenFlow extends JWTBearerTokenFlow {
 
    @Inject TestJWTBearerTokenFlow(AuthorizeToken loader, @Named(PROPERTY_SESSION_INTERVAL) long tokenDuration,
-          @Provider Supplier<Credentials> credentialsSupplier, OAuthConfigFactory oauthConfigFactory) {
-      super(loader, tokenDuration, credentialsSupplier, oauthConfigFactory);
+          @Provider Supplier<Credentials> credentialsSupplier, OAuthConfigFactory oauthConfigFactory,
+          TokenCacheFactory tokenCaches) {
+      super(loader, tokenDuration, credentialsSupplier, oauthConfigFactory, tokenCaches);
    }
 
    /** Constant time for testing. */
@@ -40,10 +40,10 @@ import org.jclouds.openstack.keystone.auth.handlers.RetryOnRenew;
 import org.jclouds.openstack.keystone.config.KeystoneProperties;
 import org.jclouds.openstack.keystone.v2_0.auth.V2AuthenticationApi;
 import org.jclouds.openstack.keystone.v3.auth.V3AuthenticationApi;
+import org.jclouds.rest.suppliers.TokenCacheFactory;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
@@ -118,11 +118,12 @@ public class AuthenticationModule extends AbstractModule {
 
    // TODO: what is the timeout of the session token? modify default accordingly
    // PROPERTY_SESSION_INTERVAL is default to 60 seconds, but we have this here
-   // at 11 hours for now.
+   // at 11 hours for now. The token is renewed in the background before it expires.
    @Provides
    @Singleton
-   public final LoadingCache<Credentials, AuthInfo> provideAuthInfoCache(Function<Credentials, AuthInfo> getAccess) {
-      return CacheBuilder.newBuilder().expireAfterWrite(11, TimeUnit.HOURS).build(CacheLoader.from(getAccess));
+   public final LoadingCache<Credentials, AuthInfo> provideAuthInfoCache(Function<Credentials, AuthInfo> getAccess,
+         TokenCacheFactory tokenCaches) {
+      return tokenCaches.create(CacheLoader.from(getAccess), 11, TimeUnit.HOURS);
    }
 
    // Temporary conversion of a cache to a supplier until there is a
@@ -19,8 +19,10 @@ package org.jclouds.openstack.nova.ec2.config;
 import org.jclouds.compute.domain.OperatingSystem;
 import org.jclouds.ec2.compute.config.EC2ComputeServiceContextModule;
 import org.jclouds.ec2.compute.loaders.CreateSecurityGroupIfNeeded;
+import org.jclouds.ec2.compute.strategy.EC2ListNodesStrategy;
 import org.jclouds.ec2.compute.strategy.ReviseParsedImage;
 import org.jclouds.openstack.nova.ec2.loaders.NovaCreateSecurityGroupIfNeeded;
+import org.jclouds.openstack.nova.ec2.strategy.NovaEC2ListNodesStrategy;
 import org.jclouds.openstack.nova.ec2.strategy.NovaReviseParsedImage;
 import org.jclouds.openstack.nova.v2_0.compute.functions.ImageToOperatingSystem;
 
@@ -36,6 +38,7 @@ public class NovaEC2ComputeServiceContextModule extends EC2ComputeServiceContext
       }).to(ImageToOperatingSystem.class);
       bind(ReviseParsedImage.class).to(NovaReviseParsedImage.class);
       bind(CreateSecurityGroupIfNeeded.class).to(NovaCreateSecurityGroupIfNeeded.class);
+      bind(EC2ListNodesStrategy.class).to(NovaEC2ListNodesStrategy.class);
    }
 
 }
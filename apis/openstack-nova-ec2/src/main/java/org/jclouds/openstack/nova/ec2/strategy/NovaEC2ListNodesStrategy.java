@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.openstack.nova.ec2.strategy;
+
+import java.util.Set;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.predicates.NodeFilter;
+import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.compute.domain.RegionAndName;
+import org.jclouds.ec2.compute.strategy.EC2ListNodesStrategy;
+import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.location.Region;
+
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
+
+/**
+ * Nova does not implement the filters of DescribeInstances, so the instances of the regions of the filter are all
+ * listed and left to the filter.
+ */
+@Singleton
+public class NovaEC2ListNodesStrategy extends EC2ListNodesStrategy {
+
+   @Inject
+   protected NovaEC2ListNodesStrategy(EC2Api client, @Region Supplier<Set<String>> regions,
+            Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            GroupNamingConvention.Factory namingConvention,
+            Supplier<LoadingCache<RegionAndName, ? extends Image>> imageMap) {
+      super(client, regions, runningInstanceToNodeMetadata, userExecutor, namingConvention, imageMap);
+   }
+
+   @Override
+   protected Iterable<? extends RunningInstance> pollRunningInstances(NodeFilter filter) {
+      if (filter.getIds().isPresent()) {
+         return super.pollRunningInstances(filter);
+      }
+      return pollRunningInstancesByRegionsAndFilter(regionsOf(filter), ImmutableMultimap.<String, String> of());
+   }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rackspace.clouddns.v1;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.concurrent.CompletionPoller;
+import org.jclouds.rackspace.clouddns.v1.CloudDNSExceptions.JobErrorException;
+import org.jclouds.rackspace.clouddns.v1.domain.Job;
+import org.jclouds.rest.ResourceNotFoundException;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Waits for many jobs at once, polling all the jobs in flight with one task, instead of one
+ * {@link org.jclouds.rackspace.clouddns.v1.predicates.JobPredicates#awaitComplete} loop per job.
+ *
+ * <h4>Example usage</h4>
+ *
+ * <pre>
+ * JobPoller poller = new JobPoller(api, scheduler, 2, TimeUnit.SECONDS);
+ * List&lt;ListenableFuture&lt;Job&lt;?&gt;&gt;&gt; completed = Lists.newArrayList();
+ * for (List&lt;Record&gt; records : Iterables.partition(toCreate, 100))
+ *    completed.add(poller.track(api.getRecordApi(domainId).create(records)));
+ * Futures.allAsList(completed).get();
+ * </pre>
+ */
+@Beta
+public class JobPoller extends CompletionPoller<Job<?>> {
+
+   private final CloudDNSApi api;
+
+   public JobPoller(CloudDNSApi api, ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+      super(scheduler, period, unit);
+      this.api = checkNotNull(api, "api");
+   }
+
+   /**
+    * Tracks the job, unless it already completed.
+    *
+    * @return completes with the job once it completed, or fails with a {@link JobErrorException}
+    */
+   public ListenableFuture<Job<?>> track(Job<?> job) {
+      if (job.getError().isPresent())
+         return Futures.immediateFailedFuture(new JobErrorException(job.getError().get()));
+      if (job.getStatus() == Job.Status.COMPLETED)
+         return Futures.<Job<?>> immediateFuture(job);
+      return track(job.getId());
+   }
+
+   /**
+    * @throws JobErrorException
+    *            if the job failed
+    * @throws ResourceNotFoundException
+    *            if the job is not known to the service
+    */
+   @Override
+   protected Optional<Job<?>> poll(String id) {
+      Job<?> job = api.getJob(id);
+      if (job == null)
+         throw new ResourceNotFoundException("job " + id + " not found");
+      if (job.getError().isPresent())
+         throw new JobErrorException(job.getError().get());
+      return job.getStatus() == Job.Status.COMPLETED ? Optional.<Job<?>> of(job) : Optional.<Job<?>> absent();
+   }
+}
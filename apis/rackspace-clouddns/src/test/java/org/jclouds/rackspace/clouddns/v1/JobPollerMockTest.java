@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rackspace.clouddns.v1;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.openstack.v2_0.internal.BaseOpenStackMockTest;
+import org.jclouds.rackspace.clouddns.v1.CloudDNSExceptions.JobErrorException;
+import org.jclouds.rackspace.clouddns.v1.domain.Job;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+
+/**
+ * Tests the behavior of the {@link JobPoller}.
+ */
+@Test(groups = "unit", testName = "JobPollerMockTest", singleThreaded = true)
+public class JobPollerMockTest extends BaseOpenStackMockTest<CloudDNSApi> {
+
+   private static final String JOB_ID = "bfbd6ec8-5d4c-49f8-97b5-aa5bfd3e95a4";
+   private static final String JOB_PATH = "/v1.0/123123/status/" + JOB_ID + "?showDetails=true";
+
+   private ScheduledExecutorService scheduler;
+
+   @BeforeMethod
+   public void createScheduler() {
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void shutdownScheduler() {
+      scheduler.shutdownNow();
+   }
+
+   public void testTrackCompletedJobDoesNotPoll() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(accessRackspace)));
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/job-completed.json"))));
+
+      try {
+         CloudDNSApi api = api(server.getUrl("/").toString(), "rackspace-clouddns");
+         JobPoller poller = new JobPoller(api, scheduler, 10, TimeUnit.MILLISECONDS);
+
+         Job<?> job = api.getJob(JOB_ID);
+         ListenableFuture<Job<?>> completed = poller.track(job);
+
+         assertTrue(completed.isDone());
+         assertEquals(completed.get(), job);
+         assertEquals(poller.pending(), 0);
+
+         assertEquals(server.getRequestCount(), 2);
+         assertAuthentication(server);
+         assertRequest(server.takeRequest(), "GET", JOB_PATH);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testTrackFailedJobDoesNotPoll() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(accessRackspace)));
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/job-error.json"))));
+
+      try {
+         CloudDNSApi api = api(server.getUrl("/").toString(), "rackspace-clouddns");
+         JobPoller poller = new JobPoller(api, scheduler, 10, TimeUnit.MILLISECONDS);
+
+         ListenableFuture<Job<?>> failed = poller.track(api.getJob(JOB_ID));
+
+         assertTrue(failed.isDone());
+         assertJobError(failed, 404);
+         assertEquals(poller.pending(), 0);
+
+         assertEquals(server.getRequestCount(), 2);
+         assertAuthentication(server);
+         assertRequest(server.takeRequest(), "GET", JOB_PATH);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testTrackPollsUntilTheJobCompleted() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(accessRackspace)));
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/job.json"))));
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/job.json"))));
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/job-completed.json"))));
+
+      try {
+         CloudDNSApi api = api(server.getUrl("/").toString(), "rackspace-clouddns");
+         JobPoller poller = new JobPoller(api, scheduler, 10, TimeUnit.MILLISECONDS);
+
+         Job<?> job = api.getJob(JOB_ID);
+         assertEquals(job.getStatus(), Job.Status.RUNNING);
+
+         Job<?> completed = poller.track(job).get(10, TimeUnit.SECONDS);
+
+         assertEquals(completed.getId(), JOB_ID);
+         assertEquals(completed.getStatus(), Job.Status.COMPLETED);
+         assertEquals(((List<?>) completed.getResource().get()).size(), 2);
+
+         assertEquals(server.getRequestCount(), 4);
+         assertAuthentication(server);
+         assertRequest(server.takeRequest(), "GET", JOB_PATH);
+         assertRequest(server.takeRequest(), "GET", JOB_PATH);
+         assertRequest(server.takeRequest(), "GET", JOB_PATH);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testTrackPollsUntilTheJobFailed() throws Exception {
+      MockWebServer server = mockOpenStackServer();
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(accessRackspace)));
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/job.json"))));
+      server.enqueue(addCommonHeaders(new MockResponse().setBody(stringFromResource("/job-error.json"))));
+
+      try {
+         CloudDNSApi api = api(server.getUrl("/").toString(), "rackspace-clouddns");
+         JobPoller poller = new JobPoller(api, scheduler, 10, TimeUnit.MILLISECONDS);
+
+         ListenableFuture<Job<?>> failed = poller.track(api.getJob(JOB_ID));
+
+         assertJobError(failed, 404);
+
+         assertEquals(server.getRequestCount(), 3);
+         assertAuthentication(server);
+         assertRequest(server.takeRequest(), "GET", JOB_PATH);
+         assertRequest(server.takeRequest(), "GET", JOB_PATH);
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   private static void assertJobError(ListenableFuture<Job<?>> future, int code) throws Exception {
+      try {
+         future.get(10, TimeUnit.SECONDS);
+         fail("Expected the job to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof JobErrorException, String.valueOf(e.getCause()));
+         assertEquals(((JobErrorException) e.getCause()).getJobError().getCode(), code);
+      }
+   }
+}
@@ -21,10 +21,12 @@ import org.jclouds.loadbalancer.strategy.DestroyLoadBalancerStrategy;
 import org.jclouds.loadbalancer.strategy.GetLoadBalancerMetadataStrategy;
 import org.jclouds.loadbalancer.strategy.ListLoadBalancersStrategy;
 import org.jclouds.loadbalancer.strategy.LoadBalanceNodesStrategy;
+import org.jclouds.loadbalancer.strategy.UpdateLoadBalancerNodesStrategy;
 import org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy.CloudLoadBalancersDestroyLoadBalancerStrategy;
 import org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy.CloudLoadBalancersGetLoadBalancerMetadataStrategy;
 import org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy.CloudLoadBalancersListLoadBalancersStrategy;
 import org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy.CloudLoadBalancersLoadBalanceNodesStrategy;
+import org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy.CloudLoadBalancersUpdateLoadBalancerNodesStrategy;
 
 public class CloudLoadBalancersBindLoadBalancerStrategiesByClass extends BindLoadBalancerStrategiesByClass {
 
@@ -47,4 +49,9 @@ public class CloudLoadBalancersBindLoadBalancerStrategiesByClass extends BindLoa
    protected Class<? extends ListLoadBalancersStrategy> defineListLoadBalancersStrategy() {
       return CloudLoadBalancersListLoadBalancersStrategy.class;
    }
+
+   @Override
+   protected Class<? extends UpdateLoadBalancerNodesStrategy> defineUpdateLoadBalancerNodesStrategy() {
+      return CloudLoadBalancersUpdateLoadBalancerNodesStrategy.class;
+   }
 }
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rackspace.cloudloadbalancers.v1.loadbalancer.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.rackspace.cloudloadbalancers.v1.predicates.LoadBalancerPredicates.awaitAvailable;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.loadbalancer.strategy.impl.UpdateLoadBalancerNodesInBatches;
+import org.jclouds.rackspace.cloudloadbalancers.v1.CloudLoadBalancersApi;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.AddNode;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.LoadBalancer;
+import org.jclouds.rackspace.cloudloadbalancers.v1.domain.Node;
+import org.jclouds.rackspace.cloudloadbalancers.v1.features.LoadBalancerApi;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+/**
+ * Nodes are members by their first private address and port, as in
+ * {@link CloudLoadBalancersLoadBalanceNodesStrategy}. The load balancer is immutable until it is active again after
+ * each change, so the batches are applied one after another.
+ */
+@Singleton
+public class CloudLoadBalancersUpdateLoadBalancerNodesStrategy extends UpdateLoadBalancerNodesInBatches {
+
+   /**
+    * The most nodes that can be removed in one request.
+    */
+   public static final int MAX_NODES_PER_REQUEST = 10;
+
+   protected final CloudLoadBalancersApi client;
+
+   @Inject
+   protected CloudLoadBalancersUpdateLoadBalancerNodesStrategy(CloudLoadBalancersApi client) {
+      super(MAX_NODES_PER_REQUEST);
+      this.client = checkNotNull(client, "client");
+   }
+
+   @Override
+   protected Map<String, String> listMembers(String id) {
+      ImmutableMap.Builder<String, String> members = ImmutableMap.builder();
+      for (Node node : client.getNodeApi(region(id), lbId(id)).list().concat())
+         members.put(node.getAddress() + ":" + node.getPort(), String.valueOf(node.getId()));
+      return members.build();
+   }
+
+   @Override
+   protected String memberKey(NodeMetadata node, int instancePort) {
+      return Iterables.get(node.getPrivateAddresses(), 0) + ":" + instancePort;
+   }
+
+   @Override
+   protected void addMembers(String id, final int instancePort, List<NodeMetadata> nodes) {
+      client.getNodeApi(region(id), lbId(id)).add(Lists.transform(nodes, new Function<NodeMetadata, AddNode>() {
+
+         @Override
+         public AddNode apply(NodeMetadata arg0) {
+            return AddNode.builder().address(Iterables.get(arg0.getPrivateAddresses(), 0)).port(instancePort).build();
+         }
+
+      }));
+      awaitActive(id);
+   }
+
+   @Override
+   protected void removeMembers(String id, List<String> memberIds) {
+      List<Integer> nodeIds = Lists.newArrayList();
+      for (String memberId : memberIds)
+         nodeIds.add(Integer.valueOf(memberId));
+      client.getNodeApi(region(id), lbId(id)).remove(nodeIds);
+      awaitActive(id);
+   }
+
+   private void awaitActive(String id) {
+      LoadBalancerApi lbApi = client.getLoadBalancerApi(region(id));
+      LoadBalancer lb = lbApi.get(lbId(id));
+      checkState(lb != null, "load balancer(%s) not found", id);
+      checkState(awaitAvailable(lbApi).apply(lb), "load balancer(%s) did not become active", id);
+   }
+
+   private static String region(String id) {
+      return checkNotNull(id, "id").split("/")[0];
+   }
+
+   private static int lbId(String id) {
+      return Integer.parseInt(checkNotNull(id, "id").split("/")[1]);
+   }
+}
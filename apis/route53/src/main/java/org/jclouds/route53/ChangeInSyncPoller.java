@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.concurrent.CompletionPoller;
+import org.jclouds.rest.ResourceNotFoundException;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+
+/**
+ * Waits for changes to reach {@link Status#INSYNC}, polling all the changes in flight with one task. A poller can be
+ * shared by the {@link ResourceRecordSetSync}s of several hosted zones.
+ *
+ * <h4>Example usage</h4>
+ *
+ * <pre>
+ * ChangeInSyncPoller poller = new ChangeInSyncPoller(api, scheduler, 5, TimeUnit.SECONDS);
+ * Change inSync = poller.track(api.getResourceRecordSetApiForHostedZone(zoneId).apply(batch).getId()).get();
+ * </pre>
+ */
+@Beta
+public class ChangeInSyncPoller extends CompletionPoller<Change> {
+
+   private final Route53Api api;
+
+   public ChangeInSyncPoller(Route53Api api, ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+      super(scheduler, period, unit);
+      this.api = checkNotNull(api, "api");
+   }
+
+   /**
+    * @throws ResourceNotFoundException
+    *            if the change is not known to the service
+    */
+   @Override
+   protected Optional<Change> poll(String id) {
+      Change change = api.getChange(id);
+      if (change == null)
+         throw new ResourceNotFoundException("change " + id + " not found");
+      return change.getStatus() == Status.INSYNC ? Optional.of(change) : Optional.<Change> absent();
+   }
+}
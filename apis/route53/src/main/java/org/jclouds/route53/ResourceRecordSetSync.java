@@ -0,0 +1,379 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53;
+
+import static com.google.common.base.Objects.equal;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ChangeBatch.Action;
+import org.jclouds.route53.domain.ChangeBatch.ActionOnResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Latency;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Weighted;
+import org.jclouds.route53.features.ResourceRecordSetApi;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Applies large numbers of record changes to a hosted zone. The changes are packed into as few change batches as the
+ * limits of Route53 allow, the batches are submitted with bounded concurrency, and their completion is tracked by a
+ * single {@link ChangeInSyncPoller}.
+ *
+ * <h4>Example usage</h4>
+ *
+ * <pre>
+ * ResourceRecordSetSync sync = ResourceRecordSetSync.builder(api, zoneId).build();
+ * try {
+ *    List&lt;Change&gt; inSync = sync.sync(desiredRecordSets).get();
+ * } finally {
+ *    sync.close();
+ * }
+ * </pre>
+ */
+@Beta
+public class ResourceRecordSetSync implements Closeable {
+
+   /**
+    * The maximum number of {@code Change} elements in a change batch.
+    */
+   public static final int MAX_CHANGES = 100;
+
+   /**
+    * The maximum number of {@code ResourceRecord} elements in a change batch.
+    */
+   public static final int MAX_RECORDS = 1000;
+
+   /**
+    * The maximum number of characters in the {@code Value} elements of a change batch.
+    */
+   public static final int MAX_VALUE_CHARACTERS = 32000;
+
+   /**
+    * Record sets which are not removed by {@link #sync} unless they are desired, as the apex of a zone always has them.
+    */
+   private static final Set<String> UNMANAGED_TYPES = ImmutableSet.of("SOA", "NS");
+
+   public static Builder builder(Route53Api api, String zoneId) {
+      return new Builder(api, zoneId);
+   }
+
+   public static class Builder {
+      private final Route53Api api;
+      private final String zoneId;
+      private int maxConcurrentBatches = 2;
+      private int maxChanges = MAX_CHANGES;
+      private int maxRecords = MAX_RECORDS;
+      private int maxValueCharacters = MAX_VALUE_CHARACTERS;
+      private String comment;
+      private ChangeInSyncPoller poller;
+      private long pollPeriodMillis = TimeUnit.SECONDS.toMillis(5);
+
+      private Builder(Route53Api api, String zoneId) {
+         this.api = checkNotNull(api, "api");
+         this.zoneId = checkNotNull(zoneId, "zoneId");
+      }
+
+      /**
+       * How many change batches may be submitted to the zone at once. Defaults to 2.
+       */
+      public Builder maxConcurrentBatches(int maxConcurrentBatches) {
+         checkArgument(maxConcurrentBatches > 0, "maxConcurrentBatches must be positive");
+         this.maxConcurrentBatches = maxConcurrentBatches;
+         return this;
+      }
+
+      /**
+       * Overrides the limits of a change batch, which default to {@link #MAX_CHANGES}, {@link #MAX_RECORDS} and
+       * {@link #MAX_VALUE_CHARACTERS}.
+       */
+      public Builder limits(int maxChanges, int maxRecords, int maxValueCharacters) {
+         checkArgument(maxChanges > 1, "maxChanges must be at least 2, to keep a replacement in one batch");
+         checkArgument(maxRecords > 0, "maxRecords must be positive");
+         checkArgument(maxValueCharacters > 0, "maxValueCharacters must be positive");
+         this.maxChanges = maxChanges;
+         this.maxRecords = maxRecords;
+         this.maxValueCharacters = maxValueCharacters;
+         return this;
+      }
+
+      /**
+       * @see ChangeBatch#getComment()
+       */
+      public Builder comment(String comment) {
+         this.comment = comment;
+         return this;
+      }
+
+      /**
+       * Shares the poller with other zones. When not set, the sync polls on its own thread.
+       */
+      public Builder poller(ChangeInSyncPoller poller) {
+         this.poller = checkNotNull(poller, "poller");
+         return this;
+      }
+
+      /**
+       * How often the changes in flight are polled, when the sync has its own poller. Defaults to 5 seconds.
+       */
+      public Builder pollPeriod(long duration, TimeUnit unit) {
+         this.pollPeriodMillis = unit.toMillis(duration);
+         return this;
+      }
+
+      public ResourceRecordSetSync build() {
+         return new ResourceRecordSetSync(this);
+      }
+   }
+
+   private final ResourceRecordSetApi rrsApi;
+   private final int maxChanges;
+   private final int maxRecords;
+   private final int maxValueCharacters;
+   private final String comment;
+   private final int maxConcurrentBatches;
+   private final ExecutorService submitters;
+   private final ScheduledExecutorService pollerThread;
+   private final ChangeInSyncPoller poller;
+
+   private ResourceRecordSetSync(Builder builder) {
+      this.rrsApi = builder.api.getResourceRecordSetApiForHostedZone(builder.zoneId);
+      this.maxChanges = builder.maxChanges;
+      this.maxRecords = builder.maxRecords;
+      this.maxValueCharacters = builder.maxValueCharacters;
+      this.comment = builder.comment;
+      this.maxConcurrentBatches = builder.maxConcurrentBatches;
+      this.submitters = Executors.newFixedThreadPool(maxConcurrentBatches, new ThreadFactoryBuilder()
+            .setNameFormat("route53-" + builder.zoneId + "-%d").setDaemon(true).build());
+      if (builder.poller != null) {
+         this.pollerThread = null;
+         this.poller = builder.poller;
+      } else {
+         this.pollerThread = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+               .setNameFormat("route53-" + builder.zoneId + "-poller").setDaemon(true).build());
+         this.poller = new ChangeInSyncPoller(builder.api, pollerThread, builder.pollPeriodMillis,
+               TimeUnit.MILLISECONDS);
+      }
+   }
+
+   /**
+    * Makes the record sets of the zone match the desired ones. The existing record sets are listed in the calling
+    * thread and compared with the desired ones as they are streamed.
+    *
+    * @return the changes, once they are all in sync
+    * @see #diff
+    */
+   public ListenableFuture<List<Change>> sync(Iterable<ResourceRecordSet> desired) {
+      return apply(diff(rrsApi.list().concat(), desired));
+   }
+
+   /**
+    * Packs the changes into batches and submits them. A {@link Action#DELETE} immediately followed by a
+    * {@link Action#CREATE} of the same record set is a replacement, and is always kept in one batch. When a batch
+    * fails, the batches which were not submitted yet are cancelled.
+    *
+    * @return the changes, once they are all in sync
+    */
+   public ListenableFuture<List<Change>> apply(Iterable<ActionOnResourceRecordSet> changes) {
+      final List<ChangeBatch> batches = pack(changes, maxChanges, maxRecords, maxValueCharacters, comment);
+      final List<SettableFuture<Change>> submitted = Lists.newArrayListWithCapacity(batches.size());
+      for (int i = 0; i < batches.size(); i++)
+         submitted.add(SettableFuture.<Change> create());
+      final AtomicInteger next = new AtomicInteger();
+      final AtomicBoolean failed = new AtomicBoolean();
+      Runnable submitter = new Runnable() {
+         @Override
+         public void run() {
+            for (int i = next.getAndIncrement(); i < batches.size(); i = next.getAndIncrement()) {
+               if (failed.get()) {
+                  submitted.get(i).cancel(false);
+                  continue;
+               }
+               try {
+                  submitted.get(i).set(rrsApi.apply(batches.get(i)));
+               } catch (RuntimeException e) {
+                  failed.set(true);
+                  submitted.get(i).setException(e);
+               }
+            }
+         }
+      };
+      for (int i = 0; i < Math.min(maxConcurrentBatches, batches.size()); i++)
+         submitters.execute(submitter);
+
+      AsyncFunction<Change, Change> inSync = new AsyncFunction<Change, Change>() {
+         @Override
+         public ListenableFuture<Change> apply(Change change) {
+            return change.getStatus() == Change.Status.INSYNC ? Futures.immediateFuture(change) : poller
+                  .track(change.getId());
+         }
+      };
+      ImmutableList.Builder<ListenableFuture<Change>> changesInSync = ImmutableList.builder();
+      for (ListenableFuture<Change> change : submitted)
+         changesInSync.add(Futures.transform(change, inSync));
+      return Futures.allAsList(changesInSync.build());
+   }
+
+   /**
+    * Compares the existing record sets with the desired ones, which are matched by name, type and, for subsets, id.
+    * <ul>
+    * <li>desired record sets which do not exist are created;</li>
+    * <li>existing record sets which differ from the desired ones are replaced, by deleting then creating them;</li>
+    * <li>existing record sets which are not desired are deleted, except for {@code SOA} and {@code NS} ones.</li>
+    * </ul>
+    * Only the desired record sets are held in memory. Names are compared as they are, so they should be fully qualified
+    * with a trailing dot, as Route53 lists them.
+    */
+   public static List<ActionOnResourceRecordSet> diff(Iterable<ResourceRecordSet> existing,
+         Iterable<ResourceRecordSet> desired) {
+      Map<ResourceRecordSet, ResourceRecordSet> remaining = Maps.newLinkedHashMap();
+      for (ResourceRecordSet rrs : desired)
+         remaining.put(rrs, rrs);
+      ChangeBatch.Builder changes = ChangeBatch.builder();
+      boolean changed = false;
+      for (ResourceRecordSet current : existing) {
+         // equality of record sets is that of their name, type and subset id
+         ResourceRecordSet wanted = remaining.remove(current);
+         if (wanted == null) {
+            if (!UNMANAGED_TYPES.contains(current.getType())) {
+               changes.delete(current);
+               changed = true;
+            }
+         } else if (!sameContent(current, wanted)) {
+            changes.delete(current).create(wanted);
+            changed = true;
+         }
+      }
+      for (ResourceRecordSet rrs : remaining.values()) {
+         changes.create(rrs);
+         changed = true;
+      }
+      return changed ? ImmutableList.copyOf(changes.build()) : ImmutableList.<ActionOnResourceRecordSet> of();
+   }
+
+   private static boolean sameContent(ResourceRecordSet a, ResourceRecordSet b) {
+      if (a.getClass() != b.getClass() || !equal(a.getTTL(), b.getTTL()) || !equal(a.getValues(), b.getValues())
+            || !equal(a.getAliasTarget(), b.getAliasTarget()))
+         return false;
+      if (a instanceof Weighted)
+         return Weighted.class.cast(a).getWeight() == Weighted.class.cast(b).getWeight();
+      if (a instanceof Latency)
+         return Latency.class.cast(a).getRegion().equals(Latency.class.cast(b).getRegion());
+      return true;
+   }
+
+   /**
+    * Packs the changes, in order, into as few batches as the limits allow, keeping replacements in one batch.
+    */
+   public static List<ChangeBatch> pack(Iterable<ActionOnResourceRecordSet> changes, int maxChanges, int maxRecords,
+         int maxValueCharacters, String comment) {
+      ImmutableList.Builder<ChangeBatch> batches = ImmutableList.builder();
+      List<ActionOnResourceRecordSet> actions = ImmutableList.copyOf(changes);
+      List<ActionOnResourceRecordSet> batch = Lists.newArrayList();
+      int records = 0;
+      int characters = 0;
+      for (int i = 0; i < actions.size();) {
+         int end = i + 1;
+         if (end < actions.size() && actions.get(i).getAction() == Action.DELETE
+               && actions.get(end).getAction() == Action.CREATE
+               && actions.get(i).getRRS().equals(actions.get(end).getRRS()))
+            end++;
+         List<ActionOnResourceRecordSet> group = actions.subList(i, end);
+         int groupRecords = 0;
+         int groupCharacters = 0;
+         for (ActionOnResourceRecordSet action : group) {
+            groupRecords += records(action.getRRS());
+            groupCharacters += characters(action.getRRS());
+         }
+         checkArgument(group.size() <= maxChanges && groupRecords <= maxRecords
+               && groupCharacters <= maxValueCharacters, "%s exceeds the limits of a change batch", group);
+         if (!batch.isEmpty()
+               && (batch.size() + group.size() > maxChanges || records + groupRecords > maxRecords
+                     || characters + groupCharacters > maxValueCharacters)) {
+            batches.add(toBatch(batch, comment));
+            batch = Lists.newArrayList();
+            records = 0;
+            characters = 0;
+         }
+         batch.addAll(group);
+         records += groupRecords;
+         characters += groupCharacters;
+         i = end;
+      }
+      if (!batch.isEmpty())
+         batches.add(toBatch(batch, comment));
+      return batches.build();
+   }
+
+   private static int records(ResourceRecordSet rrs) {
+      return rrs.getAliasTarget().isPresent() ? 1 : rrs.getValues().size();
+   }
+
+   private static int characters(ResourceRecordSet rrs) {
+      int characters = 0;
+      for (String value : rrs.getValues())
+         characters += value.length();
+      return characters;
+   }
+
+   private static ChangeBatch toBatch(List<ActionOnResourceRecordSet> actions, String comment) {
+      ChangeBatch.Builder batch = ChangeBatch.builder().comment(comment);
+      for (ActionOnResourceRecordSet action : actions) {
+         if (action.getAction() == Action.CREATE)
+            batch.create(action.getRRS());
+         else
+            batch.delete(action.getRRS());
+      }
+      return batch.build();
+   }
+
+   /**
+    * Stops submitting batches. Changes which were submitted are not affected, but are no longer tracked unless the
+    * poller is shared.
+    */
+   @Override
+   public void close() {
+      submitters.shutdownNow();
+      if (pollerThread != null) {
+         poller.close();
+         MoreExecutors.shutdownAndAwaitTermination(pollerThread, 10, TimeUnit.SECONDS);
+      }
+   }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ChangeBatch.ActionOnResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.features.ResourceRecordSetApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "ResourceRecordSetSyncTest")
+public class ResourceRecordSetSyncTest {
+
+   private static ResourceRecordSet a(String name, String... values) {
+      ResourceRecordSet.Builder rrs = ResourceRecordSet.builder().name(name).type("A").ttl(300);
+      for (String value : values)
+         rrs.add(value);
+      return rrs.build();
+   }
+
+   private static final ResourceRecordSet NS = ResourceRecordSet.builder().name("jclouds.org.").type("NS")
+         .add("ns-119.awsdns-14.com.").build();
+
+   public void testDiffCreatesReplacesAndDeletes() {
+      ResourceRecordSet unchanged = a("www.jclouds.org.", "1.1.1.1");
+      ResourceRecordSet before = a("api.jclouds.org.", "2.2.2.2");
+      ResourceRecordSet after = a("api.jclouds.org.", "3.3.3.3");
+      ResourceRecordSet removed = a("old.jclouds.org.", "4.4.4.4");
+      ResourceRecordSet added = a("new.jclouds.org.", "5.5.5.5");
+
+      List<ActionOnResourceRecordSet> changes = ResourceRecordSetSync.diff(
+            ImmutableList.of(NS, unchanged, before, removed), ImmutableList.of(unchanged, after, added));
+
+      assertEquals(changes, ChangeBatch.builder().delete(before).create(after).delete(removed).create(added).build());
+   }
+
+   public void testDiffOfSameRecordSetsIsEmpty() {
+      ResourceRecordSet www = a("www.jclouds.org.", "1.1.1.1");
+      assertTrue(ResourceRecordSetSync.diff(ImmutableList.of(NS, www), ImmutableList.of(a("www.jclouds.org.",
+            "1.1.1.1"))).isEmpty());
+   }
+
+   public void testPackRespectsMaxChanges() {
+      ChangeBatch.Builder changes = ChangeBatch.builder();
+      for (int i = 0; i < 250; i++)
+         changes.create(a("host" + i + ".jclouds.org.", "10.0.0.1"));
+
+      List<ChangeBatch> batches = ResourceRecordSetSync.pack(changes.build(), 100, 1000, 32000, "bulk");
+
+      assertEquals(batches.size(), 3);
+      assertEquals(batches.get(0).size(), 100);
+      assertEquals(batches.get(1).size(), 100);
+      assertEquals(batches.get(2).size(), 50);
+      assertEquals(batches.get(2).getComment().get(), "bulk");
+   }
+
+   public void testPackRespectsMaxRecordsAndKeepsReplacementsTogether() {
+      ResourceRecordSet first = a("a.jclouds.org.", "10.0.0.1", "10.0.0.2");
+      ResourceRecordSet before = a("b.jclouds.org.", "10.0.0.3");
+      ResourceRecordSet after = a("b.jclouds.org.", "10.0.0.4", "10.0.0.5");
+
+      List<ChangeBatch> batches = ResourceRecordSetSync.pack(
+            ChangeBatch.builder().create(first).delete(before).create(after).build(), 100, 4, 32000, null);
+
+      assertEquals(batches, ImmutableList.of(ChangeBatch.builder().create(first).build(), ChangeBatch.builder()
+            .delete(before).create(after).build()));
+   }
+
+   public void testApplyWaitsForChangesInSync() throws Exception {
+      Route53Api api = createMock(Route53Api.class);
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      ChangeBatch batch = ChangeBatch.builder().create(a("www.jclouds.org.", "1.1.1.1")).build();
+      Date submittedAt = new Date();
+
+      expect(api.getResourceRecordSetApiForHostedZone("Z1PA6795UKMFR9")).andReturn(rrsApi);
+      expect(rrsApi.apply(batch)).andReturn(Change.create("C2682N5HXP0BZ4", Change.Status.PENDING, submittedAt));
+      expect(api.getChange("C2682N5HXP0BZ4")).andReturn(
+            Change.create("C2682N5HXP0BZ4", Change.Status.PENDING, submittedAt));
+      expect(api.getChange("C2682N5HXP0BZ4")).andReturn(
+            Change.create("C2682N5HXP0BZ4", Change.Status.INSYNC, submittedAt));
+      replay(api, rrsApi);
+
+      ResourceRecordSetSync sync = ResourceRecordSetSync.builder(api, "Z1PA6795UKMFR9")
+            .pollPeriod(10, TimeUnit.MILLISECONDS).build();
+      try {
+         List<Change> changes = sync.apply(batch).get(10, TimeUnit.SECONDS);
+         assertEquals(changes.get(0).getStatus(), Change.Status.INSYNC);
+      } finally {
+         sync.close();
+      }
+      verify(api, rrsApi);
+   }
+
+   public void testFailedBatchCancelsTheBatchesNotSubmitted() throws Exception {
+      Route53Api api = createMock(Route53Api.class);
+      ResourceRecordSetApi rrsApi = createMock(ResourceRecordSetApi.class);
+      ChangeBatch.Builder changes = ChangeBatch.builder();
+      for (int i = 0; i < 6; i++)
+         changes.create(a("host" + i + ".jclouds.org.", "10.0.0.1"));
+      List<ChangeBatch> batches = ResourceRecordSetSync.pack(changes.build(), 2, 1000, 32000, null);
+      InvalidChangeBatchException invalid = new InvalidChangeBatchException(ImmutableList.of(
+            "Tried to create resource record set host2.jclouds.org. type A, but it already exists"), null);
+
+      expect(api.getResourceRecordSetApiForHostedZone("Z1PA6795UKMFR9")).andReturn(rrsApi);
+      expect(rrsApi.apply(batches.get(0))).andReturn(
+            Change.create("C2682N5HXP0BZ4", Change.Status.INSYNC, new Date()));
+      expect(rrsApi.apply(batches.get(1))).andThrow(invalid);
+      // the third batch is never submitted
+      replay(api, rrsApi);
+
+      ResourceRecordSetSync sync = ResourceRecordSetSync.builder(api, "Z1PA6795UKMFR9").maxConcurrentBatches(1)
+            .limits(2, 1000, 32000).pollPeriod(10, TimeUnit.MILLISECONDS).build();
+      try {
+         sync.apply(changes.build()).get(10, TimeUnit.SECONDS);
+         fail("Expected the second batch to fail");
+      } catch (ExecutionException e) {
+         assertSame(e.getCause(), invalid);
+      } finally {
+         sync.close();
+      }
+      verify(api, rrsApi);
+   }
+}
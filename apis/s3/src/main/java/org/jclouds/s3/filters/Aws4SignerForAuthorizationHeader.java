@@ -22,6 +22,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.io.BaseEncoding;
 import com.google.common.net.HttpHeaders;
 import com.google.inject.Inject;
@@ -33,6 +34,9 @@ import org.jclouds.http.HttpException;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.internal.SignatureWire;
 import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
+import org.jclouds.io.payloads.HashingPayload;
+import org.jclouds.io.payloads.StringPayload;
 import org.jclouds.location.Provider;
 import org.jclouds.util.Closeables2;
 
@@ -72,6 +76,12 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
       checkNotNull(request.getEndpoint(), "request is not ready to sign, request.endpoint not present.");
 
       Payload payload = request.getPayload();
+      if (payload != null && payload.isRepeatable() && !(payload instanceof HashingPayload)
+            && !(payload instanceof StringPayload)) {
+         // the SHA-256 is computed once when signing, and the content is not hashed again while it is sent
+         payload = Payloads.newHashingPayload(payload, Hashing.sha256());
+         request = request.toBuilder().payload(payload).build();
+      }
 
       // get host & port from request endpoint.
       String host = request.getEndpoint().getHost();
@@ -186,6 +196,15 @@ public class Aws4SignerForAuthorizationHeader extends Aws4SignerBase {
     * in this time, payload ContentMetadata provided content hash md5, but aws required sha256.
     */
    protected String calculatePayloadContentHash(Payload payload) {
+      if (payload instanceof HashingPayload
+            && ((HashingPayload) payload).getHashFunctions().contains(Hashing.sha256())) {
+         // computed once, together with the other digests of the payload, rather than on every attempt
+         try {
+            return ((HashingPayload) payload).hash(Hashing.sha256()).toString();
+         } catch (IOException e) {
+            throw new HttpException("unable to read payload to calculate AWS4 signature.", e);
+         }
+      }
       // use payload stream calculate content sha256
       InputStream payloadStream;
       try {
@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.sqs.domain.BatchError;
+import org.jclouds.sqs.domain.BatchResult;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Coalesces single entries into the batch actions of SQS, which accept up to {@link #MAX_ENTRIES} entries per request.
+ * A batch is sent as soon as it is full, as soon as the next entry would exceed the weight limit, or once the oldest
+ * pending entry waited for the flush delay, whichever happens first.
+ * <p/>
+ * Entries are correlated to their results with the ids {@code 1} to {@code n}. An entry which the service reports in
+ * {@link BatchResult#getErrors()} fails its future with an {@link IllegalStateException}, and a failure of the whole
+ * request fails the futures of all the entries of the batch.
+ */
+abstract class Batcher<E, V> {
+
+   static final int MAX_ENTRIES = 10;
+
+   private final ScheduledExecutorService executor;
+   private final long flushDelayMillis;
+   private final long maxWeight;
+
+   private final Runnable flushTask = new Runnable() {
+      @Override
+      public void run() {
+         flush();
+      }
+   };
+
+   // guarded by this
+   private List<Entry<E, V>> pending = Lists.newArrayListWithCapacity(MAX_ENTRIES);
+   private long pendingWeight;
+   private ScheduledFuture<?> scheduledFlush;
+   private boolean closed;
+
+   /**
+    * @param executor
+    *           sends full batches and runs the delayed flushes
+    * @param flushDelayMillis
+    *           how long an entry may wait for the batch to fill
+    * @param maxWeight
+    *           the maximum sum of {@link #weigh} of the entries of a batch
+    */
+   Batcher(ScheduledExecutorService executor, long flushDelayMillis, long maxWeight) {
+      this.executor = checkNotNull(executor, "executor");
+      checkArgument(flushDelayMillis >= 0, "flushDelayMillis must be non-negative");
+      checkArgument(maxWeight > 0, "maxWeight must be positive");
+      this.flushDelayMillis = flushDelayMillis;
+      this.maxWeight = maxWeight;
+   }
+
+   /**
+    * Sends the entries, indexed by their correlation id, in one request.
+    */
+   protected abstract BatchResult<? extends V> send(Map<String, E> entries);
+
+   /**
+    * The weight of an entry, counted against the weight limit of the batch. Entries weigh nothing by default.
+    */
+   protected long weigh(E entry) {
+      return 0;
+   }
+
+   ListenableFuture<V> add(E element) {
+      checkNotNull(element, "element");
+      long weight = weigh(element);
+      checkArgument(weight <= maxWeight, "entry weighs %s, which exceeds the batch limit of %s", weight, maxWeight);
+      Entry<E, V> entry = new Entry<E, V>(element);
+      List<Entry<E, V>> full = null;
+      List<Entry<E, V>> overweight = null;
+      synchronized (this) {
+         checkState(!closed, "closed");
+         if (!pending.isEmpty() && pendingWeight + weight > maxWeight)
+            overweight = drain();
+         pending.add(entry);
+         pendingWeight += weight;
+         if (pending.size() >= MAX_ENTRIES || pendingWeight >= maxWeight)
+            full = drain();
+         else if (scheduledFlush == null)
+            scheduledFlush = executor.schedule(flushTask, flushDelayMillis, TimeUnit.MILLISECONDS);
+      }
+      if (overweight != null)
+         sendLater(overweight);
+      if (full != null)
+         sendLater(full);
+      return entry.future;
+   }
+
+   /**
+    * Sends the pending entries in the calling thread.
+    */
+   void flush() {
+      List<Entry<E, V>> batch;
+      synchronized (this) {
+         batch = drain();
+      }
+      if (!batch.isEmpty())
+         sendAndComplete(batch);
+   }
+
+   /**
+    * Sends the pending entries and rejects any further ones. Batches which were already handed to the executor are not
+    * awaited.
+    */
+   void close() {
+      synchronized (this) {
+         closed = true;
+      }
+      flush();
+   }
+
+   private List<Entry<E, V>> drain() {
+      List<Entry<E, V>> batch = pending;
+      pending = Lists.newArrayListWithCapacity(MAX_ENTRIES);
+      pendingWeight = 0;
+      if (scheduledFlush != null) {
+         scheduledFlush.cancel(false);
+         scheduledFlush = null;
+      }
+      return batch;
+   }
+
+   private void sendLater(final List<Entry<E, V>> batch) {
+      executor.execute(new Runnable() {
+         @Override
+         public void run() {
+            sendAndComplete(batch);
+         }
+      });
+   }
+
+   private void sendAndComplete(List<Entry<E, V>> batch) {
+      ImmutableMap.Builder<String, E> entries = ImmutableMap.builder();
+      for (int i = 0; i < batch.size(); i++)
+         entries.put(String.valueOf(i + 1), batch.get(i).element);
+      BatchResult<? extends V> result;
+      try {
+         result = send(entries.build());
+      } catch (RuntimeException e) {
+         for (Entry<E, V> entry : batch)
+            entry.future.setException(e);
+         return;
+      } catch (Error e) {
+         for (Entry<E, V> entry : batch)
+            entry.future.setException(e);
+         throw e;
+      }
+      for (int i = 0; i < batch.size(); i++) {
+         String id = String.valueOf(i + 1);
+         SettableFuture<V> future = batch.get(i).future;
+         if (result.containsKey(id)) {
+            future.set(result.get(id));
+         } else if (result.getErrors().containsKey(id)) {
+            BatchError error = result.getErrors().get(id);
+            future.setException(new IllegalStateException(error.getCode() + ": " + error.getMessage()));
+         } else {
+            future.setException(new IllegalStateException("no result for entry " + id + " in " + result));
+         }
+      }
+   }
+
+   private static final class Entry<E, V> {
+      private final E element;
+      private final SettableFuture<V> future = SettableFuture.create();
+
+      private Entry(E element) {
+         this.element = element;
+      }
+   }
+}
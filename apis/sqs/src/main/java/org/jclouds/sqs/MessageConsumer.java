@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.sqs.options.ReceiveMessageOptions.Builder.waitTimeSeconds;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.Message;
+import org.jclouds.sqs.features.MessageApi;
+import org.jclouds.sqs.options.ReceiveMessageOptions;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Consumes a queue with several concurrent long-poll receivers, which hand the messages they receive to the callers of
+ * {@link #take} through a bounded queue. When the queue is full, the receivers stop polling until there is room again.
+ * <p/>
+ * Acknowledgements are batched: {@link #delete} and {@link #changeVisibility} coalesce into
+ * {@code DeleteMessageBatch} and {@code ChangeMessageVisibilityBatch} requests of up to ten entries, which are sent
+ * when full or after the flush delay.
+ *
+ * <h4>Example usage</h4>
+ *
+ * <pre>
+ * MessageConsumer consumer = MessageConsumer.builder(api).receivers(4).capacity(200).build();
+ * consumer.start();
+ * try {
+ *    while (running) {
+ *       Message message = consumer.take();
+ *       process(message);
+ *       consumer.delete(message);
+ *    }
+ * } finally {
+ *    consumer.close();
+ * }
+ * </pre>
+ *
+ * Messages which were received but not taken when the consumer is closed are not deleted, so they become visible again
+ * once their visibility timeout expires.
+ */
+@Beta
+public class MessageConsumer implements Closeable {
+
+   public static Builder builder(MessageApi api) {
+      return new Builder(api);
+   }
+
+   public static class Builder {
+      private final MessageApi api;
+      private int receivers = 1;
+      private int capacity = 100;
+      private int maxMessagesPerReceive = Batcher.MAX_ENTRIES;
+      private int waitTimeSeconds = 20;
+      private Integer visibilityTimeout;
+      private long flushDelayMillis = 100;
+      private long backoffMillis = 1000;
+      private Logger logger = Logger.NULL;
+
+      private Builder(MessageApi api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      /**
+       * How many long-poll requests may be in flight at once. Defaults to 1.
+       */
+      public Builder receivers(int receivers) {
+         checkArgument(receivers > 0, "receivers must be positive");
+         this.receivers = receivers;
+         return this;
+      }
+
+      /**
+       * How many received messages may wait to be taken. Defaults to 100.
+       */
+      public Builder capacity(int capacity) {
+         checkArgument(capacity > 0, "capacity must be positive");
+         this.capacity = capacity;
+         return this;
+      }
+
+      /**
+       * How many messages to receive per request (current max: 10). Defaults to 10.
+       */
+      public Builder maxMessagesPerReceive(int maxMessagesPerReceive) {
+         checkArgument(maxMessagesPerReceive > 0, "maxMessagesPerReceive must be positive");
+         this.maxMessagesPerReceive = maxMessagesPerReceive;
+         return this;
+      }
+
+      /**
+       * How long a receive request waits for messages to arrive (current max: 20). Defaults to 20 seconds.
+       */
+      public Builder waitTimeSeconds(int waitTimeSeconds) {
+         checkArgument(waitTimeSeconds >= 0, "waitTimeSeconds must be non-negative");
+         this.waitTimeSeconds = waitTimeSeconds;
+         return this;
+      }
+
+      /**
+       * The visibility timeout of the received messages. Defaults to the visibility timeout of the queue.
+       */
+      public Builder visibilityTimeout(@Nullable Integer visibilityTimeout) {
+         this.visibilityTimeout = visibilityTimeout;
+         return this;
+      }
+
+      /**
+       * How long a delete or visibility change may wait for its batch to fill. Defaults to 100 milliseconds.
+       */
+      public Builder flushDelay(long duration, TimeUnit unit) {
+         this.flushDelayMillis = unit.toMillis(duration);
+         return this;
+      }
+
+      /**
+       * How long a receiver waits after a failed request, doubled on each consecutive failure up to a minute. Defaults
+       * to one second.
+       */
+      public Builder backoff(long duration, TimeUnit unit) {
+         this.backoffMillis = unit.toMillis(duration);
+         return this;
+      }
+
+      public Builder logger(Logger logger) {
+         this.logger = checkNotNull(logger, "logger");
+         return this;
+      }
+
+      public MessageConsumer build() {
+         return new MessageConsumer(this);
+      }
+   }
+
+   private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+   private static final Function<Object, Void> TO_VOID = new Function<Object, Void>() {
+      @Override
+      public Void apply(Object input) {
+         return null;
+      }
+   };
+
+   private final MessageApi api;
+   private final int receivers;
+   private final int maxMessagesPerReceive;
+   private final ReceiveMessageOptions options;
+   private final long backoffMillis;
+   private final Logger logger;
+   private final BlockingQueue<Message> messages;
+   private final ExecutorService receiverThreads;
+   private final ScheduledExecutorService ackThreads;
+   private final Batcher<String, String> deletes;
+   private final Batcher<Map.Entry<String, Integer>, String> visibilityChanges;
+
+   private volatile boolean started;
+   private volatile boolean closed;
+
+   private MessageConsumer(Builder builder) {
+      this.api = builder.api;
+      this.receivers = builder.receivers;
+      this.maxMessagesPerReceive = builder.maxMessagesPerReceive;
+      this.options = waitTimeSeconds(builder.waitTimeSeconds);
+      if (builder.visibilityTimeout != null)
+         options.visibilityTimeout(builder.visibilityTimeout);
+      this.backoffMillis = builder.backoffMillis;
+      this.logger = builder.logger;
+      this.messages = new LinkedBlockingQueue<Message>(builder.capacity);
+      this.receiverThreads = Executors.newFixedThreadPool(receivers, new ThreadFactoryBuilder()
+            .setNameFormat("sqs-receiver-%d").setDaemon(true).build());
+      this.ackThreads = Executors.newScheduledThreadPool(2, new ThreadFactoryBuilder()
+            .setNameFormat("sqs-ack-%d").setDaemon(true).build());
+      this.deletes = new Batcher<String, String>(ackThreads, builder.flushDelayMillis, Long.MAX_VALUE) {
+         @Override
+         protected BatchResult<String> send(Map<String, String> idReceiptHandle) {
+            return api.delete(idReceiptHandle);
+         }
+      };
+      this.visibilityChanges = new Batcher<Map.Entry<String, Integer>, String>(ackThreads, builder.flushDelayMillis,
+            Long.MAX_VALUE) {
+         @Override
+         protected BatchResult<String> send(Map<String, Map.Entry<String, Integer>> entries) {
+            ImmutableTable.Builder<String, String, Integer> idReceiptHandleVisibilityTimeout = ImmutableTable.builder();
+            for (Map.Entry<String, Map.Entry<String, Integer>> entry : entries.entrySet())
+               idReceiptHandleVisibilityTimeout.put(entry.getKey(), entry.getValue().getKey(), entry.getValue()
+                     .getValue());
+            return api.changeVisibility(idReceiptHandleVisibilityTimeout.build());
+         }
+      };
+   }
+
+   /**
+    * Starts the receivers.
+    */
+   public synchronized void start() {
+      checkState(!closed, "closed");
+      checkState(!started, "already started");
+      started = true;
+      for (int i = 0; i < receivers; i++)
+         receiverThreads.execute(new Receiver());
+   }
+
+   /**
+    * Waits for the next received message.
+    */
+   public Message take() throws InterruptedException {
+      return messages.take();
+   }
+
+   /**
+    * Waits up to the timeout for the next received message.
+    *
+    * @return the message, or null if none was received in time
+    */
+   @Nullable
+   public Message poll(long timeout, TimeUnit unit) throws InterruptedException {
+      return messages.poll(timeout, unit);
+   }
+
+   /**
+    * Queues the deletion of the message for the next {@code DeleteMessageBatch} request.
+    *
+    * @return completes once the message was deleted
+    */
+   public ListenableFuture<Void> delete(Message message) {
+      String receiptHandle = checkNotNull(checkNotNull(message, "message").getReceiptHandle(), "receiptHandle");
+      return Futures.transform(deletes.add(receiptHandle), TO_VOID);
+   }
+
+   /**
+    * Queues the change of the visibility timeout of the message for the next {@code ChangeMessageVisibilityBatch}
+    * request, for example to extend the time to process it.
+    *
+    * @return completes once the visibility timeout was changed
+    */
+   public ListenableFuture<Void> changeVisibility(Message message, int visibilityTimeout) {
+      String receiptHandle = checkNotNull(checkNotNull(message, "message").getReceiptHandle(), "receiptHandle");
+      return Futures.transform(visibilityChanges.add(Maps.immutableEntry(receiptHandle, visibilityTimeout)), TO_VOID);
+   }
+
+   /**
+    * Sends the pending deletes and visibility changes, in the calling thread.
+    */
+   public void flush() {
+      deletes.flush();
+      visibilityChanges.flush();
+   }
+
+   /**
+    * Stops the receivers, sends the pending deletes and visibility changes and waits for the ones in flight.
+    */
+   @Override
+   public void close() {
+      synchronized (this) {
+         if (closed)
+            return;
+         closed = true;
+      }
+      receiverThreads.shutdownNow();
+      deletes.close();
+      visibilityChanges.close();
+      MoreExecutors.shutdownAndAwaitTermination(ackThreads, 30, TimeUnit.SECONDS);
+   }
+
+   private class Receiver implements Runnable {
+      @Override
+      public void run() {
+         int failures = 0;
+         while (!closed && !Thread.currentThread().isInterrupted()) {
+            try {
+               for (Message message : api.receive(maxMessagesPerReceive, options))
+                  messages.put(message);
+               failures = 0;
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+               if (closed)
+                  return;
+               long sleep = Math.min(backoffMillis << Math.min(failures++, 16), MAX_BACKOFF_MILLIS);
+               logger.warn(e, "error receiving messages, retrying in %sms", sleep);
+               try {
+                  TimeUnit.MILLISECONDS.sleep(sleep);
+               } catch (InterruptedException ie) {
+                  Thread.currentThread().interrupt();
+               }
+            }
+         }
+      }
+   }
+}
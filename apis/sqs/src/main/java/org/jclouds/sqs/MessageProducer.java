@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.MessageIdAndMD5;
+import org.jclouds.sqs.features.MessageApi;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Utf8;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Sends messages to a queue, coalescing concurrent {@link #send} calls into {@code SendMessageBatch} requests of up to
+ * ten messages.
+ *
+ * <h4>Example usage</h4>
+ *
+ * <pre>
+ * MessageProducer producer = MessageProducer.builder(api).flushDelay(50, TimeUnit.MILLISECONDS).build();
+ * try {
+ *    ListenableFuture&lt;MessageIdAndMD5&gt; sent = producer.send(&quot;hello&quot;);
+ * } finally {
+ *    producer.close();
+ * }
+ * </pre>
+ */
+@Beta
+public class MessageProducer implements Closeable {
+
+   /**
+    * The maximum total size of the bodies of a {@code SendMessageBatch} request.
+    */
+   public static final int MAX_BATCH_BYTES = 256 * 1024;
+
+   public static Builder builder(MessageApi api) {
+      return new Builder(api);
+   }
+
+   public static class Builder {
+      private final MessageApi api;
+      private long flushDelayMillis = 100;
+      private int maxBatchBytes = MAX_BATCH_BYTES;
+      private int senders = 2;
+
+      private Builder(MessageApi api) {
+         this.api = checkNotNull(api, "api");
+      }
+
+      /**
+       * How long a message may wait for its batch to fill before it is sent. Defaults to 100 milliseconds.
+       */
+      public Builder flushDelay(long duration, TimeUnit unit) {
+         this.flushDelayMillis = unit.toMillis(duration);
+         return this;
+      }
+
+      /**
+       * The maximum total size, in UTF-8 bytes, of the bodies of a batch. Defaults to {@link #MAX_BATCH_BYTES}.
+       */
+      public Builder maxBatchBytes(int maxBatchBytes) {
+         checkArgument(maxBatchBytes > 0, "maxBatchBytes must be positive");
+         this.maxBatchBytes = maxBatchBytes;
+         return this;
+      }
+
+      /**
+       * How many batches may be in flight at once. Defaults to 2.
+       */
+      public Builder senders(int senders) {
+         checkArgument(senders > 0, "senders must be positive");
+         this.senders = senders;
+         return this;
+      }
+
+      public MessageProducer build() {
+         return new MessageProducer(this);
+      }
+   }
+
+   private final ScheduledExecutorService executor;
+   private final Batcher<String, MessageIdAndMD5> batcher;
+
+   private MessageProducer(Builder builder) {
+      final MessageApi api = builder.api;
+      this.executor = Executors.newScheduledThreadPool(builder.senders, new ThreadFactoryBuilder()
+            .setNameFormat("sqs-producer-%d").setDaemon(true).build());
+      this.batcher = new Batcher<String, MessageIdAndMD5>(executor, builder.flushDelayMillis, builder.maxBatchBytes) {
+         @Override
+         protected BatchResult<? extends MessageIdAndMD5> send(Map<String, String> idMessageBody) {
+            return api.send(idMessageBody);
+         }
+
+         @Override
+         protected long weigh(String body) {
+            return Utf8.encodedLength(body);
+         }
+      };
+   }
+
+   /**
+    * Queues the message for the next batch.
+    *
+    * @return the id and digest of the message, once its batch was sent
+    * @throws IllegalArgumentException
+    *            if the body alone exceeds the batch size limit
+    * @throws IllegalStateException
+    *            if the producer was closed
+    */
+   public ListenableFuture<MessageIdAndMD5> send(String body) {
+      return batcher.add(checkNotNull(body, "body"));
+   }
+
+   /**
+    * Sends the messages waiting for their batch to fill, in the calling thread.
+    */
+   public void flush() {
+      batcher.flush();
+   }
+
+   /**
+    * Sends the pending messages, waits for the batches in flight, and releases the sender threads.
+    */
+   @Override
+   public void close() {
+      batcher.close();
+      MoreExecutors.shutdownAndAwaitTermination(executor, 30, TimeUnit.SECONDS);
+   }
+}
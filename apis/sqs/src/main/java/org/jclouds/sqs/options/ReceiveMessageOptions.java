@@ -33,6 +33,7 @@ import com.google.common.collect.Multimap;
 public class ReceiveMessageOptions extends BaseHttpRequestOptions implements Cloneable {
 
    private Integer visibilityTimeout;
+   private Integer waitTimeSeconds;
    private ImmutableSet.Builder<String> attributes = ImmutableSet.<String> builder();
 
    /**
@@ -50,6 +51,21 @@ public class ReceiveMessageOptions extends BaseHttpRequestOptions implements Clo
       return this;
    }
 
+   /**
+    * The duration (in seconds) for which the call waits for a message to
+    * arrive in the queue before returning, instead of returning at once when
+    * there are none.
+    *
+    * @param waitTimeSeconds
+    *           Constraints: 0 to 20
+    *
+    *           Default: The receive message wait time of the queue
+    */
+   public ReceiveMessageOptions waitTimeSeconds(Integer waitTimeSeconds) {
+      this.waitTimeSeconds = waitTimeSeconds;
+      return this;
+   }
+
    /**
     * The attribute you want to get.
     *
@@ -89,6 +105,13 @@ public class ReceiveMessageOptions extends BaseHttpRequestOptions implements Clo
          return new ReceiveMessageOptions().visibilityTimeout(visibilityTimeout);
       }
 
+      /**
+       * @see ReceiveMessageOptions#waitTimeSeconds
+       */
+      public static ReceiveMessageOptions waitTimeSeconds(Integer waitTimeSeconds) {
+         return new ReceiveMessageOptions().waitTimeSeconds(waitTimeSeconds);
+      }
+
       /**
        * @see ReceiveMessageOptions#attribute
        */
@@ -109,6 +132,8 @@ public class ReceiveMessageOptions extends BaseHttpRequestOptions implements Clo
       Multimap<String, String> params = super.buildFormParameters();
       if (visibilityTimeout != null)
          params.put("VisibilityTimeout", visibilityTimeout.toString());
+      if (waitTimeSeconds != null)
+         params.put("WaitTimeSeconds", waitTimeSeconds.toString());
       ImmutableSet<String> attributes = this.attributes.build();
       if (!attributes.isEmpty()) {
          int nameIndex = 1;
@@ -125,12 +150,13 @@ public class ReceiveMessageOptions extends BaseHttpRequestOptions implements Clo
     */
    @Override
    public int hashCode() {
-      return Objects.hashCode(visibilityTimeout, attributes.build());
+      return Objects.hashCode(visibilityTimeout, waitTimeSeconds, attributes.build());
    }
 
    @Override
    public ReceiveMessageOptions clone() {
-      return new ReceiveMessageOptions().visibilityTimeout(visibilityTimeout).attributes(attributes.build());
+      return new ReceiveMessageOptions().visibilityTimeout(visibilityTimeout).waitTimeSeconds(waitTimeSeconds)
+            .attributes(attributes.build());
    }
 
    /**
@@ -146,6 +172,7 @@ public class ReceiveMessageOptions extends BaseHttpRequestOptions implements Clo
          return false;
       ReceiveMessageOptions other = ReceiveMessageOptions.class.cast(obj);
       return Objects.equal(this.visibilityTimeout, other.visibilityTimeout)
+            && Objects.equal(this.waitTimeSeconds, other.waitTimeSeconds)
             && Objects.equal(this.attributes.build(), other.attributes.build());
    }
 
@@ -156,6 +183,7 @@ public class ReceiveMessageOptions extends BaseHttpRequestOptions implements Clo
    public String toString() {
       ImmutableSet<String> attributes = this.attributes.build();
       return MoreObjects.toStringHelper(this).omitNullValues().add("visibilityTimeout", visibilityTimeout)
+            .add("waitTimeSeconds", waitTimeSeconds)
             .add("attributes", !attributes.isEmpty() ? attributes : null).toString();
    }
 }
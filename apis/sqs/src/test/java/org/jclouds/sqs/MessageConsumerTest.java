@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.eq;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.sqs.options.ReceiveMessageOptions.Builder.waitTimeSeconds;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.Message;
+import org.jclouds.sqs.features.MessageApi;
+import org.jclouds.sqs.options.ReceiveMessageOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.hash.HashCode;
+
+/**
+ * Tests behavior of {@code MessageConsumer}.
+ */
+@Test(testName = "MessageConsumerTest", singleThreaded = true)
+public class MessageConsumerTest {
+
+   private static Message message(String id) {
+      return Message.builder().id(id).body("body " + id).receiptHandle("handle " + id)
+            .md5(HashCode.fromInt(id.hashCode())).build();
+   }
+
+   private static final FluentIterable<Message> NO_MESSAGES = FluentIterable.from(ImmutableSet.<Message> of());
+
+   public void testReceivesWithLongPolling() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.receive(10, waitTimeSeconds(5).visibilityTimeout(60))).andReturn(
+            FluentIterable.from(ImmutableSet.of(message("1"), message("2")))).once();
+      expect(api.receive(10, waitTimeSeconds(5).visibilityTimeout(60))).andStubReturn(NO_MESSAGES);
+      replay(api);
+
+      MessageConsumer consumer = MessageConsumer.builder(api).waitTimeSeconds(5).visibilityTimeout(60).build();
+      consumer.start();
+      try {
+         assertEquals(consumer.poll(10, TimeUnit.SECONDS), message("1"));
+         assertEquals(consumer.poll(10, TimeUnit.SECONDS), message("2"));
+      } finally {
+         consumer.close();
+      }
+   }
+
+   public void testReceiverBacksOffAfterErrors() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.receive(eq(10), anyObject(ReceiveMessageOptions.class))).andThrow(new RuntimeException("boom"))
+            .once();
+      expect(api.receive(eq(10), anyObject(ReceiveMessageOptions.class))).andReturn(
+            FluentIterable.from(ImmutableSet.of(message("1")))).once();
+      expect(api.receive(eq(10), anyObject(ReceiveMessageOptions.class))).andStubReturn(NO_MESSAGES);
+      replay(api);
+
+      MessageConsumer consumer = MessageConsumer.builder(api).backoff(1, TimeUnit.MILLISECONDS).build();
+      consumer.start();
+      try {
+         assertEquals(consumer.poll(10, TimeUnit.SECONDS), message("1"));
+      } finally {
+         consumer.close();
+      }
+   }
+
+   public void testDeletesAreBatched() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.delete(ImmutableMap.of("1", "handle 1", "2", "handle 2"))).andReturn(
+            BatchResult.<String> builder().put("1", "1").put("2", "2").build()).once();
+      replay(api);
+
+      MessageConsumer consumer = MessageConsumer.builder(api).flushDelay(1, TimeUnit.HOURS).build();
+      try {
+         consumer.delete(message("1"));
+         consumer.delete(message("2"));
+         consumer.flush();
+      } finally {
+         consumer.close();
+      }
+      verify(api);
+   }
+
+   public void testVisibilityChangesAreBatchedAfterFlushDelay() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      expect(api.changeVisibility(ImmutableTable.<String, String, Integer> builder()
+            .put("1", "handle 1", 30).put("2", "handle 2", 60).build())).andReturn(
+            BatchResult.<String> builder().put("1", "1").put("2", "2").build()).once();
+      replay(api);
+
+      MessageConsumer consumer = MessageConsumer.builder(api).flushDelay(10, TimeUnit.MILLISECONDS).build();
+      try {
+         consumer.changeVisibility(message("1"), 30);
+         assertNull(consumer.changeVisibility(message("2"), 60).get(10, TimeUnit.SECONDS));
+      } finally {
+         consumer.close();
+      }
+      verify(api);
+   }
+}
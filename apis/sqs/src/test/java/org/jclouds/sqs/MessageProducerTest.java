@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sqs;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.EasyMock;
+import org.jclouds.sqs.domain.BatchError;
+import org.jclouds.sqs.domain.BatchResult;
+import org.jclouds.sqs.domain.MessageIdAndMD5;
+import org.jclouds.sqs.features.MessageApi;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.hash.HashCode;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Tests behavior of {@code MessageProducer}.
+ */
+@Test(testName = "MessageProducerTest", singleThreaded = true)
+public class MessageProducerTest {
+
+   private static MessageIdAndMD5 sent(String id) {
+      return MessageIdAndMD5.builder().id(id).md5(HashCode.fromInt(id.hashCode())).build();
+   }
+
+   private static Map<String, String> bodies(int count) {
+      ImmutableMap.Builder<String, String> bodies = ImmutableMap.builder();
+      for (int i = 1; i <= count; i++)
+         bodies.put(String.valueOf(i), "message " + i);
+      return bodies.build();
+   }
+
+   public void testTenSendsCoalesceIntoOneBatch() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      BatchResult.Builder<MessageIdAndMD5> result = BatchResult.builder();
+      for (int i = 1; i <= 10; i++)
+         result.put(String.valueOf(i), sent("m" + i));
+      EasyMock.<BatchResult<? extends MessageIdAndMD5>> expect(api.send(bodies(10))).andReturn(result.build())
+            .once();
+      replay(api);
+
+      MessageProducer producer = MessageProducer.builder(api).flushDelay(1, TimeUnit.HOURS).build();
+      try {
+         List<ListenableFuture<MessageIdAndMD5>> futures = Lists.newArrayList();
+         for (int i = 1; i <= 10; i++)
+            futures.add(producer.send("message " + i));
+         for (int i = 1; i <= 10; i++)
+            assertEquals(futures.get(i - 1).get(10, TimeUnit.SECONDS), sent("m" + i));
+      } finally {
+         producer.close();
+      }
+      verify(api);
+   }
+
+   public void testPartialBatchIsSentAfterFlushDelay() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      EasyMock.<BatchResult<? extends MessageIdAndMD5>> expect(api.send(bodies(2))).andReturn(
+            BatchResult.<MessageIdAndMD5> builder().put("1", sent("m1")).put("2", sent("m2")).build()).once();
+      replay(api);
+
+      MessageProducer producer = MessageProducer.builder(api).flushDelay(10, TimeUnit.MILLISECONDS).build();
+      try {
+         ListenableFuture<MessageIdAndMD5> first = producer.send("message 1");
+         ListenableFuture<MessageIdAndMD5> second = producer.send("message 2");
+         assertEquals(first.get(10, TimeUnit.SECONDS), sent("m1"));
+         assertEquals(second.get(10, TimeUnit.SECONDS), sent("m2"));
+      } finally {
+         producer.close();
+      }
+      verify(api);
+   }
+
+   public void testBatchIsSplitBeforeExceedingMaxBytes() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      EasyMock.<BatchResult<? extends MessageIdAndMD5>> expect(api.send(ImmutableMap.of("1", "12345"))).andReturn(
+            BatchResult.<MessageIdAndMD5> builder().put("1", sent("m1")).build()).once();
+      EasyMock.<BatchResult<? extends MessageIdAndMD5>> expect(api.send(ImmutableMap.of("1", "678"))).andReturn(
+            BatchResult.<MessageIdAndMD5> builder().put("1", sent("m2")).build()).once();
+      replay(api);
+
+      MessageProducer producer = MessageProducer.builder(api).flushDelay(1, TimeUnit.HOURS).maxBatchBytes(6).build();
+      try {
+         ListenableFuture<MessageIdAndMD5> first = producer.send("12345");
+         ListenableFuture<MessageIdAndMD5> second = producer.send("678");
+         assertEquals(first.get(10, TimeUnit.SECONDS), sent("m1"));
+         producer.flush();
+         assertEquals(second.get(10, TimeUnit.SECONDS), sent("m2"));
+      } finally {
+         producer.close();
+      }
+      verify(api);
+   }
+
+   public void testBatchErrorFailsOnlyItsEntry() throws Exception {
+      MessageApi api = createMock(MessageApi.class);
+      EasyMock.<BatchResult<? extends MessageIdAndMD5>> expect(api.send(bodies(2))).andReturn(
+            BatchResult.<MessageIdAndMD5> builder().put("1", sent("m1"))
+                  .addError(BatchError.builder().id("2").code("InvalidMessageContents").message("bad").build())
+                  .build()).once();
+      replay(api);
+
+      MessageProducer producer = MessageProducer.builder(api).flushDelay(1, TimeUnit.HOURS).build();
+      ListenableFuture<MessageIdAndMD5> first = producer.send("message 1");
+      ListenableFuture<MessageIdAndMD5> second = producer.send("message 2");
+      producer.close();
+
+      assertEquals(first.get(), sent("m1"));
+      try {
+         second.get();
+         fail("expected the entry to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.toString());
+         assertEquals(e.getCause().getMessage(), "InvalidMessageContents: bad");
+      }
+      verify(api);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testSendAfterCloseFails() {
+      MessageApi api = createMock(MessageApi.class);
+      replay(api);
+
+      MessageProducer producer = MessageProducer.builder(api).build();
+      producer.close();
+      producer.send("message 1");
+   }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.sts.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.jclouds.sts.options.SessionCredentialsOptions.Builder.durationSeconds;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.aws.domain.SessionCredentials;
+import org.jclouds.domain.Credentials;
+import org.jclouds.location.Provider;
+import org.jclouds.rest.suppliers.TokenCacheFactory;
+import org.jclouds.sts.STSApi;
+
+import com.google.common.base.Supplier;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Supplies temporary session credentials of the STS context's account, which are renewed in the background before
+ * they expire.
+ * <p/>
+ * Pass an instance to {@link org.jclouds.ContextBuilder#credentialsSupplier(Supplier)} of an AWS context to sign its
+ * requests with session credentials:
+ *
+ * <pre>
+ * Supplier&lt;Credentials&gt; sessionCredentials = stsContext.utils().injector()
+ *       .getInstance(TemporaryCredentialsSupplier.class);
+ * ContextBuilder.newBuilder(&quot;aws-ec2&quot;).credentialsSupplier(sessionCredentials);
+ * </pre>
+ */
+@Singleton
+public class TemporaryCredentialsSupplier implements Supplier<Credentials> {
+
+   /**
+    * Sessions of account owners are limited to one hour, so request that duration for all accounts.
+    */
+   static final long SESSION_DURATION_SECONDS = 3600;
+
+   private final Supplier<Credentials> creds;
+   private final LoadingCache<Credentials, SessionCredentials> sessionCache;
+
+   @Inject
+   TemporaryCredentialsSupplier(final STSApi api, @Provider Supplier<Credentials> creds,
+         TokenCacheFactory tokenCaches) {
+      this.creds = checkNotNull(creds, "creds");
+      checkNotNull(api, "api");
+      // expire a bit before the deadline so that requests signed with the credentials do not fail
+      this.sessionCache = tokenCaches.create(new CacheLoader<Credentials, SessionCredentials>() {
+         @Override
+         public SessionCredentials load(Credentials key) {
+            return api.createTemporaryCredentials(durationSeconds(SESSION_DURATION_SECONDS));
+         }
+      }, SESSION_DURATION_SECONDS - 30, SECONDS);
+   }
+
+   @Override
+   public Credentials get() {
+      return sessionCache.getUnchecked(creds.get());
+   }
+}
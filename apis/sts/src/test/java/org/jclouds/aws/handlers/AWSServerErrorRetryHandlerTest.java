@@ -18,6 +18,7 @@ package org.jclouds.aws.handlers;
 import static javax.ws.rs.HttpMethod.PUT;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
@@ -97,6 +98,8 @@ public class AWSServerErrorRetryHandlerTest {
             return counter.get();
          }
       }).anyTimes();
+      expect(command.getPreviousRetryDelay()).andReturn(0L);
+      command.setRetryDelay(anyLong());
 
       AWSError error = new AWSError();
       error.setCode(errorCode);
@@ -121,6 +124,8 @@ public class AWSServerErrorRetryHandlerTest {
       expect(command.getFailureCount()).andReturn(1).anyTimes();
       expect(command.incrementFailureCount()).andReturn(1);
       expect(command.isReplayable()).andReturn(true);
+      expect(command.getPreviousRetryDelay()).andReturn(0L);
+      command.setRetryDelay(anyLong());
 
       replay(utils, command);
 
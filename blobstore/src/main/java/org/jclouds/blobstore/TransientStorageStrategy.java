@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.io.BaseEncoding.base16;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Map;
@@ -47,6 +48,7 @@ import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
+import org.jclouds.io.payloads.HashingPayload;
 import org.jclouds.util.Closeables2;
 
 import com.google.common.base.Supplier;
@@ -54,7 +56,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimaps;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
-import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
@@ -168,7 +169,9 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
    public String putBlob(final String containerName, final Blob blob) throws IOException {
       byte[] payload;
       HashCode actualHashCode;
-      HashingInputStream input = new HashingInputStream(Hashing.md5(), blob.getPayload().openStream());
+      HashCode expectedHashCode = blob.getPayload().getContentMetadata().getContentMD5AsHashCode();
+      HashingPayload hashingPayload = Payloads.newHashingPayload(blob.getPayload(), Hashing.md5());
+      InputStream input = hashingPayload.openStream();
       try {
          payload = ByteStreams.toByteArray(input);
          long actualSize = payload.length;
@@ -177,8 +180,7 @@ public class TransientStorageStrategy implements LocalStorageStrategy {
             throw new IOException("Content-Length mismatch, actual: " + actualSize +
                   " expected: " + expectedSize);
          }
-         actualHashCode = input.hash();
-         HashCode expectedHashCode = blob.getPayload().getContentMetadata().getContentMD5AsHashCode();
+         actualHashCode = hashingPayload.getHash(Hashing.md5());
          if (expectedHashCode != null && !actualHashCode.equals(expectedHashCode)) {
             throw new IOException("MD5 hash code mismatch, actual: " + actualHashCode +
                   " expected: " + expectedHashCode);
@@ -103,6 +103,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
 import com.google.common.net.HttpHeaders;
 
 @Singleton
@@ -564,10 +565,16 @@ public final class LocalBlobStore implements BlobStore {
 
       InputStream is = null;
       try {
-         is = blob.getPayload().openStream();
          ContentMetadata metadata = blob.getMetadata().getContentMetadata();
-         BlobBuilder.PayloadBlobBuilder builder = blobBuilder(toName)
-               .payload(is);
+         BlobBuilder.PayloadBlobBuilder builder;
+         Object rawContent = blob.getPayload().getRawContent();
+         if (rawContent instanceof File) {
+            // allow the storage strategy to copy file to file without streaming through the heap
+            builder = blobBuilder(toName).payload((File) rawContent);
+         } else {
+            is = blob.getPayload().openStream();
+            builder = blobBuilder(toName).payload(is);
+         }
          Long contentLength = metadata.getContentLength();
          if (contentLength != null) {
             builder.contentLength(contentLength);
@@ -682,9 +689,12 @@ public final class LocalBlobStore implements BlobStore {
 
             // Try to convert payload to ByteSource, otherwise wrap it.
             ByteSource byteSource;
-            try {
-               byteSource = (ByteSource) blob.getPayload().getRawContent();
-            } catch (ClassCastException cce) {
+            Object rawContent = blob.getPayload().getRawContent();
+            if (rawContent instanceof ByteSource) {
+               byteSource = (ByteSource) rawContent;
+            } else if (rawContent instanceof File) {
+               byteSource = Files.asByteSource((File) rawContent);
+            } else {
                try {
                   byteSource = ByteSource.wrap(ByteStreams2.toByteArrayAndClose(blob.getPayload().openStream()));
                } catch (IOException e) {
@@ -974,12 +984,34 @@ public final class LocalBlobStore implements BlobStore {
 
    @Override
    public void downloadBlob(String container, String name, File destination) {
-      throw new UnsupportedOperationException();
+      Blob blob = getBlob(container, name);
+      if (blob == null) {
+         throw new KeyNotFoundException(container, name, "while downloading");
+      }
+      Payload payload = blob.getPayload();
+      try {
+         Object rawContent = payload.getRawContent();
+         if (rawContent instanceof File) {
+            ByteStreams2.transferFile((File) rawContent, destination);
+         } else {
+            InputStream is = payload.openStream();
+            try {
+               Files.asByteSink(destination).writeFrom(is);
+            } finally {
+               Closeables2.closeQuietly(is);
+            }
+         }
+      } catch (IOException ioe) {
+         throw Throwables.propagate(ioe);
+      } finally {
+         payload.release();
+      }
    }
 
    @Override
    public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
-      throw new UnsupportedOperationException();
+      // local blobs are copied in a single pass
+      downloadBlob(container, name, destination);
    }
 
    @Override
@@ -118,6 +118,21 @@ public final class ComputeServiceProperties {
     */
    public static final String SOCKET_FINDER_ALLOWED_INTERFACES = "jclouds.compute.socket-finder-allowed-interfaces";
 
+   /**
+    * milliseconds after which the node inventory is reconciled with the provider before it is read. Nodes are then
+    * listed, matched and named from the inventory, which is updated by the nodes this context creates, destroys,
+    * reboots, suspends and resumes. Default 0 does not keep an inventory.
+    * 
+    * @see org.jclouds.compute.internal.NodeInventory
+    */
+   public static final String NODE_INVENTORY_MAX_STALENESS = "jclouds.compute.node-inventory.max-staleness";
+
+   /**
+    * milliseconds between reconciliations of the node inventory in the background. Default 0 reconciles only when the
+    * inventory is read after {@link #NODE_INVENTORY_MAX_STALENESS}.
+    */
+   public static final String NODE_INVENTORY_RECONCILE_INTERVAL = "jclouds.compute.node-inventory.reconcile-interval";
+
    private ComputeServiceProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -124,6 +124,8 @@ public class BaseComputeService implements ComputeService {
    private final DestroyNodeStrategy destroyNodeStrategy;
    private final ResumeNodeStrategy resumeNodeStrategy;
    private final SuspendNodeStrategy suspendNodeStrategy;
+   @Inject(optional = true)
+   private NodeInventory inventory;
    private final Provider<TemplateBuilder> templateBuilderProvider;
    private final Provider<TemplateOptions> templateOptionsProvider;
    private final Predicate<AtomicReference<NodeMetadata>> nodeRunning;
@@ -221,6 +223,8 @@ public class BaseComputeService implements ComputeService {
       Function<NodeMetadata, NodeMetadata> fn = persistNodeCredentials.always(template.getOptions().getRunScript());
       badNodes = Maps2.transformKeys(badNodes, fn);
       goodNodes = ImmutableSet.copyOf(Iterables.transform(goodNodes, fn));
+      if (inventoryEnabled())
+         inventory.putAll(goodNodes);
       if (!executionExceptions.isEmpty() || !badNodes.isEmpty()) {
          throw new RunNodesException(group, count, template, goodNodes, executionExceptions, badNodes);
       }
@@ -291,8 +295,11 @@ public class BaseComputeService implements ComputeService {
       if (nodeMetadata == null) return null;
       final AtomicReference<NodeMetadata> node = Atomics.newReference(nodeMetadata);
       boolean successful = node.get() == null || nodeTerminated.apply(node);
-      if (successful)
+      if (successful) {
          credentialStore.remove("node#" + id);
+         if (inventoryEnabled())
+            inventory.remove(id);
+      }
       logger.debug("<< destroyed node(%s) success(%s)", id, successful);
       return nodeMetadata;
    }
@@ -302,7 +309,7 @@ public class BaseComputeService implements ComputeService {
    }
 
    Iterable<? extends NodeMetadata> nodesMatchingFilterAndNotTerminated(Predicate<? super NodeMetadata> filter) {
-      return filter(detailsOnAllNodes(), and(checkNotNull(filter, "filter"), not(TERMINATED)));
+      return filter(detailsOnNodesMatching(checkNotNull(filter, "filter")), and(filter, not(TERMINATED)));
    }
 
    /**
@@ -323,7 +330,8 @@ public class BaseComputeService implements ComputeService {
    @Override
    public Set<? extends ComputeMetadata> listNodes() {
       logger.trace(">> listing nodes");
-      Set<? extends ComputeMetadata> set = newLinkedHashSet(listNodesStrategy.listNodes());
+      Set<? extends ComputeMetadata> set = inventoryEnabled() ? newLinkedHashSet(inventory
+            .listNodesDetailsMatching(all())) : newLinkedHashSet(listNodesStrategy.listNodes());
       logger.trace("<< list(%d)", set.size());
       return set;
    }
@@ -347,7 +355,7 @@ public class BaseComputeService implements ComputeService {
    public Set<? extends NodeMetadata> listNodesDetailsMatching(Predicate<? super NodeMetadata> filter) {
       checkNotNull(filter, "filter");
       logger.trace(">> listing node details matching(%s)", filter);
-      Set<? extends NodeMetadata> set = newLinkedHashSet(listNodesStrategy.listDetailsOnNodesMatching(filter));
+      Set<? extends NodeMetadata> set = detailsOnNodesMatching(filter);
       logger.trace("<< list(%d)", set.size());
       return set;
    }
@@ -390,6 +398,14 @@ public class BaseComputeService implements ComputeService {
    @Override
    public NodeMetadata getNodeMetadata(String id) {
       checkNotNull(id, "id");
+      if (inventoryEnabled()) {
+         NodeMetadata node = inventory.getNode(id);
+         if (node != null)
+            return node;
+         node = getNodeMetadataStrategy.getNode(id);
+         inventory.put(node);
+         return node;
+      }
       return getNodeMetadataStrategy.getNode(id);
    }
 
@@ -411,6 +427,8 @@ public class BaseComputeService implements ComputeService {
       logger.debug(">> rebooting node(%s)", id);
       AtomicReference<NodeMetadata> node = Atomics.newReference(rebootNodeStrategy.rebootNode(id));
       boolean successful = nodeRunning.apply(node);
+      if (inventoryEnabled())
+         inventory.put(node.get());
       logger.debug("<< rebooted node(%s) success(%s)", id, successful);
    }
 
@@ -452,6 +470,8 @@ public class BaseComputeService implements ComputeService {
       logger.debug(">> resuming node(%s)", id);
       AtomicReference<NodeMetadata> node = Atomics.newReference(resumeNodeStrategy.resumeNode(id));
       boolean successful = nodeRunning.apply(node);
+      if (inventoryEnabled())
+         inventory.put(node.get());
       logger.debug("<< resumed node(%s) success(%s)", id, successful);
    }
 
@@ -493,6 +513,8 @@ public class BaseComputeService implements ComputeService {
       logger.debug(">> suspending node(%s)", id);
       AtomicReference<NodeMetadata> node = Atomics.newReference(suspendNodeStrategy.suspendNode(id));
       boolean successful = nodeSuspended.apply(node);
+      if (inventoryEnabled())
+         inventory.put(node.get());
       logger.debug("<< suspended node(%s) success(%s)", id, successful);
    }
 
@@ -671,8 +693,14 @@ public class BaseComputeService implements ComputeService {
             userExecutor, null, logger, "initialize script runners"), notNull());
    }
 
-   private Set<? extends NodeMetadata> detailsOnAllNodes() {
-      return newLinkedHashSet(listNodesStrategy.listDetailsOnNodesMatching(all()));
+   private Set<? extends NodeMetadata> detailsOnNodesMatching(Predicate<? super NodeMetadata> filter) {
+      if (inventoryEnabled())
+         return newLinkedHashSet(inventory.listNodesDetailsMatching(filter));
+      return newLinkedHashSet(listNodesStrategy.listDetailsOnNodesMatching(filter));
+   }
+
+   private boolean inventoryEnabled() {
+      return inventory != null && inventory.isEnabled();
    }
 
    @Override
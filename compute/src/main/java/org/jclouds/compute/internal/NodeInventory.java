@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.compute.config.ComputeServiceProperties.NODE_INVENTORY_MAX_STALENESS;
+import static org.jclouds.compute.config.ComputeServiceProperties.NODE_INVENTORY_RECONCILE_INTERVAL;
+import static org.jclouds.compute.predicates.NodePredicates.all;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+
+/**
+ * An in-memory inventory of the nodes of a compute service, so that listing nodes, generating names and matching
+ * predicates do not list every node from the provider each time.
+ * <p/>
+ * The compute service writes the nodes it creates, reboots, suspends, resumes and destroys through to the inventory,
+ * and the inventory is reconciled with a full listing when it is older than
+ * {@link org.jclouds.compute.config.ComputeServiceProperties#NODE_INVENTORY_MAX_STALENESS} and, if
+ * {@link org.jclouds.compute.config.ComputeServiceProperties#NODE_INVENTORY_RECONCILE_INTERVAL} is set, in the
+ * background. Changes made outside of this context are therefore seen only after a reconciliation.
+ * <p/>
+ * The inventory is disabled unless the maximum staleness is set.
+ */
+@Beta
+@Singleton
+public class NodeInventory {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @Inject(optional = true)
+   @Named(NODE_INVENTORY_MAX_STALENESS)
+   private long maxStaleness = 0;
+
+   @Inject(optional = true)
+   @Named(NODE_INVENTORY_RECONCILE_INTERVAL)
+   private long reconcileInterval = 0;
+
+   /**
+    * A node and the time it was written through, so that a listing started earlier does not undo the write.
+    */
+   private static final class Entry {
+      private final NodeMetadata node;
+      private final long writtenAt;
+
+      private Entry(@Nullable NodeMetadata node, long writtenAt) {
+         this.node = node;
+         this.writtenAt = writtenAt;
+      }
+   }
+
+   private final ListNodesStrategy listNodesStrategy;
+   private final ListeningScheduledExecutorService scheduler;
+   private final Ticker ticker;
+   // destroyed nodes are kept as entries without a node until the next reconciliation
+   private final ConcurrentMap<String, Entry> entries = Maps.newConcurrentMap();
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+   private final Object reconcileLock = new Object();
+   private volatile long reconciledAt;
+   private volatile boolean reconciled;
+
+   @Inject
+   NodeInventory(ListNodesStrategy listNodesStrategy,
+         @Named(Constants.PROPERTY_SCHEDULER_THREADS) ListeningScheduledExecutorService scheduler) {
+      this(listNodesStrategy, scheduler, Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   NodeInventory(ListNodesStrategy listNodesStrategy, ListeningScheduledExecutorService scheduler, Ticker ticker) {
+      this.listNodesStrategy = checkNotNull(listNodesStrategy, "listNodesStrategy");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.ticker = checkNotNull(ticker, "ticker");
+   }
+
+   @VisibleForTesting
+   NodeInventory maxStaleness(long maxStaleness, long reconcileInterval) {
+      this.maxStaleness = maxStaleness;
+      this.reconcileInterval = reconcileInterval;
+      return this;
+   }
+
+   public boolean isEnabled() {
+      return maxStaleness > 0;
+   }
+
+   /**
+    * @return the nodes which match the filter, reconciling the inventory first if it is too old
+    */
+   public Set<NodeMetadata> listNodesDetailsMatching(Predicate<? super NodeMetadata> filter) {
+      reconcileIfStale();
+      ImmutableSet.Builder<NodeMetadata> nodes = ImmutableSet.builder();
+      for (Entry entry : entries.values()) {
+         if (entry.node != null && filter.apply(entry.node))
+            nodes.add(entry.node);
+      }
+      return nodes.build();
+   }
+
+   /**
+    * @return the node, or null if it is not in the inventory
+    */
+   @Nullable
+   public NodeMetadata getNode(String id) {
+      reconcileIfStale();
+      Entry entry = entries.get(checkNotNull(id, "id"));
+      return entry != null ? entry.node : null;
+   }
+
+   /**
+    * Records the current state of a node changed by this context. Terminated nodes are removed.
+    */
+   public void put(@Nullable NodeMetadata node) {
+      if (node == null || !isEnabled())
+         return;
+      if (node.getStatus() == Status.TERMINATED)
+         remove(node.getId());
+      else
+         entries.put(node.getId(), new Entry(node, ticker.read()));
+   }
+
+   public void putAll(Iterable<? extends NodeMetadata> nodes) {
+      for (NodeMetadata node : nodes)
+         put(node);
+   }
+
+   /**
+    * Records that a node was destroyed by this context.
+    */
+   public void remove(String id) {
+      if (isEnabled())
+         entries.put(checkNotNull(id, "id"), new Entry(null, ticker.read()));
+   }
+
+   /**
+    * Lists every node and replaces the inventory with them, except for the nodes which were written through while
+    * they were being listed.
+    */
+   public void reconcile() {
+      synchronized (reconcileLock) {
+         long startedAt = ticker.read();
+         Map<String, NodeMetadata> listed = Maps.newHashMap();
+         for (NodeMetadata node : listNodesStrategy.listDetailsOnNodesMatching(all())) {
+            if (node != null)
+               listed.put(node.getId(), node);
+         }
+         for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().writtenAt - startedAt < 0 && !listed.containsKey(entry.getKey()))
+               entries.remove(entry.getKey(), entry.getValue());
+         }
+         for (NodeMetadata node : listed.values()) {
+            Entry current = entries.get(node.getId());
+            if (current == null) {
+               entries.putIfAbsent(node.getId(), new Entry(node, startedAt));
+            } else if (current.writtenAt - startedAt < 0) {
+               entries.replace(node.getId(), current, new Entry(node, startedAt));
+            }
+         }
+         reconciledAt = startedAt;
+         reconciled = true;
+      }
+   }
+
+   private void reconcileIfStale() {
+      if (!isEnabled())
+         return;
+      scheduleReconciliation();
+      if (!reconciled || ticker.read() - reconciledAt > MILLISECONDS.toNanos(maxStaleness)) {
+         synchronized (reconcileLock) {
+            // another thread may have reconciled while this one waited
+            if (!reconciled || ticker.read() - reconciledAt > MILLISECONDS.toNanos(maxStaleness))
+               reconcile();
+         }
+      }
+   }
+
+   private void scheduleReconciliation() {
+      if (reconcileInterval <= 0 || !scheduled.compareAndSet(false, true))
+         return;
+      scheduler.scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               reconcile();
+            } catch (RuntimeException e) {
+               // the next listing reconciles the inventory if it gets too old
+               logger.warn(e, "error reconciling the node inventory");
+            }
+         }
+
+         @Override
+         public String toString() {
+            return "reconcileNodeInventory()";
+         }
+      }, reconcileInterval, reconcileInterval, MILLISECONDS);
+   }
+}
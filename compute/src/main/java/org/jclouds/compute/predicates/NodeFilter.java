@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.predicates;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Strings.emptyToNull;
+
+import java.util.Set;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * A node predicate which describes what it matches, so that a
+ * {@link org.jclouds.compute.strategy.ListNodesStrategy} can ask the provider for the matching nodes, for example with
+ * the filters of its list call, instead of listing every node. Strategies which cannot translate a criterion list more
+ * nodes than needed, and the predicate itself filters them on the client.
+ * <p/>
+ * Every criterion which is set must match.
+ *
+ * @see NodePredicates#inGroup(String)
+ * @see NodePredicates#runningInGroup(String)
+ */
+@Beta
+public final class NodeFilter implements Predicate<NodeMetadata> {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public static final class Builder {
+      private String group;
+      private Status status;
+      private Set<String> ids;
+      private String locationId;
+
+      /**
+       * @see NodeMetadata#getGroup()
+       */
+      public Builder group(String group) {
+         this.group = checkNotNull(emptyToNull(group), "group must be defined");
+         return this;
+      }
+
+      public Builder status(Status status) {
+         this.status = checkNotNull(status, "status");
+         return this;
+      }
+
+      public Builder ids(Iterable<String> ids) {
+         this.ids = ImmutableSet.copyOf(checkNotNull(ids, "ids"));
+         return this;
+      }
+
+      /**
+       * The id of the location of the node itself, not of one of its parents.
+       */
+      public Builder locationId(String locationId) {
+         this.locationId = checkNotNull(locationId, "locationId");
+         return this;
+      }
+
+      public NodeFilter build() {
+         return new NodeFilter(group, status, ids, locationId);
+      }
+   }
+
+   /**
+    * Describes the predicates of {@link NodePredicates} which can be described: node filters, and the predicates
+    * returned by {@link NodePredicates#withIds} and {@link NodePredicates#locationId}.
+    *
+    * @return the filter, or absent if the predicate cannot be described and must be applied to every node
+    */
+   public static Optional<NodeFilter> from(Predicate<?> predicate) {
+      if (predicate instanceof NodeFilter) {
+         return Optional.of((NodeFilter) predicate);
+      } else if (predicate instanceof NodePredicates.WithIds) {
+         return Optional.of(builder().ids(((NodePredicates.WithIds<?>) predicate).ids).build());
+      } else if (predicate instanceof NodePredicates.LocationId) {
+         return Optional.of(builder().locationId(((NodePredicates.LocationId) predicate).id).build());
+      }
+      return Optional.absent();
+   }
+
+   private final Optional<String> group;
+   private final Optional<Status> status;
+   private final Optional<Set<String>> ids;
+   private final Optional<String> locationId;
+
+   private NodeFilter(String group, Status status, Set<String> ids, String locationId) {
+      this.group = Optional.fromNullable(group);
+      this.status = Optional.fromNullable(status);
+      this.ids = Optional.fromNullable(ids);
+      this.locationId = Optional.fromNullable(locationId);
+   }
+
+   public Optional<String> getGroup() {
+      return group;
+   }
+
+   public Optional<Status> getStatus() {
+      return status;
+   }
+
+   public Optional<Set<String>> getIds() {
+      return ids;
+   }
+
+   public Optional<String> getLocationId() {
+      return locationId;
+   }
+
+   @Override
+   public boolean apply(NodeMetadata node) {
+      if (group.isPresent() && !group.get().equals(node.getGroup()))
+         return false;
+      if (status.isPresent() && status.get() != node.getStatus())
+         return false;
+      if (ids.isPresent() && !ids.get().contains(node.getId()))
+         return false;
+      if (locationId.isPresent() && (node.getLocation() == null || !locationId.get().equals(node.getLocation().getId())))
+         return false;
+      return true;
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object)
+         return true;
+      if (!(object instanceof NodeFilter))
+         return false;
+      NodeFilter that = (NodeFilter) object;
+      return group.equals(that.group) && status.equals(that.status) && ids.equals(that.ids)
+            && locationId.equals(that.locationId);
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(group, status, ids, locationId);
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper("nodes").omitNullValues().add("group", group.orNull())
+            .add("status", status.orNull()).add("ids", ids.orNull()).add("locationId", locationId.orNull()).toString();
+   }
+}
@@ -17,7 +17,6 @@
 package org.jclouds.compute.predicates;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Strings.emptyToNull;
 
 import java.util.Set;
 
@@ -82,7 +81,7 @@ public class NodePredicates {
       }
    }
 
-   private static class LocationId implements Predicate<ComputeMetadata> {
+   static class LocationId implements Predicate<ComputeMetadata> {
       @Override
       public int hashCode() {
          final int prime = 31;
@@ -108,7 +107,7 @@ public class NodePredicates {
          return true;
       }
 
-      private final String id;
+      final String id;
 
       private LocationId(String id) {
          this.id = id;
@@ -125,6 +124,24 @@ public class NodePredicates {
       }
    }
 
+   static class WithIds<T extends ComputeMetadata> implements Predicate<T> {
+      final Set<String> ids;
+
+      private WithIds(Set<String> ids) {
+         this.ids = ids;
+      }
+
+      @Override
+      public boolean apply(T nodeMetadata) {
+         return ids.contains(nodeMetadata.getId());
+      }
+
+      @Override
+      public String toString() {
+         return "withIds(" + ids + ")";
+      }
+   }
+
    /**
     * Return nodes in the specified location.
     * 
@@ -158,18 +175,7 @@ public class NodePredicates {
     */
    public static <T extends ComputeMetadata> Predicate<T> withIds(String... ids) {
       checkNotNull(ids, "ids must be defined");
-      final Set<String> search = ImmutableSet.copyOf(ids);
-      return new Predicate<T>() {
-         @Override
-         public boolean apply(T nodeMetadata) {
-            return search.contains(nodeMetadata.getId());
-         }
-
-         @Override
-         public String toString() {
-            return "withIds(" + search + ")";
-         }
-      };
+      return new WithIds<T>(ImmutableSet.copyOf(ids));
    }
 
    /**
@@ -184,21 +190,10 @@ public class NodePredicates {
     * 
     * @param group
     *           group to match the items
-    * @return predicate
+    * @return predicate, which is a {@link NodeFilter}
     */
    public static Predicate<NodeMetadata> inGroup(final String group) {
-      checkNotNull(emptyToNull(group), "group must be defined");
-      return new Predicate<NodeMetadata>() {
-         @Override
-         public boolean apply(NodeMetadata nodeMetadata) {
-            return group.equals(nodeMetadata.getGroup());
-         }
-
-         @Override
-         public String toString() {
-            return "inGroup(" + group + ")";
-         }
-      };
+      return NodeFilter.builder().group(group).build();
    }
    
    /**
@@ -224,21 +219,10 @@ public class NodePredicates {
     * 
     * @param group
     *           group to match the items
-    * @return predicate
+    * @return predicate, which is a {@link NodeFilter}
     */
    public static Predicate<NodeMetadata> runningInGroup(final String group) {
-      checkNotNull(emptyToNull(group), "group must be defined");
-      return new Predicate<NodeMetadata>() {
-         @Override
-         public boolean apply(NodeMetadata nodeMetadata) {
-            return group.equals(nodeMetadata.getGroup()) && nodeMetadata.getStatus() == Status.RUNNING;
-         }
-
-         @Override
-         public String toString() {
-            return "runningInGroup(" + group + ")";
-         }
-      };
+      return NodeFilter.builder().group(group).status(Status.RUNNING).build();
    }
 
    /**
@@ -40,6 +40,8 @@ import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
 import org.jclouds.compute.domain.Template;
 import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.internal.NodeInventory;
+import org.jclouds.compute.predicates.NodePredicates;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.CreateNodeWithGroupEncodedIntoName;
 import org.jclouds.compute.strategy.CreateNodesInGroupThenAddToSet;
@@ -96,6 +98,8 @@ public class CreateNodesWithGroupEncodedIntoNameThenAddToSet implements CreateNo
    protected final ListNodesStrategy listNodesStrategy;
    protected final GroupNamingConvention.Factory namingConvention;
    protected final ListeningExecutorService userExecutor;
+   @Inject(optional = true)
+   protected NodeInventory inventory;
    protected final CustomizeNodeAndAddToGoodMapOrPutExceptionIntoBadMap.Factory customizeNodeAndAddToGoodMapOrPutExceptionIntoBadMapFactory;
 
    @Inject
@@ -191,7 +195,8 @@ public class CreateNodesWithGroupEncodedIntoNameThenAddToSet implements CreateNo
       } else {
          names.addAll(nodeNames);
       }
-      Iterable<? extends ComputeMetadata> currentNodes = listNodesStrategy.listNodes();
+      Iterable<? extends ComputeMetadata> currentNodes = inventory != null && inventory.isEnabled()
+               ? inventory.listNodesDetailsMatching(NodePredicates.all()) : listNodesStrategy.listNodes();
       int maxTries = 100;
       int currentTries = 0;
       while (names.size() < count && currentTries++ < maxTries) {
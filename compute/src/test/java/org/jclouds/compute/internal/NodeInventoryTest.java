@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.internal;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.compute.predicates.NodePredicates.all;
+import static org.jclouds.compute.predicates.NodePredicates.inGroup;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+
+@Test(groups = "unit", testName = "NodeInventoryTest")
+public class NodeInventoryTest {
+
+   private static class FakeTicker extends Ticker {
+      long nanos = 1;
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+
+      void advance(long millis) {
+         nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+      }
+   }
+
+   private final NodeMetadata web1 = new NodeMetadataBuilder().ids("web-1").group("web").status(Status.RUNNING)
+         .build();
+   private final NodeMetadata web2 = new NodeMetadataBuilder().ids("web-2").group("web").status(Status.RUNNING)
+         .build();
+   private final NodeMetadata db1 = new NodeMetadataBuilder().ids("db-1").group("db").status(Status.RUNNING).build();
+
+   @SuppressWarnings("unchecked")
+   private void expectListing(ListNodesStrategy strategy, NodeMetadata... nodes) {
+      expect((Set<NodeMetadata>) strategy.listDetailsOnNodesMatching(all())).andReturn(ImmutableSet.copyOf(nodes));
+   }
+
+   public void testDisabledByDefault() {
+      ListNodesStrategy strategy = createMock(ListNodesStrategy.class);
+      replay(strategy);
+
+      NodeInventory inventory = new NodeInventory(strategy, createMock(ListeningScheduledExecutorService.class));
+      assertFalse(inventory.isEnabled());
+      inventory.put(web1);
+      verify(strategy);
+   }
+
+   public void testListsOnceWithinMaxStaleness() {
+      ListNodesStrategy strategy = createMock(ListNodesStrategy.class);
+      expectListing(strategy, web1, db1);
+      replay(strategy);
+
+      FakeTicker ticker = new FakeTicker();
+      NodeInventory inventory = new NodeInventory(strategy, createMock(ListeningScheduledExecutorService.class),
+            ticker).maxStaleness(1000, 0);
+
+      assertEquals(inventory.listNodesDetailsMatching(inGroup("web")), ImmutableSet.of(web1));
+      ticker.advance(999);
+      assertEquals(inventory.listNodesDetailsMatching(all()), ImmutableSet.of(web1, db1));
+      assertEquals(inventory.getNode("db-1"), db1);
+      verify(strategy);
+   }
+
+   public void testWritesAreSeenWithoutListing() {
+      ListNodesStrategy strategy = createMock(ListNodesStrategy.class);
+      expectListing(strategy, web1, db1);
+      replay(strategy);
+
+      NodeInventory inventory = new NodeInventory(strategy, createMock(ListeningScheduledExecutorService.class),
+            new FakeTicker()).maxStaleness(1000, 0);
+
+      inventory.listNodesDetailsMatching(all());
+      inventory.put(web2);
+      inventory.remove("db-1");
+      assertEquals(inventory.listNodesDetailsMatching(all()), ImmutableSet.of(web1, web2));
+      assertNull(inventory.getNode("db-1"));
+      verify(strategy);
+   }
+
+   public void testReconcileReplacesOlderEntries() {
+      ListNodesStrategy strategy = createMock(ListNodesStrategy.class);
+      expectListing(strategy, web1, db1);
+      expectListing(strategy, web2);
+      replay(strategy);
+
+      FakeTicker ticker = new FakeTicker();
+      NodeInventory inventory = new NodeInventory(strategy, createMock(ListeningScheduledExecutorService.class),
+            ticker).maxStaleness(1000, 0);
+
+      inventory.listNodesDetailsMatching(all());
+      ticker.advance(1001);
+      assertEquals(inventory.listNodesDetailsMatching(all()), ImmutableSet.of(web2));
+      verify(strategy);
+   }
+
+   public void testTerminatedNodesAreRemoved() {
+      ListNodesStrategy strategy = createMock(ListNodesStrategy.class);
+      expectListing(strategy, web1);
+      replay(strategy);
+
+      NodeInventory inventory = new NodeInventory(strategy, createMock(ListeningScheduledExecutorService.class),
+            new FakeTicker()).maxStaleness(1000, 0);
+
+      inventory.put(NodeMetadataBuilder.fromNodeMetadata(web1).status(Status.TERMINATED).build());
+      assertEquals(inventory.listNodesDetailsMatching(all()), ImmutableSet.of());
+      verify(strategy);
+   }
+}
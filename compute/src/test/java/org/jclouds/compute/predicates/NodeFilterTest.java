@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.predicates;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", testName = "NodeFilterTest")
+public class NodeFilterTest {
+
+   private final Location zone = new LocationBuilder().scope(LocationScope.ZONE).id("us-east-1a")
+         .description("us-east-1a").build();
+
+   private final NodeMetadata node = new NodeMetadataBuilder().ids("us-east-1/i-1234").group("web")
+         .status(Status.RUNNING).location(zone).build();
+
+   public void testGroupPredicatesAreFilters() {
+      assertEquals(NodeFilter.from(NodePredicates.inGroup("web")),
+            Optional.of(NodeFilter.builder().group("web").build()));
+      assertEquals(NodeFilter.from(NodePredicates.runningInGroup("web")),
+            Optional.of(NodeFilter.builder().group("web").status(Status.RUNNING).build()));
+   }
+
+   public void testIdAndLocationPredicatesAreDescribed() {
+      assertEquals(NodeFilter.from(NodePredicates.withIds("a", "b")),
+            Optional.of(NodeFilter.builder().ids(ImmutableSet.of("a", "b")).build()));
+      assertEquals(NodeFilter.from(NodePredicates.locationId("us-east-1a")),
+            Optional.of(NodeFilter.builder().locationId("us-east-1a").build()));
+   }
+
+   public void testOtherPredicatesAreNotDescribed() {
+      assertFalse(NodeFilter.from(NodePredicates.RUNNING).isPresent());
+      assertFalse(NodeFilter.from(Predicates.alwaysTrue()).isPresent());
+   }
+
+   public void testApplyMatchesEveryCriterion() {
+      assertTrue(NodeFilter.builder().build().apply(node));
+      assertTrue(NodeFilter.builder().group("web").status(Status.RUNNING).ids(ImmutableSet.of("us-east-1/i-1234"))
+            .locationId("us-east-1a").build().apply(node));
+      assertFalse(NodeFilter.builder().group("db").build().apply(node));
+      assertFalse(NodeFilter.builder().group("web").status(Status.SUSPENDED).build().apply(node));
+      assertFalse(NodeFilter.builder().ids(ImmutableSet.of("us-east-1/i-5678")).build().apply(node));
+      assertFalse(NodeFilter.builder().locationId("us-east-1").build().apply(node));
+   }
+
+   @Test(expectedExceptions = NullPointerException.class)
+   public void testEmptyGroupIsRejected() {
+      NodePredicates.inGroup("");
+   }
+}
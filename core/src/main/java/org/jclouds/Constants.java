@@ -62,6 +62,22 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_CONNECTIONS_PER_HOST = "jclouds.max-connections-per-host";
 
+   /**
+    * Boolean property. default (false)
+    * <p/>
+    * Whether drivers which do not bound their connection pool themselves should wait for one of
+    * {@link #PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} and {@link #PROPERTY_MAX_CONNECTIONS_PER_HOST} connections before
+    * sending a request. A connection is in use until the payload of its response is read, closed or released.
+    */
+   public static final String PROPERTY_LIMIT_CONNECTIONS = "jclouds.limit-connections";
+
+   /**
+    * Long property. default (300000)
+    * <p/>
+    * How many milliseconds an idle connection is kept alive for reuse, in drivers which pool connections.
+    */
+   public static final String PROPERTY_CONNECTION_IDLE_TIMEOUT = "jclouds.connection-idle-timeout";
+
    /**
     * Integer property. default (2)
     * <p/>
@@ -97,6 +113,14 @@ public final class Constants {
     */
    public static final String PROPERTY_SESSION_INTERVAL = "jclouds.session-interval";
 
+   /**
+    * Double property. default (0.1)
+    * <p/>
+    * Fraction of the lifetime of a cached session or bearer token that is left when the token is refreshed in the
+    * background. The current token is served until the refresh completes. 0 disables refreshing ahead of expiry.
+    */
+   public static final String PROPERTY_TOKEN_REFRESH_FRACTION = "jclouds.token-refresh-fraction";
+
    /**
     * Boolean property.
     * <p/>
@@ -341,6 +365,14 @@ public final class Constants {
     */
    public static final String PROPERTY_PRETTY_PRINT_PAYLOADS = "jclouds.payloads.pretty-print";
 
+   /**
+    * Boolean property. default (true)
+    * <p/>
+    * Whether to deserialize {@link org.jclouds.json.SerializedNames} types with the type adapters generated at build
+    * time, instead of invoking their factory methods reflectively.
+    */
+   public static final String PROPERTY_JSON_GENERATED_ADAPTERS = "jclouds.json.generated-adapters";
+
    /**
     * When true, strip the Expect: 100-continue header. Useful when interacting with
     * providers that don't properly support Expect headers. Defaults to false.
@@ -376,6 +408,65 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_RATE_LIMIT_WAIT = "jclouds.max-ratelimit-wait";
 
+   /**
+    * String property. Default (EXPONENTIAL).
+    * <p/>
+    * How the delay before retrying a failed command grows: one of {@code EXPONENTIAL}, {@code FULL_JITTER} or
+    * {@code DECORRELATED_JITTER}.
+    *
+    * @see org.jclouds.http.handlers.BackoffPolicy
+    */
+   public static final String PROPERTY_RETRY_BACKOFF = "jclouds.retry-backoff";
+
+   /**
+    * Float property. Default (0).
+    * <p/>
+    * When greater than zero, the retries of failed requests to a host are limited to this ratio of the requests sent
+    * to it, plus {@link #PROPERTY_RETRY_BUDGET_MIN_RETRIES}. For example, 0.2 allows one retry for every five requests.
+    * Once the budget of a host is spent, failures are reported right away instead of retried, so that retries do not
+    * add to the load of a host which is already failing.
+    */
+   public static final String PROPERTY_RETRY_BUDGET_RATIO = "jclouds.retry-budget.ratio";
+
+   /**
+    * Integer property. Default (10).
+    * <p/>
+    * The retries to a host always allowed by the retry budget, so that hosts which receive few requests can still be
+    * retried.
+    *
+    * @see #PROPERTY_RETRY_BUDGET_RATIO
+    */
+   public static final String PROPERTY_RETRY_BUDGET_MIN_RETRIES = "jclouds.retry-budget.min-retries";
+
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * When true, the injector of a context is built in {@link com.google.inject.Stage#DEVELOPMENT}, so singletons are
+    * only created when first used instead of while the context is built. This makes building a context faster, but
+    * configuration errors in bindings which are not used right away are only reported when they are.
+    */
+   public static final String PROPERTY_LAZY_SINGLETONS = "jclouds.injector.lazy-singletons";
+
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * Only used together with {@link #PROPERTY_LAZY_SINGLETONS}. When true, the singletons which were not created while
+    * building the context are created in the background by the user executor, so they are likely to be ready by the
+    * time the first request is made.
+    */
+   public static final String PROPERTY_WARM_UP_SINGLETONS = "jclouds.injector.warm-up";
+
+   /**
+    * Integer property. Default (0).
+    * <p/>
+    * When greater than zero, the {@link org.jclouds.collect.PagedIterable}s returned by apis fetch up to this many
+    * pages ahead of the caller on the user executor, so that the next pages are retrieved while the current one is
+    * consumed.
+    *
+    * @see org.jclouds.collect.PagedIterables#prefetch
+    */
+   public static final String PROPERTY_PREFETCH_PAGES = "jclouds.paged-iterables.prefetch-pages";
+
    private Constants() {
       throw new AssertionError("intentionally unimplemented");
    }
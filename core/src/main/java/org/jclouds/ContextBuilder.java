@@ -17,6 +17,7 @@
 package org.jclouds;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Predicates.containsPattern;
 import static com.google.common.base.Predicates.instanceOf;
@@ -39,7 +40,10 @@ import static org.jclouds.Constants.PROPERTY_CREDENTIAL;
 import static org.jclouds.Constants.PROPERTY_ENDPOINT;
 import static org.jclouds.Constants.PROPERTY_IDENTITY;
 import static org.jclouds.Constants.PROPERTY_ISO3166_CODES;
+import static org.jclouds.Constants.PROPERTY_LAZY_SINGLETONS;
 import static org.jclouds.Constants.PROPERTY_PROVIDER;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_WARM_UP_SINGLETONS;
 import static org.jclouds.reflect.Reflection2.typeToken;
 import static org.jclouds.rest.config.BinderUtils.bindHttpApi;
 import static org.jclouds.util.Throwables2.propagateAuthorizationOrOriginalException;
@@ -59,6 +63,7 @@ import org.jclouds.concurrent.config.ConfiguresExecutorService;
 import org.jclouds.concurrent.config.ExecutorServiceModule;
 import org.jclouds.config.BindApiContextWithWildcardExtendsExplicitAndRawType;
 import org.jclouds.config.BindNameToContext;
+import org.jclouds.config.BindSharedFromParentContext;
 import org.jclouds.domain.Credentials;
 import org.jclouds.events.config.ConfiguresEventBus;
 import org.jclouds.events.config.EventBusModule;
@@ -67,6 +72,8 @@ import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.lifecycle.config.LifeCycleModule;
+import org.jclouds.logging.Logger;
+import org.jclouds.logging.Logger.LoggerFactory;
 import org.jclouds.logging.config.LoggingModule;
 import org.jclouds.logging.jdk.config.JDKLoggingModule;
 import org.jclouds.providers.ProviderMetadata;
@@ -93,19 +100,25 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.ExecutionList;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.Scopes;
 import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+import com.google.inject.util.Modules;
 
 /**
  * Creates {@link Context} or {@link Injector} configured to an api and
@@ -150,8 +163,6 @@ import com.google.inject.TypeLiteral;
  */
 public class ContextBuilder {
 
-   private static final Stage GUICE_STAGE = Stage.PRODUCTION;
-
    /**
     * looks up a provider or api with the given id
     * 
@@ -206,6 +217,7 @@ public class ContextBuilder {
    protected String buildVersion;
    protected Optional<Properties> overrides = Optional.absent();
    protected List<Module> modules = newArrayListWithCapacity(3);
+   protected Optional<Module> sharedFromParent = Optional.absent();
 
    @Override
    public String toString() {
@@ -286,6 +298,34 @@ public class ContextBuilder {
       return this;
    }
 
+   /**
+    * shares the {@link BindSharedFromParentContext#DEFAULT_SHARED_KEYS executors, parsers and connection limits} of a
+    * context built for the same provider, usually with other credentials. The context built still has its own
+    * credentials, filters and caches, but does not start threads of its own. Settings of the shared instances, such as
+    * the number of user threads, are the ones of the parent.
+    * <p/>
+    * The parent must stay open while the contexts built with it are in use.
+    * 
+    * @param parent
+    *           the context to share with, which can be obtained from a {@link View} with {@link View#unwrap()}
+    */
+   public ContextBuilder parent(Context parent) {
+      return parent(parent, BindSharedFromParentContext.DEFAULT_SHARED_KEYS);
+   }
+
+   /**
+    * like {@link #parent(Context)}, but shares the instances bound to the given keys. Only add keys which do not depend
+    * on the credentials, such as the client of the http driver.
+    */
+   public ContextBuilder parent(Context parent, Iterable<Key<?>> sharedKeys) {
+      checkNotNull(parent, "parent");
+      checkArgument(parent.getProviderMetadata().getId().equals(providerId),
+            "parent context of provider %s cannot be shared with provider %s", parent.getProviderMetadata().getId(),
+            providerId);
+      this.sharedFromParent = Optional.<Module> of(new BindSharedFromParentContext(parent, sharedKeys));
+      return this;
+   }
+
    public static String searchPropertiesForProviderScopedProperty(Properties mutable, String prov, String key) throws NoSuchElementException {
       try {
          return find(newArrayList(mutable.getProperty(prov + "." + key), mutable.getProperty("jclouds." + key)),
@@ -327,7 +367,7 @@ public class ContextBuilder {
       // is used to be something readable.
       return buildInjector(name.or(String.valueOf(Objects.hashCode(providerMetadata.getId(),
             providerMetadata.getEndpoint(), providerMetadata.getApiMetadata().getVersion(), credentialsSupplier))),
-            providerMetadata, credentialsSupplier, modules);
+            providerMetadata, credentialsSupplier, modules, sharedFromParent.asSet());
    }
 
    protected Supplier<Credentials> buildCredentialsSupplier(Properties expanded) {
@@ -386,6 +426,11 @@ public class ContextBuilder {
    }
 
    public static Injector buildInjector(String name, ProviderMetadata providerMetadata, Supplier<Credentials> creds, List<Module> inputModules) {
+      return buildInjector(name, providerMetadata, creds, inputModules, ImmutableList.<Module> of());
+   }
+
+   private static Injector buildInjector(String name, ProviderMetadata providerMetadata, Supplier<Credentials> creds,
+         List<Module> inputModules, Iterable<Module> overrides) {
       List<Module> modules = newArrayList();
       modules.addAll(inputModules);
       boolean apiModuleSpecifiedByUser = apiModulePresent(inputModules);
@@ -402,11 +447,50 @@ public class ContextBuilder {
       modules.add(new LifeCycleModule());
       modules.add(new BindProviderMetadataContextAndCredentials(providerMetadata, creds));
       modules.add(new BindNameToContext(name));
-      Injector returnVal = Guice.createInjector(GUICE_STAGE, modules);
+      Properties properties = providerMetadata.getDefaultProperties();
+      boolean lazySingletons = Boolean.parseBoolean(properties.getProperty(PROPERTY_LAZY_SINGLETONS));
+      if (!Iterables.isEmpty(overrides))
+         modules = ImmutableList.of(Modules.override(modules).with(overrides));
+      Injector returnVal = Guice.createInjector(lazySingletons ? Stage.DEVELOPMENT : Stage.PRODUCTION, modules);
       returnVal.getInstance(ExecutionList.class).execute();
+      if (lazySingletons && Boolean.parseBoolean(properties.getProperty(PROPERTY_WARM_UP_SINGLETONS)))
+         warmUpSingletons(returnVal);
       return returnVal;
    }
 
+   /**
+    * creates, on the user executor, the singletons that {@link Stage#PRODUCTION} would have created while building the
+    * injector.
+    */
+   private static void warmUpSingletons(Injector injector) {
+      final List<Binding<?>> singletons = newArrayList();
+      for (Binding<?> binding : injector.getAllBindings().values()) {
+         if (Scopes.isSingleton(binding))
+            singletons.add(binding);
+      }
+      final Logger logger = injector.getInstance(LoggerFactory.class).getLogger(ContextBuilder.class.getName());
+      ListeningExecutorService userExecutor = injector.getInstance(Key.get(ListeningExecutorService.class,
+            Names.named(PROPERTY_USER_THREADS)));
+      userExecutor.execute(new Runnable() {
+         @Override
+         public void run() {
+            for (Binding<?> binding : singletons) {
+               try {
+                  binding.getProvider().get();
+               } catch (RuntimeException e) {
+                  // also thrown again to whoever uses the binding
+                  logger.warn(e, "could not warm up singleton %s", binding.getKey());
+               }
+            }
+         }
+
+         @Override
+         public String toString() {
+            return "warmUpSingletons(" + singletons.size() + ")";
+         }
+      });
+   }
+
    static Properties resolveProperties(Properties mutable, String providerId, Set<String> keys, Set<String> optionalKeys) throws NoSuchElementException {
       for (String key : keys) {
          String scopedProperty = Iterables.get(Splitter.on('.').split(key), 1);
@@ -30,9 +30,15 @@ import org.jclouds.util.TypeTokenUtils;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * The Apis class provides static methods for accessing apis.
@@ -59,9 +65,29 @@ public class Apis {
     * @return all available apis loaded from classpath via ServiceLoader
     */
    private static Iterable<ApiMetadata> fromServiceLoader() {
-      return ServiceLoader.load(ApiMetadata.class);
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      try {
+         return serviceLoaderCache.getUnchecked(loader != null ? loader : ClassLoader.getSystemClassLoader());
+      } catch (UncheckedExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (ExecutionError e) {
+         throw Throwables.propagate(e.getCause());
+      }
    }
 
+   /**
+    * Instantiating all the metadata on the classpath is slow, so it is done once per class loader. Metadata registered
+    * through OSGi is still looked up each time. The metadata classes reference their loader, so the values are soft
+    * and do not keep an unused loader from being collected.
+    */
+   private static final LoadingCache<ClassLoader, ImmutableSet<ApiMetadata>> serviceLoaderCache = CacheBuilder
+         .newBuilder().weakKeys().softValues().build(new CacheLoader<ClassLoader, ImmutableSet<ApiMetadata>>() {
+            @Override
+            public ImmutableSet<ApiMetadata> load(ClassLoader key) {
+               return ImmutableSet.copyOf(ServiceLoader.load(ApiMetadata.class, key));
+            }
+         });
+
    /**
     * Returns all available apis.
     * 
@@ -19,9 +19,13 @@ package org.jclouds.apis.internal;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_CONNECTION_CLOSE_HEADER;
+import static org.jclouds.Constants.PROPERTY_CONNECTION_IDLE_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_CONNECTION_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
 import static org.jclouds.Constants.PROPERTY_ISO3166_CODES;
+import static org.jclouds.Constants.PROPERTY_JSON_GENERATED_ADAPTERS;
+import static org.jclouds.Constants.PROPERTY_LAZY_SINGLETONS;
+import static org.jclouds.Constants.PROPERTY_LIMIT_CONNECTIONS;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTION_REUSE;
@@ -33,8 +37,10 @@ import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.Constants.PROPERTY_SO_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_STRIP_EXPECT_HEADER;
+import static org.jclouds.Constants.PROPERTY_TOKEN_REFRESH_FRACTION;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.Constants.PROPERTY_USER_AGENT;
+import static org.jclouds.Constants.PROPERTY_WARM_UP_SINGLETONS;
 import static org.jclouds.reflect.Reflection2.typeToken;
 
 import java.net.URI;
@@ -69,15 +75,19 @@ public abstract class BaseApiMetadata implements ApiMetadata {
       props.setProperty(PROPERTY_ISO3166_CODES, "");
       props.setProperty(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT, 20 + "");
       props.setProperty(PROPERTY_MAX_CONNECTIONS_PER_HOST, 0 + "");
+      props.setProperty(PROPERTY_LIMIT_CONNECTIONS, "false");
       props.setProperty(PROPERTY_SO_TIMEOUT, 60000 + "");
       props.setProperty(PROPERTY_CONNECTION_TIMEOUT, 60000 + "");
+      props.setProperty(PROPERTY_CONNECTION_IDLE_TIMEOUT, 300000 + "");
       // Successfully tested 50 user threads with BlobStore.clearContainer.
       props.setProperty(PROPERTY_USER_THREADS, numUserThreads + "");
       props.setProperty(PROPERTY_SCHEDULER_THREADS, 10 + "");
       props.setProperty(PROPERTY_MAX_CONNECTION_REUSE, 75 + "");
       props.setProperty(PROPERTY_MAX_SESSION_FAILURES, 2 + "");
       props.setProperty(PROPERTY_SESSION_INTERVAL, 60 + "");
+      props.setProperty(PROPERTY_TOKEN_REFRESH_FRACTION, "0.1");
       props.setProperty(PROPERTY_PRETTY_PRINT_PAYLOADS, "true");
+      props.setProperty(PROPERTY_JSON_GENERATED_ADAPTERS, "true");
       props.setProperty(PROPERTY_STRIP_EXPECT_HEADER, "false");
       props.setProperty(PROPERTY_USER_AGENT,
 			String.format("jclouds/%s java/%s",
@@ -91,6 +101,8 @@ public abstract class BaseApiMetadata implements ApiMetadata {
 
       props.setProperty(PROPERTY_IDEMPOTENT_METHODS, "DELETE,GET,HEAD,OPTIONS,PUT");
       props.setProperty(PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE, 32768 + "");
+      props.setProperty(PROPERTY_LAZY_SINGLETONS, "false");
+      props.setProperty(PROPERTY_WARM_UP_SINGLETONS, "false");
       return props;
    }
 
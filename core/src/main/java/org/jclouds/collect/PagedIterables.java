@@ -16,16 +16,28 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
  * Utilities for using {@link PagedIterable}s.
@@ -137,4 +149,132 @@ public class PagedIterables {
       }
       return new AdvancingIterator<T>(initial, markerToNext);
    }
+
+   /**
+    * Fetches up to {@code depth} pages ahead of the caller, so that the next pages are retrieved while the current one
+    * is consumed. Pages are still fetched one after the other, as each needs the marker of the previous one.
+    * <p/>
+    * A fetch is only started when there is room in the buffer, so an iterator which is abandoned stops fetching once
+    * its buffer is full, and never holds a thread of the executor. The iterators implement {@link Closeable}, which
+    * cancels the fetch in flight and discards the buffered pages.
+    * 
+    * @param pages
+    *           the pages to fetch ahead
+    * @param depth
+    *           how many pages to fetch ahead of the caller; zero returns {@code pages} as is
+    * @param executor
+    *           runs the fetches, usually the user executor
+    * 
+    * @return iterable of the same pages, in the same order
+    */
+   public static <T> PagedIterable<T> prefetch(final PagedIterable<T> pages, final int depth,
+         final ListeningExecutorService executor) {
+      checkNotNull(pages, "pages");
+      checkArgument(depth >= 0, "depth must be non-negative");
+      checkNotNull(executor, "executor");
+      if (depth == 0)
+         return pages;
+      return new PagedIterable<T>() {
+         public Iterator<IterableWithMarker<T>> iterator() {
+            return new PrefetchingIterator<T>(pages.iterator(), depth, executor);
+         }
+      };
+   }
+
+   private static class PrefetchingIterator<T> extends AbstractIterator<IterableWithMarker<T>> implements Closeable {
+
+      private final Iterator<IterableWithMarker<T>> delegate;
+      private final int depth;
+      private final ListeningExecutorService executor;
+
+      private final Callable<Optional<IterableWithMarker<T>>> fetch = new Callable<Optional<IterableWithMarker<T>>>() {
+         @Override
+         public Optional<IterableWithMarker<T>> call() {
+            // only one fetch runs at a time, the next one is submitted once this one completed
+            return delegate.hasNext() ? Optional.of(delegate.next()) : Optional.<IterableWithMarker<T>> absent();
+         }
+      };
+
+      private final Runnable fetched = new Runnable() {
+         @Override
+         public void run() {
+            onFetched();
+         }
+      };
+
+      // guarded by this; the pages fetched or in flight, in order
+      private final Deque<ListenableFuture<Optional<IterableWithMarker<T>>>> buffer =
+            new ArrayDeque<ListenableFuture<Optional<IterableWithMarker<T>>>>();
+      private ListenableFuture<Optional<IterableWithMarker<T>>> inFlight;
+      private boolean exhausted;
+      private boolean closed;
+
+      private PrefetchingIterator(Iterator<IterableWithMarker<T>> delegate, int depth,
+            ListeningExecutorService executor) {
+         this.delegate = delegate;
+         this.depth = depth;
+         this.executor = executor;
+      }
+
+      @Override
+      protected IterableWithMarker<T> computeNext() {
+         ListenableFuture<Optional<IterableWithMarker<T>>> next;
+         synchronized (this) {
+            if (closed)
+               return endOfData();
+            fill();
+            next = buffer.poll();
+            if (next == null)
+               return endOfData();
+            // the page taken leaves room for another
+            fill();
+         }
+         try {
+            Optional<IterableWithMarker<T>> page = Uninterruptibles.getUninterruptibly(next);
+            return page.isPresent() ? page.get() : endOfData();
+         } catch (ExecutionException e) {
+            close();
+            throw Throwables.propagate(e.getCause());
+         }
+      }
+
+      private synchronized void onFetched() {
+         try {
+            if (!Uninterruptibles.getUninterruptibly(inFlight).isPresent())
+               exhausted = true;
+         } catch (ExecutionException e) {
+            exhausted = true;
+         } catch (RuntimeException e) {
+            // cancelled
+            exhausted = true;
+         }
+         inFlight = null;
+         fill();
+      }
+
+      // starts the next fetch when the previous one completed and there is room in the buffer
+      private void fill() {
+         if (closed || exhausted || inFlight != null || buffer.size() >= depth)
+            return;
+         inFlight = executor.submit(fetch);
+         buffer.add(inFlight);
+         inFlight.addListener(fetched, directExecutor());
+      }
+
+      /**
+       * Cancels the fetch in flight and discards the buffered pages.
+       */
+      @Override
+      public synchronized void close() {
+         closed = true;
+         for (ListenableFuture<?> page : buffer)
+            page.cancel(true);
+         buffer.clear();
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper("").add("depth", depth).add("delegate", delegate).toString();
+      }
+   }
 }
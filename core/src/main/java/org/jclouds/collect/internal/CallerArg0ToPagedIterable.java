@@ -16,6 +16,11 @@
  */
 package org.jclouds.collect.internal;
 
+import static org.jclouds.Constants.PROPERTY_PREFETCH_PAGES;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import javax.inject.Named;
+
 import org.jclouds.collect.IterableWithMarker;
 import org.jclouds.collect.PagedIterable;
 import org.jclouds.collect.PagedIterables;
@@ -26,6 +31,8 @@ import org.jclouds.rest.internal.GeneratedHttpRequest;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 /**
  * @deprecated Arg0ToPagedIterable.FromCaller
@@ -37,9 +44,17 @@ public abstract class CallerArg0ToPagedIterable<T, I extends CallerArg0ToPagedIt
 
    private GeneratedHttpRequest request;
 
+   @Inject(optional = true)
+   @Named(PROPERTY_PREFETCH_PAGES)
+   private int prefetchPages = 0;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_USER_THREADS)
+   private ListeningExecutorService userExecutor;
+
    @Override
    public PagedIterable<T> apply(IterableWithMarker<T> input) {
-      if (input.nextMarker() == null)
+      if (!input.nextMarker().isPresent())
          return PagedIterables.of(input);
 
       Optional<String> arg0Option = Optional.absent();
@@ -49,7 +64,9 @@ public abstract class CallerArg0ToPagedIterable<T, I extends CallerArg0ToPagedIt
             arg0Option = Optional.of(arg0.toString());
       }
       final String arg0 = arg0Option.orNull();
-      return PagedIterables.advance(input, markerToNextForCallingArg0(arg0));
+      PagedIterable<T> pages = PagedIterables.advance(input, markerToNextForCallingArg0(arg0));
+      return prefetchPages > 0 && userExecutor != null ? PagedIterables.prefetch(pages, prefetchPages, userExecutor)
+            : pages;
    }
 
    protected abstract Function<Object, IterableWithMarker<T>> markerToNextForCallingArg0(String arg0);
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Tracks the completion of asynchronous operations of a provider, such as DNS changes or jobs, with a single
+ * periodic task which polls all the operations in flight. This replaces one polling loop per operation, each holding
+ * a thread, when many operations are submitted at once.
+ * <p/>
+ * The task is only scheduled while there are operations to track.
+ *
+ * @param <V>
+ *           the state of an operation once it completed
+ */
+@Beta
+public abstract class CompletionPoller<V> implements Closeable {
+
+   private final ScheduledExecutorService scheduler;
+   private final long periodMillis;
+   private final ConcurrentMap<String, SettableFuture<V>> pending = Maps.newConcurrentMap();
+
+   private final Runnable pollTask = new Runnable() {
+      @Override
+      public void run() {
+         pollAll();
+      }
+   };
+
+   // guarded by this
+   private ScheduledFuture<?> scheduled;
+   private boolean closed;
+
+   protected CompletionPoller(ScheduledExecutorService scheduler, long period, TimeUnit unit) {
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      checkArgument(period > 0, "period must be positive");
+      this.periodMillis = unit.toMillis(period);
+   }
+
+   /**
+    * Returns the current state of the operation.
+    *
+    * @return the state, or absent while the operation is in progress
+    * @throws Exception
+    *            to fail the operation, for example when it reports an error or was not found
+    */
+   protected abstract Optional<V> poll(String id) throws Exception;
+
+   /**
+    * Tracks the operation until it completes. Tracking the same id twice returns the same future.
+    *
+    * @return completes with the state of the operation once it completed. Cancelling it stops tracking the operation.
+    */
+   public ListenableFuture<V> track(String id) {
+      checkNotNull(id, "id");
+      SettableFuture<V> created = SettableFuture.create();
+      SettableFuture<V> existing = pending.putIfAbsent(id, created);
+      synchronized (this) {
+         if (closed) {
+            pending.remove(id, created);
+            throw new IllegalStateException("closed");
+         }
+         if (scheduled == null)
+            scheduled = scheduler.scheduleWithFixedDelay(pollTask, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+      }
+      return existing != null ? existing : created;
+   }
+
+   /**
+    * The number of operations which did not complete yet.
+    */
+   public int pending() {
+      return pending.size();
+   }
+
+   private void pollAll() {
+      for (Map.Entry<String, SettableFuture<V>> entry : pending.entrySet()) {
+         SettableFuture<V> future = entry.getValue();
+         if (!future.isDone()) {
+            try {
+               Optional<V> state = poll(entry.getKey());
+               if (!state.isPresent())
+                  continue;
+               future.set(state.get());
+            } catch (Exception e) {
+               future.setException(e);
+            }
+         }
+         pending.remove(entry.getKey(), future);
+      }
+      synchronized (this) {
+         // track() registers the id before it checks the task, so it reschedules the task if this cancels it
+         if (pending.isEmpty() && scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+         }
+      }
+   }
+
+   /**
+    * Stops polling and cancels the futures of the operations which did not complete yet. The operations themselves
+    * are not affected.
+    */
+   @Override
+   public void close() {
+      synchronized (this) {
+         closed = true;
+         if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+         }
+      }
+      for (SettableFuture<V> future : pending.values())
+         future.cancel(false);
+      pending.clear();
+   }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.jclouds.Context;
+import org.jclouds.http.internal.ConnectionLimiter;
+import org.jclouds.json.Json;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.TimeLimiter;
+import com.google.gson.Gson;
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
+
+/**
+ * Binds the given keys to the instances of a parent context, instead of creating them again. This is meant to override
+ * the bindings of a context built with the same provider but other credentials, so that the contexts share the
+ * executors, parsers and any other infrastructure that does not depend on the credentials.
+ * <p/>
+ * The shared instances belong to the parent, which shuts them down when it is closed. Closing a context built with
+ * this module does not affect them.
+ *
+ * @see org.jclouds.ContextBuilder#parent(Context)
+ */
+public class BindSharedFromParentContext extends AbstractModule {
+
+   /**
+    * The keys shared by default. Bindings which depend on the credentials, such as authentication filters, token caches
+    * or memoized suppliers of the resources of an account, must never be shared.
+    * <p/>
+    * The {@link ConnectionLimiter} is shared so that the connection limits apply to the parent and its children
+    * together. The clients of the http drivers are not known here, so drivers which have one, such as OkHttp, offer a
+    * set of keys which adds it. The JavaUrl driver has no client to share, as {@link java.net.HttpURLConnection} pools
+    * its connections for the whole JVM.
+    */
+   public static final ImmutableSet<Key<?>> DEFAULT_SHARED_KEYS = ImmutableSet.<Key<?>> of(
+         Key.get(ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS)),
+         Key.get(ExecutorService.class, Names.named(PROPERTY_USER_THREADS)),
+         Key.get(ListeningScheduledExecutorService.class, Names.named(PROPERTY_SCHEDULER_THREADS)),
+         Key.get(ScheduledExecutorService.class, Names.named(PROPERTY_SCHEDULER_THREADS)),
+         Key.get(TimeLimiter.class),
+         Key.get(ConnectionLimiter.class),
+         Key.get(Gson.class),
+         Key.get(Json.class));
+
+   /** Names the set of keys that were bound to the parent. */
+   public static final String SHARED_KEYS = "jclouds.shared-from-parent";
+
+   private final Injector parent;
+   private final Iterable<Key<?>> keys;
+
+   public BindSharedFromParentContext(Context parent, Iterable<Key<?>> keys) {
+      this.parent = checkNotNull(parent, "parent").utils().injector();
+      this.keys = ImmutableSet.copyOf(checkNotNull(keys, "keys"));
+   }
+
+   @Override
+   protected void configure() {
+      ImmutableSet.Builder<Key<?>> shared = ImmutableSet.builder();
+      for (Key<?> key : keys) {
+         // keys which are not bound in the parent, such as the client of another http driver, are left to the child
+         if (parent.getExistingBinding(key) != null) {
+            bindToParent(key);
+            shared.add(key);
+         }
+      }
+      bind(new TypeLiteral<Set<Key<?>>>() {
+      }).annotatedWith(Names.named(SHARED_KEYS)).toInstance(shared.build());
+   }
+
+   private <T> void bindToParent(Key<T> key) {
+      // a provider rather than the instance, so that guice does not inject the members of the shared instance again
+      bind(key).toProvider(parent.getProvider(key));
+   }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+
+/**
+ * A snapshot of the connections of an http driver.
+ *
+ * @see org.jclouds.http.internal.BaseHttpCommandExecutorService#getConnectionPoolStats()
+ */
+@Beta
+public final class ConnectionPoolStats {
+   private final int maxConnections;
+   private final int maxConnectionsPerHost;
+   private final int leased;
+   private final int idle;
+   private final int pending;
+   private final long acquisitions;
+   private final long totalWaitMillis;
+
+   public ConnectionPoolStats(int maxConnections, int maxConnectionsPerHost, int leased, int idle, int pending,
+         long acquisitions, long totalWaitMillis) {
+      this.maxConnections = maxConnections;
+      this.maxConnectionsPerHost = maxConnectionsPerHost;
+      this.leased = leased;
+      this.idle = idle;
+      this.pending = pending;
+      this.acquisitions = acquisitions;
+      this.totalWaitMillis = totalWaitMillis;
+   }
+
+   /** The limit of connections per context, or 0 if unlimited. */
+   public int getMaxConnections() {
+      return maxConnections;
+   }
+
+   /** The limit of connections per host, or 0 if only limited per context. */
+   public int getMaxConnectionsPerHost() {
+      return maxConnectionsPerHost;
+   }
+
+   /** Connections in use by requests whose response has not been consumed yet. */
+   public int getLeased() {
+      return leased;
+   }
+
+   /** Connections kept alive for reuse, or -1 if the driver does not report them. */
+   public int getIdle() {
+      return idle;
+   }
+
+   /** Requests waiting for a connection. */
+   public int getPending() {
+      return pending;
+   }
+
+   /** Connections handed out so far. */
+   public long getAcquisitions() {
+      return acquisitions;
+   }
+
+   /** Time requests spent waiting for a connection so far. */
+   public long getTotalWaitMillis() {
+      return totalWaitMillis;
+   }
+
+   public double getAverageWaitMillis() {
+      return acquisitions == 0 ? 0 : (double) totalWaitMillis / acquisitions;
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("maxConnections", maxConnections)
+            .add("maxConnectionsPerHost", maxConnectionsPerHost).add("leased", leased).add("idle", idle)
+            .add("pending", pending).add("acquisitions", acquisitions).add("totalWaitMillis", totalWaitMillis)
+            .toString();
+   }
+}
@@ -18,6 +18,7 @@ package org.jclouds.http;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.base.Objects;
@@ -28,17 +29,39 @@ import com.google.common.base.Objects;
 //TODO: get rid of all the mock tests so that this can be made final
 public class HttpCommand {
 
+   private final String operation;
    private volatile HttpRequest request;
    private volatile int failureCount;
    private volatile int redirectCount;
    private volatile Exception exception;
+   private volatile long retryDelay;
+   private volatile long previousRetryDelay;
 
    public HttpCommand(HttpRequest request) {
+      this(request, null);
+   }
+
+   /**
+    * @param operation
+    *           the name of the api method the command invokes, such as {@code s3:GetObject}
+    */
+   public HttpCommand(HttpRequest request, @Nullable String operation) {
       this.request = checkNotNull(request, "request");
+      this.operation = operation;
       this.failureCount = 0;
       this.redirectCount = 0;
    }
 
+   /**
+    * The name of the api method the command invokes, or null if the command was not created for an api method.
+    *
+    * @see org.jclouds.rest.config.InvocationConfig#getCommandName(org.jclouds.reflect.Invocation)
+    */
+   @Nullable
+   public String getOperation() {
+      return operation;
+   }
+
    /**
     * This displays the current number of error retries for this command.
     * 
@@ -89,6 +112,47 @@ public class HttpCommand {
       return redirectCount;
    }
 
+   /**
+    * Asks the executor to wait the given milliseconds before sending the command again. Retry handlers call this
+    * rather than sleeping, so that the connection of the failed attempt is released while waiting. The calling thread
+    * still waits, as the command is invoked synchronously.
+    *
+    * @see org.jclouds.http.HttpRetryHandler
+    */
+   public void setRetryDelay(long retryDelay) {
+      this.retryDelay = retryDelay;
+   }
+
+   /**
+    * The milliseconds to wait before the next attempt, or 0 to retry right away.
+    *
+    * @see #setRetryDelay
+    */
+   public long getRetryDelay() {
+      return retryDelay;
+   }
+
+   /**
+    * The milliseconds waited before the last attempt, or 0 if it was not delayed. Backoff policies which grow the
+    * delay from the previous one use this.
+    */
+   public long getPreviousRetryDelay() {
+      return previousRetryDelay;
+   }
+
+   /**
+    * Clears the delay to wait before the next attempt and remembers it as the {@link #getPreviousRetryDelay previous
+    * delay}. Called by the executor.
+    *
+    * @return the delay to wait
+    */
+   public long takeRetryDelay() {
+      long delay = retryDelay;
+      retryDelay = 0;
+      previousRetryDelay = delay;
+      return delay;
+   }
+
    /**
     * Commands need to be replayed, if redirected or on a retryable error. Typically, this implies
     * the payload carried is not a streaming type.
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Receives the events of each attempt to send an {@link HttpCommand}, for example to record metrics or traces.
+ * <p/>
+ * Bind an implementation in a module passed to the {@link org.jclouds.ContextBuilder} to enable it, such as the
+ * {@link org.jclouds.http.config.HttpMetricsModule}. Nothing is recorded, and the responses are not wrapped, when no
+ * listener is bound.
+ * <p/>
+ * The events are called on the thread sending the request, or reading the response, so implementations should be
+ * quick and must not throw. Elapsed times are counted from the start of the attempt. Use
+ * {@link HttpCommand#getOperation()} to tag events with the api method, and
+ * {@link HttpCommand#getCurrentRequest()} for the request as it was before filtering.
+ */
+@Beta
+public interface HttpListener {
+
+   /**
+    * An attempt to send the command starts. Called again for each retry or redirect.
+    */
+   void requestStarted(HttpCommand command);
+
+   /**
+    * The filters were applied and the request is about to be sent.
+    *
+    * @param filtered
+    *           the request as sent, including the headers added by the filters
+    */
+   void filtersDone(HttpCommand command, HttpRequest filtered, long elapsedNanos);
+
+   /**
+    * The status line and the headers of the response were received.
+    */
+   void firstByte(HttpCommand command, HttpResponse response, long elapsedNanos);
+
+   /**
+    * The payload of the response was read to its end or closed, or there was none.
+    *
+    * @param bytesRead
+    *           the bytes read from the payload of the response
+    */
+   void completed(HttpCommand command, HttpResponse response, long bytesRead, long elapsedNanos);
+
+   /**
+    * The command is going to be sent again.
+    *
+    * @param response
+    *           the response which is retried, or null if the attempt failed with an exception
+    * @param cause
+    *           the exception which is retried, or null if a response is retried
+    */
+   void retried(HttpCommand command, @Nullable HttpResponse response, @Nullable Exception cause);
+
+   /**
+    * The command failed and will not be retried. Also called when the response of an api method could not be parsed,
+    * with the time elapsed since the command was first sent.
+    *
+    * @param response
+    *           the response which caused the failure, if any
+    */
+   void failed(HttpCommand command, @Nullable HttpResponse response, Throwable cause, long elapsedNanos);
+}
@@ -0,0 +1,323 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.location.Provider;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+/**
+ * Records the latencies, bytes, retries and failures of the http requests of a context, by api method and status code.
+ * <p/>
+ * Latencies are kept in histograms with buckets of doubling width, so percentiles are accurate within a factor of
+ * two. Recording only uses atomic counters.
+ *
+ * @see org.jclouds.http.config.HttpMetricsModule
+ */
+@Beta
+@Singleton
+public class HttpMetricsListener implements HttpListener {
+   /** The status of failures which did not get a response. */
+   public static final int NO_RESPONSE = -1;
+
+   private final String provider;
+   private final ConcurrentMap<Key, Recorder> recorders = Maps.newConcurrentMap();
+
+   @Inject
+   public HttpMetricsListener(@Provider String provider) {
+      this.provider = checkNotNull(provider, "provider");
+   }
+
+   @Override
+   public void requestStarted(HttpCommand command) {
+   }
+
+   @Override
+   public void filtersDone(HttpCommand command, HttpRequest filtered, long elapsedNanos) {
+   }
+
+   @Override
+   public void firstByte(HttpCommand command, HttpResponse response, long elapsedNanos) {
+      recorder(command, response.getStatusCode()).firstByte.record(elapsedNanos);
+   }
+
+   @Override
+   public void completed(HttpCommand command, HttpResponse response, long bytesRead, long elapsedNanos) {
+      Recorder recorder = recorder(command, response.getStatusCode());
+      recorder.completed.record(elapsedNanos);
+      recorder.bytesReceived.addAndGet(bytesRead);
+      Long bytesSent = command.getCurrentRequest().getPayload() != null ? command.getCurrentRequest().getPayload()
+            .getContentMetadata().getContentLength() : null;
+      if (bytesSent != null) {
+         recorder.bytesSent.addAndGet(bytesSent);
+      }
+   }
+
+   @Override
+   public void retried(HttpCommand command, @Nullable HttpResponse response, @Nullable Exception cause) {
+      recorder(command, response != null ? response.getStatusCode() : NO_RESPONSE).retries.incrementAndGet();
+   }
+
+   @Override
+   public void failed(HttpCommand command, @Nullable HttpResponse response, Throwable cause, long elapsedNanos) {
+      recorder(command, response != null ? response.getStatusCode() : NO_RESPONSE).failures.incrementAndGet();
+   }
+
+   /**
+    * @return a snapshot of the metrics of each api method and status code seen so far
+    */
+   public List<OperationMetrics> getMetrics() {
+      ImmutableList.Builder<OperationMetrics> metrics = ImmutableList.builder();
+      for (Map.Entry<Key, Recorder> entry : recorders.entrySet()) {
+         metrics.add(entry.getValue().snapshot(provider, entry.getKey()));
+      }
+      return metrics.build();
+   }
+
+   /**
+    * Forgets the metrics recorded so far.
+    */
+   public void reset() {
+      recorders.clear();
+   }
+
+   private Recorder recorder(HttpCommand command, int status) {
+      String operation = command.getOperation() != null ? command.getOperation() : command.getCurrentRequest()
+            .getMethod();
+      Key key = new Key(operation, status);
+      Recorder recorder = recorders.get(key);
+      if (recorder == null) {
+         Recorder created = new Recorder();
+         recorder = recorders.putIfAbsent(key, created);
+         if (recorder == null) {
+            recorder = created;
+         }
+      }
+      return recorder;
+   }
+
+   private static final class Key {
+      private final String operation;
+      private final int status;
+
+      private Key(String operation, int status) {
+         this.operation = operation;
+         this.status = status;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (!(obj instanceof Key)) {
+            return false;
+         }
+         Key that = (Key) obj;
+         return status == that.status && operation.equals(that.operation);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * operation.hashCode() + status;
+      }
+   }
+
+   private static final class Recorder {
+      private final Histogram firstByte = new Histogram();
+      private final Histogram completed = new Histogram();
+      private final AtomicLong bytesSent = new AtomicLong();
+      private final AtomicLong bytesReceived = new AtomicLong();
+      private final AtomicLong retries = new AtomicLong();
+      private final AtomicLong failures = new AtomicLong();
+
+      private OperationMetrics snapshot(String provider, Key key) {
+         return new OperationMetrics(provider, key.operation, key.status, firstByte.snapshot(),
+               completed.snapshot(), bytesSent.get(), bytesReceived.get(), retries.get(), failures.get());
+      }
+   }
+
+   /**
+    * Counts latencies in buckets of microseconds, bucket {@code i} holding the latencies below {@code 2^i}
+    * microseconds.
+    */
+   static final class Histogram {
+      static final int BUCKETS = 40;
+
+      private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+      private final AtomicLong totalNanos = new AtomicLong();
+
+      void record(long nanos) {
+         long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0);
+         int bucket = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+         counts.incrementAndGet(bucket);
+         totalNanos.addAndGet(nanos);
+      }
+
+      LatencySnapshot snapshot() {
+         long[] snapshot = new long[BUCKETS];
+         for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+         }
+         return new LatencySnapshot(snapshot, totalNanos.get());
+      }
+   }
+
+   /**
+    * The latencies recorded for an api method and status code.
+    */
+   public static final class LatencySnapshot {
+      private final long[] counts;
+      private final long count;
+      private final long totalNanos;
+
+      private LatencySnapshot(long[] counts, long totalNanos) {
+         this.counts = counts;
+         long count = 0;
+         for (long c : counts) {
+            count += c;
+         }
+         this.count = count;
+         this.totalNanos = totalNanos;
+      }
+
+      public long getCount() {
+         return count;
+      }
+
+      public double getMeanMillis() {
+         return count == 0 ? 0 : totalNanos / 1e6 / count;
+      }
+
+      /**
+       * @param quantile
+       *           between 0 and 1, such as 0.99
+       * @return the upper bound of the latency below which the quantile of the requests completed, or 0 if none
+       */
+      public double getPercentileMillis(double quantile) {
+         checkArgument(quantile >= 0 && quantile <= 1, "quantile must be between 0 and 1");
+         if (count == 0) {
+            return 0;
+         }
+         long rank = (long) Math.ceil(quantile * count);
+         long seen = 0;
+         for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+               return (1L << i) / 1000.0;
+            }
+         }
+         return (1L << (counts.length - 1)) / 1000.0;
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper(this).add("count", count).add("meanMillis", getMeanMillis())
+               .add("p50Millis", getPercentileMillis(0.5)).add("p99Millis", getPercentileMillis(0.99)).toString();
+      }
+   }
+
+   /**
+    * The metrics of an api method for a status code.
+    */
+   public static final class OperationMetrics {
+      private final String provider;
+      private final String operation;
+      private final int status;
+      private final LatencySnapshot firstByte;
+      private final LatencySnapshot completed;
+      private final long bytesSent;
+      private final long bytesReceived;
+      private final long retries;
+      private final long failures;
+
+      private OperationMetrics(String provider, String operation, int status, LatencySnapshot firstByte,
+            LatencySnapshot completed, long bytesSent, long bytesReceived, long retries, long failures) {
+         this.provider = provider;
+         this.operation = operation;
+         this.status = status;
+         this.firstByte = firstByte;
+         this.completed = completed;
+         this.bytesSent = bytesSent;
+         this.bytesReceived = bytesReceived;
+         this.retries = retries;
+         this.failures = failures;
+      }
+
+      public String getProvider() {
+         return provider;
+      }
+
+      /** The name of the api method, or the http method for requests not sent by an api method. */
+      public String getOperation() {
+         return operation;
+      }
+
+      /** The status code of the responses, or {@link HttpMetricsListener#NO_RESPONSE}. */
+      public int getStatus() {
+         return status;
+      }
+
+      /** The time until the headers of the responses were received. */
+      public LatencySnapshot getFirstByte() {
+         return firstByte;
+      }
+
+      /** The time until the payloads of the responses were read or closed. */
+      public LatencySnapshot getCompleted() {
+         return completed;
+      }
+
+      public long getBytesSent() {
+         return bytesSent;
+      }
+
+      public long getBytesReceived() {
+         return bytesReceived;
+      }
+
+      public long getRetries() {
+         return retries;
+      }
+
+      public long getFailures() {
+         return failures;
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper(this).add("provider", provider).add("operation", operation)
+               .add("status", status).add("firstByte", firstByte).add("completed", completed)
+               .add("bytesSent", bytesSent).add("bytesReceived", bytesReceived).add("retries", retries)
+               .add("failures", failures).toString();
+      }
+   }
+}
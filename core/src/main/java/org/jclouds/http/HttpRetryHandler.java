@@ -46,6 +46,10 @@ public interface HttpRetryHandler {
    /**
     * Return true if the command should be retried. This method should only be invoked when the
     * response has failed with a HTTP 5xx error indicating a server-side error.
+    * <p/>
+    * Implementations should not block to delay the retry. They should record the delay with
+    * {@link HttpCommand#setRetryDelay(long)} instead. The executor waits on the calling thread once the failed response
+    * is released, as {@link HttpCommandExecutorService#invoke} returns the response synchronously.
     */
    boolean shouldRetryRequest(HttpCommand command, HttpResponse response);
 }
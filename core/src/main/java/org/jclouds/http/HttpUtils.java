@@ -84,6 +84,10 @@ public class HttpUtils {
    @Named(Constants.PROPERTY_TRUST_ALL_CERTS)
    private boolean trustAllCerts;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_CONNECTION_IDLE_TIMEOUT)
+   private long connectionIdleTimeout = 300000;
+
    @Inject
    public HttpUtils(@Named(Constants.PROPERTY_CONNECTION_TIMEOUT) int connectionTimeout,
          @Named(Constants.PROPERTY_SO_TIMEOUT) int soTimeout,
@@ -119,6 +123,10 @@ public class HttpUtils {
       return globalMaxConnectionsPerHost;
    }
 
+   public long getConnectionIdleTimeout() {
+      return connectionIdleTimeout;
+   }
+
    public static byte[] toByteArrayOrNull(PayloadEnclosing response) {
       if (response.getPayload() != null) {
          InputStream input = response.getPayload().getInput();
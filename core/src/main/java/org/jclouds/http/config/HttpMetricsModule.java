@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.config;
+
+import org.jclouds.http.HttpListener;
+import org.jclouds.http.HttpMetricsListener;
+
+import com.google.common.annotations.Beta;
+import com.google.inject.AbstractModule;
+
+/**
+ * Records the metrics of the http requests of a context in the {@link HttpMetricsListener}, which can be looked up
+ * with {@code context.utils().injector().getInstance(HttpMetricsListener.class)}.
+ * <p/>
+ * To report to another metrics library instead, bind an {@link HttpListener} that forwards to it.
+ */
+@Beta
+public class HttpMetricsModule extends AbstractModule {
+
+   @Override
+   protected void configure() {
+      bind(HttpListener.class).to(HttpMetricsListener.class);
+   }
+}
@@ -17,6 +17,7 @@
 package org.jclouds.http.config;
 
 import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.internal.ConnectionLimiter;
 import org.jclouds.http.internal.JavaUrlHttpCommandExecutorService;
 
 import com.google.inject.AbstractModule;
@@ -34,6 +35,8 @@ public class JavaUrlHttpCommandExecutorServiceModule extends AbstractModule {
    protected void configure() {
       install(new SSLModule());
       bind(HttpCommandExecutorService.class).to(JavaUrlHttpCommandExecutorService.class).in(Scopes.SINGLETON);
+      // bound explicitly so that contexts built with a parent can share it
+      bind(ConnectionLimiter.class).in(Scopes.SINGLETON);
    }
 
 }
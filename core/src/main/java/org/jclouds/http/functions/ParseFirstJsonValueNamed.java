@@ -18,6 +18,7 @@ package org.jclouds.http.functions;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.List;
@@ -32,6 +33,7 @@ import org.jclouds.json.internal.GsonWrapper;
 import org.jclouds.logging.Logger;
 import org.jclouds.util.Closeables2;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -66,21 +68,15 @@ public class ParseFirstJsonValueNamed<T> implements Function<HttpResponse, T> {
          return nothing();
       JsonReader reader = null;
       try {
-         reader = new JsonReader(new InputStreamReader(arg0.getPayload().getInput()));
+         reader = new JsonReader(new BufferedReader(new InputStreamReader(arg0.getPayload().openStream(),
+               Charsets.UTF_8)));
          // in case keys are not in quotes
          reader.setLenient(true);
-         AtomicReference<String> name = Atomics.newReference();
-         JsonToken token = reader.peek();
-         for (; token != JsonToken.END_DOCUMENT && nnn(reader, token, name); token = skipAndPeek(token, reader)) {
-         }
-         if (name.get() == null) {
+         if (seekToValueNamed(reader, nameChoices) == null) {
             logger.trace("did not object named %s in json from response %s", nameChoices, arg0);
             return nothing();
-         } else if (nameChoices.contains(name.get())) {
-            return json.delegate().<T> fromJson(reader, type.getType());
-         } else {
-            return nothing();
          }
+         return json.delegate().<T> fromJson(reader, type.getType());
       } catch (IOException e) {
          throw new RuntimeException(String.format(
                "error reading from stream, parsing object named %s from http response %s", nameChoices, arg0), e);
@@ -101,7 +97,22 @@ public class ParseFirstJsonValueNamed<T> implements Function<HttpResponse, T> {
       return null;
    }
 
-   private boolean nnn(JsonReader reader, JsonToken token, AtomicReference<String> name) throws IOException {
+   /**
+    * Advances the reader to the value of the first name out of the choices.
+    *
+    * @return the name found, or null if the json has none of the names
+    */
+   static String seekToValueNamed(JsonReader reader, Set<String> nameChoices) throws IOException {
+      AtomicReference<String> name = Atomics.newReference();
+      JsonToken token = reader.peek();
+      for (; token != JsonToken.END_DOCUMENT && nnn(reader, token, name, nameChoices); token = skipAndPeek(token,
+            reader)) {
+      }
+      return name.get();
+   }
+
+   private static boolean nnn(JsonReader reader, JsonToken token, AtomicReference<String> name,
+         Set<String> nameChoices) throws IOException {
       if (token == JsonToken.NAME) {
          String name2 = reader.nextName();
          if (nameChoices.contains(name2)) {
@@ -113,7 +124,7 @@ public class ParseFirstJsonValueNamed<T> implements Function<HttpResponse, T> {
 
    }
 
-   private JsonToken skipAndPeek(JsonToken token, JsonReader reader) throws IOException {
+   private static JsonToken skipAndPeek(JsonToken token, JsonReader reader) throws IOException {
       switch (token) {
       case BEGIN_ARRAY:
          reader.beginArray();
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.json.internal.GsonWrapper;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Decodes the elements of a json array one at a time, as the caller iterates, so that large listings are not held in
+ * memory at once.
+ *
+ * @see org.jclouds.rest.annotations.StreamJson
+ */
+public class ParseJsonArrayLazily<T> implements Function<HttpResponse, FluentIterable<T>> {
+
+   private final GsonWrapper json;
+   private final TypeLiteral<T> elementType;
+   private final ImmutableSet<String> nameChoices;
+
+   /**
+    * @param nameChoices
+    *           the names of the array, tried in order, or none if the array is the root of the response
+    */
+   public ParseJsonArrayLazily(GsonWrapper json, TypeLiteral<T> elementType, String... nameChoices) {
+      this.json = checkNotNull(json, "json");
+      this.elementType = checkNotNull(elementType, "elementType");
+      this.nameChoices = ImmutableSet.copyOf(checkNotNull(nameChoices, "nameChoices"));
+   }
+
+   @Override
+   public FluentIterable<T> apply(HttpResponse response) {
+      if (response.getPayload() == null) {
+         return FluentIterable.from(ImmutableSet.<T> of());
+      }
+      JsonReader reader = null;
+      try {
+         reader = new JsonReader(new BufferedReader(new InputStreamReader(response.getPayload().openStream(),
+               Charsets.UTF_8)));
+         // in case keys are not in quotes
+         reader.setLenient(true);
+         if (!nameChoices.isEmpty() && ParseFirstJsonValueNamed.seekToValueNamed(reader, nameChoices) == null
+               || reader.peek() != JsonToken.BEGIN_ARRAY) {
+            Closeables2.closeQuietly(reader);
+            response.getPayload().release();
+            return FluentIterable.from(ImmutableSet.<T> of());
+         }
+         reader.beginArray();
+         return new JsonArrayIterable<T>(json, elementType, reader, response);
+      } catch (IOException e) {
+         Closeables2.closeQuietly(reader);
+         response.getPayload().release();
+         throw new HttpResponseException("error reading json array from response", null, response, e);
+      }
+   }
+
+   /**
+    * The elements of the array, which can be iterated once.
+    */
+   static final class JsonArrayIterable<T> extends FluentIterable<T> implements Closeable {
+      private final GsonWrapper json;
+      private final TypeLiteral<T> elementType;
+      private final JsonReader reader;
+      private final HttpResponse response;
+      private final AtomicBoolean iterated = new AtomicBoolean();
+      private final AtomicBoolean closed = new AtomicBoolean();
+
+      private JsonArrayIterable(GsonWrapper json, TypeLiteral<T> elementType, JsonReader reader,
+            HttpResponse response) {
+         this.json = json;
+         this.elementType = elementType;
+         this.reader = reader;
+         this.response = response;
+      }
+
+      @Override
+      public Iterator<T> iterator() {
+         checkState(iterated.compareAndSet(false, true), "the elements of %s can only be iterated once", response);
+         if (closed.get()) {
+            return ImmutableSet.<T> of().iterator();
+         }
+         return new AbstractIterator<T>() {
+            @Override
+            protected T computeNext() {
+               try {
+                  if (!closed.get() && reader.hasNext()) {
+                     return json.delegate().<T> fromJson(reader, elementType.getType());
+                  }
+               } catch (IOException e) {
+                  close();
+                  throw new HttpResponseException("error reading json array from response", null, response, e);
+               } catch (RuntimeException e) {
+                  close();
+                  throw e;
+               }
+               close();
+               return endOfData();
+            }
+         };
+      }
+
+      /**
+       * Releases the connection, ending the iteration.
+       */
+      @Override
+      public void close() {
+         if (closed.compareAndSet(false, true)) {
+            Closeables2.closeQuietly(reader);
+            response.getPayload().release();
+         }
+      }
+
+      @Override
+      public String toString() {
+         return "JsonArrayIterable(" + elementType + ")";
+      }
+   }
+}
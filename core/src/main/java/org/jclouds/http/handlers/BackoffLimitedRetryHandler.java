@@ -16,10 +16,7 @@
  */
 package org.jclouds.http.handlers;
 
-import static java.lang.Math.max;
-
 import java.io.IOException;
-import java.util.Random;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
@@ -72,6 +69,10 @@ import com.google.inject.Inject;
  * {@link TransformingHttpCommand#incrementFailureCount()}, because this failure count value is used
  * to determine how many times the command has already been tried. It also closes the response's
  * content input stream to ensure connections are cleaned up.
+ * <p>
+ * The handler does not wait itself: it records the delay with {@link HttpCommand#setRetryDelay(long)}, and the
+ * executor waits once the connection of the failed attempt is released. The delay is computed by the
+ * {@link BackoffPolicy} configured with {@link Constants#PROPERTY_RETRY_BACKOFF}.
  */
 @Singleton
 public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOExceptionRetryHandler {
@@ -86,6 +87,10 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
    @Named(Constants.PROPERTY_RETRY_DELAY_START)
    private long delayStart = 50L;
 
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_RETRY_BACKOFF)
+   private BackoffPolicy backoffPolicy = BackoffPolicy.EXPONENTIAL;
+
    @Resource
    protected Logger logger = Logger.NULL;
 
@@ -108,37 +113,65 @@ public class BackoffLimitedRetryHandler implements HttpRetryHandler, IOException
                   command);
          return false;
       } else {
-         imposeBackoffExponentialDelay(command.getFailureCount(), "server error: " + command.toString());
+         delayRetry(command, command.getFailureCount(), "server error: " + command.toString());
          return true;
       }
    }
 
+   /**
+    * Records on the command the delay the executor should wait before retrying it, instead of waiting here.
+    *
+    * @return the delay in milliseconds
+    */
+   public long delayRetry(HttpCommand command, int failureCount, String commandDescription) {
+      return delayRetry(command, delayStart, 2, failureCount, commandDescription);
+   }
+
+   /**
+    * @see #delayRetry(HttpCommand, int, String)
+    */
+   public long delayRetry(HttpCommand command, long period, int pow, int failureCount, String commandDescription) {
+      long delayMs = backoffDelay(period, maxPeriod(period), pow, failureCount, command.getPreviousRetryDelay());
+      logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, retryCountLimit, delayMs, commandDescription);
+      command.setRetryDelay(delayMs);
+      return delayMs;
+   }
+
+   /**
+    * Blocks the current thread for the backoff delay. Prefer {@link #delayRetry(HttpCommand, int, String)} when
+    * retrying an http command.
+    */
    public void imposeBackoffExponentialDelay(int failureCount, String commandDescription) {
       imposeBackoffExponentialDelay(delayStart, 2, failureCount, retryCountLimit, commandDescription);
    }
 
    public void imposeBackoffExponentialDelay(long period, int pow, int failureCount, int max, String commandDescription) {
-      imposeBackoffExponentialDelay(period, period * 10L, pow, failureCount, max, commandDescription);
+      imposeBackoffExponentialDelay(period, maxPeriod(period), pow, failureCount, max, commandDescription);
    }
 
    public void imposeBackoffExponentialDelay(long period, long maxPeriod, int pow, int failureCount, int max,
             String commandDescription) {
-      if (period == 0) {
-         // Essentially disables the exponential backoff
-         logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, 0, commandDescription);
+      long delayMs = backoffDelay(period, maxPeriod, pow, failureCount, 0);
+      logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, delayMs, commandDescription);
+      if (delayMs == 0) {
          return;
       }
-      long delayMs = (long) (period * Math.pow(failureCount, pow));
-      // Add random delay to avoid thundering herd problem when multiple
-      // simultaneous failed requests retry after sleeping for the same delay.
-      // Throws an exception for a value of 0
-      delayMs += new Random().nextInt((int) (max(delayMs / 10, 1) ));
-      delayMs = delayMs > maxPeriod ? maxPeriod : delayMs;
-      logger.debug("Retry %d/%d: delaying for %d ms: %s", failureCount, max, delayMs, commandDescription);
       try {
          Thread.sleep(delayMs);
       } catch (InterruptedException e) {
          Throwables.propagate(e);
       }
    }
+
+   /**
+    * The maximum delay for the given base period. Defaults to ten times the period.
+    */
+   protected long maxPeriod(long period) {
+      return period * 10L;
+   }
+
+   private long backoffDelay(long period, long maxPeriod, int pow, int failureCount, long previousDelay) {
+      // a period of 0 essentially disables the backoff
+      return period == 0 ? 0 : backoffPolicy.delay(period, maxPeriod, pow, failureCount, previousDelay);
+   }
 }
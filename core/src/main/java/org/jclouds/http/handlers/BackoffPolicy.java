@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.handlers;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How {@link BackoffLimitedRetryHandler} computes the delay before retrying a failed command, configured with
+ * {@link org.jclouds.Constants#PROPERTY_RETRY_BACKOFF}.
+ * <p/>
+ * The jittered policies spread the retries of clients which failed at the same time, so that they do not hit the
+ * recovering service again all at once.
+ */
+public enum BackoffPolicy {
+
+   /**
+    * {@code period * failureCount ^ pow}, plus up to ten percent of random jitter. This is the default.
+    */
+   EXPONENTIAL {
+      @Override
+      public long delay(long period, long maxPeriod, int pow, int failureCount, long previousDelay) {
+         long delay = exponential(period, pow, failureCount);
+         delay += random(max(delay / 10, 1));
+         return min(delay, maxPeriod);
+      }
+   },
+
+   /**
+    * A random delay between zero and the {@link #EXPONENTIAL} delay.
+    */
+   FULL_JITTER {
+      @Override
+      public long delay(long period, long maxPeriod, int pow, int failureCount, long previousDelay) {
+         return random(min(exponential(period, pow, failureCount), maxPeriod) + 1);
+      }
+   },
+
+   /**
+    * A random delay between the period and three times the previous delay, so that it grows with every retry without
+    * depending on the failure count.
+    */
+   DECORRELATED_JITTER {
+      @Override
+      public long delay(long period, long maxPeriod, int pow, int failureCount, long previousDelay) {
+         long upper = max(period, min(max(previousDelay, period) * 3, maxPeriod));
+         return min(period + random(upper - period + 1), maxPeriod);
+      }
+   };
+
+   /**
+    * @param period
+    *           the base delay in milliseconds, or 0 to disable the backoff
+    * @param maxPeriod
+    *           the maximum delay in milliseconds
+    * @param pow
+    *           how fast the delay grows with the failure count
+    * @param failureCount
+    *           how many times the command failed
+    * @param previousDelay
+    *           the delay before the previous retry, or 0 if unknown
+    * @return the milliseconds to wait before the next retry
+    */
+   public abstract long delay(long period, long maxPeriod, int pow, int failureCount, long previousDelay);
+
+   private static long exponential(long period, int pow, int failureCount) {
+      return (long) (period * Math.pow(failureCount, pow));
+   }
+
+   private static long random(long bound) {
+      return ThreadLocalRandom.current().nextLong(bound);
+   }
+}
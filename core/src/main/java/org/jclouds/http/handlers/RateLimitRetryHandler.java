@@ -102,18 +102,10 @@ public abstract class RateLimitRetryHandler implements HttpRetryHandler {
             return false;
          }
 
-         try {
-            logger.debug("Waiting %sms before retrying, as defined by the rate limit", waitPeriod);
-            // Do not use Uninterrumpibles or similar, to let the jclouds
-            // tiemout configuration interrupt this thread
-            Thread.sleep(waitPeriod);
-         } catch (InterruptedException ex) {
-            // If the request is being executed and has a timeout configured,
-            // the thread may be interrupted when the timeout is reached.
-            logger.error("Request execution was interrupted, aborting");
-            Thread.currentThread().interrupt();
-            return false;
-         }
+         logger.debug("Waiting %sms before retrying, as defined by the rate limit", waitPeriod);
+         // the executor waits, so that the connection is not held while waiting, and the timeout of the request
+         // can still interrupt the wait
+         command.setRetryDelay(waitPeriod);
       }
 
       return true;
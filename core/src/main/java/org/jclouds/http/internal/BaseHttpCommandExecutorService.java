@@ -18,22 +18,28 @@ package org.jclouds.http.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Throwables.propagate;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_LIMIT_CONNECTIONS;
 import static org.jclouds.http.HttpUtils.checkRequestHasContentLengthOrChunkedEncoding;
 import static org.jclouds.http.HttpUtils.releasePayload;
 import static org.jclouds.http.HttpUtils.wirePayloadIfEnabled;
 import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.net.ProtocolException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.annotation.Resource;
 import javax.inject.Named;
 
 import org.jclouds.Constants;
+import org.jclouds.http.ConnectionPoolStats;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpListener;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpResponse;
@@ -42,11 +48,15 @@ import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
 import org.jclouds.http.handlers.DelegatingRetryHandler;
+import org.jclouds.http.internal.ConnectionLimiter.Permit;
 import org.jclouds.io.ContentMetadataCodec;
+import org.jclouds.io.Payload;
+import org.jclouds.io.Payloads;
 import org.jclouds.logging.Logger;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
 
 public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandExecutorService {
    protected final HttpUtils utils;
@@ -66,6 +76,19 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
 
    private final Set<String> idempotentMethods;
 
+   @Inject(optional = true)
+   @Named(PROPERTY_LIMIT_CONNECTIONS)
+   private boolean limitConnectionsEnabled = false;
+
+   @Inject(optional = true)
+   private ConnectionLimiter connectionLimiter;
+
+   @Inject(optional = true)
+   private HttpListener listener;
+
+   @Inject(optional = true)
+   private RetryBudget retryBudget;
+
    protected BaseHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
          DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
          DelegatingErrorHandler errorHandler, HttpWire wire,
@@ -82,20 +105,47 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
    @Override
    public HttpResponse invoke(HttpCommand command) {
       HttpResponse response = null;
+      if (retryBudget != null) {
+         retryBudget.requestSent(command.getCurrentRequest().getEndpoint());
+      }
       for (;;) {
+         response = null;
+         if (!awaitRetryDelay(command)) {
+            break;
+         }
          HttpRequest request = command.getCurrentRequest();
          Q nativeRequest = null;
+         Permit permit = null;
+         long start = 0;
+         if (listener != null) {
+            start = System.nanoTime();
+            listener.requestStarted(command);
+         }
          try {
             for (HttpRequestFilter filter : request.getFilters()) {
                request = filter.filter(request);
             }
             checkRequestHasContentLengthOrChunkedEncoding(request,
                   "After filtering, the request has neither chunked encoding nor content length: " + request);
+            if (listener != null) {
+               listener.filtersDone(command, request, System.nanoTime() - start);
+            }
+            if (isLimitingConnections()) {
+               permit = connectionLimiter.acquire(request.getEndpoint());
+            }
             logger.debug("Sending request %s: %s", request.hashCode(), request.getRequestLine());
             wirePayloadIfEnabled(wire, request);
             utils.logRequest(headerLog, request, ">>");
             nativeRequest = convert(request);
             response = invoke(nativeRequest);
+            if (listener != null) {
+               listener.firstByte(command, response, System.nanoTime() - start);
+            }
+            if (permit != null || listener != null) {
+               // the payload takes ownership of the permit, so the connection counts as used until it is consumed
+               response = notifyWhenConsumed(command, request, response, permit, start);
+               permit = null;
+            }
 
             logger.debug("Receiving response %s: %s", request.hashCode(), response.getStatusLine());
             utils.logResponse(headerLog, response, "<<");
@@ -104,23 +154,42 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
             nativeRequest = null; // response took ownership of streams
             int statusCode = response.getStatusCode();
             if (statusCode >= 300) {
-               if (shouldContinue(command, response))
+               if (shouldContinue(command, response)) {
+                  if (listener != null) {
+                     listener.retried(command, response, null);
+                  }
                   continue;
-               else
+               } else {
+                  if (listener != null && command.getException() != null) {
+                     listener.failed(command, response, command.getException(), System.nanoTime() - start);
+                  }
                   break;
+               }
             } else {
                break;
             }
          } catch (Exception e) {
+            if (response != null) {
+               releasePayload(response);
+            }
             IOException ioe = getFirstThrowableOfType(e, IOException.class);
             if (ioe != null && shouldContinue(command, ioe)) {
+               if (listener != null) {
+                  listener.retried(command, null, ioe);
+               }
                continue;
             }
             command.setException(new HttpResponseException(e.getMessage() + " connecting to "
                   + command.getCurrentRequest().getRequestLine(), command, null, e));
+            if (listener != null) {
+               listener.failed(command, null, command.getException(), System.nanoTime() - start);
+            }
             break;
 
          } finally {
+            if (permit != null) {
+               permit.close();
+            }
             cleanup(nativeRequest);
          }
       }
@@ -129,10 +198,36 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       return response;
    }
 
+   /**
+    * Waits the delay the retry handler asked for before the next attempt. The failed response and its connection have
+    * been released by then, so waiting does not hold a connection. The wait happens on the calling thread: invoke
+    * returns the response synchronously, so there is no continuation to hand to a scheduler, and scheduling the
+    * attempt elsewhere would only block the caller on a future instead.
+    *
+    * @return false if the wait was interrupted, such as by the timeout of the invocation
+    */
+   private boolean awaitRetryDelay(HttpCommand command) {
+      long delay = command.takeRetryDelay();
+      if (delay <= 0) {
+         return true;
+      }
+      try {
+         MILLISECONDS.sleep(delay);
+         return true;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         command.setException(new HttpResponseException("interrupted while waiting " + delay + "ms to retry "
+               + command.getCurrentRequest().getRequestLine(), command, null, e));
+         return false;
+      }
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
-      if (retryHandler.shouldRetryRequest(command, response)) {
+      // redirects are not failures, so they do not spend the retry budget
+      if (retryHandler.shouldRetryRequest(command, response)
+            && (response.getStatusCode() < 400 || withinRetryBudget(command))) {
          shouldContinue = true;
       } else {
          errorHandler.handleError(command, response);
@@ -154,7 +249,17 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
          logger.debug("Caught a protocol exception on a 100-continue PUT request. Attempting to retry.");
          return isIdempotent(command) && retryHandler.shouldRetryRequest(command, HttpResponse.builder().statusCode(401).message("Unauthorized").build());
       }
-      return isIdempotent(command) && ioRetryHandler.shouldRetryRequest(command, response);
+      return isIdempotent(command) && ioRetryHandler.shouldRetryRequest(command, response)
+            && withinRetryBudget(command);
+   }
+
+   private boolean withinRetryBudget(HttpCommand command) {
+      if (retryBudget == null || retryBudget.tryRetry(command.getCurrentRequest().getEndpoint())) {
+         return true;
+      }
+      logger.error("Cannot retry, the retry budget of the host is spent: %s", command);
+      command.setRetryDelay(0);
+      return false;
    }
 
    private boolean isIdempotent(HttpCommand command) {
@@ -167,6 +272,109 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       }
    }
 
+   /**
+    * Whether the connections of this driver should be limited to the configured maximum connections per context and
+    * per host when {@link org.jclouds.Constants#PROPERTY_LIMIT_CONNECTIONS} is enabled. Drivers whose connection pool
+    * already enforces these limits should return false.
+    */
+   protected boolean limitConnections() {
+      return false;
+   }
+
+   /**
+    * @return the idle connections kept alive by this driver, or -1 if unknown
+    */
+   protected int idleConnectionCount() {
+      return -1;
+   }
+
+   private boolean isLimitingConnections() {
+      return limitConnectionsEnabled && limitConnections() && connectionLimiter != null;
+   }
+
+   /**
+    * @return the connection statistics of this driver, or null if it does not limit its connections
+    * @see #limitConnections()
+    */
+   public ConnectionPoolStats getConnectionPoolStats() {
+      return isLimitingConnections() ? connectionLimiter.stats(idleConnectionCount()) : null;
+   }
+
+   /**
+    * Releases the permit and notifies the listener when the response payload is read to its end or closed, or right
+    * away if there is no payload to read.
+    */
+   private HttpResponse notifyWhenConsumed(final HttpCommand command, HttpRequest request,
+         final HttpResponse response, final Permit permit, final long start) throws IOException {
+      Payload payload = response.getPayload();
+      Long contentLength = payload != null ? payload.getContentMetadata().getContentLength() : null;
+      if (payload == null || (contentLength != null && contentLength == 0) || "HEAD".equals(request.getMethod())
+            || response.getStatusCode() == 204 || response.getStatusCode() == 304) {
+         consumed(command, response, permit, 0, start);
+         return response;
+      }
+      Payload notifying = Payloads.newInputStreamPayload(new FilterInputStream(payload.openStream()) {
+         private final AtomicBoolean consumed = new AtomicBoolean();
+         private long bytesRead;
+
+         @Override
+         public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+               consumed();
+            } else {
+               bytesRead++;
+            }
+            return b;
+         }
+
+         @Override
+         public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) {
+               consumed();
+            } else {
+               bytesRead += n;
+            }
+            return n;
+         }
+
+         @Override
+         public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            bytesRead += skipped;
+            return skipped;
+         }
+
+         @Override
+         public void close() throws IOException {
+            try {
+               super.close();
+            } finally {
+               consumed();
+            }
+         }
+
+         private void consumed() {
+            if (consumed.compareAndSet(false, true)) {
+               BaseHttpCommandExecutorService.this.consumed(command, response, permit, bytesRead, start);
+            }
+         }
+      });
+      notifying.setContentMetadata(payload.getContentMetadata());
+      // rebuild rather than set the payload, which would release the stream being wrapped
+      return response.toBuilder().payload(notifying).build();
+   }
+
+   private void consumed(HttpCommand command, HttpResponse response, Permit permit, long bytesRead, long start) {
+      if (permit != null) {
+         permit.close();
+      }
+      if (listener != null) {
+         listener.completed(command, response, bytesRead, System.nanoTime() - start);
+      }
+   }
+
    protected abstract Q convert(HttpRequest request) throws IOException, InterruptedException;
 
    protected abstract HttpResponse invoke(Q nativeRequest) throws IOException, InterruptedException;
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.jclouds.http.ConnectionPoolStats;
+import org.jclouds.http.HttpUtils;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * Limits the connections of drivers which do not bound their connection pool themselves to
+ * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT} and
+ * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST}.
+ * <p/>
+ * Requests wait in order of arrival for up to the connection timeout. The per host permit is taken first, so that
+ * requests to a busy host do not hold connections other hosts could use. Permits are held until the payload of the
+ * response is read, closed or released, so callers must consume their payloads for the connection to be reused.
+ * <p/>
+ * Only used when {@link org.jclouds.Constants#PROPERTY_LIMIT_CONNECTIONS} is enabled.
+ */
+@Singleton
+public class ConnectionLimiter {
+
+   private final int maxConnections;
+   private final int maxConnectionsPerHost;
+   private final long acquireTimeoutMillis;
+   private final Semaphore connections;
+   private final LoadingCache<String, Semaphore> connectionsPerHost;
+
+   private final AtomicInteger leased = new AtomicInteger();
+   private final AtomicInteger pending = new AtomicInteger();
+   private final AtomicLong acquisitions = new AtomicLong();
+   private final AtomicLong totalWaitNanos = new AtomicLong();
+
+   @Inject
+   public ConnectionLimiter(HttpUtils utils) {
+      this(utils.getMaxConnections(), utils.getMaxConnectionsPerHost(), utils.getConnectionTimeout());
+   }
+
+   /**
+    * @param maxConnections
+    *           the limit of connections, or 0 if unlimited
+    * @param maxConnectionsPerHost
+    *           the limit of connections per host, or 0 if only limited overall
+    * @param acquireTimeoutMillis
+    *           how long to wait for a connection, or 0 to wait until one is available
+    */
+   public ConnectionLimiter(int maxConnections, final int maxConnectionsPerHost, long acquireTimeoutMillis) {
+      this.maxConnections = Math.max(maxConnections, 0);
+      this.maxConnectionsPerHost = Math.max(maxConnectionsPerHost, 0);
+      this.acquireTimeoutMillis = acquireTimeoutMillis;
+      this.connections = maxConnections > 0 ? new Semaphore(maxConnections, true) : null;
+      this.connectionsPerHost = maxConnectionsPerHost > 0 ? CacheBuilder.newBuilder().build(
+            new CacheLoader<String, Semaphore>() {
+               @Override
+               public Semaphore load(String host) {
+                  return new Semaphore(maxConnectionsPerHost, true);
+               }
+            }) : null;
+   }
+
+   /**
+    * Waits for a connection to the host of the endpoint.
+    *
+    * @return the permit to close once the connection is no longer used
+    * @throws TimeoutException
+    *            if no connection became available within the connection timeout
+    */
+   public Permit acquire(URI endpoint) throws InterruptedException, TimeoutException {
+      checkNotNull(endpoint, "endpoint");
+      Semaphore host = connectionsPerHost != null ? connectionsPerHost.getUnchecked(endpoint.getScheme() + "://"
+            + endpoint.getAuthority()) : null;
+      long start = System.nanoTime();
+      boolean hostAcquired = false;
+      pending.incrementAndGet();
+      try {
+         if (host != null) {
+            if (!tryAcquire(host, start)) {
+               throw new TimeoutException("timed out waiting for a connection to " + endpoint.getAuthority());
+            }
+            hostAcquired = true;
+         }
+         if (connections != null && !tryAcquire(connections, start)) {
+            throw new TimeoutException("timed out waiting for one of " + maxConnections + " connections");
+         }
+      } catch (InterruptedException | TimeoutException e) {
+         if (hostAcquired) {
+            host.release();
+         }
+         throw e;
+      } finally {
+         pending.decrementAndGet();
+      }
+      totalWaitNanos.addAndGet(System.nanoTime() - start);
+      acquisitions.incrementAndGet();
+      leased.incrementAndGet();
+      return new Permit(host);
+   }
+
+   private boolean tryAcquire(Semaphore semaphore, long start) throws InterruptedException {
+      if (acquireTimeoutMillis <= 0) {
+         semaphore.acquire();
+         return true;
+      }
+      long remaining = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis) - (System.nanoTime() - start);
+      return semaphore.tryAcquire(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * @param idle
+    *           the idle connections reported by the driver, or -1 if unknown
+    */
+   public ConnectionPoolStats stats(int idle) {
+      return new ConnectionPoolStats(maxConnections, maxConnectionsPerHost, leased.get(), idle, pending.get(),
+            acquisitions.get(), TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()));
+   }
+
+   /**
+    * A connection in use. Closing it more than once has no effect.
+    */
+   public final class Permit implements Closeable {
+      private final Semaphore host;
+      private final AtomicBoolean released = new AtomicBoolean();
+
+      private Permit(Semaphore host) {
+         this.host = host;
+      }
+
+      @Override
+      public void close() {
+         if (!released.compareAndSet(false, true)) {
+            return;
+         }
+         leased.decrementAndGet();
+         if (connections != null) {
+            connections.release();
+         }
+         if (host != null) {
+            host.release();
+         }
+      }
+   }
+}
@@ -313,4 +313,13 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
       if (connection != null)
          connection.disconnect();
    }
+
+   /**
+    * {@link HttpURLConnection} only keeps up to {@code http.maxConnections} idle connections per host, for the whole
+    * JVM, and does not limit the connections in use.
+    */
+   @Override
+   protected boolean limitConnections() {
+      return true;
+   }
 }
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.jclouds.Constants.PROPERTY_RETRY_BUDGET_MIN_RETRIES;
+import static org.jclouds.Constants.PROPERTY_RETRY_BUDGET_RATIO;
+
+import java.net.URI;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.inject.Inject;
+
+/**
+ * Limits the retries to each host to a ratio of the requests sent to it, configured with
+ * {@link org.jclouds.Constants#PROPERTY_RETRY_BUDGET_RATIO}. When a host fails most requests, retrying them all would
+ * multiply its load while it tries to recover; once its budget is spent, failures are reported instead of retried
+ * until enough requests have been sent to earn new retries.
+ * <p/>
+ * Each request deposits the ratio in the budget of its host and each retry withdraws one. A budget starts with
+ * {@link org.jclouds.Constants#PROPERTY_RETRY_BUDGET_MIN_RETRIES} retries, and holds no more than that plus the
+ * deposits of a hundred requests, so that a long quiet period does not allow a burst of retries.
+ */
+@Singleton
+public class RetryBudget {
+
+   @Inject(optional = true)
+   @Named(PROPERTY_RETRY_BUDGET_RATIO)
+   private float ratio = 0;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_RETRY_BUDGET_MIN_RETRIES)
+   private int minRetries = 10;
+
+   private final LoadingCache<String, Balance> balances = CacheBuilder.newBuilder().expireAfterAccess(10, MINUTES)
+         .build(new CacheLoader<String, Balance>() {
+            @Override
+            public Balance load(String host) {
+               return new Balance(minRetries, minRetries + ratio * 100);
+            }
+         });
+
+   public RetryBudget() {
+   }
+
+   @VisibleForTesting
+   RetryBudget(float ratio, int minRetries) {
+      this.ratio = ratio;
+      this.minRetries = minRetries;
+   }
+
+   /**
+    * @return false if retries are not limited
+    */
+   public boolean isEnabled() {
+      return ratio > 0;
+   }
+
+   /**
+    * Records a request, other than a retry, sent to the host of the endpoint.
+    */
+   public void requestSent(URI endpoint) {
+      if (isEnabled()) {
+         balance(endpoint).deposit(ratio);
+      }
+   }
+
+   /**
+    * Withdraws a retry to the host of the endpoint from its budget.
+    *
+    * @return false if the budget of the host is spent and the request should not be retried
+    */
+   public boolean tryRetry(URI endpoint) {
+      return !isEnabled() || balance(endpoint).withdraw();
+   }
+
+   private Balance balance(URI endpoint) {
+      checkNotNull(endpoint, "endpoint");
+      return balances.getUnchecked(endpoint.getScheme() + "://" + endpoint.getAuthority());
+   }
+
+   private static final class Balance {
+      private final double max;
+      private double retries;
+
+      Balance(double retries, double max) {
+         this.retries = retries;
+         this.max = max;
+      }
+
+      synchronized void deposit(double amount) {
+         retries = Math.min(retries + amount, max);
+      }
+
+      synchronized boolean withdraw() {
+         if (retries < 1) {
+            return false;
+         }
+         retries--;
+         return true;
+      }
+   }
+}
@@ -21,9 +21,15 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.util.Closeables2.closeQuietly;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 import com.google.common.annotations.Beta;
 import com.google.common.hash.HashCode;
@@ -34,6 +40,7 @@ import com.google.common.io.ByteStreams;
 @Beta
 public class ByteStreams2 {
    private static final int INPUT_STREAM_READ_END_OF_STREAM_INDICATOR = -1;
+   private static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
 
    public static HashCode hashAndClose(InputStream input, HashFunction hashFunction) throws IOException {
       checkNotNull(input, "input");
@@ -74,4 +81,63 @@ public class ByteStreams2 {
          total += (long)len;
       }
    }
+
+   /**
+    * Copies a file with {@link FileChannel#transferTo}, which lets the operating system move the bytes without
+    * copying them through heap buffers, replacing any existing content of the destination.
+    *
+    * @return the number of bytes copied
+    */
+   public static long transferFile(File from, File to) throws IOException {
+      checkNotNull(from, "from");
+      checkNotNull(to, "to");
+      try (FileChannel in = FileChannel.open(from.toPath(), StandardOpenOption.READ);
+           FileChannel out = FileChannel.open(to.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+         long size = in.size();
+         long position = 0;
+         while (position < size) {
+            long transferred = in.transferTo(position, size - position, out);
+            if (transferred <= 0) {
+               // file was truncated concurrently
+               break;
+            }
+            position += transferred;
+         }
+         return position;
+      }
+   }
+
+   /**
+    * Copies a file and hashes it in the same pass: each memory-mapped region of the source is fed to a
+    * {@link MessageDigest} and written to the destination, so the source is read once and the bytes are not copied
+    * through heap buffers. Replaces any existing content of the destination.
+    *
+    * @param algorithm a {@link MessageDigest} algorithm name, e.g. {@code MD5}
+    * @return the digest of the bytes copied
+    */
+   public static HashCode transferAndHashFile(File from, File to, String algorithm) throws IOException {
+      checkNotNull(from, "from");
+      checkNotNull(to, "to");
+      MessageDigest digest;
+      try {
+         digest = MessageDigest.getInstance(checkNotNull(algorithm, "algorithm"));
+      } catch (NoSuchAlgorithmException nsae) {
+         throw new IllegalArgumentException(nsae);
+      }
+      try (FileChannel in = FileChannel.open(from.toPath(), StandardOpenOption.READ);
+           FileChannel out = FileChannel.open(to.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+         long size = in.size();
+         for (long position = 0; position < size; position += MAPPED_REGION_SIZE) {
+            MappedByteBuffer region = in.map(FileChannel.MapMode.READ_ONLY, position,
+                  Math.min(MAPPED_REGION_SIZE, size - position));
+            digest.update(region.duplicate());
+            while (region.hasRemaining()) {
+               out.write(region);
+            }
+         }
+      }
+      return HashCode.fromBytes(digest.digest());
+   }
 }
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Objects;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Closer;
+
+/**
+ * A range of bytes of a file, read with positional reads rather than by skipping a stream. Every stream opens its own
+ * channel and keeps its own position, so the regions of one file can be read concurrently, for example to upload the
+ * parts of a multipart upload in parallel. Slicing a region returns another region of the same file, without reading
+ * anything.
+ * <p/>
+ * {@link #transferTo(WritableByteChannel)} lets the operating system copy the region to a socket or file channel
+ * without copying it through the heap.
+ */
+@Beta
+public final class FileRegion extends ByteSource {
+
+   private final File file;
+   private final long offset;
+   private final long length;
+
+   /**
+    * @return a region spanning the whole file, as long as it is when the region is read
+    */
+   public static FileRegion of(File file) {
+      return new FileRegion(file, 0, Long.MAX_VALUE);
+   }
+
+   /**
+    * @param length
+    *           the length of the region, which is truncated to the end of the file when the region is read
+    */
+   public static FileRegion of(File file, long offset, long length) {
+      return new FileRegion(file, offset, length);
+   }
+
+   private FileRegion(File file, long offset, long length) {
+      this.file = checkNotNull(file, "file");
+      checkArgument(offset >= 0, "offset is negative: %s", offset);
+      checkArgument(length >= 0, "length is negative: %s", length);
+      this.offset = offset;
+      this.length = length;
+   }
+
+   public File getFile() {
+      return file;
+   }
+
+   public long getOffset() {
+      return offset;
+   }
+
+   @Override
+   public long size() throws IOException {
+      return Math.max(Math.min(length, file.length() - offset), 0);
+   }
+
+   @Override
+   public InputStream openStream() throws IOException {
+      return new RegionInputStream(FileChannel.open(file.toPath(), READ), offset, size());
+   }
+
+   @Override
+   public FileRegion slice(long sliceOffset, long sliceLength) {
+      checkArgument(sliceOffset >= 0, "offset is negative: %s", sliceOffset);
+      checkArgument(sliceLength >= 0, "length is negative: %s", sliceLength);
+      long maxLength = Math.max(length - sliceOffset, 0);
+      return new FileRegion(file, offset + Math.min(sliceOffset, length), Math.min(sliceLength, maxLength));
+   }
+
+   @Override
+   public byte[] read() throws IOException {
+      long size = size();
+      checkArgument(size <= Integer.MAX_VALUE, "region is too big for an array: %s", size);
+      Closer closer = Closer.create();
+      try {
+         FileChannel channel = closer.register(FileChannel.open(file.toPath(), READ));
+         ByteBuffer buffer = ByteBuffer.allocate((int) size);
+         while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+               // the file was truncated while being read
+               break;
+            }
+         }
+         return buffer.position() == size ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+      } catch (Throwable t) {
+         throw closer.rethrow(t);
+      } finally {
+         closer.close();
+      }
+   }
+
+   @Override
+   public long copyTo(OutputStream output) throws IOException {
+      return transferTo(Channels.newChannel(checkNotNull(output, "output")));
+   }
+
+   /**
+    * Copies the region to the channel with {@link FileChannel#transferTo}, which avoids copying it through the heap
+    * when the target is a socket or file channel.
+    *
+    * @return the number of bytes copied
+    */
+   public long transferTo(WritableByteChannel target) throws IOException {
+      checkNotNull(target, "target");
+      Closer closer = Closer.create();
+      try {
+         FileChannel channel = closer.register(FileChannel.open(file.toPath(), READ));
+         long size = size();
+         long transferred = 0;
+         while (transferred < size) {
+            long n = channel.transferTo(offset + transferred, size - transferred, target);
+            if (n <= 0) {
+               // the file was truncated while being copied
+               break;
+            }
+            transferred += n;
+         }
+         return transferred;
+      } catch (Throwable t) {
+         throw closer.rethrow(t);
+      } finally {
+         closer.close();
+      }
+   }
+
+   @Override
+   public boolean equals(Object object) {
+      if (this == object)
+         return true;
+      if (!(object instanceof FileRegion))
+         return false;
+      FileRegion that = (FileRegion) object;
+      return file.equals(that.file) && offset == that.offset && length == that.length;
+   }
+
+   @Override
+   public int hashCode() {
+      return Objects.hashCode(file, offset, length);
+   }
+
+   @Override
+   public String toString() {
+      return "FileRegion(" + file + ", " + offset + ", " + (length == Long.MAX_VALUE ? "*" : length) + ")";
+   }
+
+   /**
+    * Reads with positional reads, so the stream never depends on, or moves, the position of the channel.
+    */
+   private static final class RegionInputStream extends InputStream {
+      private final FileChannel channel;
+      private final long end;
+      private long position;
+      private long mark;
+
+      RegionInputStream(FileChannel channel, long offset, long length) {
+         this.channel = channel;
+         this.position = offset;
+         this.mark = offset;
+         this.end = offset + length;
+      }
+
+      @Override
+      public int read() throws IOException {
+         byte[] b = new byte[1];
+         return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0) {
+            return 0;
+         }
+         int max = (int) Math.min(len, end - position);
+         if (max <= 0) {
+            return -1;
+         }
+         int n = channel.read(ByteBuffer.wrap(b, off, max), position);
+         if (n > 0) {
+            position += n;
+         }
+         return n;
+      }
+
+      @Override
+      public long skip(long n) {
+         long skipped = Math.max(Math.min(n, end - position), 0);
+         position += skipped;
+         return skipped;
+      }
+
+      @Override
+      public int available() {
+         return (int) Math.min(end - position, Integer.MAX_VALUE);
+      }
+
+      @Override
+      public boolean markSupported() {
+         return true;
+      }
+
+      @Override
+      public synchronized void mark(int readLimit) {
+         mark = position;
+      }
+
+      @Override
+      public synchronized void reset() {
+         position = mark;
+      }
+
+      @Override
+      public void close() throws IOException {
+         channel.close();
+      }
+   }
+}
@@ -24,11 +24,14 @@ import java.io.InputStream;
 import org.jclouds.io.payloads.ByteArrayPayload;
 import org.jclouds.io.payloads.ByteSourcePayload;
 import org.jclouds.io.payloads.FilePayload;
+import org.jclouds.io.payloads.HashingPayload;
 import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.io.payloads.StringPayload;
 import org.jclouds.io.payloads.UrlEncodedFormPayload;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.HashFunction;
 import com.google.common.io.ByteSource;
 
 public class Payloads {
@@ -74,6 +77,13 @@ public class Payloads {
       return new FilePayload(checkNotNull(data, "data"));
    }
 
+   /**
+    * @see HashingPayload
+    */
+   public static HashingPayload newHashingPayload(Payload delegate, HashFunction... functions) {
+      return new HashingPayload(checkNotNull(delegate, "delegate"), ImmutableList.copyOf(functions));
+   }
+
    public static UrlEncodedFormPayload newUrlEncodedFormPayload(Multimap<String, String> formParams) {
       return new UrlEncodedFormPayload(formParams);
    }
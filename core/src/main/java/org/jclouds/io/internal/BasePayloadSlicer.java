@@ -29,6 +29,7 @@ import java.util.NoSuchElementException;
 import javax.inject.Singleton;
 
 import org.jclouds.io.ContentMetadata;
+import org.jclouds.io.FileRegion;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
 import org.jclouds.io.PayloadSlicer;
@@ -40,7 +41,6 @@ import com.google.common.base.Throwables;
 import com.google.common.hash.HashCode;
 import com.google.common.io.ByteSource;
 import com.google.common.io.ByteStreams;
-import com.google.common.io.Files;
 
 @Singleton
 public class BasePayloadSlicer implements PayloadSlicer {
@@ -243,7 +243,7 @@ public class BasePayloadSlicer implements PayloadSlicer {
    }
 
    protected Payload doSlice(File content, long offset, long length) {
-      return doSlice(Files.asByteSource(content), offset, length);
+      return Payloads.newByteSourcePayload(FileRegion.of(content, offset, length));
    }
 
    protected Payload doSlice(InputStream content, long offset, long length) {
@@ -312,7 +312,8 @@ public class BasePayloadSlicer implements PayloadSlicer {
    }
 
    protected Iterable<Payload> doSlice(File rawContent, ContentMetadata meta) {
-      return doSlice(Files.asByteSource(rawContent), meta);
+      // slices of a region are regions, which the parts read with positional reads of their own
+      return doSlice(FileRegion.of(rawContent), meta);
    }
 
    protected Iterable<Payload> doSlice(InputStream rawContent, ContentMetadata meta) {
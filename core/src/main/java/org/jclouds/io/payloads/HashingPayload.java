@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io.payloads;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jclouds.io.Payload;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+/**
+ * A payload which computes digests of its content, such as {@link Hashing#md5()}, {@link Hashing#sha1()},
+ * {@link Hashing#sha256()} or {@link Hashing#crc32c()}, while it is read to the wire or to disk. Once a stream was read
+ * to its end, the digests are available from {@link #getHash(HashFunction)} and the MD5 is published to the content
+ * metadata, unless it was already set.
+ * <p/>
+ * Filters which need a digest before sending, such as request signers, call {@link #hash(HashFunction)}, which reads
+ * the content once for all the digests and remembers them, so that retries and the other digests do not read the
+ * content again. Once all the digests are known, streams are no longer hashed.
+ */
+@Beta
+public class HashingPayload extends DelegatingPayload {
+
+   private final ImmutableSet<HashFunction> functions;
+   private final Map<HashFunction, HashCode> hashes = new ConcurrentHashMap<HashFunction, HashCode>();
+
+   public HashingPayload(Payload delegate, Iterable<HashFunction> functions) {
+      super(delegate);
+      this.functions = ImmutableSet.copyOf(checkNotNull(functions, "functions"));
+      checkArgument(!this.functions.isEmpty(), "no hash functions");
+   }
+
+   @Override
+   public InputStream openStream() throws IOException {
+      if (hashes.keySet().containsAll(functions)) {
+         return super.openStream();
+      }
+      return new HashingStream(super.openStream());
+   }
+
+   /**
+    * @return the digest of the content, or null if no stream of the payload was read to its end yet
+    */
+   @Nullable
+   public HashCode getHash(HashFunction function) {
+      checkArgument(functions.contains(function), "%s is not computed by this payload", function);
+      return hashes.get(function);
+   }
+
+   /**
+    * @return the digest of the content, reading the content first if no stream of the payload was read to its end yet
+    */
+   public HashCode hash(HashFunction function) throws IOException {
+      HashCode hash = getHash(function);
+      if (hash == null) {
+         checkState(isRepeatable(), "payload is not repeatable and was not read yet: %s", this);
+         InputStream input = openStream();
+         try {
+            ByteStreams.copy(input, ByteStreams.nullOutputStream());
+         } finally {
+            input.close();
+         }
+         hash = hashes.get(function);
+      }
+      return hash;
+   }
+
+   public ImmutableSet<HashFunction> getHashFunctions() {
+      return functions;
+   }
+
+   private void publish(Map<HashFunction, Hasher> hashers) {
+      for (Map.Entry<HashFunction, Hasher> entry : hashers.entrySet()) {
+         hashes.put(entry.getKey(), entry.getValue().hash());
+      }
+      HashCode md5 = hashes.get(Hashing.md5());
+      if (md5 != null && getContentMetadata().getContentMD5AsHashCode() == null) {
+         getContentMetadata().setContentMD5(md5);
+      }
+   }
+
+   /**
+    * Updates the digests with every byte read, and publishes them when the end of the stream is reached.
+    */
+   private final class HashingStream extends FilterInputStream {
+      private final Map<HashFunction, Hasher> hashers;
+      private boolean done;
+
+      HashingStream(InputStream in) {
+         super(in);
+         ImmutableMap.Builder<HashFunction, Hasher> builder = ImmutableMap.builder();
+         for (HashFunction function : functions) {
+            builder.put(function, function.newHasher());
+         }
+         this.hashers = builder.build();
+      }
+
+      @Override
+      public int read() throws IOException {
+         int b = in.read();
+         if (b == -1) {
+            done();
+         } else {
+            for (Hasher hasher : hashers.values()) {
+               hasher.putByte((byte) b);
+            }
+         }
+         return b;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int n = in.read(b, off, len);
+         if (n == -1) {
+            done();
+         } else {
+            for (Hasher hasher : hashers.values()) {
+               hasher.putBytes(b, off, n);
+            }
+         }
+         return n;
+      }
+
+      /**
+       * Reads the skipped bytes, which the digests need.
+       */
+      @Override
+      public long skip(long n) throws IOException {
+         byte[] buffer = new byte[(int) Math.min(Math.max(n, 0), 8192)];
+         long skipped = 0;
+         while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+               break;
+            }
+            skipped += read;
+         }
+         return skipped;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return false;
+      }
+
+      @Override
+      public synchronized void mark(int readLimit) {
+      }
+
+      @Override
+      public synchronized void reset() throws IOException {
+         throw new IOException("mark/reset not supported");
+      }
+
+      private void done() {
+         if (!done) {
+            done = true;
+            publish(hashers);
+         }
+      }
+   }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+
+import com.google.common.annotations.Beta;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Base class of the type adapters generated for {@link org.jclouds.json.SerializedNames} types, which call the factory
+ * method directly instead of reflectively. Serialization is left to the adapter that would otherwise handle the type.
+ *
+ * @see GeneratedTypeAdapterFactory
+ */
+@Beta
+public abstract class GeneratedTypeAdapter<T> extends TypeAdapter<T> {
+   private final Gson gson;
+   private final TypeAdapterFactory skipPast;
+   private final TypeToken<T> type;
+   private volatile TypeAdapter<T> serializer;
+
+   protected GeneratedTypeAdapter(Gson gson, TypeAdapterFactory skipPast, TypeToken<T> type) {
+      this.gson = checkNotNull(gson, "gson");
+      this.skipPast = checkNotNull(skipPast, "skipPast");
+      this.type = checkNotNull(type, "type");
+   }
+
+   @Override
+   public final void write(JsonWriter out, T value) throws IOException {
+      TypeAdapter<T> serializer = this.serializer;
+      if (serializer == null) {
+         // looked up lazily, as most types are only ever read
+         serializer = this.serializer = gson.getDelegateAdapter(skipPast, type);
+      }
+      serializer.write(out, value);
+   }
+
+   @Override
+   public String toString() {
+      return getClass().getSimpleName();
+   }
+}
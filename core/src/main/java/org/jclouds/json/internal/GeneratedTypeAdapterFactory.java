@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.Constants;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.Inject;
+
+/**
+ * Uses the type adapters generated by the {@link org.jclouds.json.processor.SerializedNamesProcessor} at build time.
+ * Types without a generated adapter, such as the ones which were not compiled with jclouds-core on the classpath, are
+ * left to the {@link DeserializationConstructorAndReflectiveTypeAdapterFactory}.
+ */
+@Beta
+@Singleton
+public final class GeneratedTypeAdapterFactory implements TypeAdapterFactory {
+   /** The prefix of the simple name of generated adapters, which are in the package of the type they adapt. */
+   public static final String PREFIX = "JsonAdapter_";
+
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_JSON_GENERATED_ADAPTERS)
+   private boolean enabled = true;
+
+   @SuppressWarnings("unchecked")
+   @Override
+   public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      // generated adapters only exist for types without type parameters
+      if (!enabled || !(type.getType() instanceof Class)) {
+         return null;
+      }
+      Class<?> raw = type.getRawType();
+      if (raw.isPrimitive() || raw.isArray() || raw.getClassLoader() == null || raw.getPackage() == null) {
+         return null;
+      }
+      Class<?> adapterClass;
+      try {
+         adapterClass = Class.forName(adapterName(raw), true, raw.getClassLoader());
+      } catch (ClassNotFoundException e) {
+         return null;
+      }
+      if (!GeneratedTypeAdapter.class.isAssignableFrom(adapterClass)) {
+         return null;
+      }
+      try {
+         Constructor<?> constructor = adapterClass.getConstructor(Gson.class, TypeAdapterFactory.class,
+               TypeToken.class);
+         return (TypeAdapter<T>) constructor.newInstance(gson, this, type);
+      } catch (InvocationTargetException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (ReflectiveOperationException e) {
+         throw new AssertionError(e);
+      }
+   }
+
+   /**
+    * @return the name of the adapter generated for the type, such as {@code org.example.JsonAdapter_Outer_Inner} for
+    *         {@code org.example.Outer.Inner}
+    */
+   public static String adapterName(Class<?> type) {
+      String packageName = type.getPackage().getName();
+      if (packageName.isEmpty()) {
+         return PREFIX + type.getName().replace('$', '_');
+      }
+      String simpleName = type.getName().substring(packageName.length() + 1).replace('$', '_');
+      return packageName + "." + PREFIX + simpleName;
+   }
+}
@@ -16,8 +16,10 @@
  */
 package org.jclouds.json.internal;
 
+import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 
 import javax.inject.Inject;
@@ -25,6 +27,7 @@ import javax.inject.Singleton;
 
 import org.jclouds.json.Json;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.ForwardingObject;
 import com.google.gson.Gson;
 
@@ -52,12 +55,19 @@ public class GsonWrapper extends ForwardingObject implements Json  {
    @SuppressWarnings("unchecked")
    @Override
    public <T> T fromJson(InputStream json, Type type) {
-      return (T) gson.fromJson(new InputStreamReader(json), type);
+      return (T) gson.fromJson(reader(json), type);
    }
 
    @Override
    public <T> T fromJson(InputStream json, Class<T> classOfT) {
-      return gson.fromJson(new InputStreamReader(json), classOfT);
+      return gson.fromJson(reader(json), classOfT);
+   }
+
+   /**
+    * Json is UTF-8 unless told otherwise, regardless of the platform charset.
+    */
+   private static Reader reader(InputStream json) {
+      return new BufferedReader(new InputStreamReader(json, Charsets.UTF_8));
    }
 
    @Override
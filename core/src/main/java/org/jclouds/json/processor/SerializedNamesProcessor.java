@@ -0,0 +1,381 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.processor;
+
+import static org.jclouds.json.internal.GeneratedTypeAdapterFactory.PREFIX;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.service.AutoService;
+import com.google.common.annotations.Beta;
+
+/**
+ * Generates a {@link org.jclouds.json.internal.GeneratedTypeAdapter} for each abstract type whose static factory
+ * method is annotated with {@link SerializedNames}, so that deserialization calls the factory method directly.
+ * <p/>
+ * Adapters are only generated where the result matches what
+ * {@link org.jclouds.json.internal.DeserializationConstructorAndReflectiveTypeAdapterFactory} would do. Types it
+ * cannot handle, such as private factory methods, generic types or parameter types not visible from the package, are
+ * skipped and keep being deserialized reflectively.
+ */
+@Beta
+@AutoService(Processor.class)
+@SupportedAnnotationTypes("org.jclouds.json.SerializedNames")
+public final class SerializedNamesProcessor extends AbstractProcessor {
+
+   /** Annotations which also mark a deserialization constructor, and would be picked over the factory method. */
+   private static final Set<String> CONSTRUCTOR_MARKERS = new HashSet<String>(Arrays.asList(
+         "java.beans.ConstructorProperties", "javax.inject.Inject", "com.google.inject.Inject",
+         SerializedNames.class.getName()));
+
+   private static final Map<String, String> PRIMITIVES = new LinkedHashMap<String, String>();
+
+   static {
+      PRIMITIVES.put("boolean", "java.lang.Boolean");
+      PRIMITIVES.put("byte", "java.lang.Byte");
+      PRIMITIVES.put("short", "java.lang.Short");
+      PRIMITIVES.put("char", "java.lang.Character");
+      PRIMITIVES.put("int", "java.lang.Integer");
+      PRIMITIVES.put("long", "java.lang.Long");
+      PRIMITIVES.put("float", "java.lang.Float");
+      PRIMITIVES.put("double", "java.lang.Double");
+   }
+
+   private final Set<String> seen = new HashSet<String>();
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(SerializedNames.class)) {
+         if (element.getKind() != ElementKind.METHOD) {
+            continue;
+         }
+         TypeElement type = (TypeElement) element.getEnclosingElement();
+         if (!seen.add(type.getQualifiedName().toString())) {
+            continue;
+         }
+         ExecutableElement factory = factoryMethod(type);
+         if (factory == null) {
+            continue;
+         }
+         Map<String, String> parameters = parameters(type, factory);
+         if (parameters == null) {
+            continue;
+         }
+         try {
+            write(type, factory, parameters);
+         } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.ERROR,
+                  "could not write the json adapter for " + type + ": " + e, type);
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return the only factory method annotated with {@link SerializedNames}, or null if the type is not deserialized
+    *         through it or cannot be called from a generated class in its package
+    */
+   private ExecutableElement factoryMethod(TypeElement type) {
+      if (type.getKind() != ElementKind.CLASS || !type.getModifiers().contains(Modifier.ABSTRACT)
+            || !type.getTypeParameters().isEmpty() || !isVisible(type, packageOf(type))) {
+         return null;
+      }
+      for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+         if (hasMarker(constructor)) {
+            return null;
+         }
+      }
+      ExecutableElement result = null;
+      for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+         if (method.getAnnotation(SerializedNames.class) == null) {
+            continue;
+         }
+         if (result != null) {
+            return null; // which one is used depends on reflection order
+         }
+         result = method;
+      }
+      if (result == null || !result.getModifiers().contains(Modifier.STATIC)
+            || result.getModifiers().contains(Modifier.PRIVATE) || !result.getTypeParameters().isEmpty()
+            || !result.getThrownTypes().isEmpty()
+            || !processingEnv.getTypeUtils().isSameType(result.getReturnType(), type.asType())) {
+         return null;
+      }
+      return result;
+   }
+
+   /**
+    * @return json names to source types of the parameters, in order, or null if any is not supported
+    */
+   private Map<String, String> parameters(TypeElement type, ExecutableElement factory) {
+      String[] names = factory.getAnnotation(SerializedNames.class).value();
+      List<? extends VariableElement> parameters = factory.getParameters();
+      if (names.length != parameters.size()) {
+         return null; // leave the error to the reflective adapter
+      }
+      PackageElement from = packageOf(type);
+      Map<String, String> result = new LinkedHashMap<String, String>();
+      for (int i = 0; i < names.length; i++) {
+         String sourceType = sourceType(parameters.get(i).asType(), from);
+         if (sourceType == null || result.put(names[i], sourceType) != null) {
+            return null;
+         }
+      }
+      return result;
+   }
+
+   private static boolean hasMarker(Element element) {
+      for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+         TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+         if (CONSTRUCTOR_MARKERS.contains(annotationType.getQualifiedName().toString())) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * @return the type as it can be written in source from the package, or null if it cannot
+    */
+   private String sourceType(TypeMirror type, PackageElement from) {
+      if (type.getKind().isPrimitive()) {
+         return type.toString();
+      }
+      switch (type.getKind()) {
+         case ARRAY:
+            String component = sourceType(((ArrayType) type).getComponentType(), from);
+            return component == null ? null : component + "[]";
+         case WILDCARD:
+            WildcardType wildcard = (WildcardType) type;
+            if (wildcard.getExtendsBound() != null) {
+               String bound = sourceType(wildcard.getExtendsBound(), from);
+               return bound == null ? null : "? extends " + bound;
+            } else if (wildcard.getSuperBound() != null) {
+               String bound = sourceType(wildcard.getSuperBound(), from);
+               return bound == null ? null : "? super " + bound;
+            }
+            return "?";
+         case DECLARED:
+            DeclaredType declared = (DeclaredType) type;
+            TypeElement element = (TypeElement) declared.asElement();
+            if (declared.getEnclosingType().getKind() != TypeKind.NONE || !isVisible(element, from)) {
+               return null;
+            }
+            StringBuilder result = new StringBuilder(element.getQualifiedName());
+            if (!declared.getTypeArguments().isEmpty()) {
+               result.append('<');
+               String separator = "";
+               for (TypeMirror argument : declared.getTypeArguments()) {
+                  String sourceArgument = sourceType(argument, from);
+                  if (sourceArgument == null) {
+                     return null;
+                  }
+                  result.append(separator).append(sourceArgument);
+                  separator = ", ";
+               }
+               result.append('>');
+            }
+            return result.toString();
+         default:
+            return null;
+      }
+   }
+
+   private boolean isVisible(TypeElement type, PackageElement from) {
+      boolean samePackage = packageOf(type).equals(from);
+      for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+         TypeElement current = (TypeElement) element;
+         if (current.getNestingKind() == NestingKind.LOCAL || current.getNestingKind() == NestingKind.ANONYMOUS
+               || current.getModifiers().contains(Modifier.PRIVATE)
+               || (!samePackage && !current.getModifiers().contains(Modifier.PUBLIC))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private PackageElement packageOf(Element element) {
+      return processingEnv.getElementUtils().getPackageOf(element);
+   }
+
+   private void write(TypeElement type, ExecutableElement factory, Map<String, String> parameters) throws IOException {
+      String packageName = packageOf(type).getQualifiedName().toString();
+      String typeName = type.getQualifiedName().toString();
+      String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+      String adapterName = PREFIX
+            + (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)).replace('$', '_');
+      String qualifiedAdapterName = packageName.isEmpty() ? adapterName : packageName + "." + adapterName;
+
+      Writer writer = processingEnv.getFiler().createSourceFile(qualifiedAdapterName, type).openWriter();
+      PrintWriter out = new PrintWriter(writer);
+      try {
+         if (!packageName.isEmpty()) {
+            out.printf("package %s;%n%n", packageName);
+         }
+         out.printf("/** Generated by %s, do not edit. */%n", SerializedNamesProcessor.class.getName());
+         out.printf("public final class %s extends org.jclouds.json.internal.GeneratedTypeAdapter<%s> {%n",
+               adapterName, typeName);
+         for (int i = 0; i < parameters.size(); i++) {
+            out.printf("   private final com.google.gson.TypeAdapter<?> adapter%d;%n", i);
+         }
+         out.println();
+         out.printf("   public %s(com.google.gson.Gson gson, com.google.gson.TypeAdapterFactory skipPast,%n", adapterName);
+         out.printf("         com.google.gson.reflect.TypeToken<%s> type) {%n", typeName);
+         out.println("      super(gson, skipPast, type);");
+         int i = 0;
+         for (String sourceType : parameters.values()) {
+            if (sourceType.indexOf('<') == -1) {
+               out.printf("      this.adapter%d = gson.getAdapter(%s.class);%n", i++, sourceType);
+            } else {
+               out.printf("      this.adapter%d = gson.getAdapter(new com.google.gson.reflect.TypeToken<%s>() {%n"
+                     + "      });%n", i++, sourceType);
+            }
+         }
+         out.println("   }");
+         out.println();
+         out.println("   @java.lang.SuppressWarnings(\"unchecked\")");
+         out.println("   @java.lang.Override");
+         out.printf("   public %s read(com.google.gson.stream.JsonReader in) throws java.io.IOException {%n", typeName);
+         out.println("      if (in.peek() == com.google.gson.stream.JsonToken.NULL) {");
+         out.println("         in.nextNull();");
+         out.println("         return null;");
+         out.println("      }");
+         i = 0;
+         for (String sourceType : parameters.values()) {
+            out.printf("      %s value%d = %s;%n", sourceType, i++, defaultValue(sourceType));
+         }
+         out.println("      boolean empty = true;");
+         out.println("      try {");
+         out.println("         in.beginObject();");
+         out.println("         while (in.hasNext()) {");
+         out.println("            empty = false;");
+         out.println("            java.lang.String name = in.nextName();");
+         out.println("            if (in.peek() == com.google.gson.stream.JsonToken.NULL) {");
+         out.println("               in.skipValue();");
+         out.println("               continue;");
+         out.println("            }");
+         out.println("            java.lang.Object value;");
+         out.println("            switch (name) {");
+         i = 0;
+         for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            out.printf("               case %s:%n",
+                  processingEnv.getElementUtils().getConstantExpression(parameter.getKey()));
+            out.printf("                  value = adapter%d.read(in);%n", i);
+            out.println("                  if (value != null)");
+            out.printf("                     value%d = (%s) value;%n", i++, boxed(parameter.getValue()));
+            out.println("                  break;");
+         }
+         out.println("               default:");
+         out.println("                  in.skipValue();");
+         out.println("            }");
+         out.println("         }");
+         out.println("      } catch (java.lang.IllegalStateException e) {");
+         out.println("         throw new com.google.gson.JsonSyntaxException(e);");
+         out.println("      }");
+         out.println("      in.endObject();");
+         i = 0;
+         for (String sourceType : parameters.values()) {
+            if (sourceType.equals("com.google.common.base.Optional")
+                  || sourceType.startsWith("com.google.common.base.Optional<")) {
+               out.printf("      if (value%1$d == null)%n         value%1$d = com.google.common.base.Optional.absent();%n",
+                     i);
+            }
+            i++;
+         }
+         StringBuilder arguments = new StringBuilder();
+         for (i = 0; i < parameters.size(); i++) {
+            arguments.append(i == 0 ? "" : ", ").append("value").append(i);
+         }
+         String call = String.format("%s.%s(%s)", typeName, factory.getSimpleName(), arguments);
+         if (parameters.isEmpty()) {
+            out.printf("      return %s;%n", call);
+         } else {
+            out.println("      try {");
+            out.printf("         return %s;%n", call);
+            out.println("      } catch (java.lang.NullPointerException e) {");
+            out.println("         // If {} was found and the factory threw NPE, we treat the value as null");
+            out.println("         if (empty)");
+            out.println("            return null;");
+            out.println("         throw e;");
+            out.println("      }");
+         }
+         out.println("   }");
+         out.println("}");
+      } finally {
+         out.close();
+      }
+   }
+
+   private static String defaultValue(String sourceType) {
+      if (sourceType.equals("boolean")) {
+         return "false";
+      } else if (sourceType.equals("byte") || sourceType.equals("short") || sourceType.equals("char")) {
+         return "(" + sourceType + ") 0";
+      } else if (sourceType.equals("long")) {
+         return "0L";
+      } else if (sourceType.equals("float")) {
+         return "0F";
+      } else if (sourceType.equals("double")) {
+         return "0D";
+      } else if (sourceType.equals("int")) {
+         return "0";
+      }
+      return "null";
+   }
+
+   private static String boxed(String sourceType) {
+      String boxed = PRIMITIVES.get(sourceType);
+      return boxed != null ? boxed : sourceType;
+   }
+}
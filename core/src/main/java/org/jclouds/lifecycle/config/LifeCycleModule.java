@@ -28,21 +28,26 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Named;
 
+import org.jclouds.config.BindSharedFromParentContext;
 import org.jclouds.lifecycle.Closer;
 
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.Invokable;
 import com.google.common.util.concurrent.ExecutionList;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Key;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 import com.google.inject.spi.InjectionListener;
 import com.google.inject.spi.TypeEncounter;
 import com.google.inject.spi.TypeListener;
@@ -73,12 +78,19 @@ public class LifeCycleModule extends AbstractModule {
          @Inject(optional = true)
          @Named(PROPERTY_SCHEDULER_THREADS)
          ScheduledExecutorService scheduledExecutor;
+         // executors shared with a parent context are shut down by the parent
+         @Inject(optional = true)
+         @Named(BindSharedFromParentContext.SHARED_KEYS)
+         Set<Key<?>> sharedKeys = ImmutableSet.of();
 
          public void close() throws IOException {
             assert userExecutor != null;
-            userExecutor.shutdownNow();
+            if (!sharedKeys.contains(Key.get(ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS))))
+               userExecutor.shutdownNow();
             // ScheduledExecutor is defined in an optional module
-            if (scheduledExecutor != null)
+            if (scheduledExecutor != null
+                  && !sharedKeys.contains(Key.get(ScheduledExecutorService.class,
+                        Names.named(PROPERTY_SCHEDULER_THREADS))))
                scheduledExecutor.shutdownNow();
          }
       };
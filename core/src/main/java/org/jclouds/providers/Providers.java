@@ -30,8 +30,14 @@ import org.jclouds.osgi.ProviderRegistry;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * The Providers class provides static methods for accessing providers.
@@ -70,9 +76,29 @@ public class Providers {
     * @return all available providers loaded from classpath via ServiceLoader
     */
    public static Iterable<ProviderMetadata> fromServiceLoader() {
-      return ServiceLoader.load(ProviderMetadata.class);
+      ClassLoader loader = Thread.currentThread().getContextClassLoader();
+      try {
+         return serviceLoaderCache.getUnchecked(loader != null ? loader : ClassLoader.getSystemClassLoader());
+      } catch (UncheckedExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (ExecutionError e) {
+         throw Throwables.propagate(e.getCause());
+      }
    }
 
+   /**
+    * Instantiating all the metadata on the classpath is slow, so it is done once per class loader. Metadata registered
+    * through OSGi is still looked up each time. The metadata classes reference their loader, so the values are soft
+    * and do not keep an unused loader from being collected.
+    */
+   private static final LoadingCache<ClassLoader, ImmutableSet<ProviderMetadata>> serviceLoaderCache = CacheBuilder
+         .newBuilder().weakKeys().softValues().build(new CacheLoader<ClassLoader, ImmutableSet<ProviderMetadata>>() {
+            @Override
+            public ImmutableSet<ProviderMetadata> load(ClassLoader key) {
+               return ImmutableSet.copyOf(ServiceLoader.load(ProviderMetadata.class, key));
+            }
+         });
+
    /**
     * Returns all available providers.
     * 
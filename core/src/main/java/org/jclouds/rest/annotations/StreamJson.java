@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.annotations;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Decodes the elements of a json array as the caller iterates, instead of parsing the whole response up front. The
+ * method must return {@link Iterable} or {@link com.google.common.collect.FluentIterable}. Use with
+ * {@link SelectJson} when the array is not the root of the response.
+ * <p/>
+ * The result can only be iterated once, and holds the connection until iterated to its end. Callers which stop
+ * early should close it, as it implements {@link java.io.Closeable}.
+ *
+ * @see org.jclouds.http.functions.ParseJsonArrayLazily
+ */
+@Beta
+@Target(METHOD)
+@Retention(RUNTIME)
+public @interface StreamJson {
+
+}
@@ -34,11 +34,17 @@ import org.jclouds.rest.ConfiguresCredentialStore;
 import com.google.common.annotations.Beta;
 import com.google.common.base.Charsets;
 import com.google.common.base.Function;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.io.ByteSource;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
 
+/**
+ * Binds the credential store, a {@code Map<String, Credentials>} kept as json in a {@code Map<String, ByteSource>}. The
+ * backing map is in memory by default; a {@link FileCredentialStore} keeps the credentials across restarts.
+ */
 @Beta
 @ConfiguresCredentialStore
 public class CredentialStoreModule extends AbstractModule {
@@ -96,12 +102,39 @@ public class CredentialStoreModule extends AbstractModule {
       }
    }
 
+   /**
+    * Remembers the credentials parsed from each byte source for as long as the byte source is referenced, so that
+    * reading an entry of the store again, as listing nodes does, does not parse its json again. Byte sources are
+    * compared by identity: an entry written anew, through this store or directly to the backing map, is parsed anew.
+    * Credentials that could not be parsed are not remembered.
+    */
+   static class MemoizedCredentialsFromByteSource implements Function<ByteSource, Credentials> {
+      private final Function<ByteSource, Credentials> delegate;
+      private final Cache<ByteSource, Credentials> parsed = CacheBuilder.newBuilder().weakKeys().build();
+
+      MemoizedCredentialsFromByteSource(Function<ByteSource, Credentials> delegate) {
+         this.delegate = checkNotNull(delegate, "delegate");
+      }
+
+      @Override public Credentials apply(ByteSource from) {
+         if (from == null)
+            return delegate.apply(from);
+         Credentials credentials = parsed.getIfPresent(from);
+         if (credentials == null) {
+            credentials = delegate.apply(from);
+            if (credentials != null)
+               parsed.put(from, credentials);
+         }
+         return credentials;
+      }
+   }
+
    @Provides
    @Singleton
    protected final Map<String, Credentials> provideCredentialStore(Map<String, ByteSource> backing,
          Function<Credentials, ByteSource> credentialsSerializer,
          Function<ByteSource, Credentials> credentialsDeserializer) {
-      return new TransformingMap<String, ByteSource, Credentials>(backing, credentialsDeserializer,
-            credentialsSerializer);
+      return new TransformingMap<String, ByteSource, Credentials>(backing, new MemoizedCredentialsFromByteSource(
+            credentialsDeserializer), credentialsSerializer);
    }
 }
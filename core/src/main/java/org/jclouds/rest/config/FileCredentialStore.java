@@ -0,0 +1,439 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.config;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteSource;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * A backing map for the {@link CredentialStoreModule} that keeps its entries in memory and appends each change to a
+ * file, so that credentials survive restarts without an external store. Opening the file replays it, and rewrites it
+ * when most of its records are superseded.
+ * <p/>
+ * Given a key, each record is encrypted with AES and authenticated with HMAC-SHA256. A file written with a key cannot
+ * be opened without it, nor with another one.
+ * <p/>
+ * Changes are forced to disk before they are visible. Changes to the same entry are recorded in the order they are
+ * made, while changes to different entries force the file concurrently.
+ * 
+ * <h4>Example usage</h4>
+ * 
+ * <pre>
+ * FileCredentialStore credentials = FileCredentialStore.open(new File(home, &quot;.jclouds/credentials&quot;), key);
+ * ComputeServiceContext context = ContextBuilder.newBuilder(&quot;aws-ec2&quot;)
+ *       .modules(ImmutableSet.of(new CredentialStoreModule(credentials)))
+ *       .buildView(ComputeServiceContext.class);
+ * </pre>
+ */
+@Beta
+public final class FileCredentialStore extends AbstractMap<String, ByteSource> implements Closeable {
+
+   private static final byte[] MAGIC = { 'j', 'c', 'c', 's' };
+   private static final byte VERSION = 1;
+   private static final byte PUT = 1;
+   private static final byte REMOVE = 2;
+   private static final int IV_LENGTH = 16;
+   private static final int MAC_LENGTH = 32;
+   private static final int MIN_RECORDS_TO_COMPACT = 1024;
+
+   /**
+    * Opens the store, creating the file if missing.
+    */
+   public static FileCredentialStore open(File file) throws IOException {
+      return new FileCredentialStore(file, null);
+   }
+
+   /**
+    * Opens the store, creating the file if missing.
+    * 
+    * @param key
+    *           AES key the records are encrypted with
+    * @throws IllegalArgumentException
+    *            if the file was written without this key
+    */
+   public static FileCredentialStore open(File file, SecretKey key) throws IOException {
+      return new FileCredentialStore(file, checkNotNull(key, "key"));
+   }
+
+   private final File file;
+   private final SecretKey encryptionKey;
+   private final SecretKey macKey;
+   private final SecureRandom random = new SecureRandom();
+   private final ConcurrentMap<String, ByteSource> entries = Maps.newConcurrentMap();
+   private final Striped<Lock> entryLocks = Striped.lazyWeakLock(64);
+   private final RandomAccessFile raf;
+   private final FileChannel channel;
+
+   private FileCredentialStore(File file, @Nullable SecretKey key) throws IOException {
+      this.file = checkNotNull(file, "file");
+      this.encryptionKey = key;
+      this.macKey = key != null ? new SecretKeySpec(hmac(new SecretKeySpec(key.getEncoded(), "HmacSHA256"),
+            "jclouds credential store".getBytes(UTF_8)), "HmacSHA256") : null;
+      Files.createParentDirs(file);
+      if (!file.exists() || file.length() == 0)
+         rewrite(ImmutableMap.<String, ByteSource> of());
+      int records = replay();
+      if (records >= MIN_RECORDS_TO_COMPACT && records > 2 * entries.size())
+         rewrite(entries);
+      this.raf = new RandomAccessFile(file, "rw");
+      this.channel = raf.getChannel();
+      channel.position(channel.size());
+   }
+
+   @Override
+   public ByteSource get(Object key) {
+      return entries.get(key);
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      return entries.containsKey(key);
+   }
+
+   @Override
+   public int size() {
+      return entries.size();
+   }
+
+   @Override
+   public ByteSource put(String key, ByteSource value) {
+      checkNotNull(key, "key");
+      checkNotNull(value, "value");
+      Lock lock = entryLocks.get(key);
+      lock.lock();
+      try {
+         byte[] bytes = value.read();
+         append(record(PUT, key, bytes));
+         return entries.put(key, ByteSource.wrap(bytes));
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   public ByteSource remove(Object key) {
+      if (!(key instanceof String))
+         return null;
+      Lock lock = entryLocks.get(key);
+      lock.lock();
+      try {
+         if (!entries.containsKey(key))
+            return null;
+         append(record(REMOVE, (String) key, null));
+         return entries.remove(key);
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   public void clear() {
+      for (String key : entries.keySet())
+         remove(key);
+   }
+
+   @Override
+   public Set<Entry<String, ByteSource>> entrySet() {
+      return Collections.unmodifiableMap(entries).entrySet();
+   }
+
+   @Override
+   public void close() throws IOException {
+      raf.close();
+   }
+
+   /**
+    * Appends the record, then forces it outside the lock, so that writers of other entries can append meanwhile. A
+    * record which could not be written completely, such as when the disk is full, is truncated away, so that later
+    * records are not appended after it.
+    */
+   private void append(byte[] record) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(4 + record.length);
+      buffer.putInt(record.length).put(record).flip();
+      synchronized (channel) {
+         long position = channel.position();
+         try {
+            while (buffer.hasRemaining())
+               channel.write(buffer);
+         } catch (IOException e) {
+            try {
+               channel.truncate(position);
+               channel.position(position);
+            } catch (IOException suppressed) {
+               e.addSuppressed(suppressed);
+            }
+            throw e;
+         }
+      }
+      channel.force(false);
+   }
+
+   private byte[] record(byte op, String key, @Nullable byte[] value) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      try {
+         out.writeByte(op);
+         out.writeUTF(key);
+         if (value != null) {
+            out.writeInt(value.length);
+            out.write(value);
+         }
+         out.flush();
+      } catch (IOException e) {
+         throw new AssertionError(e);
+      }
+      return encryptionKey != null ? seal(bytes.toByteArray()) : bytes.toByteArray();
+   }
+
+   /**
+    * @return the number of records replayed
+    */
+   private int replay() throws IOException {
+      InputStream stream = new BufferedInputStream(new FileInputStream(file));
+      long validLength;
+      int records = 0;
+      try {
+         DataInputStream in = new DataInputStream(stream);
+         readHeader(in);
+         validLength = headerLength();
+         while (true) {
+            byte[] record;
+            try {
+               int length = in.readInt();
+               if (length < 0)
+                  throw new IOException("corrupt record in " + file);
+               // a record torn by a crash while it was written, which can only be the last one
+               if (length > file.length() - validLength - 4) {
+                  if (containsLaterRecord(Files.asByteSource(file).slice(validLength, Long.MAX_VALUE).read()))
+                     throw new IOException("corrupt record in " + file);
+                  break;
+               }
+               record = new byte[length];
+               in.readFully(record);
+            } catch (EOFException e) {
+               // either the end of the file, or a torn record
+               break;
+            }
+            apply(encryptionKey != null ? open(record) : record);
+            validLength += 4 + record.length;
+            records++;
+         }
+      } finally {
+         Closeables.closeQuietly(stream);
+      }
+      if (validLength < file.length()) {
+         RandomAccessFile torn = new RandomAccessFile(file, "rw");
+         try {
+            torn.setLength(validLength);
+         } finally {
+            torn.close();
+         }
+      }
+      return records;
+   }
+
+   /**
+    * @return whether a complete record starts after the first record of the tail, which a torn record could not be
+    *         followed by
+    */
+   private boolean containsLaterRecord(byte[] tail) {
+      ByteBuffer buffer = ByteBuffer.wrap(tail);
+      for (int offset = 4; offset + 4 <= tail.length; offset++) {
+         int length = buffer.getInt(offset);
+         if (length >= 0 && length <= tail.length - offset - 4 && isRecord(tail, offset + 4, length))
+            return true;
+      }
+      return false;
+   }
+
+   private boolean isRecord(byte[] bytes, int offset, int length) {
+      if (encryptionKey != null) {
+         if (length < IV_LENGTH + MAC_LENGTH)
+            return false;
+         int signedLength = length - MAC_LENGTH;
+         return MessageDigest.isEqual(hmac(macKey, Arrays.copyOfRange(bytes, offset, offset + signedLength)),
+               Arrays.copyOfRange(bytes, offset + signedLength, offset + length));
+      }
+      if (length < 3)
+         return false;
+      ByteBuffer record = ByteBuffer.wrap(bytes);
+      int keyLength = record.getShort(offset + 1) & 0xffff;
+      if (bytes[offset] == REMOVE)
+         return length == 3 + keyLength;
+      return bytes[offset] == PUT && length >= 7 + keyLength
+            && length == 7 + keyLength + record.getInt(offset + 3 + keyLength);
+   }
+
+   private void apply(byte[] record) throws IOException {
+      DataInputStream in = new DataInputStream(ByteSource.wrap(record).openStream());
+      byte op = in.readByte();
+      String key = in.readUTF();
+      if (op == PUT) {
+         byte[] value = new byte[in.readInt()];
+         in.readFully(value);
+         entries.put(key, ByteSource.wrap(value));
+      } else if (op == REMOVE) {
+         entries.remove(key);
+      } else {
+         throw new IOException("unknown record type " + op + " in " + file);
+      }
+   }
+
+   /**
+    * Writes the entries to a new file, which then replaces the current one.
+    */
+   private void rewrite(Map<String, ByteSource> toWrite) throws IOException {
+      File tmp = new File(file.getPath() + ".tmp");
+      RandomAccessFile out = new RandomAccessFile(tmp, "rw");
+      try {
+         out.setLength(0);
+         out.write(header());
+         for (Entry<String, ByteSource> entry : toWrite.entrySet()) {
+            byte[] record = record(PUT, entry.getKey(), entry.getValue().read());
+            out.writeInt(record.length);
+            out.write(record);
+         }
+         out.getFD().sync();
+      } finally {
+         out.close();
+      }
+      java.nio.file.Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+   }
+
+   private byte[] header() {
+      ByteArrayOutputStream header = new ByteArrayOutputStream();
+      header.write(MAGIC, 0, MAGIC.length);
+      header.write(VERSION);
+      header.write(encryptionKey != null ? 1 : 0);
+      if (encryptionKey != null) {
+         byte[] check = hmac(macKey, MAGIC);
+         header.write(check, 0, check.length);
+      }
+      return header.toByteArray();
+   }
+
+   private int headerLength() {
+      return MAGIC.length + 2 + (encryptionKey != null ? MAC_LENGTH : 0);
+   }
+
+   private void readHeader(DataInputStream in) throws IOException {
+      byte[] magic = new byte[MAGIC.length];
+      in.readFully(magic);
+      if (!Arrays.equals(magic, MAGIC) || in.readByte() != VERSION)
+         throw new IOException(file + " is not a credential store");
+      boolean encrypted = in.readByte() == 1;
+      checkArgument(encrypted == (encryptionKey != null), "%s was written %s a key", file, encrypted ? "with"
+            : "without");
+      if (encrypted) {
+         byte[] check = new byte[MAC_LENGTH];
+         in.readFully(check);
+         checkArgument(MessageDigest.isEqual(check, hmac(macKey, MAGIC)), "%s was written with another key", file);
+      }
+   }
+
+   private byte[] seal(byte[] plaintext) {
+      byte[] iv = new byte[IV_LENGTH];
+      random.nextBytes(iv);
+      try {
+         Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+         cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new IvParameterSpec(iv));
+         byte[] ciphertext = cipher.doFinal(plaintext);
+         byte[] sealed = new byte[IV_LENGTH + ciphertext.length + MAC_LENGTH];
+         System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+         System.arraycopy(ciphertext, 0, sealed, IV_LENGTH, ciphertext.length);
+         byte[] mac = hmac(macKey, Arrays.copyOf(sealed, IV_LENGTH + ciphertext.length));
+         System.arraycopy(mac, 0, sealed, IV_LENGTH + ciphertext.length, MAC_LENGTH);
+         return sealed;
+      } catch (GeneralSecurityException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   private byte[] open(byte[] sealed) throws IOException {
+      if (sealed.length < IV_LENGTH + MAC_LENGTH)
+         throw new IOException("corrupt record in " + file);
+      int signedLength = sealed.length - MAC_LENGTH;
+      byte[] mac = Arrays.copyOfRange(sealed, signedLength, sealed.length);
+      if (!MessageDigest.isEqual(mac, hmac(macKey, Arrays.copyOf(sealed, signedLength))))
+         throw new IOException("corrupt record in " + file);
+      try {
+         Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+         cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new IvParameterSpec(sealed, 0, IV_LENGTH));
+         return cipher.doFinal(sealed, IV_LENGTH, signedLength - IV_LENGTH);
+      } catch (GeneralSecurityException e) {
+         throw new IOException("corrupt record in " + file, e);
+      }
+   }
+
+   private static byte[] hmac(SecretKey key, byte[] data) {
+      try {
+         Mac mac = Mac.getInstance("HmacSHA256");
+         mac.init(key);
+         return mac.doFinal(data);
+      } catch (GeneralSecurityException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+}
@@ -28,6 +28,7 @@ import javax.inject.Inject;
 
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpCommandExecutorService;
+import org.jclouds.http.HttpListener;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.logging.Logger;
@@ -53,6 +54,9 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
 
+   @com.google.inject.Inject(optional = true)
+   private HttpListener listener;
+
    @Inject
    @VisibleForTesting
    InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
@@ -88,7 +92,7 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
       logger.debug(">> invoking %s", commandName);
       try {
-         return transformer.apply(http.invoke(command));
+         return invokeAndTransform(command, transformer);
       } catch (Throwable t) {
          try {
             return fallback.createOrPropagate(t);
@@ -158,7 +162,7 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
 
       @Override
       public Object call() throws Exception {
-         return transformer.apply(http.invoke(command));
+         return invokeAndTransform(command, transformer);
       }
 
       @Override
@@ -184,11 +188,29 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
       }
    }
 
+   /**
+    * Failures to parse the response are reported to the {@link HttpListener}, failures to get a response already were
+    * by the {@link HttpCommandExecutorService}.
+    */
+   private Object invokeAndTransform(HttpCommand command, Function<HttpResponse, ?> transformer) {
+      if (listener == null) {
+         return transformer.apply(http.invoke(command));
+      }
+      long start = System.nanoTime();
+      HttpResponse response = http.invoke(command);
+      try {
+         return transformer.apply(response);
+      } catch (RuntimeException e) {
+         listener.failed(command, response, e, System.nanoTime() - start);
+         throw e;
+      }
+   }
+
    private HttpCommand toCommand(String commandName, Invocation invocation) {
       logger.trace(">> converting %s", commandName);
       HttpRequest request = annotationProcessor.apply(invocation);
       logger.trace("<< converted %s to %s", commandName, request.getRequestLine());
-      return new HttpCommand(request);
+      return new HttpCommand(request, commandName);
    }
 
    private Function<HttpResponse, ?> getTransformer(String commandName, HttpCommand command) {
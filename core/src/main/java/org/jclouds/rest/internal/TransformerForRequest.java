@@ -16,6 +16,7 @@
  */
 package org.jclouds.rest.internal;
 
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.inject.util.Types.newParameterizedType;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
@@ -35,6 +36,7 @@ import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.functions.ParseFirstJsonValueNamed;
 import org.jclouds.http.functions.ParseJson;
+import org.jclouds.http.functions.ParseJsonArrayLazily;
 import org.jclouds.http.functions.ParseSax;
 import org.jclouds.http.functions.ParseSax.Factory;
 import org.jclouds.http.functions.ParseSax.HandlerWithResult;
@@ -52,6 +54,7 @@ import org.jclouds.rest.annotations.JAXBResponseParser;
 import org.jclouds.rest.annotations.OnlyElement;
 import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.annotations.SelectJson;
+import org.jclouds.rest.annotations.StreamJson;
 import org.jclouds.rest.annotations.Transform;
 import org.jclouds.rest.annotations.Unwrap;
 import org.jclouds.rest.annotations.XMLResponseParser;
@@ -60,6 +63,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Optional;
+import com.google.common.collect.FluentIterable;
 import com.google.common.reflect.Invokable;
 import com.google.common.reflect.TypeToken;
 import com.google.inject.Injector;
@@ -179,7 +183,15 @@ public class TransformerForRequest implements Function<HttpRequest, Function<Htt
    public Function<HttpResponse, ?> getTransformerForMethod(Invocation invocation, Injector injector) {
       Invokable<?, ?> invoked = invocation.getInvokable();
       Function<HttpResponse, ?> transformer;
-      if (invoked.isAnnotationPresent(SelectJson.class)) {
+      if (invoked.isAnnotationPresent(StreamJson.class)) {
+         checkState(invoked.getReturnType().getRawType().isAssignableFrom(FluentIterable.class),
+               "@StreamJson methods must return Iterable or FluentIterable: %s", invoked);
+         Type elementType = invoked.getReturnType().resolveType(Iterable.class.getTypeParameters()[0]).getType();
+         String[] nameChoices = invoked.isAnnotationPresent(SelectJson.class) ? invoked.getAnnotation(
+               SelectJson.class).value() : new String[0];
+         transformer = new ParseJsonArrayLazily(injector.getInstance(GsonWrapper.class), TypeLiteral.get(elementType),
+               nameChoices);
+      } else if (invoked.isAnnotationPresent(SelectJson.class)) {
          Type returnVal = getReturnTypeFor(invoked.getReturnType());
          if (invoked.isAnnotationPresent(OnlyElement.class))
             returnVal = newParameterizedType(Set.class, returnVal);
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_TOKEN_REFRESH_FRACTION;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import com.google.common.annotations.Beta;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Creates caches for short-lived credentials such as bearer and session tokens.
+ * <p/>
+ * Entries expire after the given lifetime, but once only the
+ * {@link org.jclouds.Constants#PROPERTY_TOKEN_REFRESH_FRACTION configured fraction} of it is left, the first access
+ * reloads the entry on the user executor while the current token keeps being served. Only one load or refresh runs
+ * per key at a time, so concurrent requests do not stampede the authentication endpoint, and callers only block on
+ * the first load or after the token expired unused.
+ * <p/>
+ * All caches record statistics, which are aggregated by {@link #stats()}: the load count and total load time give the
+ * refresh latency, and the load exception count the failed refreshes.
+ */
+@Beta
+@Singleton
+public class TokenCacheFactory {
+
+   private final ListeningExecutorService userExecutor;
+   private final double refreshFraction;
+   private final List<Cache<?, ?>> caches = new CopyOnWriteArrayList<Cache<?, ?>>();
+
+   @Inject
+   public TokenCacheFactory(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(PROPERTY_TOKEN_REFRESH_FRACTION) double refreshFraction) {
+      checkArgument(refreshFraction >= 0 && refreshFraction < 1, "%s must be in [0, 1): %s",
+            PROPERTY_TOKEN_REFRESH_FRACTION, refreshFraction);
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.refreshFraction = refreshFraction;
+   }
+
+   /**
+    * @param loader
+    *           obtains a new token for the key; reloads should not reuse request times captured in the key
+    * @param lifetime
+    *           how long a token is valid after it has been loaded
+    */
+   public <K, V> LoadingCache<K, V> create(CacheLoader<K, V> loader, long lifetime, TimeUnit unit) {
+      checkNotNull(loader, "loader");
+      CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().expireAfterWrite(lifetime, unit).recordStats();
+      long refreshAfterMillis = (long) (unit.toMillis(lifetime) * (1 - refreshFraction));
+      if (refreshFraction > 0 && refreshAfterMillis > 0) {
+         builder.refreshAfterWrite(refreshAfterMillis, MILLISECONDS);
+         loader = CacheLoader.asyncReloading(loader, userExecutor);
+      }
+      LoadingCache<K, V> cache = builder.build(loader);
+      caches.add(cache);
+      return cache;
+   }
+
+   /**
+    * @return the statistics of all caches created by this factory
+    */
+   public CacheStats stats() {
+      CacheStats stats = new CacheStats(0, 0, 0, 0, 0, 0);
+      for (Cache<?, ?> cache : caches) {
+         stats = stats.plus(cache.stats());
+      }
+      return stats;
+   }
+}
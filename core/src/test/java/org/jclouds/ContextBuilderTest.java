@@ -19,7 +19,10 @@ package org.jclouds;
 import static com.google.common.base.Suppliers.ofInstance;
 import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
@@ -32,6 +35,9 @@ import org.jclouds.events.config.EventBusModule;
 import org.jclouds.http.IntegrationTestClient;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.http.internal.ConnectionLimiter;
+import org.jclouds.json.Json;
+import org.jclouds.lifecycle.Closer;
 import org.jclouds.location.Provider;
 import org.jclouds.logging.config.LoggingModule;
 import org.jclouds.logging.config.NullLoggingModule;
@@ -44,10 +50,14 @@ import org.testng.annotations.Test;
 import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 
 /**
  * Tests behavior of modules configured in ContextBuilder
@@ -130,6 +140,49 @@ public class ContextBuilderTest {
       assertEquals(version, "1.1");
    }
 
+   @Test
+   public void testLazySingletons() throws IOException {
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_LAZY_SINGLETONS, "true");
+      overrides.setProperty(Constants.PROPERTY_WARM_UP_SINGLETONS, "true");
+      Injector injector = testContextBuilder().overrides(overrides).credentials("foo", "bar").buildInjector();
+      assertEquals(injector.getInstance(Stage.class), Stage.DEVELOPMENT);
+      assertEquals(injector.getInstance(ProviderMetadata.class).getEndpoint(), "http://localhost");
+      injector.getInstance(Closer.class).close();
+   }
+
+   @Test
+   public void testParentSharesExecutors() {
+      Key<ListeningExecutorService> userExecutor = Key.get(ListeningExecutorService.class,
+            Names.named(Constants.PROPERTY_USER_THREADS));
+      Context parent = testContextBuilder().credentials("foo", "bar").build();
+      try {
+         Context child = testContextBuilder().credentials("baz", "qux").parent(parent).build();
+         Injector childInjector = child.utils().injector();
+         assertSame(childInjector.getInstance(userExecutor), parent.utils().injector().getInstance(userExecutor));
+         assertSame(childInjector.getInstance(Json.class), parent.utils().injector().getInstance(Json.class));
+         assertSame(childInjector.getInstance(ConnectionLimiter.class),
+               parent.utils().injector().getInstance(ConnectionLimiter.class));
+         assertEquals(child.getIdentity(), "baz");
+
+         child.close();
+         assertFalse(parent.utils().injector().getInstance(userExecutor).isShutdown());
+      } finally {
+         parent.close();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testParentOfOtherProviderIsRejected() {
+      Context parent = testContextBuilder().credentials("foo", "bar").build();
+      try {
+         ContextBuilder.newBuilder(forApiOnEndpoint(IntegrationTestClient.class, "http://localhost").toBuilder()
+               .id("other").build()).parent(parent);
+      } finally {
+         parent.close();
+      }
+   }
+
    @Test
    public void testAllPropertiesAreStrings() {
       Properties overrides = new Properties();
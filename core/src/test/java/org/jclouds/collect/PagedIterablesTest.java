@@ -19,12 +19,22 @@ package org.jclouds.collect;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.easymock.EasyMock;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Tests behavior of {@code IterableWithMarkers}.
@@ -70,4 +80,107 @@ public class PagedIterablesTest {
       EasyMock.verify(markerToNext);
 
    }
+
+   /**
+    * Pages of the numbers {@code 0} to {@code pages - 1}, one number per page, which count the pages fetched.
+    */
+   private static PagedIterable<Integer> countingPages(final int pages, final AtomicInteger fetched) {
+      return PagedIterables.advance(IterableWithMarkers.from(ImmutableSet.of(0), 1),
+            new Function<Object, IterableWithMarker<Integer>>() {
+               @Override
+               public IterableWithMarker<Integer> apply(Object marker) {
+                  int page = (Integer) marker;
+                  fetched.incrementAndGet();
+                  return IterableWithMarkers.from(ImmutableSet.of(page), page + 1 < pages ? page + 1 : null);
+               }
+            });
+   }
+
+   public void testPrefetchZeroReturnsSame() {
+      PagedIterable<Integer> pages = countingPages(3, new AtomicInteger());
+      ListeningExecutorService executor = MoreExecutors.newDirectExecutorService();
+      Assert.assertSame(PagedIterables.prefetch(pages, 0, executor), pages);
+   }
+
+   public void testPrefetchKeepsOrder() {
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         PagedIterable<Integer> pages = PagedIterables.prefetch(countingPages(100, new AtomicInteger()), 4, executor);
+         ImmutableList.Builder<Integer> expected = ImmutableList.builder();
+         for (int i = 0; i < 100; i++)
+            expected.add(i);
+         Assert.assertEquals(pages.concat().toList(), expected.build());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testPrefetchFetchesAheadUpToDepth() throws Exception {
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         AtomicInteger fetched = new AtomicInteger();
+         Iterator<IterableWithMarker<Integer>> pages = PagedIterables.prefetch(countingPages(100, fetched), 3,
+               executor).iterator();
+         Assert.assertEquals(pages.next().toList(), ImmutableList.of(0));
+         awaitIdle(executor);
+         // the first page was taken, so three more are buffered, and no more while the caller does not advance
+         Assert.assertEquals(fetched.get(), 3);
+         Assert.assertEquals(pages.next().toList(), ImmutableList.of(1));
+         awaitIdle(executor);
+         Assert.assertEquals(fetched.get(), 4);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testPrefetchFailurePropagates() {
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         PagedIterable<String> pages = PagedIterables.prefetch(PagedIterables.advance(
+               IterableWithMarkers.from(ImmutableSet.of("foo"), "MARKER1"),
+               new Function<Object, IterableWithMarker<String>>() {
+                  @Override
+                  public IterableWithMarker<String> apply(Object marker) {
+                     throw new IllegalStateException("boom");
+                  }
+               }), 2, executor);
+         Iterator<IterableWithMarker<String>> iterator = pages.iterator();
+         Assert.assertEquals(iterator.next().toList(), ImmutableList.of("foo"));
+         try {
+            iterator.next();
+            Assert.fail("expected the failure of the fetch");
+         } catch (IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "boom");
+         }
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testClosedPrefetchingIteratorEnds() throws Exception {
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+      try {
+         Iterator<IterableWithMarker<Integer>> pages = PagedIterables.prefetch(countingPages(100, new AtomicInteger()),
+               2, executor).iterator();
+         Assert.assertEquals(pages.next().toList(), ImmutableList.of(0));
+         Closeable.class.cast(pages).close();
+         Assert.assertFalse(pages.hasNext());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private static void awaitIdle(ListeningExecutorService executor) throws InterruptedException {
+      // the executor has a single thread, so every fetch submitted before this task completed before it runs
+      for (int i = 0; i < 5; i++) {
+         final CountDownLatch latch = new CountDownLatch(1);
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               latch.countDown();
+            }
+         });
+         Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+      }
+   }
 }
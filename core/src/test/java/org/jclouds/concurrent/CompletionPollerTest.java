@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "CompletionPollerTest", singleThreaded = true)
+public class CompletionPollerTest {
+
+   private ScheduledExecutorService scheduler;
+
+   /**
+    * Completes each operation after the number of polls it is registered with, and fails unknown ones.
+    */
+   private static class CountdownPoller extends CompletionPoller<String> {
+      private final ConcurrentMap<String, AtomicInteger> pollsLeft = Maps.newConcurrentMap();
+      private final AtomicInteger polls = new AtomicInteger();
+
+      private CountdownPoller(ScheduledExecutorService scheduler) {
+         super(scheduler, 5, TimeUnit.MILLISECONDS);
+      }
+
+      @Override
+      protected Optional<String> poll(String id) {
+         polls.incrementAndGet();
+         AtomicInteger left = pollsLeft.get(id);
+         if (left == null)
+            throw new IllegalStateException(id + " not found");
+         return left.decrementAndGet() <= 0 ? Optional.of(id + " done") : Optional.<String> absent();
+      }
+   }
+
+   @BeforeMethod
+   public void createScheduler() {
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void shutdownScheduler() {
+      scheduler.shutdownNow();
+   }
+
+   public void testCompletesEachOperation() throws Exception {
+      CountdownPoller poller = new CountdownPoller(scheduler);
+      poller.pollsLeft.put("a", new AtomicInteger(1));
+      poller.pollsLeft.put("b", new AtomicInteger(3));
+
+      ListenableFuture<String> a = poller.track("a");
+      ListenableFuture<String> b = poller.track("b");
+
+      assertEquals(a.get(10, TimeUnit.SECONDS), "a done");
+      assertEquals(b.get(10, TimeUnit.SECONDS), "b done");
+      assertEquals(poller.pending(), 0);
+   }
+
+   public void testSameIdIsTrackedOnce() {
+      CountdownPoller poller = new CountdownPoller(scheduler);
+      poller.pollsLeft.put("a", new AtomicInteger(Integer.MAX_VALUE));
+      try {
+         assertSame(poller.track("a"), poller.track("a"));
+         assertEquals(poller.pending(), 1);
+      } finally {
+         poller.close();
+      }
+   }
+
+   public void testFailurePropagates() throws Exception {
+      CountdownPoller poller = new CountdownPoller(scheduler);
+      try {
+         poller.track("missing").get(10, TimeUnit.SECONDS);
+         fail("expected the poll to fail");
+      } catch (ExecutionException e) {
+         assertTrue(e.getCause() instanceof IllegalStateException, e.toString());
+      }
+   }
+
+   public void testStopsPollingWhenIdle() throws Exception {
+      CountdownPoller poller = new CountdownPoller(scheduler);
+      poller.pollsLeft.put("a", new AtomicInteger(1));
+      poller.track("a").get(10, TimeUnit.SECONDS);
+      int polls = poller.polls.get();
+      Thread.sleep(50);
+      assertEquals(poller.polls.get(), polls);
+
+      // tracking again restarts the task
+      poller.pollsLeft.put("b", new AtomicInteger(1));
+      assertEquals(poller.track("b").get(10, TimeUnit.SECONDS), "b done");
+   }
+
+   public void testCloseCancelsPending() {
+      CountdownPoller poller = new CountdownPoller(scheduler);
+      poller.pollsLeft.put("a", new AtomicInteger(Integer.MAX_VALUE));
+      ListenableFuture<String> a = poller.track("a");
+      poller.close();
+      assertTrue(a.isCancelled());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testTrackAfterCloseFails() {
+      CountdownPoller poller = new CountdownPoller(scheduler);
+      poller.close();
+      poller.track("a");
+   }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.jclouds.http.HttpMetricsListener.LatencySnapshot;
+import org.jclouds.http.HttpMetricsListener.OperationMetrics;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "HttpMetricsListenerTest")
+public class HttpMetricsListenerTest {
+
+   private static final HttpRequest PUT = HttpRequest.builder().method("PUT").endpoint("http://localhost/blob")
+         .payload("hello").build();
+
+   public void testRecordsByOperationAndStatus() {
+      HttpMetricsListener listener = new HttpMetricsListener("test");
+      HttpCommand command = new HttpCommand(PUT, "test:PutBlob");
+      HttpResponse ok = HttpResponse.builder().statusCode(200).build();
+      HttpResponse unavailable = HttpResponse.builder().statusCode(503).build();
+
+      listener.firstByte(command, unavailable, MILLISECONDS.toNanos(1));
+      listener.completed(command, unavailable, 0, MILLISECONDS.toNanos(1));
+      listener.retried(command, unavailable, null);
+      listener.firstByte(command, ok, MILLISECONDS.toNanos(3));
+      listener.completed(command, ok, 10, MILLISECONDS.toNanos(5));
+
+      List<OperationMetrics> metrics = listener.getMetrics();
+      assertEquals(metrics.size(), 2);
+      for (OperationMetrics metric : metrics) {
+         assertEquals(metric.getProvider(), "test");
+         assertEquals(metric.getOperation(), "test:PutBlob");
+         assertEquals(metric.getBytesSent(), 5);
+         if (metric.getStatus() == 200) {
+            assertEquals(metric.getCompleted().getCount(), 1);
+            assertEquals(metric.getCompleted().getMeanMillis(), 5.0);
+            assertEquals(metric.getBytesReceived(), 10);
+            assertEquals(metric.getRetries(), 0);
+         } else {
+            assertEquals(metric.getStatus(), 503);
+            assertEquals(metric.getRetries(), 1);
+         }
+      }
+
+      listener.reset();
+      assertEquals(listener.getMetrics().size(), 0);
+   }
+
+   public void testFailuresWithoutResponse() {
+      HttpMetricsListener listener = new HttpMetricsListener("test");
+      HttpCommand command = new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://localhost").build());
+      listener.failed(command, null, new IOException(), 0);
+
+      OperationMetrics metric = listener.getMetrics().get(0);
+      // commands not sent by an api method are tagged with the http method
+      assertEquals(metric.getOperation(), "GET");
+      assertEquals(metric.getStatus(), HttpMetricsListener.NO_RESPONSE);
+      assertEquals(metric.getFailures(), 1);
+      assertEquals(metric.getCompleted().getCount(), 0);
+   }
+
+   public void testPercentiles() {
+      HttpMetricsListener.Histogram histogram = new HttpMetricsListener.Histogram();
+      for (int i = 0; i < 99; i++) {
+         histogram.record(MILLISECONDS.toNanos(1));
+      }
+      histogram.record(MILLISECONDS.toNanos(100));
+
+      LatencySnapshot snapshot = histogram.snapshot();
+      assertEquals(snapshot.getCount(), 100);
+      // buckets double in width, so 1ms (1000us) falls below 1024us and 100ms below 131072us
+      assertEquals(snapshot.getPercentileMillis(0.5), 1.024);
+      assertEquals(snapshot.getPercentileMillis(0.99), 1.024);
+      assertEquals(snapshot.getPercentileMillis(1), 131.072);
+   }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.json.internal.GsonWrapper;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.FluentIterable;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", testName = "ParseJsonArrayLazilyTest")
+public class ParseJsonArrayLazilyTest {
+
+   GsonWrapper json = Guice.createInjector(new GsonModule()).getInstance(GsonWrapper.class);
+
+   static class Event {
+      private String name;
+      private String source;
+
+      @Override
+      public String toString() {
+         return String.format("(name=%s, source=%s)", name, source);
+      }
+   }
+
+   /**
+    * Generates a json array of events without holding it in memory.
+    */
+   static class EventsInputStream extends InputStream {
+      private static final byte[] EVENT = "{\"name\":\"GREETINGS\",\"source\":\"guest\"}".getBytes(Charsets.UTF_8);
+      private final int count;
+      private int event = -1;
+      private int position;
+      private long bytesRead;
+      private boolean closed;
+
+      EventsInputStream(int count) {
+         this.count = count;
+      }
+
+      @Override
+      public int read() {
+         int b;
+         if (event == -1) {
+            event = 0;
+            b = '[';
+         } else if (event == count) {
+            return -1;
+         } else if (position < EVENT.length) {
+            b = EVENT[position++];
+         } else {
+            position = 0;
+            b = ++event == count ? ']' : ',';
+         }
+         bytesRead++;
+         return b;
+      }
+
+      @Override
+      public void close() {
+         closed = true;
+      }
+   }
+
+   public void testParsesAsTheCallerIterates() {
+      EventsInputStream events = new EventsInputStream(100000);
+      HttpResponse response = HttpResponse.builder().statusCode(200).payload(Payloads.newInputStreamPayload(events))
+            .build();
+
+      FluentIterable<Event> val = new ParseJsonArrayLazily<Event>(json, TypeLiteral.get(Event.class)).apply(response);
+      Iterator<Event> iterator = val.iterator();
+      assertEquals(iterator.next().toString(), "(name=GREETINGS, source=guest)");
+      // only the start of the 4 MB response was read
+      assertTrue(events.bytesRead < 64 * 1024, events.bytesRead + " bytes were read");
+
+      int count = 1;
+      while (iterator.hasNext()) {
+         iterator.next();
+         count++;
+      }
+      assertEquals(count, 100000);
+      assertTrue(events.closed);
+   }
+
+   public void testParsesNamedArray() {
+      String nested = "{ \"count\":2 ,\"_event\" : [ {name:'GREETINGS',source:'guest'}, {name:'H\u00c9LLO',source:'\u20ac'} ] }";
+      HttpResponse response = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newByteArrayPayload(nested.getBytes(Charsets.UTF_8))).build();
+
+      FluentIterable<Event> val = new ParseJsonArrayLazily<Event>(json, TypeLiteral.get(Event.class), "event",
+            "_event").apply(response);
+      assertEquals(val.toString(), "JsonArrayIterable(" + Event.class.getName() + ")");
+      assertEquals(val.toList().toString(), "[(name=GREETINGS, source=guest), (name=H\u00c9LLO, source=\u20ac)]");
+   }
+
+   public void testMissingArrayIsEmpty() {
+      HttpResponse response = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newPayload("{ \"count\":0 }")).build();
+
+      assertTrue(new ParseJsonArrayLazily<Event>(json, TypeLiteral.get(Event.class), "event").apply(response)
+            .isEmpty());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testCanOnlyBeIteratedOnce() {
+      HttpResponse response = HttpResponse.builder().statusCode(200)
+            .payload(Payloads.newPayload("[{name:'GREETINGS',source:'guest'}]")).build();
+
+      FluentIterable<Event> val = new ParseJsonArrayLazily<Event>(json, TypeLiteral.get(Event.class)).apply(response);
+      val.toList();
+      val.iterator();
+   }
+
+   public void testCloseReleasesTheResponse() throws IOException {
+      EventsInputStream events = new EventsInputStream(1000);
+      HttpResponse response = HttpResponse.builder().statusCode(200).payload(Payloads.newInputStreamPayload(events))
+            .build();
+
+      FluentIterable<Event> val = new ParseJsonArrayLazily<Event>(json, TypeLiteral.get(Event.class)).apply(response);
+      Iterator<Event> iterator = val.iterator();
+      iterator.next();
+      ((Closeable) val).close();
+      assertTrue(events.closed);
+      assertFalse(iterator.hasNext());
+   }
+}
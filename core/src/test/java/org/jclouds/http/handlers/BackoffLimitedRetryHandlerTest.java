@@ -191,4 +191,33 @@ public class BackoffLimitedRetryHandlerTest {
       assertEquals(handler.shouldRetryRequest(command, response), false); // Failure 6
    }
 
+   @Test
+   void testRetryDelayIsLeftToTheExecutor() throws SecurityException, NoSuchMethodException {
+      HttpCommand command = createCommand();
+      HttpResponse response = HttpResponse.builder().statusCode(500).build();
+
+      long startTime = System.nanoTime();
+      assertEquals(handler.shouldRetryRequest(command, response), true);
+      assertEquals(handler.shouldRetryRequest(command, response), true);
+      long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+
+      // 50 * 2 ^ 2, plus up to ten percent of jitter
+      assertThat(command.getRetryDelay()).isBetween(200L, 220L);
+      assertThat(elapsedTime).isLessThan(200L);
+   }
+
+   @Test
+   void testJitteredPoliciesStayWithinBounds() {
+      for (int failureCount = 1; failureCount <= 5; failureCount++) {
+         assertThat(BackoffPolicy.FULL_JITTER.delay(50, 500, 2, failureCount, 0)).isBetween(0L,
+               Math.min(50L * failureCount * failureCount, 500L));
+      }
+      long previous = 0;
+      for (int failureCount = 1; failureCount <= 5; failureCount++) {
+         long delay = BackoffPolicy.DECORRELATED_JITTER.delay(50, 500, 2, failureCount, previous);
+         assertThat(delay).isBetween(50L, Math.min(Math.max(previous, 50L) * 3, 500L));
+         previous = delay;
+      }
+   }
+
 }
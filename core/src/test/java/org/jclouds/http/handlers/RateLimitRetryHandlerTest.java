@@ -24,7 +24,6 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
-import java.util.concurrent.TimeUnit;
 
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpRequest;
@@ -33,7 +32,6 @@ import org.jclouds.io.Payload;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
-import com.google.common.util.concurrent.Uninterruptibles;
 
 @Test(groups = "unit", testName = "RateLimitRetryHandlerTest")
 public class RateLimitRetryHandlerTest {
@@ -98,30 +96,9 @@ public class RateLimitRetryHandlerTest {
       long start = System.currentTimeMillis();
 
       assertTrue(rateLimitRetryHandler.shouldRetryRequest(command, response));
-      // Should have blocked the amount of time configured in the header. Use a
-      // smaller value to compensate the time it takes to reach the code that
-      // computes the amount of time to wait.
-      assertTrue(System.currentTimeMillis() - start > 2500);
-   }
-
-   @Test(timeOut = TEST_SAFE_TIMEOUT)
-   public void testDoNotRetryIfRequestIsAborted() throws Exception {
-      final HttpCommand command = new HttpCommand(HttpRequest.builder().method("GET").endpoint("http://localhost")
-            .build());
-      final HttpResponse response = HttpResponse.builder().statusCode(429).addHeader(RETRY_AFTER, "10").build();
-
-      final Thread requestThread = Thread.currentThread();
-      Thread killer = new Thread() {
-         @Override
-         public void run() {
-            Uninterruptibles.sleepUninterruptibly(2, TimeUnit.SECONDS);
-            requestThread.interrupt();
-         }
-      };
-
-      // Start the killer thread that will abort the rate limit wait
-      killer.start();
-      assertFalse(rateLimitRetryHandler.shouldRetryRequest(command, response));
+      // The executor waits the amount of time configured in the header, not the handler
+      assertEquals(command.getRetryDelay(), 5000);
+      assertTrue(System.currentTimeMillis() - start < 2500);
    }
 
    @Test(timeOut = TEST_SAFE_TIMEOUT)
@@ -16,22 +16,35 @@
  */
 package org.jclouds.http.internal;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.easymock.EasyMock.anyLong;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.same;
 import static org.easymock.EasyMock.verify;
+import static org.jclouds.Constants.PROPERTY_CONNECTION_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
+import static org.jclouds.Constants.PROPERTY_LIMIT_CONNECTIONS;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
+import static org.jclouds.Constants.PROPERTY_RETRY_BUDGET_MIN_RETRIES;
+import static org.jclouds.Constants.PROPERTY_RETRY_BUDGET_RATIO;
 import static org.jclouds.http.HttpUtils.closeClientButKeepContentStream;
 import static org.jclouds.http.HttpUtils.releasePayload;
 import static org.jclouds.io.Payloads.newInputStreamPayload;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -40,9 +53,11 @@ import org.easymock.EasyMock;
 import org.easymock.IAnswer;
 import org.jclouds.http.HttpCommand;
 import org.jclouds.http.HttpException;
+import org.jclouds.http.HttpListener;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpRequestFilter;
 import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.IOExceptionRetryHandler;
 import org.jclouds.http.handlers.DelegatingErrorHandler;
@@ -51,6 +66,7 @@ import org.jclouds.io.ContentMetadataCodec;
 import org.jclouds.rest.internal.BaseHttpApiMetadata;
 import org.testng.annotations.Test;
 
+import com.google.common.util.concurrent.Atomics;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
@@ -236,6 +252,202 @@ public class BaseHttpCommandExecutorServiceTest {
       verify(ioRetryHandler);
    }
 
+   public void testListenerIsNotifiedOfRetriesAndFailures() throws IOException {
+      final IOException error = new IOException("test exception");
+      HttpRequestFilter throwingFilter = new HttpRequestFilter() {
+         @Override
+         public HttpRequest filter(HttpRequest request) throws HttpException {
+            throw new HttpException(error);
+         }
+      };
+      HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("GET")
+            .filter(throwingFilter).build(), "test:Get");
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      HttpListener listener = EasyMock.createStrictMock(HttpListener.class);
+
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(true);
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(false);
+      listener.requestStarted(command);
+      listener.retried(command, null, error);
+      listener.requestStarted(command);
+      listener.failed(same(command), EasyMock.<HttpResponse> isNull(), isA(HttpResponseException.class), anyLong());
+      replay(ioRetryHandler, listener);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler, listener);
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to throwing filter");
+      } catch (Exception e) {}
+
+      verify(ioRetryHandler, listener);
+   }
+
+   public void testExecutorWaitsTheRetryDelay() throws IOException {
+      final IOException error = new IOException("test exception");
+      HttpRequestFilter throwingFilter = new HttpRequestFilter() {
+         @Override
+         public HttpRequest filter(HttpRequest request) throws HttpException {
+            throw new HttpException(error);
+         }
+      };
+      final HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("GET")
+            .filter(throwingFilter).build());
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andAnswer(new IAnswer<Boolean>() {
+         @Override
+         public Boolean answer() {
+            command.setRetryDelay(100);
+            return true;
+         }
+      });
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(false);
+      replay(ioRetryHandler);
+
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler);
+      long start = System.nanoTime();
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to throwing filter");
+      } catch (Exception e) {}
+
+      assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(100));
+      assertEquals(command.getRetryDelay(), 0);
+      assertEquals(command.getPreviousRetryDelay(), 100);
+      verify(ioRetryHandler);
+   }
+
+   public void testRetryBudgetLimitsRetries() throws IOException {
+      final IOException error = new IOException("test exception");
+      HttpRequestFilter throwingFilter = new HttpRequestFilter() {
+         @Override
+         public HttpRequest filter(HttpRequest request) throws HttpException {
+            throw new HttpException(error);
+         }
+      };
+      HttpCommand command = new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("GET")
+            .filter(throwingFilter).build());
+
+      IOExceptionRetryHandler ioRetryHandler = EasyMock.createMock(IOExceptionRetryHandler.class);
+      // the budget allows the minimum retry, and the request did not earn another one
+      expect(ioRetryHandler.shouldRetryRequest(command, error)).andReturn(true).times(2);
+      replay(ioRetryHandler);
+
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_RETRY_BUDGET_RATIO, "0.1");
+      overrides.setProperty(PROPERTY_RETRY_BUDGET_MIN_RETRIES, "1");
+      BaseHttpCommandExecutorService<?> service = mockHttpCommandExecutorService(ioRetryHandler, overrides);
+      try {
+         service.invoke(command);
+         fail("Expected to fail due to throwing filter");
+      } catch (Exception e) {}
+
+      verify(ioRetryHandler);
+   }
+
+   public void testConnectionIsHeldUntilThePayloadIsClosed() throws IOException {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_LIMIT_CONNECTIONS, "true");
+      overrides.setProperty(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT, "1");
+      overrides.setProperty(PROPERTY_CONNECTION_TIMEOUT, "100");
+      BaseHttpCommandExecutorService<?> service = limitingHttpCommandExecutorService(overrides);
+
+      HttpResponse response = service.invoke(mockHttpCommand());
+      assertEquals(service.getConnectionPoolStats().getLeased(), 1);
+      try {
+         service.invoke(mockHttpCommand());
+         fail("Expected to time out waiting for the connection held by the unread payload");
+      } catch (HttpResponseException e) {
+         assertEquals(service.getConnectionPoolStats().getAcquisitions(), 1);
+      }
+
+      releasePayload(response);
+      assertEquals(service.getConnectionPoolStats().getLeased(), 0);
+      releasePayload(service.invoke(mockHttpCommand()));
+      assertEquals(service.getConnectionPoolStats().getAcquisitions(), 2);
+   }
+
+   public void testConnectionsAreNotLimitedByDefault() throws IOException {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT, "1");
+      overrides.setProperty(PROPERTY_CONNECTION_TIMEOUT, "100");
+      BaseHttpCommandExecutorService<?> service = limitingHttpCommandExecutorService(overrides);
+
+      // none of the payloads are read or closed
+      for (int i = 0; i < 2; i++) {
+         assertEquals(service.invoke(mockHttpCommand()).getStatusCode(), 200);
+      }
+      assertNull(service.getConnectionPoolStats());
+   }
+
+   private BaseHttpCommandExecutorService<?> limitingHttpCommandExecutorService(final Properties overrides) {
+      return Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Properties properties = BaseHttpApiMetadata.defaultProperties();
+            properties.putAll(overrides);
+            Names.bindProperties(binder(), properties);
+            bind(BaseHttpCommandExecutorService.class).to(LimitingHttpCommandExecutorService.class);
+         }
+      }).getInstance(BaseHttpCommandExecutorService.class);
+   }
+
+   @Test(timeOut = 10000)
+   public void testInterruptingTheRetryDelayFailsTheRequest() throws InterruptedException {
+      final HttpCommand command = mockHttpCommand();
+      final DelegatingRetryHandler retryHandler = EasyMock.createMock(DelegatingRetryHandler.class);
+      final DelegatingErrorHandler errorHandler = EasyMock.createMock(DelegatingErrorHandler.class);
+
+      // the 429 asks for a long delay, and is never handed to the error handler
+      expect(retryHandler.shouldRetryRequest(same(command), isA(HttpResponse.class))).andAnswer(new IAnswer<Boolean>() {
+         @Override
+         public Boolean answer() {
+            command.setRetryDelay(60000);
+            return true;
+         }
+      });
+      replay(retryHandler, errorHandler);
+
+      final BaseHttpCommandExecutorService<?> service = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Names.bindProperties(binder(), BaseHttpApiMetadata.defaultProperties());
+            bind(DelegatingRetryHandler.class).toInstance(retryHandler);
+            bind(DelegatingErrorHandler.class).toInstance(errorHandler);
+            bind(BaseHttpCommandExecutorService.class).to(TooManyRequestsHttpCommandExecutorService.class);
+         }
+      }).getInstance(BaseHttpCommandExecutorService.class);
+
+      final AtomicReference<Exception> failure = Atomics.newReference();
+      final AtomicBoolean interrupted = new AtomicBoolean();
+      Thread requestThread = new Thread() {
+         @Override
+         public void run() {
+            try {
+               service.invoke(command);
+            } catch (Exception e) {
+               failure.set(e);
+            }
+            interrupted.set(Thread.currentThread().isInterrupted());
+         }
+      };
+      requestThread.start();
+      // wait until the request thread is sleeping the retry delay
+      while (requestThread.getState() != Thread.State.TIMED_WAITING) {
+         MILLISECONDS.sleep(10);
+      }
+      requestThread.interrupt();
+      requestThread.join();
+
+      assertTrue(failure.get() instanceof HttpResponseException, String.valueOf(failure.get()));
+      assertTrue(failure.get().getCause() instanceof InterruptedException);
+      assertNull(HttpResponseException.class.cast(failure.get()).getResponse());
+      assertTrue(interrupted.get());
+      assertEquals(command.getPreviousRetryDelay(), 60000);
+      verify(retryHandler, errorHandler);
+   }
+
    private HttpCommand mockHttpCommand() {
       return new HttpCommand(HttpRequest.builder().endpoint("http://localhost").method("mock").build());
    }
@@ -256,11 +468,33 @@ public class BaseHttpCommandExecutorServiceTest {
    }
 
    private BaseHttpCommandExecutorService<?> mockHttpCommandExecutorService(final IOExceptionRetryHandler ioRetryHandler) {
+      return mockHttpCommandExecutorService(ioRetryHandler, new Properties());
+   }
+
+   private BaseHttpCommandExecutorService<?> mockHttpCommandExecutorService(final IOExceptionRetryHandler ioRetryHandler,
+         final Properties overrides) {
+      Injector injector = Guice.createInjector(new AbstractModule() {
+         @Override
+         protected void configure() {
+            Properties properties = BaseHttpApiMetadata.defaultProperties();
+            properties.putAll(overrides);
+            Names.bindProperties(binder(), properties);
+            bind(IOExceptionRetryHandler.class).toInstance(ioRetryHandler);
+            bind(BaseHttpCommandExecutorService.class).to(MockHttpCommandExecutorService.class);
+         }
+      });
+
+      return injector.getInstance(BaseHttpCommandExecutorService.class);
+   }
+
+   private BaseHttpCommandExecutorService<?> mockHttpCommandExecutorService(final IOExceptionRetryHandler ioRetryHandler,
+         final HttpListener listener) {
       Injector injector = Guice.createInjector(new AbstractModule() {
          @Override
          protected void configure() {
             Names.bindProperties(binder(), BaseHttpApiMetadata.defaultProperties());
             bind(IOExceptionRetryHandler.class).toInstance(ioRetryHandler);
+            bind(HttpListener.class).toInstance(listener);
             bind(BaseHttpCommandExecutorService.class).to(MockHttpCommandExecutorService.class);
          }
       });
@@ -304,6 +538,46 @@ public class BaseHttpCommandExecutorServiceTest {
 
    }
 
+   private static class LimitingHttpCommandExecutorService extends MockHttpCommandExecutorService {
+
+      @Inject
+      LimitingHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+            DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+            DelegatingErrorHandler errorHandler, HttpWire wire,
+            @Named(PROPERTY_IDEMPOTENT_METHODS) String idempotentMethods) {
+         super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+      }
+
+      @Override
+      protected HttpResponse invoke(Object nativeRequest) throws IOException, InterruptedException {
+         HttpResponse response = HttpResponse.builder().statusCode(200).message("OK")
+               .payload(newInputStreamPayload(new MockInputStream(2))).build();
+         response.getPayload().getContentMetadata().setContentLength(2L);
+         return response;
+      }
+
+      @Override
+      protected boolean limitConnections() {
+         return true;
+      }
+   }
+
+   private static class TooManyRequestsHttpCommandExecutorService extends MockHttpCommandExecutorService {
+
+      @Inject
+      TooManyRequestsHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
+            DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
+            DelegatingErrorHandler errorHandler, HttpWire wire,
+            @Named(PROPERTY_IDEMPOTENT_METHODS) String idempotentMethods) {
+         super(utils, contentMetadataCodec, retryHandler, ioRetryHandler, errorHandler, wire, idempotentMethods);
+      }
+
+      @Override
+      protected HttpResponse invoke(Object nativeRequest) throws IOException, InterruptedException {
+         return HttpResponse.builder().statusCode(429).message("Too Many Requests").build();
+      }
+   }
+
    private static class MockHttpCommandExecutorService extends BaseHttpCommandExecutorService<Object> {
 
       @Inject
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.TimeoutException;
+
+import org.jclouds.http.ConnectionPoolStats;
+import org.jclouds.http.HttpUtils;
+import org.jclouds.http.internal.ConnectionLimiter.Permit;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "ConnectionLimiterTest")
+public class ConnectionLimiterTest {
+
+   private static final URI HOST_A = URI.create("https://a.example.com/container/blob");
+   private static final URI HOST_B = URI.create("https://b.example.com/container/blob");
+
+   public void testLimitsConnectionsPerHost() throws Exception {
+      ConnectionLimiter limiter = new ConnectionLimiter(new HttpUtils(50, 0, 10, 1));
+      Permit permit = limiter.acquire(HOST_A);
+      // another host is not affected by the busy one
+      limiter.acquire(HOST_B).close();
+      try {
+         limiter.acquire(HOST_A);
+         fail("expected a timeout");
+      } catch (TimeoutException expected) {
+      }
+      permit.close();
+      limiter.acquire(HOST_A).close();
+
+      ConnectionPoolStats stats = limiter.stats(-1);
+      assertEquals(stats.getLeased(), 0);
+      assertEquals(stats.getPending(), 0);
+      assertEquals(stats.getAcquisitions(), 3);
+   }
+
+   public void testLimitsConnectionsPerContext() throws Exception {
+      ConnectionLimiter limiter = new ConnectionLimiter(new HttpUtils(50, 0, 1, 0));
+      Permit permit = limiter.acquire(HOST_A);
+      try {
+         limiter.acquire(HOST_B);
+         fail("expected a timeout");
+      } catch (TimeoutException expected) {
+      }
+      assertEquals(limiter.stats(-1).getLeased(), 1);
+      permit.close();
+      // closing twice does not release another connection
+      permit.close();
+      assertEquals(limiter.stats(-1).getLeased(), 0);
+      limiter.acquire(HOST_B);
+      assertEquals(limiter.stats(-1).getLeased(), 1);
+   }
+
+   public void testUnlimited() throws Exception {
+      ConnectionLimiter limiter = new ConnectionLimiter(new HttpUtils(50, 0, 0, 0));
+      for (int i = 0; i < 100; i++) {
+         limiter.acquire(HOST_A);
+      }
+      assertEquals(limiter.stats(-1).getLeased(), 100);
+   }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.internal;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "RetryBudgetTest")
+public class RetryBudgetTest {
+
+   private static final URI HOST_A = URI.create("https://a.example.com/container/blob");
+   private static final URI HOST_B = URI.create("https://b.example.com/container/blob");
+
+   public void testLimitsRetriesPerHost() {
+      RetryBudget budget = new RetryBudget(0.5f, 2);
+      assertTrue(budget.tryRetry(HOST_A));
+      assertTrue(budget.tryRetry(HOST_A));
+      assertFalse(budget.tryRetry(HOST_A));
+      // another host is not affected by the failing one
+      assertTrue(budget.tryRetry(HOST_B));
+
+      // two requests earn another retry
+      budget.requestSent(HOST_A);
+      assertFalse(budget.tryRetry(HOST_A));
+      budget.requestSent(HOST_A);
+      assertTrue(budget.tryRetry(HOST_A));
+   }
+
+   public void testBalanceIsCapped() {
+      RetryBudget budget = new RetryBudget(0.1f, 1);
+      for (int i = 0; i < 1000; i++) {
+         budget.requestSent(HOST_A);
+      }
+      // the minimum retry plus the deposits of a hundred requests
+      for (int i = 0; i < 11; i++) {
+         assertTrue(budget.tryRetry(HOST_A));
+      }
+      assertFalse(budget.tryRetry(HOST_A));
+   }
+
+   public void testDisabled() {
+      RetryBudget budget = new RetryBudget(0, 0);
+      for (int i = 0; i < 100; i++) {
+         assertTrue(budget.tryRetry(HOST_A));
+      }
+   }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+
+@Test(groups = "unit", testName = "FileRegionTest")
+public class FileRegionTest {
+
+   private File file;
+
+   @BeforeClass
+   public void createFile() throws IOException {
+      file = File.createTempFile("region", ".txt");
+      Files.write("0123456789abcdefghij", file, Charsets.US_ASCII);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void deleteFile() {
+      file.delete();
+   }
+
+   public void testRead() throws IOException {
+      FileRegion region = FileRegion.of(file, 5, 10);
+      assertEquals(region.size(), 10);
+      assertEquals(region.asCharSource(Charsets.US_ASCII).read(), "56789abcde");
+   }
+
+   public void testLengthIsTruncatedToTheEndOfTheFile() throws IOException {
+      FileRegion region = FileRegion.of(file, 15, 100);
+      assertEquals(region.size(), 5);
+      assertEquals(new String(region.read(), Charsets.US_ASCII), "fghij");
+      assertEquals(FileRegion.of(file, 30, 10).size(), 0);
+   }
+
+   public void testSliceIsARegion() throws IOException {
+      FileRegion slice = FileRegion.of(file, 5, 10).slice(2, 20);
+      assertEquals(slice, FileRegion.of(file, 7, 8));
+      assertEquals(slice.asCharSource(Charsets.US_ASCII).read(), "789abcde");
+      assertEquals(FileRegion.of(file).slice(18, 5).size(), 2);
+   }
+
+   public void testStreamsAreIndependent() throws IOException {
+      FileRegion region = FileRegion.of(file, 10, 10);
+      InputStream first = region.openStream();
+      InputStream second = region.openStream();
+      try {
+         assertEquals(first.read(), 'a');
+         assertEquals(first.skip(3), 3);
+         assertEquals(second.read(), 'a');
+         assertEquals(first.read(), 'e');
+         assertEquals(first.skip(100), 5);
+         assertEquals(first.read(), -1);
+      } finally {
+         first.close();
+         second.close();
+      }
+   }
+
+   public void testTransferTo() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertEquals(FileRegion.of(file, 3, 4).transferTo(Channels.newChannel(out)), 4);
+      assertEquals(new String(out.toByteArray(), Charsets.US_ASCII), "3456");
+
+      out.reset();
+      assertEquals(ByteStreams.copy(FileRegion.of(file, 16, 4).openStream(), out), 4);
+      assertEquals(new String(out.toByteArray(), Charsets.US_ASCII), "ghij");
+   }
+}
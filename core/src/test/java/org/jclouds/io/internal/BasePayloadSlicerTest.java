@@ -21,18 +21,24 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.List;
 
+import org.jclouds.io.FileRegion;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.ByteSourcePayload;
+import org.jclouds.io.payloads.FilePayload;
 import org.jclouds.io.payloads.InputStreamPayload;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
 
 @Test
 public class BasePayloadSlicerTest {
@@ -111,4 +117,26 @@ public class BasePayloadSlicerTest {
 
       assertFalse(iter.hasNext());
    }
+
+   @Test
+   public void testIterableSliceOfFileIsFileRegions() throws IOException {
+      File file = File.createTempFile("slicer", ".txt");
+      try {
+         Files.write("aaaaaaaaaabbbbbbbbbbccccc", file, Charsets.UTF_8);
+         PayloadSlicer slicer = new BasePayloadSlicer();
+
+         List<Payload> parts = ImmutableList.copyOf(slicer.slice(new FilePayload(file), 10));
+
+         assertEquals(parts.size(), 3);
+         assertEquals(parts.get(1).getRawContent(), FileRegion.of(file, 10, 10));
+         assertEquals(parts.get(2).getContentMetadata().getContentLength(), Long.valueOf(5));
+         // the parts do not share a stream, so they can be read in any order and more than once
+         assertEquals(Strings2.toStringAndClose(parts.get(2).openStream()), "ccccc");
+         assertEquals(Strings2.toStringAndClose(parts.get(0).openStream()), "aaaaaaaaaa");
+         assertEquals(Strings2.toStringAndClose(parts.get(2).openStream()), "ccccc");
+         assertTrue(parts.get(1).isRepeatable());
+      } finally {
+         file.delete();
+      }
+   }
 }
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io.payloads;
+
+import static com.google.common.hash.Hashing.crc32c;
+import static com.google.common.hash.Hashing.md5;
+import static com.google.common.hash.Hashing.sha256;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.io.Payloads;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteSource;
+
+@Test
+public class HashingPayloadTest {
+   private static final String CONTENT = "hello world";
+   private static final ByteSource SOURCE = ByteSource.wrap(CONTENT.getBytes(Charsets.UTF_8));
+
+   public void testDigestsArePublishedWhenTheStreamIsRead() throws IOException {
+      HashingPayload payload = Payloads.newHashingPayload(new StringPayload(CONTENT), md5(), sha256(), crc32c());
+      assertNull(payload.getHash(sha256()));
+
+      assertEquals(Strings2.toStringAndClose(payload.openStream()), CONTENT);
+
+      assertEquals(payload.getHash(sha256()), SOURCE.hash(sha256()));
+      assertEquals(payload.getHash(crc32c()), SOURCE.hash(crc32c()));
+      assertEquals(payload.getContentMetadata().getContentMD5AsHashCode(), SOURCE.hash(md5()));
+   }
+
+   public void testPartialReadDoesNotPublish() throws IOException {
+      HashingPayload payload = Payloads.newHashingPayload(new StringPayload(CONTENT), md5());
+      InputStream input = payload.openStream();
+      try {
+         input.read(new byte[5]);
+      } finally {
+         input.close();
+      }
+      assertNull(payload.getHash(md5()));
+      assertNull(payload.getContentMetadata().getContentMD5AsHashCode());
+   }
+
+   public void testSkippedBytesAreHashed() throws IOException {
+      HashingPayload payload = Payloads.newHashingPayload(new StringPayload(CONTENT), sha256());
+      InputStream input = payload.openStream();
+      try {
+         assertEquals(input.skip(6), 6);
+         assertEquals(Strings2.toStringAndClose(input), "world");
+      } finally {
+         input.close();
+      }
+      assertEquals(payload.getHash(sha256()), SOURCE.hash(sha256()));
+   }
+
+   public void testHashReadsTheContentOnce() throws IOException {
+      final AtomicInteger opened = new AtomicInteger();
+      HashingPayload payload = Payloads.newHashingPayload(new ByteSourcePayload(new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            opened.incrementAndGet();
+            return SOURCE.openStream();
+         }
+      }), md5(), sha256());
+
+      assertEquals(payload.hash(sha256()), SOURCE.hash(sha256()));
+      assertEquals(payload.hash(md5()), SOURCE.hash(md5()));
+      assertEquals(payload.hash(sha256()), SOURCE.hash(sha256()));
+      assertEquals(opened.get(), 1);
+   }
+
+   public void testStreamsAreNotHashedOnceTheDigestsAreKnown() throws IOException {
+      final AtomicReference<InputStream> opened = new AtomicReference<InputStream>();
+      HashingPayload payload = Payloads.newHashingPayload(new ByteSourcePayload(new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            opened.set(SOURCE.openStream());
+            return opened.get();
+         }
+      }), sha256());
+
+      payload.hash(sha256());
+      InputStream input = payload.openStream();
+      try {
+         assertSame(input, opened.get());
+      } finally {
+         input.close();
+      }
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testOnlyConfiguredFunctions() {
+      Payloads.newHashingPayload(new StringPayload(CONTENT), md5()).getHash(sha256());
+   }
+}
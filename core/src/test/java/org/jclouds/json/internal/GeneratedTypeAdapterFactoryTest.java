@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.json.internal;
+
+import static org.jclouds.Constants.PROPERTY_JSON_GENERATED_ADAPTERS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.Test;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.name.Names;
+
+@Test(groups = "unit", testName = "GeneratedTypeAdapterFactoryTest")
+public class GeneratedTypeAdapterFactoryTest {
+
+   private final Gson gson = Guice.createInjector(new GsonModule()).getInstance(Gson.class);
+
+   @AutoValue
+   abstract static class Server {
+      abstract String id();
+
+      @Nullable abstract Map<String, String> metadata();
+
+      abstract List<String> addresses();
+
+      abstract int progress();
+
+      abstract boolean locked();
+
+      abstract Optional<String> keyName();
+
+      @SerializedNames({ "id", "metadata", "addresses", "progress", "locked", "key_name" })
+      static Server create(String id, Map<String, String> metadata, List<String> addresses, int progress,
+            boolean locked, Optional<String> keyName) {
+         return new AutoValue_GeneratedTypeAdapterFactoryTest_Server(id, metadata,
+               addresses == null ? ImmutableList.<String> of() : ImmutableList.copyOf(addresses), progress, locked,
+               keyName);
+      }
+   }
+
+   private static final String SERVER = "{\"id\":\"1234\",\"metadata\":{\"foo\":\"bar\"},\"addresses\":[\"10.0.0.1\"],"
+         + "\"progress\":50,\"locked\":true,\"key_name\":\"default\",\"status\":\"ACTIVE\"}";
+
+   public void testAdapterIsGenerated() {
+      assertTrue(gson.getAdapter(Server.class) instanceof GeneratedTypeAdapter,
+            gson.getAdapter(Server.class).toString());
+   }
+
+   public void testDeserialize() {
+      assertEquals(gson.fromJson(SERVER, Server.class), Server.create("1234", ImmutableMap.of("foo", "bar"),
+            ImmutableList.of("10.0.0.1"), 50, true, Optional.of("default")));
+   }
+
+   public void testSameAsReflective() {
+      Gson reflective = Guice.createInjector(new GsonModule(), new AbstractModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(Names.named(PROPERTY_JSON_GENERATED_ADAPTERS)).to(false);
+         }
+      }).getInstance(Gson.class);
+
+      assertFalse(reflective.getAdapter(Server.class) instanceof GeneratedTypeAdapter);
+      assertEquals(gson.fromJson(SERVER, Server.class), reflective.fromJson(SERVER, Server.class));
+      assertEquals(gson.toJson(gson.fromJson(SERVER, Server.class)),
+            reflective.toJson(reflective.fromJson(SERVER, Server.class)));
+   }
+
+   public void testAbsentValuesDefault() {
+      assertEquals(gson.fromJson("{\"id\":\"1234\",\"metadata\":null}", Server.class),
+            Server.create("1234", null, null, 0, false, Optional.<String> absent()));
+   }
+
+   public void testEmptyObjectWhichFailsIsNull() {
+      assertNull(gson.fromJson("{}", Server.class));
+   }
+
+   @Test(expectedExceptions = NullPointerException.class)
+   public void testMissingRequiredValueFails() {
+      gson.fromJson("{\"progress\":50}", Server.class);
+   }
+
+   public void testNestedList() {
+      List<Server> servers = gson.fromJson("[" + SERVER + "," + SERVER + "]", new TypeToken<List<Server>>() {
+      }.getType());
+      assertEquals(servers.size(), 2);
+      assertEquals(servers.get(1).keyName(), Optional.of("default"));
+   }
+
+   public void testAdapterName() {
+      assertEquals(GeneratedTypeAdapterFactory.adapterName(Server.class),
+            "org.jclouds.json.internal.JsonAdapter_GeneratedTypeAdapterFactoryTest_Server");
+   }
+}
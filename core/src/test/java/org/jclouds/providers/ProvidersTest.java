@@ -18,6 +18,7 @@ package org.jclouds.providers;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.fail;
 
 import java.util.NoSuchElementException;
@@ -95,6 +96,13 @@ public class ProvidersTest {
       }
    }
 
+   @Test
+   public void testFromServiceLoaderIsCached() {
+      assertSame(Providers.fromServiceLoader(), Providers.fromServiceLoader());
+      assertSame(Iterables.getOnlyElement(Iterables.filter(Providers.all(),
+            ProviderPredicates.id(testBlobstoreProvider.getId()))), Providers.withId(testBlobstoreProvider.getId()));
+   }
+
    @Test
    public void testBoundedByIso3166Code() {
       // Test filtering by ISO 3166 code alone
@@ -18,6 +18,8 @@ package org.jclouds.rest;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
@@ -129,6 +131,20 @@ public class CredentialStoreModuleTest {
       remove(map, store, "test");
    }
 
+   public void testRepeatedReadsParseOnce() {
+      Map<String, ByteSource> map = new ConcurrentHashMap<String, ByteSource>();
+      Map<String, Credentials> store = getStore(createInjectorWithProvidedMap(map));
+      store.put("test", new Credentials("user", "pass"));
+
+      Credentials read = store.get("test");
+      assertSame(store.get("test"), read);
+
+      // written directly to the backing map
+      map.put("test", ByteSource.wrap(json.toJson(new Credentials("user", "newpass")).getBytes()));
+      assertNotSame(store.get("test"), read);
+      assertEquals(store.get("test"), new Credentials("user", "newpass"));
+   }
+
    public void testCredentialsToByteSourceConversion() throws Exception {
       Function<Credentials, ByteSource> toBytesFunc = getCredentialsToByteStoreFunction(createInjector());
       Function<ByteSource, Credentials> fromBytesFunc = getByteStoreToCredentialsFunction(createInjector());
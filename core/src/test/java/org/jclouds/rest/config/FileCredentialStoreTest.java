@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.config;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", testName = "FileCredentialStoreTest", singleThreaded = true)
+public class FileCredentialStoreTest {
+   private static final SecretKey KEY = new SecretKeySpec("0123456789abcdef".getBytes(UTF_8), "AES");
+
+   private File file;
+
+   @BeforeMethod
+   public void createFile() throws IOException {
+      file = File.createTempFile("credentials", ".store");
+      file.delete();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void deleteFile() {
+      file.delete();
+   }
+
+   private static ByteSource bytes(String value) {
+      return ByteSource.wrap(value.getBytes(UTF_8));
+   }
+
+   public void testChangesSurviveReopening() throws IOException {
+      FileCredentialStore store = FileCredentialStore.open(file);
+      store.put("node#1", bytes("one"));
+      store.put("node#2", bytes("two"));
+      store.put("node#1", bytes("uno"));
+      store.remove("node#2");
+      store.close();
+
+      store = FileCredentialStore.open(file);
+      try {
+         assertEquals(store.size(), 1);
+         assertEquals(store.get("node#1").asCharSource(UTF_8).read(), "uno");
+      } finally {
+         store.close();
+      }
+   }
+
+   public void testEncryptedRecordsSurviveReopening() throws IOException {
+      FileCredentialStore store = FileCredentialStore.open(file, KEY);
+      store.put("node#1", bytes("{\"user\":\"root\",\"password\":\"secret\"}"));
+      store.close();
+
+      assertFalse(Files.toString(file, UTF_8).contains("secret"));
+      store = FileCredentialStore.open(file, KEY);
+      try {
+         assertEquals(store.get("node#1").asCharSource(UTF_8).read(), "{\"user\":\"root\",\"password\":\"secret\"}");
+      } finally {
+         store.close();
+      }
+   }
+
+   public void testAnotherKeyIsRejectedWithoutLosingRecords() throws IOException {
+      FileCredentialStore store = FileCredentialStore.open(file, KEY);
+      store.put("node#1", bytes("one"));
+      store.close();
+
+      for (SecretKey wrong : new SecretKey[] { new SecretKeySpec("fedcba9876543210".getBytes(UTF_8), "AES"), null }) {
+         try {
+            if (wrong != null)
+               FileCredentialStore.open(file, wrong);
+            else
+               FileCredentialStore.open(file);
+            fail("expected the store to be rejected");
+         } catch (IllegalArgumentException expected) {
+         }
+      }
+
+      store = FileCredentialStore.open(file, KEY);
+      try {
+         assertEquals(store.get("node#1").asCharSource(UTF_8).read(), "one");
+      } finally {
+         store.close();
+      }
+   }
+
+   public void testTornRecordIsDropped() throws IOException {
+      FileCredentialStore store = FileCredentialStore.open(file);
+      store.put("node#1", bytes("one"));
+      store.close();
+
+      // a crash while writing a record leaves only part of it
+      RandomAccessFile torn = new RandomAccessFile(file, "rw");
+      try {
+         torn.seek(torn.length());
+         torn.writeInt(100);
+         torn.write(new byte[] { 1, 2, 3 });
+      } finally {
+         torn.close();
+      }
+
+      store = FileCredentialStore.open(file);
+      store.put("node#2", bytes("two"));
+      store.close();
+
+      store = FileCredentialStore.open(file);
+      try {
+         assertEquals(store.size(), 2);
+         assertEquals(store.get("node#2").asCharSource(UTF_8).read(), "two");
+      } finally {
+         store.close();
+      }
+   }
+
+   public void testCorruptLengthBeforeOtherRecordsFailsTheOpen() throws IOException {
+      for (SecretKey key : new SecretKey[] { null, KEY }) {
+         file.delete();
+         FileCredentialStore store = key != null ? FileCredentialStore.open(file, key) : FileCredentialStore.open(file);
+         long firstRecord = file.length();
+         store.put("node#1", bytes("one"));
+         store.put("node#2", bytes("two"));
+         store.close();
+         long length = file.length();
+
+         // the length of the first record now runs past the end of the file, like a torn record would
+         RandomAccessFile corrupt = new RandomAccessFile(file, "rw");
+         try {
+            corrupt.seek(firstRecord);
+            corrupt.writeInt(1000);
+         } finally {
+            corrupt.close();
+         }
+
+         try {
+            if (key != null)
+               FileCredentialStore.open(file, key);
+            else
+               FileCredentialStore.open(file);
+            fail("expected the store to be rejected");
+         } catch (IOException expected) {
+         }
+         // the records after the corrupt one are kept
+         assertEquals(file.length(), length);
+      }
+   }
+
+   public void testBacksTheCredentialStore() throws IOException {
+      LoginCredentials creds = LoginCredentials.builder().user("root").password("secret").build();
+      FileCredentialStore store = FileCredentialStore.open(file, KEY);
+      credentialStore(store).put("node#1", creds);
+      store.close();
+
+      store = FileCredentialStore.open(file, KEY);
+      try {
+         assertEquals(credentialStore(store).get("node#1"), creds);
+      } finally {
+         store.close();
+      }
+   }
+
+   private static Map<String, Credentials> credentialStore(FileCredentialStore store) {
+      return Guice.createInjector(new CredentialStoreModule(store), new GsonModule()).getInstance(
+            Key.get(new TypeLiteral<Map<String, Credentials>>() {
+            }));
+   }
+}
@@ -86,6 +86,7 @@ import org.jclouds.http.filters.ConnectionCloseHeader;
 import org.jclouds.http.filters.StripExpectHeader;
 import org.jclouds.http.functions.ParseFirstJsonValueNamed;
 import org.jclouds.http.functions.ParseJson;
+import org.jclouds.http.functions.ParseJsonArrayLazily;
 import org.jclouds.http.functions.ParseSax;
 import org.jclouds.http.functions.ParseURIFromListOrLocationHeaderIf20x;
 import org.jclouds.http.functions.ReturnInputStream;
@@ -121,6 +122,7 @@ import org.jclouds.rest.annotations.QueryParams;
 import org.jclouds.rest.annotations.RequestFilters;
 import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.annotations.SelectJson;
+import org.jclouds.rest.annotations.StreamJson;
 import org.jclouds.rest.annotations.Transform;
 import org.jclouds.rest.annotations.Unwrap;
 import org.jclouds.rest.annotations.VirtualHost;
@@ -140,6 +142,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
@@ -1150,6 +1153,13 @@ public class RestAnnotationProcessorTest extends BaseRestApiTest {
       @Consumes(APPLICATION_JSON)
       String testUnwrapValueNamed();
 
+      @GET
+      @Path("/")
+      @SelectJson("foo")
+      @StreamJson
+      @Consumes(APPLICATION_JSON)
+      FluentIterable<String> testStreamValueNamed();
+
       @POST
       @Path("/")
       String testWrapWith(@WrapWith("foo") String param);
@@ -1332,6 +1342,17 @@ public class RestAnnotationProcessorTest extends BaseRestApiTest {
 
    }
 
+   public void testStreamValueNamed() throws Exception {
+      Invokable<?, ?> method = method(TestPut.class, "testStreamValueNamed");
+      GeneratedHttpRequest request = processor.apply(Invocation.create(method));
+
+      assertResponseParserClassEquals(method, request, ParseJsonArrayLazily.class);
+      Function<HttpResponse, ?> parser = transformer.apply(request);
+
+      assertEquals(FluentIterable.class.cast(parser.apply(HttpResponse.builder().statusCode(200).message("ok")
+            .payload("{ foo:[\"bar\", \"baz\"]}").build())).toList(), ImmutableList.of("bar", "baz"));
+   }
+
    public void testWrapWith() throws Exception {
       Invokable<?, ?> method = method(TestPut.class, "testWrapWith", String.class);
       GeneratedHttpRequest request = processor.apply(Invocation.create(method, ImmutableList.<Object> of("bar")));
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+@Test(groups = "unit", testName = "TokenCacheFactoryTest")
+public class TokenCacheFactoryTest {
+
+   private static class CountingLoader extends CacheLoader<String, String> {
+      private final AtomicInteger loads = new AtomicInteger();
+      private volatile boolean fail;
+
+      @Override
+      public String load(String key) {
+         if (fail) {
+            throw new IllegalStateException("authentication endpoint down");
+         }
+         return key + loads.incrementAndGet();
+      }
+   }
+
+   public void testRefreshesBeforeExpiry() throws InterruptedException {
+      TokenCacheFactory factory = new TokenCacheFactory(newDirectExecutorService(), 0.5);
+      CountingLoader loader = new CountingLoader();
+      LoadingCache<String, String> cache = factory.create(loader, 1000, MILLISECONDS);
+
+      assertEquals(cache.getUnchecked("token"), "token1");
+      assertEquals(cache.getUnchecked("token"), "token1");
+      Thread.sleep(600);
+      assertEquals(cache.getUnchecked("token"), "token2");
+      assertEquals(factory.stats().loadSuccessCount(), 2);
+   }
+
+   public void testServesCurrentTokenWhenRefreshFails() throws InterruptedException {
+      TokenCacheFactory factory = new TokenCacheFactory(newDirectExecutorService(), 0.5);
+      CountingLoader loader = new CountingLoader();
+      LoadingCache<String, String> cache = factory.create(loader, 1000, MILLISECONDS);
+
+      assertEquals(cache.getUnchecked("token"), "token1");
+      loader.fail = true;
+      Thread.sleep(600);
+      assertEquals(cache.getUnchecked("token"), "token1");
+      assertEquals(factory.stats().loadExceptionCount(), 1);
+   }
+
+   public void testNoRefreshWhenFractionIsZero() throws InterruptedException {
+      TokenCacheFactory factory = new TokenCacheFactory(newDirectExecutorService(), 0);
+      CountingLoader loader = new CountingLoader();
+      LoadingCache<String, String> cache = factory.create(loader, 1000, MILLISECONDS);
+
+      assertEquals(cache.getUnchecked("token"), "token1");
+      Thread.sleep(600);
+      assertEquals(cache.getUnchecked("token"), "token1");
+      assertEquals(factory.stats().loadCount(), 1);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testRejectsFractionOfWholeLifetime() {
+      new TokenCacheFactory(newDirectExecutorService(), 1);
+   }
+}
@@ -16,20 +16,14 @@
  */
 package org.jclouds.netty.io;
 
-import java.io.File;
-
 import javax.inject.Singleton;
 
-import org.jclouds.io.Payload;
-import org.jclouds.io.Payloads;
 import org.jclouds.io.internal.BasePayloadSlicer;
 
+/**
+ * Files are sliced into {@link org.jclouds.io.FileRegion regions} by the base slicer, which are repeatable and read
+ * with positional reads, unlike the {@link ChunkedFileInputStream} this slicer used to return.
+ */
 @Singleton
 public class NettyPayloadSlicer extends BasePayloadSlicer {
-
-   @Override
-   protected Payload doSlice(File content, long offset, long length) {
-      return Payloads.newInputStreamPayload(new ChunkedFileInputStream(content, offset, length));
-   }
-
 }
@@ -51,6 +51,7 @@ import com.google.common.base.Function;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableMultimap.Builder;
 import com.google.inject.Inject;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.Headers;
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.OkHttpClient;
@@ -182,4 +183,19 @@ public final class OkHttpCommandExecutorService extends BaseHttpCommandExecutorS
 
    }
 
+   /**
+    * The connection pool of OkHttp only limits the idle connections, synchronous calls are not limited.
+    */
+   @Override
+   protected boolean limitConnections() {
+      return true;
+   }
+
+   @Override
+   protected int idleConnectionCount() {
+      // HTTP/1.1 connections are only pooled while they are not in use, HTTP/2 connections are shared while in use
+      ConnectionPool pool = globalClient.getConnectionPool();
+      return pool != null ? pool.getHttpConnectionCount() : -1;
+   }
+
 }
@@ -16,54 +16,115 @@
  */
 package org.jclouds.http.okhttp.config;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Named;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 
+import org.jclouds.config.BindSharedFromParentContext;
 import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpUtils;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.config.SSLModule;
+import org.jclouds.http.internal.ConnectionLimiter;
 import org.jclouds.http.okhttp.OkHttpClientSupplier;
 import org.jclouds.http.okhttp.OkHttpCommandExecutorService;
+import org.jclouds.lifecycle.Closer;
 
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scopes;
+import com.squareup.okhttp.ConnectionPool;
 import com.squareup.okhttp.OkHttpClient;
+import com.squareup.okhttp.Protocol;
 
 /**
  * Configures the {@link OkHttpCommandExecutorService}.
  *
  * Note that this uses threads.
+ *
+ * @see OkHttpProperties
  */
 @ConfiguresHttpCommandExecutorService
 public class OkHttpCommandExecutorServiceModule extends AbstractModule {
 
+   /**
+    * The {@link BindSharedFromParentContext#DEFAULT_SHARED_KEYS keys shared by default} and the OkHttp client. Pass
+    * them to {@link org.jclouds.ContextBuilder#parent(org.jclouds.Context, Iterable)} so that the contexts also share
+    * the connection pool.
+    */
+   public static final ImmutableSet<Key<?>> SHARED_KEYS = ImmutableSet.<Key<?>> builder()
+         .addAll(BindSharedFromParentContext.DEFAULT_SHARED_KEYS).add(Key.get(OkHttpClient.class)).build();
+
    @Override
    protected void configure() {
       install(new SSLModule());
       bind(HttpCommandExecutorService.class).to(OkHttpCommandExecutorService.class).in(Scopes.SINGLETON);
       bind(OkHttpClient.class).toProvider(OkHttpClientProvider.class).in(Scopes.SINGLETON);
+      bind(ConnectionLimiter.class).toProvider(ConnectionLimiterProvider.class).in(Scopes.SINGLETON);
+   }
+
+   /**
+    * With HTTP/2 the requests to a host share a connection, so the limits apply to the concurrent streams: each host
+    * gets up to the maximum concurrent streams, and each of the connections of the context as many.
+    */
+   private static final class ConnectionLimiterProvider implements Provider<ConnectionLimiter> {
+      private final HttpUtils utils;
+
+      @Inject(optional = true)
+      @Named(OkHttpProperties.HTTP2)
+      private boolean http2 = false;
+
+      @Inject(optional = true)
+      @Named(OkHttpProperties.HTTP2_MAX_CONCURRENT_STREAMS)
+      private int maxConcurrentStreams = 100;
+
+      @Inject
+      ConnectionLimiterProvider(HttpUtils utils) {
+         this.utils = utils;
+      }
+
+      @Override
+      public ConnectionLimiter get() {
+         if (!http2) {
+            return new ConnectionLimiter(utils);
+         }
+         int maxStreams = utils.getMaxConnections() > 0 ? utils.getMaxConnections() * maxConcurrentStreams : 0;
+         return new ConnectionLimiter(maxStreams, maxConcurrentStreams, utils.getConnectionTimeout());
+      }
    }
 
    private static final class OkHttpClientProvider implements Provider<OkHttpClient> {
+      /** The default of OkHttp. */
+      private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+
       private final HostnameVerifier verifier;
       private final Supplier<SSLContext> untrustedSSLContextProvider;
       private final HttpUtils utils;
       private final OkHttpClientSupplier clientSupplier;
+      private final Closer closer;
+
+      @Inject(optional = true)
+      @Named(OkHttpProperties.HTTP2)
+      private boolean http2 = false;
 
       @Inject
       OkHttpClientProvider(HttpUtils utils, @Named("untrusted") HostnameVerifier verifier,
-            @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider, OkHttpClientSupplier clientSupplier) {
+            @Named("untrusted") Supplier<SSLContext> untrustedSSLContextProvider, OkHttpClientSupplier clientSupplier,
+            Closer closer) {
          this.utils = utils;
          this.verifier = verifier;
          this.untrustedSSLContextProvider = untrustedSSLContextProvider;
          this.clientSupplier = clientSupplier;
+         this.closer = closer;
       }
 
       @Override
@@ -75,6 +136,9 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
          // ex. Caused by: java.io.IOException: HTTPS hostname wrong: should be
          // <adriancole.s3int0.s3-external-3.amazonaws.com>
          client.setFollowRedirects(false);
+         // HTTP/1.1 must stay in the list for the hosts which do not negotiate HTTP/2
+         client.setProtocols(http2 ? ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : ImmutableList
+               .of(Protocol.HTTP_1_1));
 
          if (utils.relaxHostname()) {
             client.setHostnameVerifier(verifier);
@@ -82,6 +146,19 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
          if (utils.trustAllCerts()) {
             client.setSslSocketFactory(untrustedSSLContextProvider.get().getSocketFactory());
          }
+         // keep the connections of each context apart, instead of sharing the default pool of the JVM
+         if (client.getConnectionPool() == null) {
+            final ConnectionPool pool = new ConnectionPool(
+                  utils.getMaxConnections() > 0 ? utils.getMaxConnections() : DEFAULT_MAX_IDLE_CONNECTIONS,
+                  utils.getConnectionIdleTimeout());
+            client.setConnectionPool(pool);
+            closer.addToClose(new Closeable() {
+               @Override
+               public void close() throws IOException {
+                  pool.evictAll();
+               }
+            });
+         }
 
          return client;
       }
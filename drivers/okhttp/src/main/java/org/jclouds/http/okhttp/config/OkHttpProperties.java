@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp.config;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Configuration properties of the {@link OkHttpCommandExecutorServiceModule}.
+ */
+public final class OkHttpProperties {
+
+   /**
+    * Whether to negotiate HTTP/2 with ALPN and multiplex concurrent requests to a host over one connection. Defaults
+    * to false, which only speaks HTTP/1.1.
+    * <p/>
+    * Negotiation needs ALPN support in the JVM, such as the Jetty ALPN boot jar. Hosts which do not negotiate HTTP/2
+    * are still reached with HTTP/1.1.
+    */
+   @Beta
+   public static final String HTTP2 = "jclouds.okhttp.http2";
+
+   /**
+    * The limit of concurrent requests to a host when {@link #HTTP2} is enabled, replacing
+    * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_HOST}. Should not exceed the concurrent streams
+    * servers allow on a connection, 100 for most of them. Defaults to 100.
+    * <p/>
+    * The concurrent requests of the context are limited to this many for each of
+    * {@link org.jclouds.Constants#PROPERTY_MAX_CONNECTIONS_PER_CONTEXT}.
+    */
+   @Beta
+   public static final String HTTP2_MAX_CONCURRENT_STREAMS = "jclouds.okhttp.http2.max-concurrent-streams";
+
+   private OkHttpProperties() {
+   }
+}
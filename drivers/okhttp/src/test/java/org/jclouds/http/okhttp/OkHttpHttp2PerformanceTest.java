@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.okhttp;
+
+import static org.jclouds.Constants.PROPERTY_LIMIT_CONNECTIONS;
+import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
+import static org.jclouds.util.Closeables2.closeQuietly;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+import org.jclouds.http.BaseMockWebServerTest;
+import org.jclouds.http.okhttp.config.OkHttpCommandExecutorServiceModule;
+import org.jclouds.http.okhttp.config.OkHttpProperties;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.inject.Module;
+import com.squareup.okhttp.Protocol;
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+
+/**
+ * Compares the throughput and the connections of many small concurrent requests with and without
+ * {@link OkHttpProperties#HTTP2}.
+ * <p/>
+ * The server offers HTTP/2 over TLS. Unless ALPN is available in the JVM both runs fall back to HTTP/1.1. Either way,
+ * HTTP/2 mode lets more requests run at once than the connections of the context.
+ */
+@Test(groups = "performance", singleThreaded = true, testName = "OkHttpHttp2PerformanceTest")
+public class OkHttpHttp2PerformanceTest extends BaseMockWebServerTest {
+   private static final int MAX_CONNECTIONS = 20;
+   private static final int THREAD_COUNT = 50;
+   private static final int REQUEST_COUNT = 500;
+   private static final long LATENCY_MILLIS = 10;
+
+   private boolean http2;
+
+   private interface MetadataApi extends Closeable {
+      @GET
+      @Path("/objects/{id}")
+      String get(@PathParam("id") String id);
+   }
+
+   public void testHttp11() throws Exception {
+      run(false);
+   }
+
+   public void testHttp2() throws Exception {
+      run(true);
+   }
+
+   private void run(boolean http2) throws Exception {
+      this.http2 = http2;
+      final AtomicInteger inFlight = new AtomicInteger();
+      final AtomicInteger maxInFlight = new AtomicInteger();
+      MockWebServer server = mockWebServer(new Dispatcher() {
+         @Override
+         public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            int current = inFlight.incrementAndGet();
+            for (int max = maxInFlight.get(); current > max; max = maxInFlight.get()) {
+               maxInFlight.compareAndSet(max, current);
+            }
+            try {
+               Thread.sleep(LATENCY_MILLIS);
+               return new MockResponse().setBody("metadata");
+            } finally {
+               inFlight.decrementAndGet();
+            }
+         }
+      });
+      server.useHttps(sslContext.getSocketFactory(), false);
+      server.setProtocols(ImmutableList.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+      final MetadataApi api = api(MetadataApi.class, server.getUrl("/").toString());
+      ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+      try {
+         List<Future<String>> responses = Lists.newArrayList();
+         long start = System.nanoTime();
+         for (int i = 0; i < REQUEST_COUNT; i++) {
+            final String id = String.valueOf(i);
+            responses.add(executor.submit(new Callable<String>() {
+               @Override
+               public String call() {
+                  return api.get(id);
+               }
+            }));
+         }
+         for (Future<String> response : responses) {
+            assertEquals(response.get(), "metadata");
+         }
+         long elapsedNanos = System.nanoTime() - start;
+
+         int connections = 0;
+         for (int i = 0; i < REQUEST_COUNT; i++) {
+            if (server.takeRequest().getSequenceNumber() == 0) {
+               connections++;
+            }
+         }
+         if (http2) {
+            assertTrue(maxInFlight.get() > MAX_CONNECTIONS, "only " + maxInFlight + " concurrent streams");
+         } else {
+            assertTrue(connections <= MAX_CONNECTIONS, "opened " + connections + " connections");
+            assertTrue(maxInFlight.get() <= MAX_CONNECTIONS, maxInFlight + " concurrent requests");
+         }
+         System.out.printf("TIMING: %s did %.0f requests/s, up to %d at once, over %d connections%n",
+               http2 ? "HTTP/2 mode" : "HTTP/1.1", REQUEST_COUNT / (elapsedNanos / 1e9), maxInFlight.get(),
+               connections);
+      } finally {
+         executor.shutdownNow();
+         closeQuietly(api);
+         server.shutdown();
+      }
+   }
+
+   @Override
+   protected void addOverrideProperties(Properties props) {
+      props.setProperty(PROPERTY_LIMIT_CONNECTIONS, "true");
+      props.setProperty(PROPERTY_MAX_CONNECTIONS_PER_CONTEXT, String.valueOf(MAX_CONNECTIONS));
+      props.setProperty(OkHttpProperties.HTTP2, String.valueOf(http2));
+   }
+
+   @Override
+   protected Module createConnectionModule() {
+      return new OkHttpCommandExecutorServiceModule();
+   }
+}
@@ -16,6 +16,7 @@
  */
 package org.jclouds.loadbalancer;
 
+import java.util.Map;
 import java.util.Set;
 
 import org.jclouds.compute.domain.NodeMetadata;
@@ -73,6 +74,23 @@ public interface LoadBalancerService {
    LoadBalancerMetadata createLoadBalancerInLocation(@Nullable Location location, String loadBalancerName,
          String protocol, int loadBalancerPort, int instancePort, Iterable<? extends NodeMetadata> nodes);
 
+   /**
+    * Makes each load balancer balance exactly the nodes listed for it. Only the nodes that differ from the current
+    * members are added or removed, and the load balancers are updated in parallel.
+    * 
+    * @param nodesByLoadBalancer
+    *           nodes to loadbalance, keyed on the id of their load balancer
+    * @param instancePort
+    *           The TCP port on which the server on the instance is listening.
+    * @throws IllegalStateException
+    *            if any of the load balancers could not be updated
+    * @throws UnsupportedOperationException
+    *            if the provider cannot change the nodes of a load balancer
+    */
+   @Beta
+   void updateLoadBalancerNodes(Map<String, ? extends Iterable<? extends NodeMetadata>> nodesByLoadBalancer,
+         int instancePort);
+
    @Beta
    void destroyLoadBalancer(String id);
 
@@ -20,6 +20,7 @@ import org.jclouds.loadbalancer.strategy.DestroyLoadBalancerStrategy;
 import org.jclouds.loadbalancer.strategy.GetLoadBalancerMetadataStrategy;
 import org.jclouds.loadbalancer.strategy.ListLoadBalancersStrategy;
 import org.jclouds.loadbalancer.strategy.LoadBalanceNodesStrategy;
+import org.jclouds.loadbalancer.strategy.UpdateLoadBalancerNodesStrategy;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Scopes;
@@ -30,6 +31,8 @@ public abstract class BindLoadBalancerStrategiesByClass extends AbstractModule {
       bindListLoadBalancersStrategy(defineListLoadBalancersStrategy());
       bindGetLoadBalancerMetadataStrategy(defineGetLoadBalancerMetadataStrategy());
       bindDestroyLoadBalancerStrategy(defineDestroyLoadBalancerStrategy());
+      if (defineUpdateLoadBalancerNodesStrategy() != null)
+         bindUpdateLoadBalancerNodesStrategy(defineUpdateLoadBalancerNodesStrategy());
    }
 
    protected void bindLoadBalanceNodesStrategy(Class<? extends LoadBalanceNodesStrategy> clazz) {
@@ -48,6 +51,10 @@ public abstract class BindLoadBalancerStrategiesByClass extends AbstractModule {
       bind(ListLoadBalancersStrategy.class).to(clazz).in(Scopes.SINGLETON);
    }
 
+   protected void bindUpdateLoadBalancerNodesStrategy(Class<? extends UpdateLoadBalancerNodesStrategy> clazz) {
+      bind(UpdateLoadBalancerNodesStrategy.class).to(clazz).in(Scopes.SINGLETON);
+   }
+
    protected abstract Class<? extends LoadBalanceNodesStrategy> defineLoadBalanceNodesStrategy();
 
    protected abstract Class<? extends DestroyLoadBalancerStrategy> defineDestroyLoadBalancerStrategy();
@@ -55,4 +62,11 @@ public abstract class BindLoadBalancerStrategiesByClass extends AbstractModule {
    protected abstract Class<? extends GetLoadBalancerMetadataStrategy> defineGetLoadBalancerMetadataStrategy();
 
    protected abstract Class<? extends ListLoadBalancersStrategy> defineListLoadBalancersStrategy();
+
+   /**
+    * @return null if the provider cannot change the nodes of a load balancer
+    */
+   protected Class<? extends UpdateLoadBalancerNodesStrategy> defineUpdateLoadBalancerNodesStrategy() {
+      return null;
+   }
 }
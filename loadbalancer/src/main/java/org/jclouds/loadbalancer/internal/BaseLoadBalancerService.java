@@ -18,12 +18,21 @@ package org.jclouds.loadbalancer.internal;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.collect.Iterables.get;
 import static com.google.common.collect.Sets.newLinkedHashSet;
+import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.concurrent.FutureIterables.awaitCompletion;
 import static org.jclouds.util.Predicates2.retry;
 
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.annotation.Resource;
@@ -42,11 +51,15 @@ import org.jclouds.loadbalancer.strategy.DestroyLoadBalancerStrategy;
 import org.jclouds.loadbalancer.strategy.GetLoadBalancerMetadataStrategy;
 import org.jclouds.loadbalancer.strategy.ListLoadBalancersStrategy;
 import org.jclouds.loadbalancer.strategy.LoadBalanceNodesStrategy;
+import org.jclouds.loadbalancer.strategy.UpdateLoadBalancerNodesStrategy;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.Atomics;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 
 @Singleton
@@ -63,13 +76,21 @@ public class BaseLoadBalancerService implements LoadBalancerService {
    protected final DestroyLoadBalancerStrategy destroyLoadBalancerStrategy;
    protected final ListLoadBalancersStrategy listLoadBalancersStrategy;
    protected final Supplier<Set<? extends Location>> locations;
+   protected final ListeningExecutorService userExecutor;
+
+   /**
+    * not bound by providers that cannot change the nodes of a load balancer
+    */
+   @Inject(optional = true)
+   protected UpdateLoadBalancerNodesStrategy updateLoadBalancerNodesStrategy;
 
    @Inject
    protected BaseLoadBalancerService(Supplier<Location> defaultLocationSupplier, LoadBalancerServiceContext context,
          LoadBalanceNodesStrategy loadBalancerStrategy,
          GetLoadBalancerMetadataStrategy getLoadBalancerMetadataStrategy,
          DestroyLoadBalancerStrategy destroyLoadBalancerStrategy, ListLoadBalancersStrategy listLoadBalancersStrategy,
-         @Memoized Supplier<Set<? extends Location>> locations) {
+         @Memoized Supplier<Set<? extends Location>> locations,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
       this.defaultLocationSupplier = checkNotNull(defaultLocationSupplier, "defaultLocationSupplier");
       this.context = checkNotNull(context, "context");
       this.loadBalancerStrategy = checkNotNull(loadBalancerStrategy, "loadBalancerStrategy");
@@ -78,6 +99,7 @@ public class BaseLoadBalancerService implements LoadBalancerService {
       this.destroyLoadBalancerStrategy = checkNotNull(destroyLoadBalancerStrategy, "destroyLoadBalancerStrategy");
       this.listLoadBalancersStrategy = checkNotNull(listLoadBalancersStrategy, "listLoadBalancersStrategy");
       this.locations = checkNotNull(locations, "locations");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
    }
 
    /**
@@ -123,6 +145,43 @@ public class BaseLoadBalancerService implements LoadBalancerService {
       return getLoadBalancerMetadataStrategy.getLoadBalancer(id);
    }
 
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void updateLoadBalancerNodes(Map<String, ? extends Iterable<? extends NodeMetadata>> nodesByLoadBalancer,
+         final int instancePort) {
+      checkNotNull(nodesByLoadBalancer, "nodesByLoadBalancer");
+      if (updateLoadBalancerNodesStrategy == null)
+         throw new UnsupportedOperationException("this provider cannot change the nodes of a load balancer");
+      logger.debug(">> updating nodes of load balancers(%s)", nodesByLoadBalancer.keySet());
+      Map<String, ListenableFuture<Void>> responses = Maps.newLinkedHashMap();
+      for (final Entry<String, ? extends Iterable<? extends NodeMetadata>> entry : nodesByLoadBalancer.entrySet()) {
+         responses.put(entry.getKey(), userExecutor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+               updateLoadBalancerNodesStrategy.updateLoadBalancerNodes(entry.getKey(), instancePort, entry.getValue());
+               return null;
+            }
+
+            @Override
+            public String toString() {
+               return "updateLoadBalancerNodes(" + entry.getKey() + ")";
+            }
+         }));
+      }
+      Map<String, Exception> exceptions;
+      try {
+         exceptions = awaitCompletion(responses, userExecutor, null, logger, "updateLoadBalancerNodes");
+      } catch (TimeoutException te) {
+         throw propagate(te);
+      }
+      if (!exceptions.isEmpty())
+         throw new IllegalStateException(format("error updating nodes of load balancers(%s)", exceptions.keySet()),
+               get(exceptions.values(), 0));
+      logger.debug("<< updated nodes of load balancers(%s)", nodesByLoadBalancer.keySet());
+   }
+
    /**
     * {@inheritDoc}
     */
@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.loadbalancer.strategy;
+
+import org.jclouds.compute.domain.NodeMetadata;
+
+import com.google.common.annotations.Beta;
+
+/**
+ * Changes the nodes a load balancer balances
+ */
+@Beta
+public interface UpdateLoadBalancerNodesStrategy {
+
+   /**
+    * Makes the load balancer balance exactly the nodes listed, leaving alone the nodes it already balances.
+    * 
+    * @param id
+    *           id of the load balancer
+    * @param instancePort
+    *           The TCP port on which the server on the instance is listening.
+    * @param nodes
+    *           nodes to loadbalance
+    */
+   void updateLoadBalancerNodes(String id, int instancePort, Iterable<? extends NodeMetadata> nodes);
+
+}
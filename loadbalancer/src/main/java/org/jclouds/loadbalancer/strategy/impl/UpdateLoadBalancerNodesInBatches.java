@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.loadbalancer.strategy.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Predicates.in;
+import static com.google.common.base.Predicates.not;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+import javax.inject.Named;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.loadbalancer.reference.LoadBalancerConstants;
+import org.jclouds.loadbalancer.strategy.UpdateLoadBalancerNodesStrategy;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Diffs the nodes a load balancer should balance against its current members, and only adds and removes the ones that
+ * differ, in batches no larger than the provider accepts in one request. Nodes are added before any is removed, so that
+ * a load balancer keeps its capacity during a rolling deploy.
+ */
+@Beta
+public abstract class UpdateLoadBalancerNodesInBatches implements UpdateLoadBalancerNodesStrategy {
+   @Resource
+   @Named(LoadBalancerConstants.LOADBALANCER_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   protected final int maxNodesPerRequest;
+
+   protected UpdateLoadBalancerNodesInBatches(int maxNodesPerRequest) {
+      checkArgument(maxNodesPerRequest > 0, "maxNodesPerRequest must be positive");
+      this.maxNodesPerRequest = maxNodesPerRequest;
+   }
+
+   /**
+    * @return the provider ids of the current members of the load balancer, keyed by {@link #memberKey}
+    */
+   protected abstract Map<String, String> listMembers(String id);
+
+   /**
+    * @return what identifies the node as a member of a load balancer, such as its address and port
+    */
+   protected abstract String memberKey(NodeMetadata node, int instancePort);
+
+   /**
+    * Adds the nodes to the load balancer in one request, returning once the load balancer can be changed again.
+    */
+   protected abstract void addMembers(String id, int instancePort, List<NodeMetadata> nodes);
+
+   /**
+    * Removes the members from the load balancer in one request, returning once the load balancer can be changed again.
+    * 
+    * @param memberIds
+    *           provider ids, as returned by {@link #listMembers}
+    */
+   protected abstract void removeMembers(String id, List<String> memberIds);
+
+   @Override
+   public void updateLoadBalancerNodes(String id, int instancePort, Iterable<? extends NodeMetadata> nodes) {
+      checkNotNull(id, "id");
+      Map<String, NodeMetadata> desired = Maps.newLinkedHashMap();
+      for (NodeMetadata node : checkNotNull(nodes, "nodes"))
+         desired.put(memberKey(node, instancePort), node);
+      Map<String, String> members = listMembers(id);
+
+      List<NodeMetadata> toAdd = ImmutableList.copyOf(Maps.filterKeys(desired, not(in(members.keySet()))).values());
+      List<String> toRemove = ImmutableList.copyOf(Maps.filterKeys(members, not(in(desired.keySet()))).values());
+      logger.debug(">> updating nodes of load balancer(%s) adding(%d) removing(%d)", id, toAdd.size(),
+            toRemove.size());
+      for (List<NodeMetadata> batch : Lists.partition(toAdd, maxNodesPerRequest))
+         addMembers(id, instancePort, batch);
+      for (List<String> batch : Lists.partition(toRemove, maxNodesPerRequest))
+         removeMembers(id, batch);
+      logger.debug("<< updated nodes of load balancer(%s)", id);
+   }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.loadbalancer.strategy.impl;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+@Test(groups = "unit", testName = "UpdateLoadBalancerNodesInBatchesTest")
+public class UpdateLoadBalancerNodesInBatchesTest {
+
+   /**
+    * Keys members by node id, and records each request.
+    */
+   private static class RecordingStrategy extends UpdateLoadBalancerNodesInBatches {
+      private final Map<String, String> members;
+      private final List<String> requests = Lists.newArrayList();
+
+      private RecordingStrategy(int maxNodesPerRequest, Map<String, String> members) {
+         super(maxNodesPerRequest);
+         this.members = members;
+      }
+
+      @Override
+      protected Map<String, String> listMembers(String id) {
+         requests.add("list " + id);
+         return members;
+      }
+
+      @Override
+      protected String memberKey(NodeMetadata node, int instancePort) {
+         return node.getId() + ":" + instancePort;
+      }
+
+      @Override
+      protected void addMembers(String id, int instancePort, List<NodeMetadata> nodes) {
+         List<String> ids = Lists.newArrayList();
+         for (NodeMetadata node : nodes)
+            ids.add(node.getId());
+         requests.add("add " + ids);
+      }
+
+      @Override
+      protected void removeMembers(String id, List<String> memberIds) {
+         requests.add("remove " + memberIds);
+      }
+   }
+
+   private static NodeMetadata node(String id) {
+      return new NodeMetadataBuilder().id(id).status(NodeMetadata.Status.RUNNING).build();
+   }
+
+   public void testAddsThenRemovesOnlyTheDifferenceInBatches() {
+      RecordingStrategy strategy = new RecordingStrategy(2, ImmutableMap.of("a:80", "member-a", "b:80", "member-b",
+            "c:80", "member-c"));
+
+      strategy.updateLoadBalancerNodes("lb", 80, ImmutableList.of(node("c"), node("d"), node("e"), node("f")));
+
+      assertEquals(strategy.requests, ImmutableList.of("list lb", "add [d, e]", "add [f]",
+            "remove [member-a, member-b]"));
+   }
+
+   public void testSameNodesChangeNothing() {
+      RecordingStrategy strategy = new RecordingStrategy(10, ImmutableMap.of("a:80", "member-a"));
+
+      strategy.updateLoadBalancerNodes("lb", 80, ImmutableList.of(node("a")));
+
+      assertEquals(strategy.requests, ImmutableList.of("list lb"));
+   }
+
+   public void testPortIsPartOfMembership() {
+      RecordingStrategy strategy = new RecordingStrategy(10, ImmutableMap.of("a:80", "member-a"));
+
+      strategy.updateLoadBalancerNodes("lb", 8080, ImmutableList.of(node("a")));
+
+      assertEquals(strategy.requests, ImmutableList.of("list lb", "add [a]", "remove [member-a]"));
+   }
+}
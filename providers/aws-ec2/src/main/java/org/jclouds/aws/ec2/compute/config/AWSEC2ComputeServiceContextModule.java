@@ -145,6 +145,21 @@ public class AWSEC2ComputeServiceContextModule extends BaseComputeServiceContext
             return new SetAndThrowAuthorizationExceptionSupplier<Image>(rawSupplier, authException).get();
          }
 
+         @Override
+         public Map<RegionAndName, Image> loadAll(final Iterable<? extends RegionAndName> keys) throws Exception {
+            Supplier<Map<RegionAndName, Image>> rawSupplier = new Supplier<Map<RegionAndName, Image>>() {
+               @Override public Map<RegionAndName, Image> get() {
+                  try {
+                     return delegate.loadAll(keys);
+                  } catch (ExecutionException e) {
+                     throw Throwables.propagate(e);
+                  }
+               }
+            };
+            return new SetAndThrowAuthorizationExceptionSupplier<Map<RegionAndName, Image>>(rawSupplier,
+                  authException).get();
+         }
+
       });
    }
 
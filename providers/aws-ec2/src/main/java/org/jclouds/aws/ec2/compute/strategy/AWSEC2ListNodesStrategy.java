@@ -33,13 +33,18 @@ import org.jclouds.aws.ec2.AWSEC2Api;
 import org.jclouds.aws.ec2.domain.AWSRunningInstance;
 import org.jclouds.aws.ec2.domain.SpotInstanceRequest;
 import org.jclouds.aws.ec2.functions.SpotInstanceRequestToAWSRunningInstance;
+import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.compute.predicates.NodeFilter;
+import org.jclouds.ec2.compute.domain.RegionAndName;
 import org.jclouds.ec2.compute.strategy.EC2ListNodesStrategy;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
@@ -54,28 +59,44 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
    protected AWSEC2ListNodesStrategy(AWSEC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
-            SpotInstanceRequestToAWSRunningInstance spotConverter) {
-      super(client, regions, runningInstanceToNodeMetadata, userExecutor);
+            SpotInstanceRequestToAWSRunningInstance spotConverter, GroupNamingConvention.Factory namingConvention,
+            Supplier<LoadingCache<RegionAndName, ? extends Image>> imageMap) {
+      super(client, regions, runningInstanceToNodeMetadata, userExecutor, namingConvention, imageMap);
       this.client = checkNotNull(client, "client");
       this.spotConverter = checkNotNull(spotConverter, "spotConverter");
    }
 
    @Override
    protected Iterable<? extends RunningInstance> pollRunningInstances() {
-      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(regions.get(),
-                                                                                       allSpotInstancesInRegion())),
+      Iterable<? extends RunningInstance> superInsts = super.pollRunningInstances();
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(pollRegions(regions.get(),
+                                                                                  allSpotInstancesInRegion()),
                                                                       spotConverter), notNull());
 
-      return concat(super.pollRunningInstances(), spots);
+      return concat(superInsts, spots);
    }
 
    @Override
-   protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
-      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(idsByRegions.keySet(),
-                                                                                       spotInstancesByIdInRegion(idsByRegions))),
-
+   protected Iterable<? extends RunningInstance> pollRunningInstances(NodeFilter filter) {
+      if (filter.getIds().isPresent()) {
+         // includes the spot instance requests, see pollRunningInstancesByRegionsAndIds
+         return super.pollRunningInstances(filter);
+      }
+      Iterable<? extends RunningInstance> superInsts = super.pollRunningInstances(filter);
+      // spot instance requests are few, so they are all listed and left to the filter
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(pollRegions(regionsOf(filter),
+                                                                                  allSpotInstancesInRegion()),
                                                                       spotConverter), notNull());
+
+      return concat(superInsts, spots);
+   }
+
+   @Override
+   protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
       Iterable<? extends RunningInstance> superInsts = super.pollRunningInstancesByRegionsAndIds(idsByRegions);
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(pollRegions(idsByRegions.keySet(),
+                                                                                  spotInstancesByIdInRegion(idsByRegions)),
+                                                                      spotConverter), notNull());
       return concat(superInsts, spots);
    }
 
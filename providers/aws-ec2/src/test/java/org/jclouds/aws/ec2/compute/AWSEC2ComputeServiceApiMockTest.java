@@ -22,11 +22,15 @@ import static org.testng.Assert.assertEquals;
 import org.jclouds.aws.ec2.internal.BaseAWSEC2ApiMockTest;
 import org.jclouds.aws.ec2.options.Tenancy;
 import org.jclouds.compute.ComputeService;
+import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
 import org.jclouds.compute.domain.Template;
+import org.jclouds.compute.predicates.NodeFilter;
 import org.jclouds.compute.predicates.NodePredicates;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 
@@ -270,22 +274,86 @@ public class AWSEC2ComputeServiceApiMockTest extends BaseAWSEC2ApiMockTest {
    public void listNodesWhereImageDoesntExist() throws Exception {
       enqueueRegions(DEFAULT_REGION);
       enqueueXml(DEFAULT_REGION, "/describe_instances_running-1.xml");
+      enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeSpotInstanceRequestsResponse><spotInstanceRequestSet></spotInstanceRequestSet></DescribeSpotInstanceRequestsResponse>"));
       enqueueXml(DEFAULT_REGION, "/availabilityZones.xml");
       enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeImagesResponse><imagesSet></imagesSet></DescribeImagesResponse>"));
-      enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeSpotInstanceRequestsResponse><spotInstanceRequestSet></spotInstanceRequestSet></DescribeSpotInstanceRequestsResponse>"));
 
       ComputeService computeService = computeService();
 
       NodeMetadata node = Iterables.getOnlyElement(computeService.listNodesDetailsMatching(NodePredicates.all()));
       assertEquals(node.getId(), "us-east-1/i-2baa5550");
 
+      // all of the instances are listed before any is converted, so that their images can be loaded together
       assertPosted(DEFAULT_REGION, "Action=DescribeRegions");
       assertPosted(DEFAULT_REGION, "Action=DescribeInstances");
+      assertPosted(DEFAULT_REGION, "Action=DescribeSpotInstanceRequests");
+      assertPosted(DEFAULT_REGION, "Action=DescribeAvailabilityZones");
+      assertPosted(DEFAULT_REGION, "Action=DescribeImages&ImageId.1=ami-aecd60c7");
+   }
+
+   public void listNodesByIds() throws Exception {
+      enqueueRegions(DEFAULT_REGION);
+      enqueueXml(DEFAULT_REGION, "/describe_instances_running-1.xml");
+      enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeSpotInstanceRequestsResponse><spotInstanceRequestSet></spotInstanceRequestSet></DescribeSpotInstanceRequestsResponse>"));
+      enqueueXml(DEFAULT_REGION, "/availabilityZones.xml");
+      enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeImagesResponse><imagesSet></imagesSet></DescribeImagesResponse>"));
+
+      ComputeService computeService = computeService();
+
+      ComputeMetadata node = Iterables.getOnlyElement(computeService.listNodesByIds(ImmutableSet.of("us-east-1/i-2baa5550")));
+      assertEquals(node.getId(), "us-east-1/i-2baa5550");
+
+      assertPosted(DEFAULT_REGION, "Action=DescribeRegions");
+      assertPosted(DEFAULT_REGION, "Action=DescribeInstances&InstanceId.1=i-2baa5550");
+      assertPosted(DEFAULT_REGION, "Action=DescribeSpotInstanceRequests&SpotInstanceRequestId.1=i-2baa5550");
       assertPosted(DEFAULT_REGION, "Action=DescribeAvailabilityZones");
       assertPosted(DEFAULT_REGION, "Action=DescribeImages&ImageId.1=ami-aecd60c7");
-      assertPosted(DEFAULT_REGION, "Action=DescribeSpotInstanceRequests");
    }
    
+   public void listNodesInGroup() throws Exception {
+      enqueueRegions(DEFAULT_REGION);
+      enqueueXml(DEFAULT_REGION, "/describe_instances_empty.xml");
+      enqueueXml(DEFAULT_REGION, "/describe_instances_empty.xml");
+      enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeSpotInstanceRequestsResponse><spotInstanceRequestSet></spotInstanceRequestSet></DescribeSpotInstanceRequestsResponse>"));
+
+      assertEquals(computeService().listNodesDetailsMatching(NodePredicates.inGroup("test")).size(), 0);
+
+      // the group is parsed from the security groups of the instance or else from its key pair
+      assertPosted(DEFAULT_REGION, "Action=DescribeRegions");
+      assertPosted(DEFAULT_REGION, "Action=DescribeInstances&Filter.1.Name=instance.group-name&Filter.1.Value.1=jclouds%23test%2A");
+      assertPosted(DEFAULT_REGION, "Action=DescribeInstances&Filter.1.Name=key-name&Filter.1.Value.1=jclouds%23test%2A");
+      assertPosted(DEFAULT_REGION, "Action=DescribeSpotInstanceRequests");
+   }
+
+   public void listNodesRunningInGroup() throws Exception {
+      enqueueRegions(DEFAULT_REGION);
+      enqueueXml(DEFAULT_REGION, "/describe_instances_empty.xml");
+      enqueueXml(DEFAULT_REGION, "/describe_instances_empty.xml");
+      enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeSpotInstanceRequestsResponse><spotInstanceRequestSet></spotInstanceRequestSet></DescribeSpotInstanceRequestsResponse>"));
+
+      assertEquals(computeService().listNodesDetailsMatching(NodePredicates.runningInGroup("test")).size(), 0);
+
+      assertPosted(DEFAULT_REGION, "Action=DescribeRegions");
+      assertPosted(DEFAULT_REGION, "Action=DescribeInstances&Filter.1.Name=instance-state-name&Filter.1.Value.1=running&Filter.2.Name=instance.group-name&Filter.2.Value.1=jclouds%23test%2A");
+      assertPosted(DEFAULT_REGION, "Action=DescribeInstances&Filter.1.Name=instance-state-name&Filter.1.Value.1=running&Filter.2.Name=key-name&Filter.2.Value.1=jclouds%23test%2A");
+      assertPosted(DEFAULT_REGION, "Action=DescribeSpotInstanceRequests");
+   }
+
+   public void listNodesRunningInGroupInZone() throws Exception {
+      enqueueRegions(DEFAULT_REGION);
+      enqueueXml(DEFAULT_REGION, "/describe_instances_empty.xml");
+      enqueueXml(DEFAULT_REGION, "/describe_instances_empty.xml");
+      enqueue(DEFAULT_REGION, new MockResponse().setBody("<DescribeSpotInstanceRequestsResponse><spotInstanceRequestSet></spotInstanceRequestSet></DescribeSpotInstanceRequestsResponse>"));
+
+      NodeFilter filter = NodeFilter.builder().group("test").status(Status.RUNNING).locationId("us-east-1a").build();
+      assertEquals(computeService().listNodesDetailsMatching(filter).size(), 0);
+
+      assertPosted(DEFAULT_REGION, "Action=DescribeRegions");
+      assertPosted(DEFAULT_REGION, "Action=DescribeInstances&Filter.1.Name=availability-zone&Filter.1.Value.1=us-east-1a&Filter.2.Name=instance-state-name&Filter.2.Value.1=running&Filter.3.Name=instance.group-name&Filter.3.Value.1=jclouds%23test%2A");
+      assertPosted(DEFAULT_REGION, "Action=DescribeInstances&Filter.1.Name=availability-zone&Filter.1.Value.1=us-east-1a&Filter.2.Name=instance-state-name&Filter.2.Value.1=running&Filter.3.Name=key-name&Filter.3.Value.1=jclouds%23test%2A");
+      assertPosted(DEFAULT_REGION, "Action=DescribeSpotInstanceRequests");
+   }
+
    public void deleteIncidentalResourcesSuccessfully() throws Exception {
       enqueueRegions(DEFAULT_REGION);
       enqueueXml(DEFAULT_REGION, "/describe_securitygroups_extension_single.xml");
@@ -74,8 +74,7 @@ public class AzureStorageClientErrorRetryHandler implements HttpRetryHandler {
                AzureStorageError error = utils.parseAzureStorageErrorFromContent(command, response,
                         new ByteArrayInputStream(content));
                if ("ContainerBeingDeleted".equals(error.getCode())) {
-                  backoffHandler.imposeBackoffExponentialDelay(100L, 3, retryCountLimit, command
-                           .getFailureCount(), command.toString());
+                  backoffHandler.delayRetry(command, 100L, 3, command.getFailureCount(), command.toString());
                   return true;
                }
             } catch (HttpException e) {
@@ -21,6 +21,9 @@ import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.API_VERSION_PREFIX;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.DEFAULT_SUBNET_ADDRESS_PREFIX;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.DEFAULT_VNET_ADDRESS_SPACE_PREFIX;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_CATALOG_DIRECTORY;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_CATALOG_TTL;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_DISCOVERY_CONCURRENCY;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_PUBLISHERS;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.OPERATION_TIMEOUT;
 import static org.jclouds.compute.config.ComputeServiceProperties.IMAGE_AUTHENTICATE_SUDO;
@@ -104,6 +107,10 @@ public class AzureComputeProviderMetadata extends BaseProviderMetadata {
       properties.put(RESOURCENAME_PREFIX, "jclouds");
       properties.put(RESOURCENAME_DELIMITER, "-");
       properties.put(IMAGE_PUBLISHERS, "Canonical,RedHat");
+      properties.put(IMAGE_DISCOVERY_CONCURRENCY, 10);
+      // The image catalog is only kept on disk when a directory is configured
+      properties.put(IMAGE_CATALOG_DIRECTORY, "");
+      properties.put(IMAGE_CATALOG_TTL, 24 * 60 * 60);
       // Default credentials for all images, Azure doesn't accept root, admin; generate the password on the fly
       properties.put(IMAGE_LOGIN_USER, "jclouds");
       // Azure allows for passwordless sudo only when using a public key to login to the machine
@@ -26,6 +26,7 @@ import static com.google.common.collect.Lists.newArrayList;
 import static org.jclouds.azurecompute.arm.compute.domain.LocationAndName.fromSlashEncoded;
 import static org.jclouds.azurecompute.arm.compute.domain.ResourceGroupAndName.fromResourceGroupAndName;
 import static org.jclouds.azurecompute.arm.compute.functions.VMImageToImage.getMarketplacePlanFromImageMetadata;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_DISCOVERY_CONCURRENCY;
 import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_PUBLISHERS;
 import static org.jclouds.azurecompute.arm.domain.IdReference.extractName;
 import static org.jclouds.azurecompute.arm.domain.IdReference.extractResourceGroup;
@@ -38,11 +39,15 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import javax.annotation.Resource;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.azurecompute.arm.AzureComputeApi;
 import org.jclouds.azurecompute.arm.compute.config.AzurePredicatesModule.PublicIpAvailablePredicateFactory;
 import org.jclouds.azurecompute.arm.compute.domain.ResourceGroupAndName;
@@ -50,6 +55,7 @@ import org.jclouds.azurecompute.arm.compute.functions.CustomImageToVMImage;
 import org.jclouds.azurecompute.arm.compute.options.AzureTemplateOptions;
 import org.jclouds.azurecompute.arm.compute.options.IpOptions;
 import org.jclouds.azurecompute.arm.compute.strategy.CleanupResources;
+import org.jclouds.azurecompute.arm.compute.strategy.ImageCatalogSnapshot;
 import org.jclouds.azurecompute.arm.domain.AvailabilitySet;
 import org.jclouds.azurecompute.arm.domain.CreationData;
 import org.jclouds.azurecompute.arm.domain.DataDisk;
@@ -96,15 +102,20 @@ import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Defines the connection between the {@link AzureComputeApi} implementation and
@@ -128,12 +139,18 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
    private final CustomImageToVMImage customImagetoVmImage;
    private final GroupNamingConvention namingConvention;
    private Predicate<Supplier<Provisionable>> resourceAvailable;
+   private final ListeningExecutorService userExecutor;
+   private final int imageDiscoveryConcurrency;
+   private final ImageCatalogSnapshot imageCatalogSnapshot;
 
    @Inject
    AzureComputeServiceAdapter(final AzureComputeApi api, @Named(IMAGE_PUBLISHERS) String imagePublishers,
          CleanupResources cleanupResources, @Region Supplier<Set<String>> regionIds,
          PublicIpAvailablePredicateFactory publicIpAvailable, CustomImageToVMImage customImagetoVmImage,
-         GroupNamingConvention.Factory namingConvention, Predicate<Supplier<Provisionable>> resourceAvailable) {
+         GroupNamingConvention.Factory namingConvention, Predicate<Supplier<Provisionable>> resourceAvailable,
+         @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(IMAGE_DISCOVERY_CONCURRENCY) int imageDiscoveryConcurrency,
+         ImageCatalogSnapshot imageCatalogSnapshot) {
       this.api = api;
       this.imagePublishers = Splitter.on(',').trimResults().omitEmptyStrings().splitToList(imagePublishers);
       this.cleanupResources = cleanupResources;
@@ -142,6 +159,9 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
       this.customImagetoVmImage = customImagetoVmImage;
       this.namingConvention = namingConvention.create();
       this.resourceAvailable = resourceAvailable;
+      this.userExecutor = userExecutor;
+      this.imageDiscoveryConcurrency = imageDiscoveryConcurrency;
+      this.imageCatalogSnapshot = imageCatalogSnapshot;
    }
 
    @Override
@@ -185,49 +205,105 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
 
    @Override
    public Iterable<VMHardware> listHardwareProfiles() {
-      final List<VMHardware> hwProfiles = Lists.newArrayList();
-      for (Location location : listLocations()) {
-         Iterable<VMSize> vmSizes = api.getVMSizeApi(location.name()).list();
-         for (VMSize vmSize : vmSizes) {
-            VMHardware hwProfile = VMHardware
-                    .create(vmSize.name(), vmSize.numberOfCores(), vmSize.osDiskSizeInMB(),
-                            vmSize.resourceDiskSizeInMB(), vmSize.memoryInMB(), vmSize.maxDataDiskCount(), location.name());
-            hwProfiles.add(hwProfile);
+      return concurrently(listLocations(), new Function<Location, Iterable<VMHardware>>() {
+         @Override
+         public Iterable<VMHardware> apply(Location location) {
+            final List<VMHardware> hwProfiles = Lists.newArrayList();
+            Iterable<VMSize> vmSizes = api.getVMSizeApi(location.name()).list();
+            for (VMSize vmSize : vmSizes) {
+               VMHardware hwProfile = VMHardware
+                       .create(vmSize.name(), vmSize.numberOfCores(), vmSize.osDiskSizeInMB(),
+                               vmSize.resourceDiskSizeInMB(), vmSize.memoryInMB(), vmSize.maxDataDiskCount(), location.name());
+               hwProfiles.add(hwProfile);
+            }
+            return hwProfiles;
          }
-      }
-      return hwProfiles;
+      });
    }
 
-   private List<VMImage> getImagesFromPublisher(String publisherName, String location) {
-      List<VMImage> osImagesRef = Lists.newArrayList();
-      OSImageApi osImageApi = api.getOSImageApi(location);
-      Iterable<Offer> offerList = osImageApi.listOffers(publisherName);
-
-      for (Offer offer : offerList) {
-         Iterable<SKU> skuList = osImageApi.listSKUs(publisherName, offer.name());
-
-         for (SKU sku : skuList) {
-            Iterable<Version> versionList = osImageApi.listVersions(publisherName, offer.name(), sku.name());
-            for (Version version : versionList) {
-               Version versionDetails = osImageApi.getVersion(publisherName, offer.name(), sku.name(), version.name());
-               VMImage vmImage = VMImage.azureImage().publisher(publisherName).offer(offer.name()).sku(sku.name())
-                       .version(versionDetails.name()).location(location).versionProperties(versionDetails.properties())
-                       .build();
-               osImagesRef.add(vmImage);
-            }
+   /**
+    * Walks the offers, SKUs and versions of the publishers in the locations one level at a time, making the requests of
+    * each level concurrently. Each image built along the way holds the part of the path walked so far.
+    */
+   private List<VMImage> listImagesByLocations(List<String> locations) {
+      List<VMImage> publishers = Lists.newArrayList();
+      for (String location : locations) {
+         for (String publisher : imagePublishers) {
+            publishers.add(VMImage.azureImage().location(location).publisher(publisher).build());
          }
       }
-      return osImagesRef;
+      List<VMImage> offers = concurrently(publishers, new Function<VMImage, Iterable<VMImage>>() {
+         @Override
+         public Iterable<VMImage> apply(VMImage publisher) {
+            List<VMImage> offers = Lists.newArrayList();
+            for (Offer offer : api.getOSImageApi(publisher.location()).listOffers(publisher.publisher())) {
+               offers.add(publisher.toBuilder().offer(offer.name()).build());
+            }
+            return offers;
+         }
+      });
+      List<VMImage> skus = concurrently(offers, new Function<VMImage, Iterable<VMImage>>() {
+         @Override
+         public Iterable<VMImage> apply(VMImage offer) {
+            List<VMImage> skus = Lists.newArrayList();
+            for (SKU sku : api.getOSImageApi(offer.location()).listSKUs(offer.publisher(), offer.offer())) {
+               skus.add(offer.toBuilder().sku(sku.name()).build());
+            }
+            return skus;
+         }
+      });
+      List<VMImage> versions = concurrently(skus, new Function<VMImage, Iterable<VMImage>>() {
+         @Override
+         public Iterable<VMImage> apply(VMImage sku) {
+            List<VMImage> versions = Lists.newArrayList();
+            for (Version version : api.getOSImageApi(sku.location()).listVersions(sku.publisher(), sku.offer(),
+                  sku.sku())) {
+               versions.add(sku.toBuilder().version(version.name()).build());
+            }
+            return versions;
+         }
+      });
+      return concurrently(versions, new Function<VMImage, Iterable<VMImage>>() {
+         @Override
+         public Iterable<VMImage> apply(VMImage version) {
+            Version versionDetails = api.getOSImageApi(version.location()).getVersion(version.publisher(),
+                  version.offer(), version.sku(), version.version());
+            return ImmutableList.of(version.toBuilder().version(versionDetails.name())
+                  .versionProperties(versionDetails.properties()).build());
+         }
+      });
    }
 
-   private List<VMImage> listImagesByLocation(String location) {
-      final List<VMImage> osImages = Lists.newArrayList();
-      for (String publisher : imagePublishers) {
-         osImages.addAll(getImagesFromPublisher(publisher, location));
+   /**
+    * Applies the function to the inputs on the user executor, with at most {@code imageDiscoveryConcurrency} calls in
+    * flight, and concatenates the results in the order of the inputs.
+    */
+   private <F, T> List<T> concurrently(Iterable<F> inputs, final Function<F, ? extends Iterable<T>> function) {
+      final Semaphore permits = new Semaphore(imageDiscoveryConcurrency);
+      List<ListenableFuture<Iterable<T>>> futures = Lists.newArrayList();
+      try {
+         for (final F input : inputs) {
+            permits.acquire();
+            futures.add(userExecutor.submit(new Callable<Iterable<T>>() {
+               @Override
+               public Iterable<T> call() {
+                  try {
+                     return ImmutableList.copyOf(function.apply(input));
+                  } finally {
+                     permits.release();
+                  }
+               }
+            }));
+         }
+         return ImmutableList.copyOf(Iterables.concat(Futures.allAsList(futures).get()));
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw Throwables.propagate(e);
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
       }
-      return osImages;
    }
-   
+
    private List<VMImage> listCustomImagesByResourceGroup(String resourceGroup) {
       List<org.jclouds.azurecompute.arm.domain.Image> customImgs = api.getVirtualMachineImageApi(resourceGroup).list();
       return ImmutableList.copyOf(transform(
@@ -251,8 +327,13 @@ public class AzureComputeServiceAdapter implements ComputeServiceAdapter<Virtual
                }
             }));
 
-      for (String locationName : availableLocationNames) {
-         osImages.addAll(listImagesByLocation(locationName));
+      Optional<List<VMImage>> snapshot = imageCatalogSnapshot.read(imagePublishers, availableLocationNames);
+      if (snapshot.isPresent()) {
+         osImages.addAll(snapshot.get());
+      } else {
+         List<VMImage> marketplaceImages = listImagesByLocations(availableLocationNames);
+         imageCatalogSnapshot.write(imagePublishers, availableLocationNames, marketplaceImages);
+         osImages.addAll(marketplaceImages);
       }
 
       // We need to look for custom images in all resource groups
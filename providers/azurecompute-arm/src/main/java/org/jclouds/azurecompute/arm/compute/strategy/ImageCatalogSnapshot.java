@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_CATALOG_DIRECTORY;
+import static org.jclouds.azurecompute.arm.config.AzureComputeProperties.IMAGE_CATALOG_TTL;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.azurecompute.arm.domain.VMImage;
+import org.jclouds.azurecompute.arm.domain.Version.VersionProperties;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.Json;
+import org.jclouds.json.SerializedNames;
+import org.jclouds.logging.Logger;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Keeps a snapshot of the marketplace images on disk, so that a new JVM does not walk the publishers, offers, SKUs and
+ * versions of every location again. The snapshot is read until it is older than
+ * {@link org.jclouds.azurecompute.arm.config.AzureComputeProperties#IMAGE_CATALOG_TTL} seconds. Custom images belong
+ * to the account and are not part of it.
+ * <p/>
+ * Snapshots are only kept when
+ * {@link org.jclouds.azurecompute.arm.config.AzureComputeProperties#IMAGE_CATALOG_DIRECTORY} is set.
+ */
+@Singleton
+public class ImageCatalogSnapshot {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   @AutoValue
+   abstract static class CatalogImage {
+      abstract String publisher();
+
+      abstract String offer();
+
+      abstract String sku();
+
+      abstract String version();
+
+      abstract String location();
+
+      @Nullable abstract VersionProperties versionProperties();
+
+      @SerializedNames({ "publisher", "offer", "sku", "version", "location", "versionProperties" })
+      static CatalogImage create(String publisher, String offer, String sku, String version, String location,
+            VersionProperties versionProperties) {
+         return new AutoValue_ImageCatalogSnapshot_CatalogImage(publisher, offer, sku, version, location,
+               versionProperties);
+      }
+
+      CatalogImage() {
+      }
+   }
+
+   private static final Function<VMImage, CatalogImage> TO_CATALOG = new Function<VMImage, CatalogImage>() {
+      @Override
+      public CatalogImage apply(VMImage input) {
+         return CatalogImage.create(input.publisher(), input.offer(), input.sku(), input.version(), input.location(),
+               input.versionProperties());
+      }
+   };
+
+   private static final Function<CatalogImage, VMImage> FROM_CATALOG = new Function<CatalogImage, VMImage>() {
+      @Override
+      public VMImage apply(CatalogImage input) {
+         return VMImage.azureImage().publisher(input.publisher()).offer(input.offer()).sku(input.sku())
+               .version(input.version()).location(input.location()).versionProperties(input.versionProperties())
+               .build();
+      }
+   };
+
+   private final Json json;
+   private final String directory;
+   private final long ttlMillis;
+
+   @Inject
+   ImageCatalogSnapshot(Json json, @Named(IMAGE_CATALOG_DIRECTORY) String directory,
+         @Named(IMAGE_CATALOG_TTL) long ttlSeconds) {
+      this.json = json;
+      this.directory = Strings.emptyToNull(directory.trim());
+      this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+   }
+
+   public boolean isEnabled() {
+      return directory != null;
+   }
+
+   /**
+    * @return the images of the snapshot of the given publishers and locations, if there is one which is not expired
+    */
+   public Optional<List<VMImage>> read(Collection<String> publishers, Collection<String> locations) {
+      if (!isEnabled())
+         return Optional.absent();
+      File file = file(publishers, locations);
+      if (!file.isFile() || System.currentTimeMillis() - file.lastModified() > ttlMillis)
+         return Optional.absent();
+      try {
+         List<CatalogImage> images = json.fromJson(Files.toString(file, UTF_8), new TypeToken<List<CatalogImage>>() {
+         }.getType());
+         logger.debug("<< read %d images from %s", images.size(), file);
+         return Optional.of(FluentIterable.from(images).transform(FROM_CATALOG).toList());
+      } catch (IOException e) {
+         logger.warn(e, "could not read the image catalog from %s", file);
+      } catch (RuntimeException e) {
+         // a snapshot written by another version; it is replaced after the next walk
+         logger.warn(e, "could not parse the image catalog from %s", file);
+      }
+      return Optional.absent();
+   }
+
+   /**
+    * Replaces the snapshot of the given publishers and locations. The file is written aside and moved in place, so that
+    * concurrent readers never see a partial snapshot.
+    */
+   public void write(Collection<String> publishers, Collection<String> locations, Iterable<VMImage> images) {
+      if (!isEnabled())
+         return;
+      File file = file(publishers, locations);
+      try {
+         Files.createParentDirs(file);
+         File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+         try {
+            Files.write(json.toJson(FluentIterable.from(images).transform(TO_CATALOG).toList()), temp, UTF_8);
+            try {
+               java.nio.file.Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                     StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+               java.nio.file.Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+         } finally {
+            temp.delete();
+         }
+      } catch (IOException e) {
+         logger.warn(e, "could not write the image catalog to %s", file);
+      }
+   }
+
+   private File file(Collection<String> publishers, Collection<String> locations) {
+      String key = Joiner.on(',').join(Ordering.natural().sortedCopy(publishers)) + ";"
+            + Joiner.on(',').join(Ordering.natural().sortedCopy(locations));
+      return new File(directory, "images-" + Hashing.sha256().hashString(key, UTF_8) + ".json");
+   }
+}
@@ -26,6 +26,21 @@ public class AzureComputeProperties {
    
    public static final String IMAGE_PUBLISHERS = "jclouds.azurecompute.arm.publishers";
 
+   /**
+    * Maximum number of concurrent requests made while walking the publishers, offers, SKUs and versions of the images.
+    */
+   public static final String IMAGE_DISCOVERY_CONCURRENCY = "jclouds.azurecompute.arm.image-discovery.concurrency";
+
+   /**
+    * Directory where a snapshot of the marketplace images is kept between JVMs. Empty to keep no snapshot.
+    */
+   public static final String IMAGE_CATALOG_DIRECTORY = "jclouds.azurecompute.arm.image-catalog.directory";
+
+   /**
+    * Seconds after which the snapshot of the marketplace images is discarded.
+    */
+   public static final String IMAGE_CATALOG_TTL = "jclouds.azurecompute.arm.image-catalog.ttl";
+
    public static final String TIMEOUT_RESOURCE_DELETED = "jclouds.azurecompute.arm.timeout.resourcedeleted";
 
    public static final String DEFAULT_VNET_ADDRESS_SPACE_PREFIX = "jclouds.azurecompute.arm.vnet.addressprefix";
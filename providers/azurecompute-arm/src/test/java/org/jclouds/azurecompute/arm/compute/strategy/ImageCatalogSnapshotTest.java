@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.azurecompute.arm.compute.strategy;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.jclouds.azurecompute.arm.domain.VMImage;
+import org.jclouds.azurecompute.arm.domain.Version.VersionProperties;
+import org.jclouds.azurecompute.arm.domain.Version.VersionProperties.OSDiskImage;
+import org.jclouds.json.Json;
+import org.jclouds.json.config.GsonModule;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.google.inject.Guice;
+
+@Test(groups = "unit", testName = "ImageCatalogSnapshotTest")
+public class ImageCatalogSnapshotTest {
+
+   private final Json json = Guice.createInjector(new GsonModule()).getInstance(Json.class);
+   private final List<String> publishers = ImmutableList.of("Canonical", "RedHat");
+   private final List<String> locations = ImmutableList.of("westeurope");
+   private final List<VMImage> images = ImmutableList.of(VMImage.azureImage().publisher("Canonical")
+         .offer("UbuntuServer").sku("16.04-LTS").version("16.04.201706191").location("westeurope")
+         .versionProperties(VersionProperties.create(null, OSDiskImage.create("Linux"))).build());
+
+   private File directory;
+
+   @BeforeMethod
+   public void createDirectory() {
+      directory = Files.createTempDir();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void deleteDirectory() {
+      for (File file : directory.listFiles())
+         file.delete();
+      directory.delete();
+   }
+
+   public void testSnapshotIsRead() {
+      ImageCatalogSnapshot snapshot = new ImageCatalogSnapshot(json, directory.getAbsolutePath(), 60);
+      assertFalse(snapshot.read(publishers, locations).isPresent());
+
+      snapshot.write(publishers, locations, images);
+      assertEquals(snapshot.read(ImmutableList.of("RedHat", "Canonical"), locations), Optional.of(images));
+      assertFalse(snapshot.read(publishers, ImmutableList.of("eastus")).isPresent());
+   }
+
+   public void testExpiredSnapshotIsNotRead() {
+      ImageCatalogSnapshot snapshot = new ImageCatalogSnapshot(json, directory.getAbsolutePath(), 60);
+      snapshot.write(publishers, locations, images);
+      for (File file : directory.listFiles())
+         assertTrue(file.setLastModified(System.currentTimeMillis() - 61000));
+
+      assertFalse(snapshot.read(publishers, locations).isPresent());
+   }
+
+   public void testNothingIsKeptWithoutDirectory() {
+      ImageCatalogSnapshot snapshot = new ImageCatalogSnapshot(json, "", 60);
+      assertFalse(snapshot.isEnabled());
+      snapshot.write(publishers, locations, images);
+      assertFalse(snapshot.read(publishers, locations).isPresent());
+   }
+}
@@ -58,9 +58,9 @@ import org.jclouds.googlecomputeengine.compute.loaders.DiskURIToImage;
 import org.jclouds.googlecomputeengine.compute.loaders.SubnetworkLoader;
 import org.jclouds.googlecomputeengine.compute.options.GoogleComputeEngineTemplateOptions;
 import org.jclouds.googlecomputeengine.compute.predicates.AtomicInstanceVisible;
-import org.jclouds.googlecomputeengine.compute.predicates.AtomicOperationDone;
 import org.jclouds.googlecomputeengine.compute.predicates.GroupIsEmpty;
 import org.jclouds.googlecomputeengine.compute.strategy.CreateNodesWithGroupEncodedIntoNameThenAddToSet;
+import org.jclouds.googlecomputeengine.compute.strategy.OperationTracker;
 import org.jclouds.googlecomputeengine.domain.Image;
 import org.jclouds.googlecomputeengine.domain.Instance;
 import org.jclouds.googlecomputeengine.domain.MachineType;
@@ -148,9 +148,9 @@ public final class GoogleComputeEngineServiceContextModule
    }
 
    // TODO: these timeouts need thinking through.
-   @Provides Predicate<AtomicReference<Operation>> operationDone(AtomicOperationDone input,
-         @Named(OPERATION_COMPLETE_TIMEOUT) long timeout, @Named(OPERATION_COMPLETE_INTERVAL) long interval) {
-      return retry(input, timeout, interval, MILLISECONDS);
+   @Provides Predicate<AtomicReference<Operation>> operationDone(OperationTracker tracker,
+         @Named(OPERATION_COMPLETE_TIMEOUT) long timeout) {
+      return tracker.operationDone(timeout, MILLISECONDS);
    }
 
    @Provides Predicate<AtomicReference<Instance>> instanceVisible(AtomicInstanceVisible input,
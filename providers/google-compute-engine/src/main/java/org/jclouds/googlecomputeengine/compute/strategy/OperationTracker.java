@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.compute.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.jclouds.googlecomputeengine.config.GoogleComputeEngineProperties.OPERATION_COMPLETE_INTERVAL;
+import static org.jclouds.googlecomputeengine.options.ListOptions.Builder.filter;
+
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
+import org.jclouds.googlecomputeengine.compute.functions.Resources;
+import org.jclouds.googlecomputeengine.domain.Operation;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Tracks the completion of all outstanding operations of the project with a single poller.
+ * <p/>
+ * One of the threads waiting in {@link #awaitDone(AtomicReference, long, TimeUnit)} polls on behalf of all tracked
+ * operations. When more than one operation is pending, a single aggregated list of the unfinished operations of all
+ * zones and regions tells which ones are worth fetching, so that only finished operations are fetched individually.
+ * The poll period starts at the {@link org.jclouds.googlecomputeengine.config.GoogleComputeEngineProperties
+ * #OPERATION_COMPLETE_INTERVAL configured interval} and backs off while nothing finishes.
+ */
+@Singleton
+public final class OperationTracker {
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   Logger logger = Logger.NULL;
+
+   private static final double BACKOFF_FACTOR = 1.5;
+   private static final int MAX_PERIOD_FACTOR = 10;
+
+   private final GoogleComputeEngineApi api;
+   private final Resources resources;
+   private final long minPeriodMillis;
+   // finished operations stay until awaited, so that operations completed by another thread's poll are not fetched again
+   private final ConcurrentMap<URI, SettableFuture<Operation>> outstanding = Maps.newConcurrentMap();
+   private final Lock pollLock = new ReentrantLock();
+   private volatile long lastPoll;
+   private volatile long periodMillis;
+
+   @Inject OperationTracker(GoogleComputeEngineApi api, Resources resources,
+         @Named(OPERATION_COMPLETE_INTERVAL) long minPeriodMillis) {
+      this.api = checkNotNull(api, "api");
+      this.resources = checkNotNull(resources, "resources");
+      this.minPeriodMillis = minPeriodMillis;
+      this.periodMillis = minPeriodMillis;
+   }
+
+   /**
+    * Starts tracking an operation, if not already tracked.
+    *
+    * @return a future holding the finished operation, which may have failed
+    */
+   public ListenableFuture<Operation> track(Operation operation) {
+      checkNotNull(operation, "operation");
+      SettableFuture<Operation> future = SettableFuture.create();
+      SettableFuture<Operation> existing = outstanding.putIfAbsent(operation.selfLink(), future);
+      if (existing != null) {
+         return existing;
+      }
+      // poll the new operation at the fastest rate
+      periodMillis = minPeriodMillis;
+      return future;
+   }
+
+   /**
+    * Waits for an operation to finish, polling on behalf of all tracked operations while waiting.
+    *
+    * @param operation
+    *           the operation to wait for, updated with its latest state
+    * @return true if the operation is done, false if it did not finish in time
+    * @throws IllegalStateException
+    *            if the operation ended in error
+    */
+   public boolean awaitDone(AtomicReference<Operation> operation, long timeout, TimeUnit unit) {
+      checkNotNull(operation.get(), "operation");
+      URI selfLink = operation.get().selfLink();
+      ListenableFuture<Operation> future = track(operation.get());
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      while (!future.isDone()) {
+         long remaining = deadline - System.nanoTime();
+         if (remaining <= 0) {
+            outstanding.remove(selfLink, future);
+            return false;
+         }
+         pollIfDue();
+         try {
+            Uninterruptibles.getUninterruptibly(future,
+                  Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(periodMillis)), TimeUnit.NANOSECONDS);
+         } catch (TimeoutException te) {
+            // poll again
+         } catch (ExecutionException ee) {
+            // fall through to report the failure below
+         }
+      }
+      outstanding.remove(selfLink, future);
+      Operation current;
+      try {
+         current = Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException ee) {
+         throw Throwables.propagate(ee.getCause());
+      }
+      operation.set(current);
+      checkState(current.error().errors().isEmpty(), "Task ended in error %s", current);
+      return true;
+   }
+
+   /**
+    * @return a predicate which {@link #awaitDone awaits} the operation until the timeout, backed by this tracker
+    */
+   public Predicate<AtomicReference<Operation>> operationDone(final long timeout, final TimeUnit unit) {
+      return new Predicate<AtomicReference<Operation>>() {
+         @Override public boolean apply(AtomicReference<Operation> input) {
+            return awaitDone(input, timeout, unit);
+         }
+
+         @Override public String toString() {
+            return "operationDone(" + timeout + " " + unit + ")";
+         }
+      };
+   }
+
+   private void pollIfDue() {
+      if (!pollLock.tryLock()) {
+         return;
+      }
+      try {
+         if (System.currentTimeMillis() - lastPoll < periodMillis) {
+            return;
+         }
+         try {
+            if (poll()) {
+               periodMillis = minPeriodMillis;
+            } else {
+               periodMillis = Math.min((long) (periodMillis * BACKOFF_FACTOR), minPeriodMillis * MAX_PERIOD_FACTOR);
+            }
+         } finally {
+            lastPoll = System.currentTimeMillis();
+         }
+      } catch (RuntimeException e) {
+         logger.warn(e, "error polling operations %s", outstanding.keySet());
+      } finally {
+         pollLock.unlock();
+      }
+   }
+
+   /** @return true if any operation finished */
+   private boolean poll() {
+      ImmutableSet.Builder<URI> builder = ImmutableSet.builder();
+      for (Map.Entry<URI, SettableFuture<Operation>> entry : outstanding.entrySet()) {
+         if (!entry.getValue().isDone()) {
+            builder.add(entry.getKey());
+         }
+      }
+      Set<URI> pending = builder.build();
+      if (pending.isEmpty()) {
+         return false;
+      }
+      Set<URI> unfinished = Sets.newHashSet();
+      if (pending.size() > 1) {
+         logger.trace(">> listing unfinished operations to poll %d operations", pending.size());
+         for (Iterator<ListPage<Operation>> pages = api.aggregatedList().globalOperations(filter("status ne DONE"));
+               pages.hasNext();) {
+            for (Operation operation : pages.next()) {
+               unfinished.add(operation.selfLink());
+            }
+         }
+      }
+      boolean anyFinished = false;
+      for (URI selfLink : pending) {
+         if (unfinished.contains(selfLink)) {
+            continue;
+         }
+         // not part of the listing, so likely finished
+         Operation current = resources.operation(selfLink);
+         SettableFuture<Operation> future = outstanding.get(selfLink);
+         if (future == null) {
+            continue;
+         }
+         if (current == null) {
+            future.setException(new IllegalStateException("operation " + selfLink + " no longer exists"));
+            anyFinished = true;
+         } else if (current.status() == Operation.Status.DONE || !current.error().errors().isEmpty()) {
+            logger.trace("<< operation(%s) finished", selfLink);
+            future.set(current);
+            anyFinished = true;
+         }
+      }
+      return anyFinished;
+   }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.googlecomputeengine.compute.strategy;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.googlecloud.domain.ForwardingListPage;
+import org.jclouds.googlecloud.domain.ListPage;
+import org.jclouds.googlecomputeengine.GoogleComputeEngineApi;
+import org.jclouds.googlecomputeengine.compute.functions.Resources;
+import org.jclouds.googlecomputeengine.domain.Operation;
+import org.jclouds.googlecomputeengine.features.AggregatedListApi;
+import org.jclouds.googlecomputeengine.options.ListOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Atomics;
+
+@Test(groups = "unit", testName = "OperationTrackerTest")
+public class OperationTrackerTest {
+
+   private static final String ZONE = "https://www.googleapis.com/compute/v1/projects/party/zones/us-central1-a";
+
+   private static Operation operation(String name, Operation.Status status, Operation.Error error) {
+      return Operation.create("1", null, URI.create(ZONE + "/operations/" + name), name, null,
+            URI.create(ZONE + "/instances/test-1"), null, null, status, null, null, null, new Date(), null, null, null,
+            null, "insert", error, null, null, URI.create(ZONE));
+   }
+
+   public void testSingleOperationIsFetchedDirectly() {
+      Operation running = operation("op1", Operation.Status.RUNNING, null);
+      Operation done = operation("op1", Operation.Status.DONE, null);
+      GoogleComputeEngineApi api = createMock(GoogleComputeEngineApi.class);
+      Resources resources = createMock(Resources.class);
+      expect(resources.operation(running.selfLink())).andReturn(running);
+      expect(resources.operation(running.selfLink())).andReturn(done);
+      replay(api, resources);
+
+      AtomicReference<Operation> ref = Atomics.newReference(running);
+      assertTrue(new OperationTracker(api, resources, 1).awaitDone(ref, 1000, MILLISECONDS));
+      assertEquals(ref.get(), done);
+      verify(api, resources);
+   }
+
+   public void testListsUnfinishedOperationsWhenSeveralArePending() {
+      Operation op1 = operation("op1", Operation.Status.RUNNING, null);
+      Operation op1Done = operation("op1", Operation.Status.DONE, null);
+      Operation op2 = operation("op2", Operation.Status.RUNNING, null);
+      GoogleComputeEngineApi api = createMock(GoogleComputeEngineApi.class);
+      AggregatedListApi aggregatedList = createMock(AggregatedListApi.class);
+      Resources resources = createMock(Resources.class);
+      ListPage<Operation> unfinished = ForwardingListPage.create(ImmutableList.of(op2), null);
+      expect(api.aggregatedList()).andReturn(aggregatedList);
+      expect(aggregatedList.globalOperations(isA(ListOptions.class)))
+            .andReturn(ImmutableList.of(unfinished).iterator());
+      // op2 is still listed as unfinished, so only op1 is fetched
+      expect(resources.operation(op1.selfLink())).andReturn(op1Done);
+      replay(api, aggregatedList, resources);
+
+      OperationTracker tracker = new OperationTracker(api, resources, 1);
+      tracker.track(op2);
+      AtomicReference<Operation> ref = Atomics.newReference(op1);
+      assertTrue(tracker.awaitDone(ref, 1000, MILLISECONDS));
+      assertEquals(ref.get(), op1Done);
+      verify(api, aggregatedList, resources);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testOperationEndedInError() {
+      Operation running = operation("op1", Operation.Status.RUNNING, null);
+      Operation failed = operation("op1", Operation.Status.DONE,
+            Operation.Error.create(ImmutableList.of(Operation.Error.Entry.create("QUOTA_EXCEEDED", null, null))));
+      GoogleComputeEngineApi api = createMock(GoogleComputeEngineApi.class);
+      Resources resources = createMock(Resources.class);
+      expect(resources.operation(running.selfLink())).andReturn(failed);
+      replay(api, resources);
+
+      new OperationTracker(api, resources, 1).awaitDone(Atomics.newReference(running), 1000, MILLISECONDS);
+   }
+
+   public void testTimeout() {
+      Operation running = operation("op1", Operation.Status.RUNNING, null);
+      GoogleComputeEngineApi api = createMock(GoogleComputeEngineApi.class);
+      Resources resources = createMock(Resources.class);
+      expect(resources.operation(running.selfLink())).andReturn(running).atLeastOnce();
+      replay(api, resources);
+
+      assertFalse(new OperationTracker(api, resources, 10).awaitDone(Atomics.newReference(running), 50, MILLISECONDS));
+      verify(api, resources);
+   }
+}
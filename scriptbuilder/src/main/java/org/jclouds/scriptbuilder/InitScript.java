@@ -31,7 +31,10 @@ import static org.jclouds.scriptbuilder.domain.Statements.kill;
 import static org.jclouds.scriptbuilder.domain.Statements.newStatementList;
 import static org.jclouds.scriptbuilder.domain.Statements.switchArg;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.jclouds.scriptbuilder.domain.AcceptsStatementVisitor;
 import org.jclouds.scriptbuilder.domain.CreateRunScript;
@@ -39,11 +42,16 @@ import org.jclouds.scriptbuilder.domain.OsFamily;
 import org.jclouds.scriptbuilder.domain.Statement;
 import org.jclouds.scriptbuilder.domain.StatementList;
 import org.jclouds.scriptbuilder.domain.StatementVisitor;
+import org.jclouds.scriptbuilder.functionloader.CurrentFunctionLoader;
 
+import com.google.common.base.Equivalence;
 import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ForwardingObject;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Creates an init script file
@@ -165,6 +173,41 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
 
    }
 
+   /**
+    * Stands in for the instance name in {@link #templates}.
+    */
+   private static final String INSTANCE_NAME_PLACEHOLDER = "jclouds_init_script_instance_name";
+
+   /**
+    * Names that are rendered verbatim, so that they can be substituted into a template.
+    */
+   private static final Pattern TEMPLATABLE_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+   /**
+    * Scripts rendered with a placeholder name, keyed by the function loader and everything else that goes into the
+    * rendering. The statements are keyed by identity, as they are shared by the init scripts of a node group, so that
+    * they are not rendered again to look up the template.
+    */
+   private static final Cache<List<Object>, Template> templates = CacheBuilder.newBuilder().maximumSize(64).build();
+
+   /**
+    * Discards the templates, so that init scripts are rendered again from their statements. Called when the
+    * {@link CurrentFunctionLoader} changes, and needed when a statement renders differently than it did before.
+    */
+   public static void invalidateTemplates() {
+      templates.invalidateAll();
+   }
+
+   private static final class Template {
+      private final String script;
+      private final Set<String> functions;
+
+      private Template(String script, Set<String> functions) {
+         this.script = script;
+         this.functions = functions;
+      }
+   }
+
    protected final String instanceName;
    protected final String instanceHome;
    protected final String logDir;
@@ -324,9 +367,48 @@ public class InitScript extends ForwardingObject implements Statement, AcceptsSt
       return delegate().functionDependencies(family);
    }
 
+   /**
+    * Renders the script from a template shared with the init scripts that differ only by their name, so that the
+    * functions and statements of a node group are rendered once, rather than once per node. An instance home ending
+    * with the instance name, such as the compute service uses, is shared as well.
+    * <p/>
+    * The template is found by the identity of the init and run statements, so a statement must render the same each
+    * time once it is first rendered. Statements which are completed before use, such as
+    * {@link org.jclouds.scriptbuilder.statements.login.AdminAccess}, must be initialized before the first render;
+    * statements that change afterwards must be replaced by a new instance, or the templates
+    * {@link #invalidateTemplates() invalidated}.
+    */
    @Override
    public String render(OsFamily family) {
-      return delegate().render(family);
+      if (!TEMPLATABLE_NAME.matcher(instanceName).matches() || instanceHome.contains(INSTANCE_NAME_PLACEHOLDER)
+            || logDir.contains(INSTANCE_NAME_PLACEHOLDER) || exports.toString().contains(INSTANCE_NAME_PLACEHOLDER))
+         return delegate().render(family);
+      String suffix = "/" + instanceName;
+      String templateHome = instanceHome.endsWith(suffix) ? instanceHome.substring(0, instanceHome.length()
+            - suffix.length() + 1) + INSTANCE_NAME_PLACEHOLDER : instanceHome;
+      List<Object> key = ImmutableList.<Object> of(Equivalence.identity().wrap(CurrentFunctionLoader.get()), family,
+            templateHome, logDir, exports, identities(init), identities(run));
+      Template template = templates.getIfPresent(key);
+      if (template == null) {
+         ScriptBuilder statement = makeInitScriptStatement(INSTANCE_NAME_PLACEHOLDER, templateHome, logDir, exports,
+               init, run);
+         ImmutableSet.Builder<String> functions = ImmutableSet.<String> builder().add("abort", "default");
+         for (Statement toRender : statement.statements)
+            functions.addAll(toRender.functionDependencies(family));
+         template = new Template(statement.render(family), functions.build());
+         templates.put(key, template);
+      }
+      // a name that is also a function of the script would be rendered differently
+      if (template.functions.contains(instanceName))
+         return delegate().render(family);
+      return template.script.replace(INSTANCE_NAME_PLACEHOLDER, instanceName);
+   }
+
+   private static List<Object> identities(StatementList statements) {
+      ImmutableList.Builder<Object> identities = ImmutableList.builder();
+      for (Statement statement : statements.delegate())
+         identities.add(Equivalence.identity().wrap(statement));
+      return identities.build();
    }
 
    @Override
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.scriptbuilder.functionloader;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jclouds.scriptbuilder.domain.OsFamily;
+import org.jclouds.scriptbuilder.functionloader.filters.LicenseHeaderFilter;
+
+import com.google.common.collect.Maps;
+
+/**
+ * FunctionLoader decorator that loads each function once per {@link OsFamily}, with its license header filtered out.
+ * Functions that are not found are not remembered, so they are looked up again on the next call.
+ */
+public class CachingFunctionLoader implements FunctionLoader {
+
+   private final FunctionLoader delegate;
+   private final FunctionLoader filter;
+   private final Map<OsFamily, ConcurrentMap<String, String>> functions = Maps.newEnumMap(OsFamily.class);
+
+   public CachingFunctionLoader(FunctionLoader delegate) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.filter = new LicenseHeaderFilter(delegate);
+      for (OsFamily family : OsFamily.values())
+         functions.put(family, Maps.<String, String> newConcurrentMap());
+   }
+
+   @Override
+   public String loadFunction(String function, OsFamily family) throws FunctionNotFoundException {
+      ConcurrentMap<String, String> loaded = functions.get(checkNotNull(family, "family"));
+      String source = loaded.get(checkNotNull(function, "function"));
+      if (source == null) {
+         source = filter.loadFunction(function, family);
+         String raced = loaded.putIfAbsent(function, source);
+         if (raced != null)
+            source = raced;
+      }
+      return source;
+   }
+
+   /**
+    * @return the loader functions are read from on a cache miss
+    */
+   public FunctionLoader getDelegate() {
+      return delegate;
+   }
+}
@@ -18,29 +18,35 @@ package org.jclouds.scriptbuilder.functionloader;
 
 import java.util.concurrent.atomic.AtomicReference;
 
-import org.jclouds.scriptbuilder.functionloader.filters.LicenseHeaderFilter;
+import org.jclouds.scriptbuilder.InitScript;
 
 import com.google.common.util.concurrent.Atomics;
 
 /**
  * Means to access the current {@link FunctionLoader} instance;
+ * <p/>
+ * Functions are read once per {@link org.jclouds.scriptbuilder.domain.OsFamily} and kept until the loader is
+ * {@link #set(FunctionLoader) replaced} or {@link #reset() reset}, which also discards the
+ * {@link InitScript#invalidateTemplates() init script templates}.
  */
 public class CurrentFunctionLoader {
 
-   private static final AtomicReference<FunctionLoader> ref = Atomics.<FunctionLoader>newReference(
-            BasicFunctionLoader.INSTANCE);
+   private static final AtomicReference<CachingFunctionLoader> ref = Atomics
+            .<CachingFunctionLoader> newReference(new CachingFunctionLoader(BasicFunctionLoader.INSTANCE));
 
    public static FunctionLoader get() {
-      // Filter out license headers in function scripts
-      return new LicenseHeaderFilter(ref.get());
+      // Filters out license headers in function scripts
+      return ref.get();
    }
 
    public static FunctionLoader set(FunctionLoader loader) {
-      return ref.getAndSet(loader);
+      FunctionLoader previous = ref.getAndSet(new CachingFunctionLoader(loader)).getDelegate();
+      InitScript.invalidateTemplates();
+      return previous;
    }
 
    public static FunctionLoader reset() {
-      return ref.getAndSet(BasicFunctionLoader.INSTANCE);
+      return set(BasicFunctionLoader.INSTANCE);
    }
 
 }
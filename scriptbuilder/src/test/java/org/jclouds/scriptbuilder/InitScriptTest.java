@@ -21,12 +21,16 @@ import static org.jclouds.scriptbuilder.domain.Statements.call;
 import static org.jclouds.scriptbuilder.domain.Statements.exec;
 import static org.jclouds.scriptbuilder.domain.Statements.interpret;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.MalformedURLException;
 
 import org.jclouds.scriptbuilder.domain.OsFamily;
 import org.jclouds.scriptbuilder.domain.ShellToken;
+import org.jclouds.scriptbuilder.domain.Statement;
+import org.jclouds.scriptbuilder.domain.StatementList;
+import org.jclouds.scriptbuilder.functionloader.CurrentFunctionLoader;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Charsets;
@@ -93,4 +97,67 @@ public class InitScriptTest {
             Resources.toString(Resources.getResource("test_init_script." + ShellToken.SH.to(OsFamily.UNIX)), Charsets.UTF_8));
    }
 
+   private static String renderWithoutTemplate(InitScript script, Statement run) {
+      return InitScript.makeInitScriptStatement(script.getInstanceName(), script.getInstanceHome(), script.getLogDir(),
+            ImmutableMap.<String, String> of(), new StatementList(), new StatementList(run)).render(OsFamily.UNIX);
+   }
+
+   @Test
+   public void testNodesOfAGroupShareATemplate() {
+      Statement run = exec("find /");
+      for (String name : ImmutableList.of("jclouds-script-1", "jclouds-script-2")) {
+         InitScript script = InitScript.builder().name(name).home("/tmp/" + name).run(run).build();
+         assertEquals(script.render(OsFamily.UNIX), renderWithoutTemplate(script, run));
+      }
+   }
+
+   private static class CountingStatement implements Statement {
+      private int renders;
+
+      @Override
+      public Iterable<String> functionDependencies(OsFamily family) {
+         return ImmutableList.of();
+      }
+
+      @Override
+      public String render(OsFamily family) {
+         renders++;
+         return "echo counting" + ShellToken.LF.to(family);
+      }
+   }
+
+   @Test
+   public void testStatementsAreRenderedOncePerGroup() {
+      CountingStatement run = new CountingStatement();
+      InitScript.builder().name("counting-1").home("/tmp/counting-1").run(run).build().render(OsFamily.UNIX);
+      assertEquals(run.renders, 1);
+
+      String rendered = InitScript.builder().name("counting-2").home("/tmp/counting-2").run(run).build()
+            .render(OsFamily.UNIX);
+      assertEquals(run.renders, 1);
+      assertTrue(rendered.contains("counting-2"), rendered);
+      assertTrue(rendered.contains("echo counting"), rendered);
+   }
+
+   @Test
+   public void testChangingTheFunctionLoaderDiscardsTemplates() {
+      CountingStatement run = new CountingStatement();
+      InitScript.builder().name("loader-1").home("/tmp/loader-1").run(run).build().render(OsFamily.UNIX);
+      assertEquals(run.renders, 1);
+
+      // installs a new loader, which may load different functions
+      CurrentFunctionLoader.reset();
+      InitScript.builder().name("loader-2").home("/tmp/loader-2").run(run).build().render(OsFamily.UNIX);
+      assertEquals(run.renders, 2);
+   }
+
+   @Test
+   public void testNameOfAFunctionIsNotSubstituted() {
+      Statement run = call("sourceEnvFile", "foo");
+      InitScript.builder().name("anything").home("/tmp/anything").run(run).build().render(OsFamily.UNIX);
+
+      InitScript script = InitScript.builder().name("sourceEnvFile").home("/tmp/sourceEnvFile").run(run).build();
+      assertEquals(script.render(OsFamily.UNIX), renderWithoutTemplate(script, run));
+   }
+
 }
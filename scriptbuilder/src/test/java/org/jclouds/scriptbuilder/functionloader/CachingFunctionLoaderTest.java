@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.scriptbuilder.functionloader;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.scriptbuilder.domain.OsFamily;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "CachingFunctionLoaderTest")
+public class CachingFunctionLoaderTest {
+
+   private static class CountingFunctionLoader implements FunctionLoader {
+      private final AtomicInteger loads = new AtomicInteger();
+
+      @Override
+      public String loadFunction(String function, OsFamily family) throws FunctionNotFoundException {
+         loads.incrementAndGet();
+         if (function.equals("missing"))
+            throw new FunctionNotFoundException(function, family);
+         return "# Licensed to the Apache Software Foundation\n# limitations under the License.\necho " + function
+               + " " + family + "\n";
+      }
+   }
+
+   public void testLoadsOncePerFamily() {
+      CountingFunctionLoader counting = new CountingFunctionLoader();
+      FunctionLoader loader = new CachingFunctionLoader(counting);
+
+      assertEquals(loader.loadFunction("hello", OsFamily.UNIX), "echo hello UNIX\n");
+      assertEquals(loader.loadFunction("hello", OsFamily.UNIX), "echo hello UNIX\n");
+      assertEquals(counting.loads.get(), 1);
+
+      loader.loadFunction("hello", OsFamily.WINDOWS);
+      assertEquals(counting.loads.get(), 2);
+   }
+
+   public void testMissingFunctionsAreLookedUpAgain() {
+      CountingFunctionLoader counting = new CountingFunctionLoader();
+      FunctionLoader loader = new CachingFunctionLoader(counting);
+      for (int i = 0; i < 2; i++) {
+         try {
+            loader.loadFunction("missing", OsFamily.UNIX);
+         } catch (FunctionNotFoundException expected) {
+         }
+      }
+      assertEquals(counting.loads.get(), 2);
+   }
+
+   public void testSetReplacesTheCache() {
+      final AtomicInteger loads = new AtomicInteger();
+      // loads the same functions as usual, as other tests may render scripts meanwhile
+      FunctionLoader counting = new FunctionLoader() {
+         @Override
+         public String loadFunction(String function, OsFamily family) throws FunctionNotFoundException {
+            if (function.equals("abort"))
+               loads.incrementAndGet();
+            return BasicFunctionLoader.INSTANCE.loadFunction(function, family);
+         }
+      };
+      FunctionLoader previous = CurrentFunctionLoader.set(counting);
+      try {
+         CurrentFunctionLoader.get().loadFunction("abort", OsFamily.UNIX);
+         CurrentFunctionLoader.get().loadFunction("abort", OsFamily.UNIX);
+         assertEquals(loads.get(), 1);
+      } finally {
+         assertEquals(CurrentFunctionLoader.set(previous), counting);
+      }
+   }
+}